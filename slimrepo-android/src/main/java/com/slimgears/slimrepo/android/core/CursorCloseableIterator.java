@@ -5,17 +5,17 @@ import android.database.Cursor;
 import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
 
 import java.io.IOException;
+import java.util.NoSuchElementException;
 
 /**
  * Created by Denis on 19-May-15.
  */
 public abstract class CursorCloseableIterator<T> implements CloseableIterator<T> {
     protected final Cursor cursor;
-    private boolean needsMove = false;
+    private int count = -1;
 
     protected CursorCloseableIterator(Cursor cursor) {
         this.cursor = cursor;
-        cursor.moveToFirst();
     }
 
     @Override
@@ -25,13 +25,14 @@ public abstract class CursorCloseableIterator<T> implements CloseableIterator<T>
 
     @Override
     public boolean hasNext() {
-        return !((needsMove && cursor.isLast()) || cursor.isAfterLast());
+        if (count < 0) count = cursor.getCount();
+        return cursor.getPosition() + 1 < count;
     }
 
     @Override
     public T next() {
-        if (needsMove) cursor.moveToNext();
-        needsMove = true;
+        if (!hasNext()) throw new NoSuchElementException();
+        cursor.moveToNext();
         return getItem(cursor);
     }
 
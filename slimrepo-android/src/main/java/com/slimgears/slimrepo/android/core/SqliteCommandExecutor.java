@@ -85,6 +85,21 @@ public class SqliteCommandExecutor implements SqlCommandExecutor {
         }
     }
 
+    class CursorValuesAdapter extends CursorCloseableIterator<String[]> {
+        public CursorValuesAdapter(Cursor cursor) {
+            super(cursor);
+        }
+
+        @Override
+        protected String[] getItem(Cursor cursor) {
+            String[] values = new String[cursor.getColumnCount()];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = cursor.getString(i);
+            }
+            return values;
+        }
+    }
+
     public SqliteCommandExecutor(SQLiteDatabase sqliteDatabase, SqlSessionServiceProvider sessionServiceProvider) {
         database = sqliteDatabase;
         SqlOrmServiceProvider serviceProvider = sessionServiceProvider.getOrmServiceProvider();
@@ -107,4 +122,10 @@ public class SqliteCommandExecutor implements SqlCommandExecutor {
     public void execute(String statement, String... params) throws IOException {
         database.execSQL(statement, params);
     }
+
+    @Override
+    public CloseableIterator<String[]> selectValues(String statement, String... params) throws IOException {
+        @SuppressLint("Recycle") Cursor cursor = database.rawQuery(statement, params);
+        return new CursorValuesAdapter(cursor);
+    }
 }
@@ -9,6 +9,7 @@ import android.util.Log;
 import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMappingRegistrar;
 import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
 import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.SqlQueryPlanDiagnostics;
 import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
 
 import java.io.Closeable;
@@ -63,6 +64,12 @@ public class SqliteOrmServiceProvider extends AbstractSqliteOrmServiceProvider {
         }
     }
 
+    public void enableQueryPlanDiagnostics() {
+        setQueryPlanDiagnostics(new SqlQueryPlanDiagnostics(plan -> {
+            if (plan.isSuspicious()) Log.w(TAG, "Inefficient query plan for " + plan);
+        }));
+    }
+
     @Override
     public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
         final OrmHelper helper = new OrmHelper(model);
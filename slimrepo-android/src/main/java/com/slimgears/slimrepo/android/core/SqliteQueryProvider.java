@@ -70,9 +70,11 @@ public class SqliteQueryProvider<TKey, TEntity> extends SqlQueryProvider<TKey, T
         this.fieldTypeMapper = serviceProvider.getOrmServiceProvider().getFieldTypeMapper();
     }
 
+    // Generated keys can only be read back per row, so only auto-incremented entities bypass the batched insert
     @SuppressWarnings("unchecked")
     @Override
     public PreparedQuery<Void> prepareInsert(final Collection<TEntity> entitites) {
+        if (!entityType.getKeyField().metaInfo().isAutoIncremented()) return super.prepareInsert(entitites);
         return () -> {
             String tableName = serviceProvider.getOrmServiceProvider().getSyntaxProvider().tableName(entityType);
             EntityCache<TKey, TEntity> cache = entityServiceProvider.getEntityCache();
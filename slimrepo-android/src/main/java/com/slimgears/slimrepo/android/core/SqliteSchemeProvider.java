@@ -24,7 +24,7 @@ public class SqliteSchemeProvider extends AbstractSqlSchemeProvider {
     private final static Set<String> IGNORED_TABLES = new HashSet<>(Collections.singletonList("android_metadata"));
     private final static Map<String, Object> DEFAULT_VALUES = new HashMap<>();
 
-    private final static String SQL_GET_TABLE_NAMES = "SELECT `name` FROM `sqlite_master`";
+    private final static String SQL_GET_TABLE_NAMES = "SELECT `name` FROM `sqlite_master` WHERE `type` = 'table'";
     private final static String SQL_GET_FOREIGN_KEY_LIST = "PRAGMA foreign_key_list(`%s`)";
     private final static String SQL_GET_TABLE_SCHEME = "PRAGMA table_info(`%s`)";
 
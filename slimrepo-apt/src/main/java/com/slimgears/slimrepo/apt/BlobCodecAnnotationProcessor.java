@@ -0,0 +1,19 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.apt;
+
+import com.slimgears.slimapt.AnnotationProcessorBase;
+
+import java.io.IOException;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.element.TypeElement;
+
+@SupportedAnnotationTypes("com.slimgears.slimrepo.core.annotations.GenerateBlobCodec")
+public class BlobCodecAnnotationProcessor extends AnnotationProcessorBase {
+    @Override
+    protected boolean processType(TypeElement typeElement) throws IOException {
+        new BlobCodecGenerator(processingEnv, typeElement).build();
+        return true;
+    }
+}
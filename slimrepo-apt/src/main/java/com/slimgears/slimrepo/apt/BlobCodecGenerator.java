@@ -0,0 +1,217 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.apt;
+
+import com.annimon.stream.Collectors;
+import com.annimon.stream.Stream;
+import com.slimgears.slimapt.ClassGenerator;
+import com.slimgears.slimapt.PropertyFinder;
+import com.slimgears.slimapt.PropertyInfo;
+import com.slimgears.slimapt.TypeUtils;
+import com.slimgears.slimrepo.core.annotations.GenerateBlobCodec;
+import com.slimgears.slimrepo.core.internal.converters.BlobCodecTypeConverter;
+import com.slimgears.slimrepo.core.internal.converters.BlobCodecs;
+import com.slimgears.slimrepo.core.internal.interfaces.BlobCodec;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMappingInstaller;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMappingRegistrar;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Generated;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+
+public class BlobCodecGenerator extends ClassGenerator<BlobCodecGenerator> {
+    private static final Map<TypeName, TypeName> UNBOXED_TYPES = new HashMap<>();
+    private static final Map<TypeName, String> DATA_METHOD_SUFFIXES = new HashMap<>();
+    private static final TypeName STRING_TYPE = ClassName.get(String.class);
+    private static final TypeName DATE_TYPE = ClassName.get(Date.class);
+    private static final TypeName BYTES_TYPE = ArrayTypeName.of(TypeName.BYTE);
+
+    static {
+        UNBOXED_TYPES.put(ClassName.get(Boolean.class), TypeName.BOOLEAN);
+        UNBOXED_TYPES.put(ClassName.get(Byte.class), TypeName.BYTE);
+        UNBOXED_TYPES.put(ClassName.get(Short.class), TypeName.SHORT);
+        UNBOXED_TYPES.put(ClassName.get(Integer.class), TypeName.INT);
+        UNBOXED_TYPES.put(ClassName.get(Long.class), TypeName.LONG);
+        UNBOXED_TYPES.put(ClassName.get(Character.class), TypeName.CHAR);
+        UNBOXED_TYPES.put(ClassName.get(Float.class), TypeName.FLOAT);
+        UNBOXED_TYPES.put(ClassName.get(Double.class), TypeName.DOUBLE);
+
+        DATA_METHOD_SUFFIXES.put(TypeName.BOOLEAN, "Boolean");
+        DATA_METHOD_SUFFIXES.put(TypeName.CHAR, "Char");
+        DATA_METHOD_SUFFIXES.put(TypeName.FLOAT, "Float");
+        DATA_METHOD_SUFFIXES.put(TypeName.DOUBLE, "Double");
+    }
+
+    private final TypeElement valueTypeElement;
+
+    public BlobCodecGenerator(ProcessingEnvironment processingEnvironment, TypeElement valueTypeElement) {
+        super(processingEnvironment);
+        this.valueTypeElement = valueTypeElement;
+        className(generatedBlobCodecClassName(TypeName.get(valueTypeElement.asType())));
+    }
+
+    public static ClassName generatedBlobCodecClassName(TypeName valueType) {
+        return ClassName.get(TypeUtils.packageName(valueType.toString()), TypeUtils.simpleName(valueType.toString()).concat("BlobCodec"));
+    }
+
+    @Override
+    protected void build(TypeSpec.Builder builder, TypeElement type, TypeElement... interfaces) {
+        PropertyFinder propertyFinder = new PropertyFinder(getElementUtils());
+        valueTypeElement.accept(propertyFinder, null);
+        TypeName valueTypeName = TypeUtils.getTypeName(valueTypeElement.asType());
+        List<PropertyInfo> properties = Stream.of(propertyFinder.getProperties())
+                .map(PropertyInfo.class::cast)
+                .collect(Collectors.toList());
+
+        MethodSpec.Builder encodeBuilder = MethodSpec.methodBuilder("encode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(valueTypeName, "value")
+                .addParameter(DataOutput.class, "output")
+                .addException(IOException.class)
+                .addStatement("$T.writeVarInt(output, $L)", BlobCodecs.class, properties.size());
+
+        MethodSpec.Builder decodeBuilder = MethodSpec.methodBuilder("decode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(valueTypeName)
+                .addParameter(DataInput.class, "input")
+                .addException(IOException.class)
+                .addStatement("$T value = new $T()", valueTypeName, valueTypeName)
+                .addStatement("int count = $T.readVarInt(input)", BlobCodecs.class);
+
+        // Properties are written in declaration order, so values encoded before a property was appended still decode
+        for (int i = 0; i < properties.size(); ++i) {
+            PropertyInfo prop = properties.get(i);
+            addEncodeStatements(encodeBuilder, prop);
+            decodeBuilder.beginControlFlow("if (count > $L)", i);
+            addDecodeStatements(decodeBuilder, prop);
+            decodeBuilder.endControlFlow();
+        }
+        decodeBuilder.addStatement("return value");
+
+        builder
+                .addAnnotation(AnnotationSpec
+                        .builder(Generated.class)
+                        .addMember("value", "\"" + valueTypeName.toString() + "\"")
+                        .addMember("comments", "\"Blob codec generated from " + valueTypeName.toString() + "\"")
+                        .build())
+                .addModifiers(Modifier.PUBLIC)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(BlobCodec.class), valueTypeName))
+                .addSuperinterface(FieldTypeMappingInstaller.class)
+                .addField(FieldSpec
+                        .builder(getTypeName(), "INSTANCE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T()", getTypeName())
+                        .build())
+                .addMethod(encodeBuilder.build())
+                .addMethod(decodeBuilder.build())
+                .addMethod(MethodSpec.methodBuilder("install")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(FieldTypeMappingRegistrar.class, "registrar")
+                        .addStatement("new $T<>($T.class, this).install(registrar)", BlobCodecTypeConverter.class, valueTypeName)
+                        .build());
+    }
+
+    private void addEncodeStatements(MethodSpec.Builder builder, PropertyInfo prop) {
+        TypeName type = prop.getType();
+        String getter = prop.getGetterName();
+        TypeName primitiveType = UNBOXED_TYPES.get(type);
+
+        if (type.isPrimitive()) {
+            addPrimitiveEncodeStatement(builder, type, getter);
+        } else if (primitiveType != null) {
+            builder.addStatement("output.writeBoolean(value.$L() != null)", getter);
+            builder.beginControlFlow("if (value.$L() != null)", getter);
+            addPrimitiveEncodeStatement(builder, primitiveType, getter);
+            builder.endControlFlow();
+        } else if (type.equals(STRING_TYPE)) {
+            builder.addStatement("$T.writeString(output, value.$L())", BlobCodecs.class, getter);
+        } else if (type.equals(BYTES_TYPE)) {
+            builder.addStatement("$T.writeBytes(output, value.$L())", BlobCodecs.class, getter);
+        } else if (type.equals(DATE_TYPE)) {
+            builder.addStatement("$T.writeDate(output, value.$L())", BlobCodecs.class, getter);
+        } else if (isEnum(type)) {
+            builder.addStatement("$T.writeEnum(output, value.$L())", BlobCodecs.class, getter);
+        } else if (hasGeneratedCodec(type)) {
+            builder.addStatement("$T.writeObject(output, $T.INSTANCE, value.$L())", BlobCodecs.class, generatedBlobCodecClassName(type), getter);
+        } else {
+            builder.addStatement("$T.writeSerializable(output, value.$L())", BlobCodecs.class, getter);
+        }
+    }
+
+    private void addDecodeStatements(MethodSpec.Builder builder, PropertyInfo prop) {
+        TypeName type = prop.getType();
+        String setter = prop.getSetterName();
+        TypeName primitiveType = UNBOXED_TYPES.get(type);
+
+        if (type.isPrimitive()) {
+            addPrimitiveDecodeStatement(builder, type, setter);
+        } else if (primitiveType != null) {
+            builder.beginControlFlow("if (input.readBoolean())");
+            addPrimitiveDecodeStatement(builder, primitiveType, setter);
+            builder.endControlFlow();
+        } else if (type.equals(STRING_TYPE)) {
+            builder.addStatement("value.$L($T.readString(input))", setter, BlobCodecs.class);
+        } else if (type.equals(BYTES_TYPE)) {
+            builder.addStatement("value.$L($T.readBytes(input))", setter, BlobCodecs.class);
+        } else if (type.equals(DATE_TYPE)) {
+            builder.addStatement("value.$L($T.readDate(input))", setter, BlobCodecs.class);
+        } else if (isEnum(type)) {
+            builder.addStatement("value.$L($T.readEnum(input, $T.class))", setter, BlobCodecs.class, type);
+        } else if (hasGeneratedCodec(type)) {
+            builder.addStatement("value.$L($T.readObject(input, $T.INSTANCE))", setter, BlobCodecs.class, generatedBlobCodecClassName(type));
+        } else {
+            builder.addStatement("value.$L($T.readSerializable(input, $T.class))", setter, BlobCodecs.class, rawType(type));
+        }
+    }
+
+    private void addPrimitiveEncodeStatement(MethodSpec.Builder builder, TypeName type, String getter) {
+        String suffix = DATA_METHOD_SUFFIXES.get(type);
+        if (suffix != null) builder.addStatement("output.write$L(value.$L())", suffix, getter);
+        else builder.addStatement("$T.writeVarLong(output, value.$L())", BlobCodecs.class, getter);
+    }
+
+    private void addPrimitiveDecodeStatement(MethodSpec.Builder builder, TypeName type, String setter) {
+        String suffix = DATA_METHOD_SUFFIXES.get(type);
+        if (suffix != null) builder.addStatement("value.$L(input.read$L())", setter, suffix);
+        else if (type.equals(TypeName.LONG)) builder.addStatement("value.$L($T.readVarLong(input))", setter, BlobCodecs.class);
+        else builder.addStatement("value.$L(($T)$T.readVarLong(input))", setter, type, BlobCodecs.class);
+    }
+
+    private boolean isEnum(TypeName type) {
+        TypeElement typeElement = getTypeElement(type);
+        return typeElement != null && typeElement.getKind() == ElementKind.ENUM;
+    }
+
+    private boolean hasGeneratedCodec(TypeName type) {
+        TypeElement typeElement = getTypeElement(type);
+        return typeElement != null && typeElement.getAnnotation(GenerateBlobCodec.class) != null;
+    }
+
+    private TypeElement getTypeElement(TypeName type) {
+        return getElementUtils().getTypeElement(rawType(type).toString());
+    }
+
+    private static TypeName rawType(TypeName type) {
+        return (type instanceof ParameterizedTypeName) ? ((ParameterizedTypeName)type).rawType : type;
+    }
+}
@@ -11,6 +11,7 @@ import com.slimgears.slimrepo.core.annotations.*;
 import com.slimgears.slimrepo.core.interfaces.fields.*;
 import com.slimgears.slimrepo.core.internal.AbstractEntityType;
 import com.slimgears.slimrepo.core.internal.Fields;
+import com.slimgears.slimrepo.core.internal.KeyGenerators;
 import com.squareup.javapoet.*;
 
 import javax.lang.model.element.ElementKind;
@@ -161,6 +162,7 @@ public class MetaFields {
         META_FIELD_BUILDER_MAP.put(TypeName.BOOLEAN, ValueMetaFieldBuilder.INSTANCE);
         META_FIELD_BUILDER_MAP.put(TypeName.get(Date.class), ComparableMetaFieldBuilder.INSTANCE);
         META_FIELD_BUILDER_MAP.put(TypeName.get(String.class), StringMetaFieldBuilder.INSTANCE);
+        META_FIELD_BUILDER_MAP.put(TypeName.get(UUID.class), ValueMetaFieldBuilder.INSTANCE);
     }
 
     private static TypeUtils.AnnotationTypesGetter<ComparableSemantics> TYPES_FROM_COMPARABLE_SEMANTICS = ComparableSemantics::value;
@@ -171,7 +173,21 @@ public class MetaFields {
         public FieldSpec build(TypeName entityType, PropertyInfo prop) {
             TypeName type = metaFieldType(entityType, TypeUtils.box(prop.getType()));
             FieldSpec.Builder builder = FieldSpec.builder(type, getMetaFieldName(prop.getName()), Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL);
-            return initialize(entityType, builder, prop).build();
+            FieldSpec field = initialize(entityType, builder, prop).build();
+
+            Key key = prop.getAnnotation(Key.class);
+            if (key != null && key.timeOrdered()) {
+                field = FieldSpec.builder(type, field.name, Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL)
+                        .initializer("$T.withKeyGenerator($L, $T.timeOrdered($T.class))", Fields.class, field.initializer, KeyGenerators.class, TypeUtils.box(prop.getType()))
+                        .build();
+            }
+
+            if (prop.getAnnotation(Version.class) != null) {
+                field = FieldSpec.builder(type, field.name, Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL)
+                        .initializer("$T.asVersion($L)", Fields.class, field.initializer)
+                        .build();
+            }
+            return field;
         }
 
         protected abstract TypeName metaFieldType(TypeName entityType, TypeName fieldType);
@@ -242,12 +258,15 @@ public class MetaFields {
 
         @Override
         protected FieldSpec.Builder initialize(TypeName entityType, FieldSpec.Builder builder, PropertyInfo prop) {
+            boolean fullTextSearch = prop.getAnnotation(FullTextSearch.class) != null;
+            boolean compressed = prop.getAnnotation(Compressed.class) != null;
             return builder.initializer(
                     "$T.stringField(" +
                             "\n    $S," +
                             "\n    new $T<$T, $T>() { @Override public $T getValue($T entity) { return entity.$L(); } }," +
                             "\n    new $T<$T, $T>() { @Override public void setValue($T entity, $T value) { entity.$L(value); } }," +
-                            "\n    $L)",
+                            "\n    $L" +
+                            (compressed ? ",\n    " + fullTextSearch + ",\n    true)" : fullTextSearch ? ",\n    true)" : ")"),
                     Fields.class,
                     prop.getName(),
                     ValueGetter.class, entityType, String.class, String.class, entityType, prop.getGetterName(),
@@ -267,13 +286,15 @@ public class MetaFields {
         @Override
         protected FieldSpec.Builder initialize(TypeName entityType, FieldSpec.Builder builder, PropertyInfo prop) {
             TypeName fieldType = TypeUtils.box(prop.getType());
+            boolean compressed = prop.getAnnotation(Compressed.class) != null;
             return builder.initializer(
                     "$T.blobField(" +
                             "\n    $S," +
                             "\n    $T.class," +
                             "\n    new $T<$T, $T>() { @Override public $T getValue($T entity) { return entity.$L(); } }," +
                             "\n    new $T<$T, $T>() { @Override public void setValue($T entity, $T value) { entity.$L(value); } }," +
-                            "\n    $L)",
+                            "\n    $L" +
+                            (compressed ? ",\n    true)" : ")"),
                     Fields.class,
                     prop.getName(),
                     prop.getType(),
@@ -0,0 +1,54 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks;
+
+import com.slimgears.slimrepo.benchmarks.jdbc.JdbcSqliteOrmServiceProvider;
+import com.slimgears.slimrepo.benchmarks.mock.MockSqliteOrmServiceProvider;
+import com.slimgears.slimrepo.benchmarks.model.AccountStatus;
+import com.slimgears.slimrepo.benchmarks.model.UserEntity;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.internal.EntityFieldValueMap;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class BenchmarkData {
+    static final String MOCK_BACKEND = "mock";
+    static final String SQLITE_BACKEND = "sqlite";
+
+    static AbstractSqliteOrmServiceProvider createServiceProvider(String backend, int rowCount) throws SQLException {
+        if (MOCK_BACKEND.equals(backend)) return new MockSqliteOrmServiceProvider(rows(rowCount));
+        if (SQLITE_BACKEND.equals(backend)) return JdbcSqliteOrmServiceProvider.inMemory();
+        throw new IllegalArgumentException("Unknown backend: " + backend);
+    }
+
+    static List<UserEntity> users(int offset, int count) {
+        List<UserEntity> users = new ArrayList<>(count);
+        for (int i = offset; i < offset + count; ++i) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    static UserEntity user(int index) {
+        return UserEntity.builder()
+                .userId("user-" + index)
+                .userFirstName("First" + index)
+                .userLastName("Last" + index)
+                .lastVisitDate(new Date(1444000000000L + index))
+                .accountStatus(AccountStatus.values()[index % AccountStatus.values().length])
+                .age(20 + index % 50)
+                .build();
+    }
+
+    static List<FieldValueLookup<UserEntity>> rows(int count) {
+        List<FieldValueLookup<UserEntity>> rows = new ArrayList<>(count);
+        for (UserEntity user : users(0, count)) {
+            rows.add(new EntityFieldValueMap<>(UserEntity.EntityMetaType, user));
+        }
+        return rows;
+    }
+}
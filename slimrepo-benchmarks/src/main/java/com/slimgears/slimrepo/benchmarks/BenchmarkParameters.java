@@ -0,0 +1,39 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks;
+
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommand;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class BenchmarkParameters implements SqlCommand.Parameters {
+    private final List<String> values = new ArrayList<>();
+
+    @Override
+    public String add(String parameter) {
+        values.add(parameter);
+        return "@p" + values.size();
+    }
+
+    @Override
+    public int getCount() {
+        return values.size();
+    }
+
+    @Override
+    public Map<String, String> getMap() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < values.size(); ++i) {
+            map.put("@p" + (i + 1), values.get(i));
+        }
+        return map;
+    }
+
+    @Override
+    public String[] getValues() {
+        return values.toArray(new String[values.size()]);
+    }
+}
@@ -0,0 +1,66 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks;
+
+import com.slimgears.slimrepo.benchmarks.model.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.benchmarks.model.UserEntity;
+import com.slimgears.slimrepo.benchmarks.model.UserRepository;
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityMaterializationBenchmark {
+    @Param({BenchmarkData.MOCK_BACKEND, BenchmarkData.SQLITE_BACKEND})
+    public String backend;
+
+    @Param({"1000"})
+    public int rowCount;
+
+    private List<FieldValueLookup<UserEntity>> rows;
+    private RepositoryService<UserRepository> repositoryService;
+
+    @Setup
+    public void setup() throws SQLException, IOException {
+        rows = BenchmarkData.rows(rowCount);
+        AbstractSqliteOrmServiceProvider serviceProvider = BenchmarkData.createServiceProvider(backend, rowCount);
+        repositoryService = new GeneratedUserRepositoryService(serviceProvider);
+        if (BenchmarkData.SQLITE_BACKEND.equals(backend)) {
+            repositoryService.update(repository -> repository.users().addAll(BenchmarkData.users(0, rowCount)));
+        }
+    }
+
+    @Benchmark
+    public void newInstance(Blackhole blackhole) {
+        for (FieldValueLookup<UserEntity> row : rows) {
+            blackhole.consume(UserEntity.EntityMetaType.newInstance(row));
+        }
+    }
+
+    @Benchmark
+    public List<UserEntity> decodeRows() throws IOException {
+        return repositoryService.query(repository -> repository.users().toList());
+    }
+}
@@ -0,0 +1,83 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks;
+
+import com.slimgears.slimrepo.benchmarks.model.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.benchmarks.model.UserEntity;
+import com.slimgears.slimrepo.benchmarks.model.UserRepository;
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+    private static final int SEEDED_ROW_COUNT = 1000;
+
+    @Param({BenchmarkData.MOCK_BACKEND, BenchmarkData.SQLITE_BACKEND})
+    public String backend;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private AbstractSqliteOrmServiceProvider serviceProvider;
+    private RepositoryService<UserRepository> repositoryService;
+    private int nextUserIndex;
+
+    @Setup(Level.Iteration)
+    public void setup() throws SQLException, IOException {
+        serviceProvider = BenchmarkData.createServiceProvider(backend, 0);
+        repositoryService = new GeneratedUserRepositoryService(serviceProvider);
+        repositoryService.update(repository -> repository.users().addAll(BenchmarkData.users(0, SEEDED_ROW_COUNT)));
+        nextUserIndex = SEEDED_ROW_COUNT;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (serviceProvider instanceof Closeable) ((Closeable)serviceProvider).close();
+    }
+
+    @Benchmark
+    public void insertSingle() throws IOException {
+        UserEntity user = BenchmarkData.user(nextUserIndex++);
+        repositoryService.update(repository -> repository.users().add(user));
+    }
+
+    @Benchmark
+    public void insertBatch() throws IOException {
+        int offset = nextUserIndex;
+        nextUserIndex += batchSize;
+        repositoryService.update(repository -> repository.users().addAll(BenchmarkData.users(offset, batchSize)));
+    }
+
+    @Benchmark
+    public void updateByKey() throws IOException {
+        String userId = "user-" + (nextUserIndex++ % SEEDED_ROW_COUNT);
+        repositoryService.update(repository -> repository.users().updateQuery()
+                .where(UserEntity.UserId.eq(userId))
+                .set(UserEntity.UserLastName, "Updated")
+                .prepare()
+                .execute());
+    }
+}
@@ -0,0 +1,79 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks;
+
+import com.slimgears.slimrepo.benchmarks.model.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.benchmarks.model.UserEntity;
+import com.slimgears.slimrepo.benchmarks.model.UserRepository;
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the unit-of-work flush alone: the pending changes are staged outside of the measured region
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = 1)
+@Measurement(iterations = 50, batchSize = 1)
+@Fork(1)
+public class SaveChangesBenchmark {
+    @Param({BenchmarkData.MOCK_BACKEND, BenchmarkData.SQLITE_BACKEND})
+    public String backend;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private AbstractSqliteOrmServiceProvider serviceProvider;
+    private RepositoryService<UserRepository> repositoryService;
+    private UserRepository repository;
+    private int nextUserIndex;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        serviceProvider = BenchmarkData.createServiceProvider(backend, 0);
+        repositoryService = new GeneratedUserRepositoryService(serviceProvider);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (serviceProvider instanceof Closeable) ((Closeable)serviceProvider).close();
+    }
+
+    @Setup(Level.Iteration)
+    public void stageChanges() throws IOException {
+        List<UserEntity> users = BenchmarkData.users(nextUserIndex, batchSize);
+        nextUserIndex += batchSize;
+        repository = repositoryService.open();
+        repository.users().addAll(users);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeRepository() throws IOException {
+        repository.close();
+    }
+
+    @Benchmark
+    public void saveChanges() throws IOException {
+        repository.saveChanges();
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks;
+
+import com.slimgears.slimrepo.benchmarks.mock.MockSqliteOrmServiceProvider;
+import com.slimgears.slimrepo.benchmarks.model.RoleEntity;
+import com.slimgears.slimrepo.benchmarks.model.UserEntity;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.internal.query.InsertQueryParams;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.sql.SqlPredicateBuilder;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBuildingBenchmark {
+    @Param({"1", "100"})
+    public int entityCount;
+
+    private SqlStatementBuilder sqlBuilder;
+    private SqlStatementBuilder.PredicateBuilder predicateBuilder;
+    private Condition<UserEntity> condition;
+    private SelectQueryParams<String, UserEntity> selectParams;
+    private InsertQueryParams<String, UserEntity> insertParams;
+
+    @Setup
+    public void setup() {
+        SqlOrmServiceProvider serviceProvider = new MockSqliteOrmServiceProvider(Collections.emptyList());
+        sqlBuilder = serviceProvider.getStatementBuilder();
+        predicateBuilder = new SqlPredicateBuilder(serviceProvider.getSyntaxProvider());
+
+        //noinspection unchecked
+        condition = Conditions.and(
+                UserEntity.UserFirstName.contains("John"),
+                UserEntity.Age.between(20, 40),
+                Conditions.or(
+                        UserEntity.UserLastName.startsWith("D"),
+                        UserEntity.Role.is(RoleEntity.RoleDescription.in("Admin", "User"))));
+        selectParams = new SelectQueryParams<>(UserEntity.EntityMetaType, condition, null, null, null);
+        insertParams = new InsertQueryParams<>(UserEntity.EntityMetaType, BenchmarkData.users(0, entityCount));
+    }
+
+    @Benchmark
+    public String buildPredicate() {
+        return predicateBuilder.build(condition, new BenchmarkParameters());
+    }
+
+    @Benchmark
+    public String buildSelectStatement() {
+        return sqlBuilder.selectStatement(selectParams, new BenchmarkParameters());
+    }
+
+    @Benchmark
+    public String buildCountStatement() {
+        return sqlBuilder.countStatement(selectParams, new BenchmarkParameters());
+    }
+
+    @Benchmark
+    public String buildInsertStatement() {
+        return sqlBuilder.insertStatement(insertParams, new BenchmarkParameters());
+    }
+
+    @Benchmark
+    public String buildUpsertStatement() {
+        return sqlBuilder.upsertStatement(insertParams, new BenchmarkParameters());
+    }
+}
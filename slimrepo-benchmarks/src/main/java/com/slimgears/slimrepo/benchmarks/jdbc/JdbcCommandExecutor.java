@@ -0,0 +1,189 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.jdbc;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMapper;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class JdbcCommandExecutor implements SqlCommandExecutor {
+    private final Connection connection;
+    private final FieldTypeMapper fieldTypeMapper;
+    private final SqlStatementBuilder.SyntaxProvider syntaxProvider;
+
+    abstract class ResultSetIterator<T> implements CloseableIterator<T> {
+        protected final ResultSet resultSet;
+        private final PreparedStatement statement;
+        private Boolean hasNext;
+
+        ResultSetIterator(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.resultSet = statement.executeQuery();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext == null) {
+                try {
+                    hasNext = resultSet.next();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new RuntimeException("No more rows");
+            hasNext = null;
+            try {
+                return getItem();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new RuntimeException("Not implemented");
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        protected abstract T getItem() throws SQLException;
+    }
+
+    class LookupIterator<T> extends ResultSetIterator<FieldValueLookup<T>> implements FieldValueLookup<T> {
+        private final Map<Field, Integer> fieldToIndexMap = new HashMap<>();
+
+        LookupIterator(PreparedStatement statement) throws SQLException {
+            super(statement);
+        }
+
+        @Override
+        protected FieldValueLookup<T> getItem() {
+            return this;
+        }
+
+        @Override
+        public <V> V getValue(Field<T, V> field) {
+            try {
+                int columnIndex = getColumnIndex(field);
+                Object value = getValue(fieldTypeMapper.getInboundType(field), columnIndex);
+                return fieldTypeMapper.toFieldType(field, value);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private Object getValue(Class type, int columnIndex) throws SQLException {
+            Object value;
+            if (type == FieldValueLookup.class) value = resultSet.getObject(columnIndex) != null ? this : null;
+            else if (type == Integer.class) value = resultSet.getInt(columnIndex);
+            else if (type == String.class) value = resultSet.getString(columnIndex);
+            else if (type == Float.class) value = resultSet.getFloat(columnIndex);
+            else if (type == Short.class) value = resultSet.getShort(columnIndex);
+            else if (type == Long.class) value = resultSet.getLong(columnIndex);
+            else if (type == Double.class) value = resultSet.getDouble(columnIndex);
+            else if (type == byte[].class) value = resultSet.getBytes(columnIndex);
+            else throw new RuntimeException("Unsupported value type: " + type.getSimpleName());
+
+            return resultSet.wasNull() ? null : value;
+        }
+
+        private int getColumnIndex(Field field) throws SQLException {
+            Integer index = fieldToIndexMap.get(field);
+            if (index != null) return index;
+
+            index = resultSet.findColumn(syntaxProvider.rawFieldAlias(field));
+            fieldToIndexMap.put(field, index);
+            return index;
+        }
+    }
+
+    class ValuesIterator extends ResultSetIterator<String[]> {
+        ValuesIterator(PreparedStatement statement) throws SQLException {
+            super(statement);
+        }
+
+        @Override
+        protected String[] getItem() throws SQLException {
+            String[] values = new String[resultSet.getMetaData().getColumnCount()];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = resultSet.getString(i + 1);
+            }
+            return values;
+        }
+    }
+
+    public JdbcCommandExecutor(Connection connection, SqlOrmServiceProvider serviceProvider) {
+        this.connection = connection;
+        this.syntaxProvider = serviceProvider.getSyntaxProvider();
+        this.fieldTypeMapper = serviceProvider.getFieldTypeMapper();
+    }
+
+    @Override
+    public long count(String statement, String... parameters) throws IOException {
+        try (PreparedStatement preparedStatement = prepare(statement, parameters);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public <T> CloseableIterator<FieldValueLookup<T>> select(String statement, String... parameters) throws IOException {
+        try {
+            return new LookupIterator<>(prepare(statement, parameters));
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void execute(String statement, String... parameters) throws IOException {
+        try (PreparedStatement preparedStatement = prepare(statement, parameters)) {
+            preparedStatement.execute();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public CloseableIterator<String[]> selectValues(String statement, String... parameters) throws IOException {
+        try {
+            return new ValuesIterator(prepare(statement, parameters));
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private PreparedStatement prepare(String statement, String... parameters) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(statement);
+        for (int i = 0; i < parameters.length; ++i) {
+            preparedStatement.setString(i + 1, parameters[i]);
+        }
+        return preparedStatement;
+    }
+}
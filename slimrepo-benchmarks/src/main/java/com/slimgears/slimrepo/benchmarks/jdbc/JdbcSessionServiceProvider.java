@@ -0,0 +1,42 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.jdbc;
+
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlSchemeProvider;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlSessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlDatabaseScheme;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSchemeProvider;
+
+import java.sql.Connection;
+
+public class JdbcSessionServiceProvider extends AbstractSqlSessionServiceProvider {
+    private final Connection connection;
+
+    public JdbcSessionServiceProvider(SqlOrmServiceProvider serviceProvider, Connection connection) {
+        super(serviceProvider);
+        this.connection = connection;
+    }
+
+    @Override
+    protected SqlCommandExecutor createCommandExecutor() {
+        return new JdbcCommandExecutor(connection, getOrmServiceProvider());
+    }
+
+    @Override
+    protected TransactionProvider createTransactionProvider() {
+        return new JdbcTransactionProvider(connection);
+    }
+
+    @Override
+    protected SqlSchemeProvider createSchemeProvider() {
+        return new AbstractSqlSchemeProvider(getOrmServiceProvider().getSyntaxProvider()) {
+            @Override
+            public SqlDatabaseScheme getDatabaseScheme() {
+                throw new RuntimeException("Not implemented");
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.jdbc;
+
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+public class JdbcSqliteOrmServiceProvider extends AbstractSqliteOrmServiceProvider implements Closeable {
+    private final Connection connection;
+    private final Set<RepositoryModel> createdModels = new HashSet<>();
+
+    public JdbcSqliteOrmServiceProvider(String url) throws SQLException {
+        this.connection = DriverManager.getConnection(url);
+    }
+
+    public static JdbcSqliteOrmServiceProvider inMemory() throws SQLException {
+        return new JdbcSqliteOrmServiceProvider("jdbc:sqlite::memory:");
+    }
+
+    @Override
+    public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
+        SessionServiceProvider sessionServiceProvider = new JdbcSessionServiceProvider(this, connection);
+        if (createdModels.add(model)) {
+            try {
+                sessionServiceProvider.getRepositoryCreator().createRepository(model);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return sessionServiceProvider;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.jdbc;
+
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class JdbcTransactionProvider implements TransactionProvider {
+    private final Connection connection;
+
+    public JdbcTransactionProvider(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void commitTransaction() throws IOException {
+        try {
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void cancelTransaction() throws IOException {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.mock;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class MockCommandExecutor implements SqlCommandExecutor {
+    private final List<? extends FieldValueLookup> rows;
+
+    static class ListIterator<T> implements CloseableIterator<T> {
+        private final Iterator<T> iterator;
+
+        ListIterator(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new RuntimeException("Not implemented");
+        }
+    }
+
+    public MockCommandExecutor(List<? extends FieldValueLookup> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public long count(String statement, String... parameters) throws IOException {
+        return rows.size();
+    }
+
+    @Override
+    public <T> CloseableIterator<FieldValueLookup<T>> select(String statement, String... parameters) throws IOException {
+        //noinspection unchecked
+        return new ListIterator<>(((List<FieldValueLookup<T>>)rows).iterator());
+    }
+
+    @Override
+    public void execute(String statement, String... parameters) throws IOException {
+    }
+
+    @Override
+    public CloseableIterator<String[]> selectValues(String statement, String... parameters) throws IOException {
+        return new ListIterator<>(Collections.<String[]>emptyIterator());
+    }
+}
@@ -0,0 +1,63 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.mock;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlSchemeProvider;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlSessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlDatabaseScheme;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSchemeProvider;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+
+import java.io.IOException;
+import java.util.List;
+
+public class MockSqliteOrmServiceProvider extends AbstractSqliteOrmServiceProvider {
+    private final SqlCommandExecutor executor;
+    private final TransactionProvider transactionProvider = new TransactionProvider() {
+        @Override
+        public void beginTransaction() throws IOException {
+        }
+
+        @Override
+        public void commitTransaction() throws IOException {
+        }
+
+        @Override
+        public void cancelTransaction() throws IOException {
+        }
+    };
+
+    public MockSqliteOrmServiceProvider(List<? extends FieldValueLookup> rows) {
+        this.executor = new MockCommandExecutor(rows);
+    }
+
+    @Override
+    public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
+        return new AbstractSqlSessionServiceProvider(this) {
+            @Override
+            protected SqlCommandExecutor createCommandExecutor() {
+                return executor;
+            }
+
+            @Override
+            protected TransactionProvider createTransactionProvider() {
+                return transactionProvider;
+            }
+
+            @Override
+            protected SqlSchemeProvider createSchemeProvider() {
+                return new AbstractSqlSchemeProvider(getSyntaxProvider()) {
+                    @Override
+                    public SqlDatabaseScheme getDatabaseScheme() {
+                        throw new RuntimeException("Not implemented");
+                    }
+                };
+            }
+        };
+    }
+}
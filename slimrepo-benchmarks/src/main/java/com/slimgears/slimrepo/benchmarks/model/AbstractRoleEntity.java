@@ -0,0 +1,11 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.model;
+
+import com.slimgears.slimrepo.core.annotations.GenerateEntity;
+
+@GenerateEntity
+public class AbstractRoleEntity {
+    protected int roleId;
+    protected String roleDescription;
+}
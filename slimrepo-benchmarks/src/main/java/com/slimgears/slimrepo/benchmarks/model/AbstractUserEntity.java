@@ -0,0 +1,19 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.model;
+
+import com.slimgears.slimrepo.core.annotations.FullTextSearch;
+import com.slimgears.slimrepo.core.annotations.GenerateEntity;
+
+import java.util.Date;
+
+@GenerateEntity
+public class AbstractUserEntity {
+    protected String userId;
+    @FullTextSearch protected String userFirstName;
+    @FullTextSearch protected String userLastName;
+    protected Date lastVisitDate;
+    protected AbstractRoleEntity role;
+    protected AccountStatus accountStatus;
+    protected int age;
+}
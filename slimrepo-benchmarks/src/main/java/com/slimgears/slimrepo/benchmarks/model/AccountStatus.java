@@ -0,0 +1,9 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.model;
+
+public enum AccountStatus {
+    ACTIVE,
+    PAUSED,
+    DISABLED,
+}
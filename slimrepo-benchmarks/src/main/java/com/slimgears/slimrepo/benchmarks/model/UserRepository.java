@@ -0,0 +1,13 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.model;
+
+import com.slimgears.slimrepo.core.annotations.GenerateRepository;
+import com.slimgears.slimrepo.core.interfaces.Repository;
+import com.slimgears.slimrepo.core.interfaces.entities.EntitySet;
+
+@GenerateRepository(version = 1, name = "BenchmarkDatabase")
+public interface UserRepository extends Repository {
+    EntitySet<UserEntity> users();
+    EntitySet<RoleEntity> roles();
+}
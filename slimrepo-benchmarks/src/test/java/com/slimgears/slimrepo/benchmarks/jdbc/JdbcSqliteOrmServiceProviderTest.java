@@ -0,0 +1,86 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.benchmarks.jdbc;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpressions;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
+@RunWith(JUnit4.class)
+public class JdbcSqliteOrmServiceProviderTest {
+    private JdbcSqliteOrmServiceProvider ormServiceProvider;
+    private RepositoryService<UserRepository> repo;
+
+    @Before
+    public void setup() throws SQLException, IOException {
+        ormServiceProvider = JdbcSqliteOrmServiceProvider.inMemory();
+        repo = new GeneratedUserRepositoryService(ormServiceProvider);
+        repo.update(repository -> {
+            repository.users().add(UserEntity.builder().userId("id-1").userFirstName("John").age(10).build());
+            repository.users().add(UserEntity.builder().userId("id-2").userFirstName("Jake").age(10).build());
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        ormServiceProvider.close();
+    }
+
+    @Test
+    public void minAndMaxCompareNumerically() throws IOException {
+        repo.update(repository -> {
+            repository.users().updateQuery()
+                    .where(UserEntity.UserId.eq("id-1"))
+                    .setExpression(UserEntity.Age, UpdateExpressions.min(UserEntity.Age, 5))
+                    .prepare()
+                    .execute();
+            repository.users().updateQuery()
+                    .where(UserEntity.UserId.eq("id-2"))
+                    .setExpression(UserEntity.Age, UpdateExpressions.max(UserEntity.Age, 5))
+                    .prepare()
+                    .execute();
+        });
+
+        Assert.assertEquals(5, age("id-1"));
+        Assert.assertEquals(10, age("id-2"));
+    }
+
+    @Test
+    public void backupRequiresVacuumInto() throws IOException {
+        File backupFile = File.createTempFile("users", ".db");
+        Assert.assertTrue(backupFile.delete());
+        String version = repo.query(repository -> repository.users().rawQueryValues("SELECT sqlite_version()").firstOrDefault()[0]);
+        try {
+            repo.backup(backupFile.getPath());
+            Assert.assertTrue(isVersionAtLeast327(version));
+            Assert.assertTrue(backupFile.length() > 0);
+        } catch (IOException e) {
+            Assert.assertFalse(isVersionAtLeast327(version));
+            Assert.assertEquals("Backup and restore require SQLite 3.27 or newer, current version: " + version, e.getMessage());
+        } finally {
+            backupFile.delete();
+        }
+    }
+
+    private int age(String userId) throws IOException {
+        return repo.query(repository -> repository.users().findFirst(UserEntity.UserId, userId)).getAge();
+    }
+
+    private static boolean isVersionAtLeast327(String version) {
+        String[] parts = version.split("\\.");
+        int major = Integer.parseInt(parts[0]);
+        return major > 3 || (major == 3 && Integer.parseInt(parts[1]) >= 27);
+    }
+}
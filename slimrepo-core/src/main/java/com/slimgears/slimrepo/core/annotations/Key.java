@@ -14,4 +14,6 @@ import java.lang.annotation.Target;
 @Target({ElementType.FIELD, ElementType.METHOD})
 @Retention(RetentionPolicy.SOURCE)
 public @interface Key {
+    // String and UUID keys are generated randomly unless enabled, in which case time ordered keys (ULID, UUID v7) are used
+    boolean timeOrdered() default false;
 }
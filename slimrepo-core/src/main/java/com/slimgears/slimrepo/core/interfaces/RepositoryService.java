@@ -2,7 +2,13 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.interfaces;
 
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityChanges;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.queries.LiveQuery;
+
 import java.io.IOException;
+import java.util.Iterator;
 
 /**
  * Created by Denis on 02-Apr-15
@@ -17,7 +23,18 @@ public interface RepositoryService<TRepository extends Repository> {
         R execute(TRepository repository) throws IOException;
     }
 
+    interface ChangeListener<TKey, TEntity> {
+        void onChanged(EntityChanges<TKey, TEntity> changes);
+    }
+
     TRepository open();
     void update(UpdateAction<TRepository> updateAction) throws IOException;
     <R> R query(QueryAction<TRepository, R> queryAction) throws IOException;
+    <TKey, TEntity> void importAll(EntityType<TKey, TEntity> entityType, Iterator<TEntity> entities) throws IOException;
+    <TKey, TEntity> void importAll(EntityType<TKey, TEntity> entityType, Iterator<TEntity> entities, int chunkSize, boolean relaxDurability) throws IOException;
+    void backup(String path) throws IOException;
+    void restore(String backupPath, String targetPath) throws IOException;
+    <TKey, TEntity> void addChangeListener(EntityType<TKey, TEntity> entityType, ChangeListener<TKey, TEntity> listener);
+    <TKey, TEntity> void removeChangeListener(EntityType<TKey, TEntity> entityType, ChangeListener<TKey, TEntity> listener);
+    <TKey, TEntity> LiveQuery<TEntity> liveQuery(EntityType<TKey, TEntity> entityType, Condition<TEntity> condition, LiveQuery.Listener<TEntity> listener) throws IOException;
 }
@@ -134,6 +134,27 @@ public class Conditions {
         }
     }
 
+    static class SubqueryConditionImplementation<TEntity, T, TOther> extends AbstractFieldCondition<TEntity, T> implements SubqueryCondition<TEntity, T, TOther> {
+        private final Field<TOther, T> selectedField;
+        private final Condition<TOther> condition;
+
+        SubqueryConditionImplementation(PredicateType type, Field<TEntity, T> field, Field<TOther, T> selectedField, Condition<TOther> condition) {
+            super(type, field);
+            this.selectedField = selectedField;
+            this.condition = condition;
+        }
+
+        @Override
+        public Field<TOther, T> getSelectedField() {
+            return selectedField;
+        }
+
+        @Override
+        public Condition<TOther> getCondition() {
+            return condition;
+        }
+    }
+
     @SafeVarargs
     public static <TEntity> Condition<TEntity> and(Condition<TEntity>... conditions) {
         return new CompositeConditionImplementation<>(PredicateType.COMPOSITE_AND, conditions);
@@ -174,6 +195,22 @@ public class Conditions {
         return new CollectionConditionImplementation<>(PredicateType.VALUE_FIELD_NOT_IN, field, values);
     }
 
+    public static <TEntity, T, TOther> SubqueryCondition<TEntity, T, TOther> in(Field<TEntity, T> field, Field<TOther, T> selectedField, Condition<TOther> condition) {
+        return new SubqueryConditionImplementation<>(PredicateType.SUBQUERY_IN, field, selectedField, condition);
+    }
+
+    public static <TEntity, T, TOther> SubqueryCondition<TEntity, T, TOther> notIn(Field<TEntity, T> field, Field<TOther, T> selectedField, Condition<TOther> condition) {
+        return new SubqueryConditionImplementation<>(PredicateType.SUBQUERY_NOT_IN, field, selectedField, condition);
+    }
+
+    public static <TEntity, T, TOther> SubqueryCondition<TEntity, T, TOther> exists(Field<TEntity, T> field, Field<TOther, T> relatedField, Condition<TOther> condition) {
+        return new SubqueryConditionImplementation<>(PredicateType.SUBQUERY_EXISTS, field, relatedField, condition);
+    }
+
+    public static <TEntity, T, TOther> SubqueryCondition<TEntity, T, TOther> notExists(Field<TEntity, T> field, Field<TOther, T> relatedField, Condition<TOther> condition) {
+        return new SubqueryConditionImplementation<>(PredicateType.SUBQUERY_NOT_EXISTS, field, relatedField, condition);
+    }
+
     public static <TEntity, T> BinaryCondition<TEntity, T> greaterThan(ComparableField<TEntity, T> field, T value) {
         return new BinaryConditionImplementation<>(PredicateType.NUMBER_FIELD_GREATER, field, value);
     }
@@ -217,4 +254,8 @@ public class Conditions {
     public static <TEntity> BinaryCondition<TEntity, String> notEndsWith(StringField<TEntity> field, String substr) {
         return new BinaryConditionImplementation<>(PredicateType.STRING_FIELD_NOT_ENDS_WITH, field, substr);
     }
+
+    public static <TEntity> BinaryCondition<TEntity, String> matches(StringField<TEntity> field, String query) {
+        return new BinaryConditionImplementation<>(PredicateType.STRING_FIELD_MATCHES, field, query);
+    }
 }
@@ -24,8 +24,13 @@ public enum PredicateType {
     STRING_FIELD_ENDS_WITH,
     STRING_FIELD_NOT_STARTS_WITH,
     STRING_FIELD_NOT_ENDS_WITH,
+    STRING_FIELD_MATCHES,
     COMPOSITE_AND,
     COMPOSITE_OR,
     COMPOSITE_NOT,
     RELATIONAL_IS,
+    SUBQUERY_IN,
+    SUBQUERY_NOT_IN,
+    SUBQUERY_EXISTS,
+    SUBQUERY_NOT_EXISTS,
 }
@@ -0,0 +1,13 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.conditions;
+
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+
+/**
+ * Compares the field with values of another entity field, selected by condition (null selects all rows)
+ */
+public interface SubqueryCondition<TEntity, T, TOther> extends FieldCondition<TEntity, T> {
+    Field<TOther, T> getSelectedField();
+    Condition<TOther> getCondition();
+}
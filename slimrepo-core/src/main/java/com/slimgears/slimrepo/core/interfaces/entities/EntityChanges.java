@@ -0,0 +1,12 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.entities;
+
+import java.util.Set;
+
+public interface EntityChanges<TKey, TEntity> {
+    EntityType<TKey, TEntity> getEntityType();
+    Set<TKey> getInsertedKeys();
+    Set<TKey> getUpdatedKeys();
+    Set<TKey> getDeletedKeys();
+}
@@ -3,13 +3,16 @@
 package com.slimgears.slimrepo.core.interfaces.entities;
 
 import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
 import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
 import com.slimgears.slimrepo.core.interfaces.queries.EntityDeleteQuery;
 import com.slimgears.slimrepo.core.interfaces.queries.EntitySelectQuery;
 import com.slimgears.slimrepo.core.interfaces.queries.EntityUpdateQuery;
+import com.slimgears.slimrepo.core.interfaces.queries.SelectQuery;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +47,10 @@ public interface EntitySet<TEntity> {
     <T> Map<T, TEntity> toMap(Field<TEntity, T> keyField) throws IOException;
     <K, V> Map<K, V> toMap(Field<TEntity, K> keyField, Field<TEntity, V> valueField) throws IOException;
     <T> Collection<T> map(Transformer<TEntity, T> mapper) throws IOException;
+    InputStream openBlob(TEntity entity, BlobField<TEntity, ?> field) throws IOException;
+    SelectQuery<TEntity> rawQuery(String statement, String... parameters);
+    <T> SelectQuery<T> rawQuery(Field<TEntity, T> field, String statement, String... parameters);
+    SelectQuery<String[]> rawQueryValues(String statement, String... parameters);
 
     @SuppressWarnings("unchecked")
     TEntity[] add(TEntity... entities) throws IOException;
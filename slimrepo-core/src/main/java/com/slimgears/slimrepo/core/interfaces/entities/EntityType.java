@@ -16,6 +16,7 @@ public interface EntityType<TKey, TEntity> {
     Class<TEntity> getEntityClass();
     String getName();
     ValueField<TEntity, TKey> getKeyField();
+    ValueField<TEntity, ?> getVersionField();
     Collection<Field<TEntity, ?>> getFields();
     Collection<RelationalField<TEntity, ?>> getRelationalFields();
     TEntity clone(TEntity entity);
@@ -0,0 +1,31 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.entities;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Thrown by saveChanges when versioned entities were changed by another session since they were read
+ */
+public class StaleEntityException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    // Entity types are not serializable, so a deserialized exception only carries the keys
+    private final transient EntityType<?, ?> entityType;
+    private final Collection<?> keys;
+
+    public StaleEntityException(EntityType<?, ?> entityType, Collection<?> keys) {
+        super("Stale " + entityType.getName() + " entities: " + keys);
+        this.entityType = entityType;
+        this.keys = keys;
+    }
+
+    public EntityType<?, ?> getEntityType() {
+        return entityType;
+    }
+
+    public Collection<?> getKeys() {
+        return keys;
+    }
+}
@@ -19,6 +19,9 @@ public interface Field<TEntity, T> {
         boolean isNullable();
         boolean isKey();
         boolean isAutoIncremented();
+        boolean isFullTextSearch();
+        boolean isCompressed();
+        boolean isVersion();
     }
 
     T getValue(TEntity entity);
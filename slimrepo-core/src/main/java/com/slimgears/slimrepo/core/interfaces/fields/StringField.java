@@ -15,4 +15,5 @@ public interface StringField<TEntity> extends ValueField<TEntity, String> {
     Condition<TEntity> endsWith(String substr);
     Condition<TEntity> notStartsWith(String substr);
     Condition<TEntity> notEndsWith(String substr);
+    Condition<TEntity> matches(String query);
 }
@@ -19,4 +19,8 @@ public interface ValueField<TEntity, T> extends Field<TEntity, T> {
     @SuppressWarnings("unchecked")
     Condition<TEntity> notIn(T... values);
     Condition<TEntity> notIn(Collection<T> values);
+    <TOther> Condition<TEntity> in(Field<TOther, T> selectedField, Condition<TOther> condition);
+    <TOther> Condition<TEntity> notIn(Field<TOther, T> selectedField, Condition<TOther> condition);
+    <TOther> Condition<TEntity> exists(Field<TOther, T> relatedField, Condition<TOther> condition);
+    <TOther> Condition<TEntity> notExists(Field<TOther, T> relatedField, Condition<TOther> condition);
 }
@@ -15,6 +15,7 @@ public interface EntitySelectQuery<T> extends SelectQuery<T> {
     interface Builder<T> extends QueryBuilder<T, EntitySelectQuery<T>, Builder<T>> {
         Builder<T> orderAsc(Field<T, ?>... fields);
         Builder<T> orderDesc(Field<T, ?>... fields);
+        Builder<T> orderByRank();
         <S> SelectQuery<S> select(Field<T, S> field);
         <K, V> Map<K, V> selectToMap(Field<T, K> keyField, Field<T, V> valueField) throws IOException;
     }
@@ -13,6 +13,7 @@ import java.io.IOException;
 public interface EntityUpdateQuery {
     interface Builder<T> extends QueryBuilder<T, EntityUpdateQuery, Builder<T>> {
         <V> Builder<T> set(Field<T, V> field, V value);
+        <V> Builder<T> setExpression(Field<T, V> field, UpdateExpression<T, V> expression);
         Builder<T> setAll(T entity);
         <V> Builder<T> exclude(Field<T, V> field);
     }
@@ -0,0 +1,14 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.queries;
+
+import java.io.Closeable;
+import java.util.List;
+
+public interface LiveQuery<TEntity> extends Closeable {
+    interface Listener<TEntity> {
+        void onResultsChanged(LiveQuery<TEntity> query);
+    }
+
+    List<TEntity> getResults();
+}
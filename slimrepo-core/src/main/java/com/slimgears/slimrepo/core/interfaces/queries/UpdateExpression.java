@@ -0,0 +1,14 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.queries;
+
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+
+/**
+ * Value computed from the stored row being updated: operand field combined with the argument according to the type
+ */
+public interface UpdateExpression<TEntity, T> {
+    UpdateExpressionType getType();
+    Field<TEntity, T> getOperand();
+    T getArgument();
+}
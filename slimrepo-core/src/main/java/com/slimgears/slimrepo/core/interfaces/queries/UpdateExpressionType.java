@@ -0,0 +1,12 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.queries;
+
+public enum UpdateExpressionType {
+    ADD,
+    MULTIPLY,
+    FIELD_VALUE,
+    COALESCE,
+    MIN,
+    MAX
+}
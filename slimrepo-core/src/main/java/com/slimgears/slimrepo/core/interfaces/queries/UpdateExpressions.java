@@ -0,0 +1,74 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.interfaces.queries;
+
+import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+
+public class UpdateExpressions {
+    static class UpdateExpressionImplementation<TEntity, T> implements UpdateExpression<TEntity, T> {
+        private final UpdateExpressionType type;
+        private final Field<TEntity, T> operand;
+        private final T argument;
+
+        UpdateExpressionImplementation(UpdateExpressionType type, Field<TEntity, T> operand, T argument) {
+            this.type = type;
+            this.operand = operand;
+            this.argument = argument;
+        }
+
+        @Override
+        public UpdateExpressionType getType() {
+            return type;
+        }
+
+        @Override
+        public Field<TEntity, T> getOperand() {
+            return operand;
+        }
+
+        @Override
+        public T getArgument() {
+            return argument;
+        }
+    }
+
+    public static <TEntity, T extends Number> UpdateExpression<TEntity, T> increment(ComparableField<TEntity, T> field, T delta) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.ADD, field, delta);
+    }
+
+    public static <TEntity, T extends Number> UpdateExpression<TEntity, T> decrement(ComparableField<TEntity, T> field, T delta) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.ADD, field, negate(delta));
+    }
+
+    public static <TEntity, T extends Number> UpdateExpression<TEntity, T> multiply(ComparableField<TEntity, T> field, T factor) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.MULTIPLY, field, factor);
+    }
+
+    public static <TEntity, T> UpdateExpression<TEntity, T> valueOf(Field<TEntity, T> field) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.FIELD_VALUE, field, null);
+    }
+
+    public static <TEntity, T> UpdateExpression<TEntity, T> coalesce(Field<TEntity, T> field, T defaultValue) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.COALESCE, field, defaultValue);
+    }
+
+    public static <TEntity, T> UpdateExpression<TEntity, T> min(ComparableField<TEntity, T> field, T value) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.MIN, field, value);
+    }
+
+    public static <TEntity, T> UpdateExpression<TEntity, T> max(ComparableField<TEntity, T> field, T value) {
+        return new UpdateExpressionImplementation<>(UpdateExpressionType.MAX, field, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Number> T negate(T value) {
+        if (value instanceof Integer) return (T)Integer.valueOf(-value.intValue());
+        if (value instanceof Long) return (T)Long.valueOf(-value.longValue());
+        if (value instanceof Short) return (T)Short.valueOf((short)-value.shortValue());
+        if (value instanceof Byte) return (T)Byte.valueOf((byte)-value.byteValue());
+        if (value instanceof Double) return (T)Double.valueOf(-value.doubleValue());
+        if (value instanceof Float) return (T)Float.valueOf(-value.floatValue());
+        throw new RuntimeException("Cannot negate value of type " + value.getClass().getSimpleName());
+    }
+}
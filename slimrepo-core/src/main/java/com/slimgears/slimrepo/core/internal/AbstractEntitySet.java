@@ -7,7 +7,6 @@ import com.slimgears.slimrepo.core.interfaces.entities.EntitySet;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
 import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
-import com.slimgears.slimrepo.core.utilities.Maps;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -15,7 +14,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 
 /**
@@ -101,26 +99,4 @@ public abstract class AbstractEntitySet<TKey, TEntity> implements EntitySet<TEnt
     public void remove(TEntity entity) throws IOException {
         removeAll(Collections.singletonList(entity));
     }
-
-    @Override
-    public void mergeAll(Iterable<TEntity> entities) throws IOException {
-        ValueField<TEntity, TKey> keyField = entityType.getKeyField();
-        Map<TKey, TEntity> index = Maps.uniqueIndex(entities, entityType::getKey);
-        Map<TKey, TEntity> existingEntities = query()
-                .where(keyField.in(index.keySet()))
-                .prepare()
-                .toMap(keyField);
-
-        Set<TKey> existingKeys = existingEntities.keySet();
-        //noinspection StaticPseudoFunctionalStyleMethod
-        Collection<TEntity> newEntities = Stream
-                .of(entities)
-                .filter(e -> !existingKeys.contains(keyField.getValue(e)))
-                .collect(Collectors.toList());
-
-        addAll(newEntities);
-        Stream
-                .of(existingEntities.values())
-                .forEach(entity -> entityType.copy(index.get(keyField.getValue(entity)), entity));
-    }
 }
@@ -21,6 +21,7 @@ public abstract class AbstractEntityType<TKey, TEntity> implements EntityType<TK
     private final String name;
     private final Class<TEntity> entityClass;
     private final ValueField<TEntity, TKey> keyField;
+    private ValueField<TEntity, ?> versionField;
     private final List<Field<TEntity, ?>> fields = new ArrayList<>();
     private final List<RelationalField<TEntity, ?>> relationalFields = new ArrayList<>();
 
@@ -97,6 +98,11 @@ public abstract class AbstractEntityType<TKey, TEntity> implements EntityType<TK
         return keyField;
     }
 
+    @Override
+    public ValueField<TEntity, ?> getVersionField() {
+        return versionField;
+    }
+
     @Override
     public TKey getKey(TEntity entity) {
         return getKeyField().getValue(entity);
@@ -114,6 +120,9 @@ public abstract class AbstractEntityType<TKey, TEntity> implements EntityType<TK
                 ((Bindable)field).bind(this);
             }
             this.fields.add(field);
+            if (field.metaInfo().isVersion()) {
+                versionField = (ValueField<TEntity, ?>)field;
+            }
             if (field instanceof RelationalField) {
                 //noinspection unchecked
                 relationalFields.add((RelationalField<TEntity, ?>)field);
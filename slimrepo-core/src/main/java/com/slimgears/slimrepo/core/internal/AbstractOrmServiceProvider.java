@@ -6,6 +6,7 @@ import com.slimgears.slimrepo.core.internal.converters.TypeMappers;
 import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMapper;
 import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMappingInstaller;
 import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMappingRegistrar;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
 import com.slimgears.slimrepo.core.internal.interfaces.OrmServiceProvider;
 
 /**
@@ -14,6 +15,10 @@ import com.slimgears.slimrepo.core.internal.interfaces.OrmServiceProvider;
  */
 public abstract class AbstractOrmServiceProvider implements OrmServiceProvider {
     private FieldTypeMappingRegistrar typeMappingRegistrar;
+    private MetricsSink metricsSink;
+    private QueryResultCache queryResultCache;
+    private RepositoryChangeNotifier changeNotifier;
+    private int sessionConcurrencyLevel;
 
     @Override
     public FieldTypeMapper getFieldTypeMapper() {
@@ -28,6 +33,41 @@ public abstract class AbstractOrmServiceProvider implements OrmServiceProvider {
         return typeMappingRegistrar;
     }
 
+    @Override
+    public MetricsSink getMetricsSink() {
+        return metricsSink;
+    }
+
+    public void setMetricsSink(MetricsSink metricsSink) {
+        this.metricsSink = metricsSink;
+    }
+
+    @Override
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    public void setQueryResultCache(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    @Override
+    public int getSessionConcurrencyLevel() {
+        return sessionConcurrencyLevel;
+    }
+
+    // Number of lock stripes used to track entity changes of a session, 0 stands for single threaded sessions
+    public void setSessionConcurrencyLevel(int sessionConcurrencyLevel) {
+        this.sessionConcurrencyLevel = sessionConcurrencyLevel;
+    }
+
+    @Override
+    public RepositoryChangeNotifier getChangeNotifier() {
+        return changeNotifier != null
+                ? changeNotifier
+                : (changeNotifier = new RepositoryChangeNotifier());
+    }
+
     protected FieldTypeMappingRegistrar createTypeMappingRegistrar() {
         return new com.slimgears.slimrepo.core.internal.converters.DefaultFieldTypeMapper();
     }
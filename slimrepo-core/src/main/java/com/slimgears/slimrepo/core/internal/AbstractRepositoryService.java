@@ -4,13 +4,19 @@ package com.slimgears.slimrepo.core.internal;
 
 import com.slimgears.slimrepo.core.interfaces.Repository;
 import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
 import com.slimgears.slimrepo.core.interfaces.entities.EntitySet;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.queries.LiveQuery;
 import com.slimgears.slimrepo.core.internal.interfaces.*;
 import com.slimgears.slimrepo.core.utilities.HashMapLoadingCache;
 import com.slimgears.slimrepo.core.utilities.LoadingCache;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -18,6 +24,8 @@ import java.util.concurrent.ExecutionException;
  *
  */
 public abstract class AbstractRepositoryService<TRepository extends Repository> implements RepositoryService<TRepository> {
+    private static final int DEFAULT_IMPORT_CHUNK_SIZE = 1000;
+
     LoadingCache<EntityType, AutoEntitySet> sessionEntityServiceProviderCache = HashMapLoadingCache.newCache(
             new LoadingCache.Loader<EntityType, AutoEntitySet>() {
                 @Override
@@ -57,6 +65,74 @@ public abstract class AbstractRepositoryService<TRepository extends Repository>
         }
     }
 
+    @Override
+    public <TKey, TEntity> void importAll(EntityType<TKey, TEntity> entityType, Iterator<TEntity> entities) throws IOException {
+        importAll(entityType, entities, DEFAULT_IMPORT_CHUNK_SIZE, false);
+    }
+
+    @Override
+    public <TKey, TEntity> void importAll(EntityType<TKey, TEntity> entityType, Iterator<TEntity> entities, int chunkSize, boolean relaxDurability) throws IOException {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size should be positive: " + chunkSize);
+
+        try (SessionServiceProvider sessionServiceProvider = createSessionServiceProvider(repositoryModel)) {
+            Closeable durability = relaxDurability ? sessionServiceProvider.relaxDurability() : null;
+            try {
+                importChunks(sessionServiceProvider, entityType, entities, chunkSize);
+            } finally {
+                if (durability != null) durability.close();
+            }
+        }
+    }
+
+    private <TKey, TEntity> void importChunks(SessionServiceProvider sessionServiceProvider, EntityType<TKey, TEntity> entityType, Iterator<TEntity> entities, int chunkSize) throws IOException {
+        SessionEntityServiceProvider<TKey, TEntity> entityServiceProvider = sessionServiceProvider.getEntityServiceProvider(entityType);
+        TransactionProvider transactionProvider = sessionServiceProvider.getTransactionProvider();
+        List<TEntity> chunk = new ArrayList<>(chunkSize);
+        while (entities.hasNext()) {
+            chunk.add(entities.next());
+            if (chunk.size() < chunkSize && entities.hasNext()) continue;
+
+            transactionProvider.beginTransaction();
+            try {
+                entityServiceProvider.getQueryProvider().prepareInsert(chunk).execute();
+            } catch (Throwable e) {
+                transactionProvider.cancelTransaction();
+                throw e;
+            }
+            transactionProvider.commitTransaction();
+            chunk.clear();
+        }
+    }
+
+    @Override
+    public void backup(String path) throws IOException {
+        try (SessionServiceProvider sessionServiceProvider = createSessionServiceProvider(repositoryModel)) {
+            sessionServiceProvider.backup(path);
+        }
+    }
+
+    @Override
+    public void restore(String backupPath, String targetPath) throws IOException {
+        try (SessionServiceProvider sessionServiceProvider = createSessionServiceProvider(repositoryModel)) {
+            sessionServiceProvider.restore(backupPath, targetPath);
+        }
+    }
+
+    @Override
+    public <TKey, TEntity> void addChangeListener(EntityType<TKey, TEntity> entityType, ChangeListener<TKey, TEntity> listener) {
+        ormServiceProvider.getChangeNotifier().addListener(entityType, listener);
+    }
+
+    @Override
+    public <TKey, TEntity> void removeChangeListener(EntityType<TKey, TEntity> entityType, ChangeListener<TKey, TEntity> listener) {
+        ormServiceProvider.getChangeNotifier().removeListener(entityType, listener);
+    }
+
+    @Override
+    public <TKey, TEntity> LiveQuery<TEntity> liveQuery(EntityType<TKey, TEntity> entityType, Condition<TEntity> condition, LiveQuery.Listener<TEntity> listener) throws IOException {
+        return new DefaultLiveQuery<>(this, entityType, condition, listener).start();
+    }
+
     @Override
     public TRepository open() {
         return createRepository(createSessionServiceProvider(repositoryModel));
@@ -12,25 +12,50 @@ import com.slimgears.slimrepo.core.internal.interfaces.SessionEntityServiceProvi
  *
  */
 public abstract class AbstractSessionEntityServiceProvider<TKey, TEntity> implements SessionEntityServiceProvider<TKey, TEntity> {
-    private EntityCache<TKey, TEntity> entityCache;
-    private EntityStateTracker<TEntity> stateTracker;
-    private EntityType<TKey, TEntity> entityType;
+    private volatile EntityCache<TKey, TEntity> entityCache;
+    private volatile EntityStateTracker<TEntity> stateTracker;
+    private final EntityType<TKey, TEntity> entityType;
+    private final int concurrencyLevel;
+    private final Object syncRoot = new Object();
 
     protected AbstractSessionEntityServiceProvider(EntityType<TKey, TEntity> entityType) {
+        this(entityType, 0);
+    }
+
+    protected AbstractSessionEntityServiceProvider(EntityType<TKey, TEntity> entityType, int concurrencyLevel) {
         this.entityType = entityType;
+        this.concurrencyLevel = concurrencyLevel;
     }
 
     @Override
     public EntityCache<TKey, TEntity> getEntityCache() {
-        return entityCache != null
-                ? entityCache
-                : (entityCache = new HashMapEntityCache<>(entityType));
+        if (entityCache != null) return entityCache;
+        synchronized (syncRoot) {
+            return entityCache != null
+                    ? entityCache
+                    : (entityCache = createEntityCache());
+        }
+    }
+
+    protected EntityCache<TKey, TEntity> createEntityCache() {
+        return LongKeyEntityCache.isApplicable(entityType)
+                ? new LongKeyEntityCache<>(entityType)
+                : new HashMapEntityCache<>(entityType);
     }
 
     @Override
     public EntityStateTracker<TEntity> getEntityStateTracker() {
-        return stateTracker != null
-                ? stateTracker
-                : (stateTracker = new HashSetEntityStateTracker<>());
+        if (stateTracker != null) return stateTracker;
+        synchronized (syncRoot) {
+            return stateTracker != null
+                    ? stateTracker
+                    : (stateTracker = createEntityStateTracker());
+        }
+    }
+
+    protected EntityStateTracker<TEntity> createEntityStateTracker() {
+        return concurrencyLevel > 0
+                ? new ConcurrentEntityStateTracker<>(concurrencyLevel)
+                : new HashSetEntityStateTracker<>();
     }
 }
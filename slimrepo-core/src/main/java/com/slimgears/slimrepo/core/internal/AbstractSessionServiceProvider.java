@@ -9,9 +9,10 @@ import com.slimgears.slimrepo.core.internal.interfaces.*;
 import com.slimgears.slimrepo.core.utilities.HashMapLoadingCache;
 import com.slimgears.slimrepo.core.utilities.LoadingCache;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -19,9 +20,12 @@ import java.util.concurrent.ExecutionException;
  *
  */
 public abstract class AbstractSessionServiceProvider implements SessionServiceProvider {
-    private final List<RepositorySessionNotifier.Listener> sessionListeners = new ArrayList<>();
-    private RepositoryCreator repositoryCreator;
-    private EntitySessionNotifier entitySessionNotifier;
+    private final List<RepositorySessionNotifier.Listener> sessionListeners = new CopyOnWriteArrayList<>();
+    private volatile RepositoryCreator repositoryCreator;
+    private volatile EntitySessionNotifier entitySessionNotifier;
+    private volatile SessionChangeTracker changeTracker;
+    private volatile SessionResultCache resultCache;
+    private final Object syncRoot = new Object();
 
     private final LoadingCache<EntityType, SessionEntityServiceProvider> entityServiceProviderCache = HashMapLoadingCache.newCache(
             new LoadingCache.Loader<EntityType, SessionEntityServiceProvider>() {
@@ -70,16 +74,59 @@ public abstract class AbstractSessionServiceProvider implements SessionServicePr
 
     @Override
     public RepositoryCreator getRepositoryCreator() {
-        return repositoryCreator != null
-                ? repositoryCreator
-                : (repositoryCreator = createRepositoryCreator());
+        if (repositoryCreator != null) return repositoryCreator;
+        synchronized (syncRoot) {
+            return repositoryCreator != null
+                    ? repositoryCreator
+                    : (repositoryCreator = createRepositoryCreator());
+        }
     }
 
     @Override
     public EntitySessionNotifier getEntitySessionNotifier() {
-        return entitySessionNotifier != null
-                ? entitySessionNotifier
-                : (entitySessionNotifier = createEntitySessionNotifier());
+        if (entitySessionNotifier != null) return entitySessionNotifier;
+        synchronized (syncRoot) {
+            return entitySessionNotifier != null
+                    ? entitySessionNotifier
+                    : (entitySessionNotifier = createEntitySessionNotifier());
+        }
+    }
+
+    @Override
+    public SessionChangeTracker getChangeTracker() {
+        if (changeTracker != null) return changeTracker;
+        synchronized (syncRoot) {
+            return changeTracker != null
+                    ? changeTracker
+                    : (changeTracker = new SessionChangeTracker(getOrmServiceProvider().getChangeNotifier()));
+        }
+    }
+
+    @Override
+    public SessionResultCache getResultCache() {
+        if (resultCache != null) return resultCache;
+        QueryResultCache sharedCache = getOrmServiceProvider().getQueryResultCache();
+        if (sharedCache == null) return null;
+        synchronized (syncRoot) {
+            return resultCache != null
+                    ? resultCache
+                    : (resultCache = new SessionResultCache(sharedCache));
+        }
+    }
+
+    @Override
+    public Closeable relaxDurability() throws IOException {
+        return () -> {};
+    }
+
+    @Override
+    public void backup(String path) throws IOException {
+        throw new RuntimeException("Not implemented");
+    }
+
+    @Override
+    public void restore(String backupPath, String targetPath) throws IOException {
+        throw new RuntimeException("Not implemented");
     }
 
     @Override
@@ -113,6 +160,11 @@ public abstract class AbstractSessionServiceProvider implements SessionServicePr
         }
     }
 
+    protected TransactionProvider withResultCache(TransactionProvider transactionProvider) {
+        SessionResultCache sessionCache = getResultCache();
+        return sessionCache != null ? new ResultCacheTransactionProvider(transactionProvider, sessionCache) : transactionProvider;
+    }
+
     protected EntitySessionNotifier createEntitySessionNotifier() {
         return new DefaultEntitySessionNotifier(this);
     }
@@ -2,6 +2,7 @@ package com.slimgears.slimrepo.core.internal;
 
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
 import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
 import com.slimgears.slimrepo.core.internal.interfaces.OrmServiceProvider;
 import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
@@ -13,6 +14,7 @@ import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
 import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 
 /**
@@ -115,4 +117,50 @@ public class AutoSessionEntityServiceProvider<TKey, TEntity>
             }
         });
     }
+
+    @Override
+    public PreparedQuery<Void> prepareUpsert(final Collection<TEntity> entities) {
+        return delegate(new QueryDelegator<Void>() {
+            @Override
+            PreparedQuery<Void> prepare(QueryProvider<TKey, TEntity> queryProvider) {
+                return queryProvider.prepareUpsert(entities);
+            }
+        });
+    }
+
+    @Override
+    public PreparedQuery<InputStream> prepareReadBlob(final TKey key, final BlobField<TEntity, ?> field) {
+        return new PreparedQuery<InputStream>() {
+            @Override
+            public InputStream execute() throws IOException {
+                SessionServiceProvider sessionServiceProvider = ormServiceProvider.createSessionServiceProvider(repositoryModel);
+                QueryProvider<TKey, TEntity> queryProvider = sessionServiceProvider.getEntityServiceProvider(entityType).getQueryProvider();
+                return queryProvider.prepareReadBlob(key, field).execute();
+            }
+        };
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(final String statement, final String... parameters) {
+        return new PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>>() {
+            @Override
+            public CloseableIterator<FieldValueLookup<TEntity>> execute() throws IOException {
+                SessionServiceProvider sessionServiceProvider = ormServiceProvider.createSessionServiceProvider(repositoryModel);
+                QueryProvider<TKey, TEntity> queryProvider = sessionServiceProvider.getEntityServiceProvider(entityType).getQueryProvider();
+                return queryProvider.prepareRawSelect(statement, parameters).execute();
+            }
+        };
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(final String statement, final String... parameters) {
+        return new PreparedQuery<CloseableIterator<String[]>>() {
+            @Override
+            public CloseableIterator<String[]> execute() throws IOException {
+                SessionServiceProvider sessionServiceProvider = ormServiceProvider.createSessionServiceProvider(repositoryModel);
+                QueryProvider<TKey, TEntity> queryProvider = sessionServiceProvider.getEntityServiceProvider(entityType).getQueryProvider();
+                return queryProvider.prepareRawSelectValues(statement, parameters).execute();
+            }
+        };
+    }
 }
@@ -0,0 +1,185 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.EntityCache;
+import com.slimgears.slimrepo.core.internal.query.DeleteQueryParams;
+import com.slimgears.slimrepo.core.internal.query.PreparedQuery;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class CachingQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEntity> {
+    private static final int MAX_KEYS_PER_QUERY = 500;
+
+    private final QueryProvider<TKey, TEntity> underlyingProvider;
+    private final EntityType<TKey, TEntity> entityType;
+    private final EntityCache<TKey, TEntity> entityCache;
+    private final SessionResultCache sessionCache;
+    private final QueryResultCache resultCache;
+
+    class CachingRowIterator implements CloseableIterator<FieldValueLookup<TEntity>> {
+        private final CloseableIterator<FieldValueLookup<TEntity>> rows;
+        private final String cacheKey;
+        private final long[] versions;
+        private final List<TKey> keys = new ArrayList<>();
+
+        CachingRowIterator(CloseableIterator<FieldValueLookup<TEntity>> rows, String cacheKey, long[] versions) {
+            this.rows = rows;
+            this.cacheKey = cacheKey;
+            this.versions = versions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public FieldValueLookup<TEntity> next() {
+            TEntity entity = toEntity(rows.next());
+            keys.add(entityType.getKey(entity));
+            return new EntityValueLookup<>(entity);
+        }
+
+        @Override
+        public void remove() {
+            throw new RuntimeException("Not implemented");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!rows.hasNext()) resultCache.put(cacheKey, versions, keys);
+            rows.close();
+        }
+    }
+
+    public CachingQueryProvider(QueryProvider<TKey, TEntity> underlyingProvider, EntityType<TKey, TEntity> entityType, EntityCache<TKey, TEntity> entityCache, SessionResultCache sessionCache) {
+        this.underlyingProvider = underlyingProvider;
+        this.entityType = entityType;
+        this.entityCache = entityCache;
+        this.sessionCache = sessionCache;
+        this.resultCache = sessionCache.getResultCache();
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareSelect(final SelectQueryParams<TKey, TEntity> query) {
+        final PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> preparedQuery = underlyingProvider.prepareSelect(query);
+        final String cacheKey = query.fields == null ? QueryResultCache.keyOf("select", query) : null;
+        if (cacheKey == null) return preparedQuery;
+
+        return () -> {
+            if (sessionCache.isBypassed()) return preparedQuery.execute();
+
+            List<TKey> keys = resultCache.get(cacheKey, entityType);
+            if (keys != null) return new DefaultCloseableIterator<>(resolve(keys).iterator());
+
+            long[] versions = resultCache.getVersions(entityType);
+            return new CachingRowIterator(preparedQuery.execute(), cacheKey, versions);
+        };
+    }
+
+    @Override
+    public PreparedQuery<Long> prepareCount(final SelectQueryParams<TKey, TEntity> query) {
+        final PreparedQuery<Long> preparedQuery = underlyingProvider.prepareCount(query);
+        final String cacheKey = QueryResultCache.keyOf("count", query);
+        if (cacheKey == null) return preparedQuery;
+
+        return () -> {
+            if (sessionCache.isBypassed()) return preparedQuery.execute();
+
+            Long count = resultCache.get(cacheKey, entityType);
+            if (count != null) return count;
+
+            long[] versions = resultCache.getVersions(entityType);
+            count = preparedQuery.execute();
+            resultCache.put(cacheKey, versions, count);
+            return count;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpdate(UpdateQueryParams<TKey, TEntity> query) {
+        return invalidating(underlyingProvider.prepareUpdate(query));
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareDelete(DeleteQueryParams<TKey, TEntity> query) {
+        return invalidating(underlyingProvider.prepareDelete(query));
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareInsert(Collection<TEntity> entities) {
+        return invalidating(underlyingProvider.prepareInsert(entities));
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpsert(Collection<TEntity> entities) {
+        return invalidating(underlyingProvider.prepareUpsert(entities));
+    }
+
+    @Override
+    public PreparedQuery<InputStream> prepareReadBlob(TKey key, BlobField<TEntity, ?> field) {
+        return underlyingProvider.prepareReadBlob(key, field);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(String statement, String... parameters) {
+        return underlyingProvider.prepareRawSelect(statement, parameters);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(String statement, String... parameters) {
+        return underlyingProvider.prepareRawSelectValues(statement, parameters);
+    }
+
+    private PreparedQuery<Void> invalidating(final PreparedQuery<Void> preparedQuery) {
+        return () -> {
+            try {
+                return preparedQuery.execute();
+            } finally {
+                sessionCache.invalidate(entityType);
+            }
+        };
+    }
+
+    private List<FieldValueLookup<TEntity>> resolve(List<TKey> keys) throws IOException {
+        List<TKey> missingKeys = new ArrayList<>();
+        for (TKey key : keys) {
+            if (entityCache.getIfPresent(key) == null) missingKeys.add(key);
+        }
+
+        ValueField<TEntity, TKey> keyField = entityType.getKeyField();
+        for (int i = 0; i < missingKeys.size(); i += MAX_KEYS_PER_QUERY) {
+            List<TKey> chunk = missingKeys.subList(i, Math.min(i + MAX_KEYS_PER_QUERY, missingKeys.size()));
+            SelectQueryParams<TKey, TEntity> query = new SelectQueryParams<>(entityType, keyField.in(chunk), null, null, null);
+            try (CloseableIterator<FieldValueLookup<TEntity>> rows = underlyingProvider.prepareSelect(query).execute()) {
+                while (rows.hasNext()) {
+                    toEntity(rows.next());
+                }
+            }
+        }
+
+        List<FieldValueLookup<TEntity>> lookups = new ArrayList<>(keys.size());
+        for (TKey key : keys) {
+            TEntity entity = entityCache.getIfPresent(key);
+            if (entity != null) lookups.add(new EntityValueLookup<>(entity));
+        }
+        return lookups;
+    }
+
+    private TEntity toEntity(final FieldValueLookup<TEntity> row) {
+        return entityCache.get(row.getValue(entityType.getKeyField()), () -> entityType.newInstance(row));
+    }
+}
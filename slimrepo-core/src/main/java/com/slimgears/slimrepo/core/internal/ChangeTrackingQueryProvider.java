@@ -0,0 +1,182 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.FieldCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.PredicateType;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.query.ConditionalQueryParams;
+import com.slimgears.slimrepo.core.internal.query.DeleteQueryParams;
+import com.slimgears.slimrepo.core.internal.query.PreparedQuery;
+import com.slimgears.slimrepo.core.internal.query.QueryPagination;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ChangeTrackingQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEntity> {
+    private static final int MAX_KEYS_PER_QUERY = 500;
+
+    private final QueryProvider<TKey, TEntity> underlyingProvider;
+    private final EntityType<TKey, TEntity> entityType;
+    private final SessionChangeTracker changeTracker;
+
+    public ChangeTrackingQueryProvider(QueryProvider<TKey, TEntity> underlyingProvider, EntityType<TKey, TEntity> entityType, SessionChangeTracker changeTracker) {
+        this.underlyingProvider = underlyingProvider;
+        this.entityType = entityType;
+        this.changeTracker = changeTracker;
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareSelect(SelectQueryParams<TKey, TEntity> query) {
+        return underlyingProvider.prepareSelect(query);
+    }
+
+    @Override
+    public PreparedQuery<Long> prepareCount(SelectQueryParams<TKey, TEntity> query) {
+        return underlyingProvider.prepareCount(query);
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpdate(final UpdateQueryParams<TKey, TEntity> query) {
+        final PreparedQuery<Void> preparedQuery = underlyingProvider.prepareUpdate(query);
+        return () -> {
+            if (!changeTracker.isTracked(entityType)) return preparedQuery.execute();
+
+            Collection<TKey> keys = selectKeys(query);
+            preparedQuery.execute();
+
+            DefaultEntityChanges<TKey, TEntity> changes = changeTracker.getChanges(entityType);
+            for (TKey key : keys) {
+                changes.keyUpdated(key);
+            }
+            changeTracker.onChangesRecorded();
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareDelete(final DeleteQueryParams<TKey, TEntity> query) {
+        final PreparedQuery<Void> preparedQuery = underlyingProvider.prepareDelete(query);
+        return () -> {
+            if (!changeTracker.isTracked(entityType)) return preparedQuery.execute();
+
+            Collection<TKey> keys = selectKeys(query);
+            preparedQuery.execute();
+
+            DefaultEntityChanges<TKey, TEntity> changes = changeTracker.getChanges(entityType);
+            for (TKey key : keys) {
+                changes.keyDeleted(key);
+            }
+            changeTracker.onChangesRecorded();
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareInsert(final Collection<TEntity> entities) {
+        final PreparedQuery<Void> preparedQuery = underlyingProvider.prepareInsert(entities);
+        return () -> {
+            preparedQuery.execute();
+            if (!changeTracker.isTracked(entityType)) return null;
+
+            DefaultEntityChanges<TKey, TEntity> changes = changeTracker.getChanges(entityType);
+            for (TEntity entity : entities) {
+                TKey key = entityType.getKey(entity);
+                if (key != null) changes.keyInserted(key);
+            }
+            changeTracker.onChangesRecorded();
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpsert(final Collection<TEntity> entities) {
+        final PreparedQuery<Void> preparedQuery = underlyingProvider.prepareUpsert(entities);
+        return () -> {
+            if (!changeTracker.isTracked(entityType)) return preparedQuery.execute();
+
+            List<TKey> keys = new ArrayList<>(entities.size());
+            for (TEntity entity : entities) {
+                TKey key = entityType.getKey(entity);
+                if (key != null) keys.add(key);
+            }
+            Set<TKey> existingKeys = new HashSet<>(selectExistingKeys(keys));
+            preparedQuery.execute();
+
+            DefaultEntityChanges<TKey, TEntity> changes = changeTracker.getChanges(entityType);
+            for (TEntity entity : entities) {
+                TKey key = entityType.getKey(entity);
+                if (key == null) continue;
+                if (existingKeys.contains(key)) changes.keyUpdated(key);
+                else changes.keyInserted(key);
+            }
+            changeTracker.onChangesRecorded();
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<InputStream> prepareReadBlob(TKey key, BlobField<TEntity, ?> field) {
+        return underlyingProvider.prepareReadBlob(key, field);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(String statement, String... parameters) {
+        return underlyingProvider.prepareRawSelect(statement, parameters);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(String statement, String... parameters) {
+        return underlyingProvider.prepareRawSelectValues(statement, parameters);
+    }
+
+    private Collection<TKey> selectKeys(ConditionalQueryParams<TKey, TEntity, ?> query) throws IOException {
+        Condition<TEntity> condition = query.condition;
+        if (query.pagination == null && condition instanceof FieldCondition && ((FieldCondition<TEntity, ?>)condition).getField() == entityType.getKeyField()) {
+            //noinspection unchecked
+            if (condition.getType() == PredicateType.VALUE_FIELD_EQUALS) return Collections.singletonList(((BinaryCondition<TEntity, TKey>)condition).getValue());
+            //noinspection unchecked
+            if (condition.getType() == PredicateType.VALUE_FIELD_IN) return Arrays.asList(((CollectionCondition<TEntity, TKey>)condition).getValues());
+        }
+        return selectKeys(condition, query.pagination);
+    }
+
+    private List<TKey> selectExistingKeys(List<TKey> keys) throws IOException {
+        List<TKey> existingKeys = new ArrayList<>();
+        ValueField<TEntity, TKey> keyField = entityType.getKeyField();
+        for (int i = 0; i < keys.size(); i += MAX_KEYS_PER_QUERY) {
+            existingKeys.addAll(selectKeys(keyField.in(keys.subList(i, Math.min(i + MAX_KEYS_PER_QUERY, keys.size()))), null));
+        }
+        return existingKeys;
+    }
+
+    private List<TKey> selectKeys(Condition<TEntity> condition, QueryPagination pagination) throws IOException {
+        ValueField<TEntity, TKey> keyField = entityType.getKeyField();
+        SelectQueryParams<TKey, TEntity> query = new SelectQueryParams<>(entityType, condition, Collections.<Field<TEntity, ?>>singletonList(keyField), null, pagination);
+        List<TKey> keys = new ArrayList<>();
+        try (CloseableIterator<FieldValueLookup<TEntity>> rows = underlyingProvider.prepareSelect(query).execute()) {
+            while (rows.hasNext()) {
+                keys.add(rows.next().getValue(keyField));
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.IOException;
+
+public class ChangeTrackingTransactionProvider implements TransactionProvider {
+    private final TransactionProvider underlyingProvider;
+    private final SessionChangeTracker changeTracker;
+
+    public ChangeTrackingTransactionProvider(TransactionProvider underlyingProvider, SessionChangeTracker changeTracker) {
+        this.underlyingProvider = underlyingProvider;
+        this.changeTracker = changeTracker;
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        underlyingProvider.beginTransaction();
+        changeTracker.onTransactionStarted();
+    }
+
+    @Override
+    public void commitTransaction() throws IOException {
+        underlyingProvider.commitTransaction();
+        changeTracker.onTransactionCommitted();
+    }
+
+    @Override
+    public void cancelTransaction() throws IOException {
+        try {
+            underlyingProvider.cancelTransaction();
+        } finally {
+            changeTracker.onTransactionCancelled();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.EntityStateTracker;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks entity states in lock striped partitions, selected by entity hash, so that several threads can add, remove
+ * and modify entities of the same session. Collection getters and detachChanges lock all stripes and return snapshots.
+ */
+public class ConcurrentEntityStateTracker<TEntity> implements EntityStateTracker<TEntity> {
+    private final HashSetEntityStateTracker<TEntity>[] stripes;
+    private final ReentrantLock[] locks;
+
+    interface StripeAction<TEntity> {
+        void apply(HashSetEntityStateTracker<TEntity> stripe);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentEntityStateTracker(int concurrencyLevel) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        stripes = new HashSetEntityStateTracker[stripeCount];
+        locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; ++i) {
+            stripes[i] = new HashSetEntityStateTracker<>();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Collection<TEntity> getModifiedEntities() {
+        return snapshot().getModifiedEntities();
+    }
+
+    @Override
+    public Collection<TEntity> getAddedEntities() {
+        return snapshot().getAddedEntities();
+    }
+
+    @Override
+    public Collection<TEntity> getDeletedEntities() {
+        return snapshot().getDeletedEntities();
+    }
+
+    @Override
+    public Collection<TEntity> getMergedEntities() {
+        return snapshot().getMergedEntities();
+    }
+
+    @Override
+    public void entityModified(TEntity entity) {
+        withStripe(entity, stripe -> stripe.entityModified(entity));
+    }
+
+    @Override
+    public void entityDeleted(TEntity entity) {
+        withStripe(entity, stripe -> stripe.entityDeleted(entity));
+    }
+
+    @Override
+    public void entityAdded(TEntity entity) {
+        withStripe(entity, stripe -> stripe.entityAdded(entity));
+    }
+
+    @Override
+    public void entityMerged(TEntity entity) {
+        withStripe(entity, stripe -> stripe.entityMerged(entity));
+    }
+
+    @Override
+    public void clearChanges() {
+        withAllStripes(HashSetEntityStateTracker::clearChanges);
+    }
+
+    @Override
+    public boolean hasChanges() {
+        for (int i = 0; i < stripes.length; ++i) {
+            locks[i].lock();
+            try {
+                if (stripes[i].hasChanges()) return true;
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public EntityStateTracker<TEntity> detachChanges() {
+        final HashSetEntityStateTracker<TEntity> changes = new HashSetEntityStateTracker<>();
+        withAllStripes(stripe -> changes.addChanges((HashSetEntityStateTracker<TEntity>)stripe.detachChanges()));
+        return changes;
+    }
+
+    private HashSetEntityStateTracker<TEntity> snapshot() {
+        final HashSetEntityStateTracker<TEntity> changes = new HashSetEntityStateTracker<>();
+        withAllStripes(changes::addChanges);
+        return changes;
+    }
+
+    private void withStripe(TEntity entity, StripeAction<TEntity> action) {
+        int hash = entity.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (stripes.length - 1);
+        locks[index].lock();
+        try {
+            action.apply(stripes[index]);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    // Stripes are always locked in the same order, so concurrent snapshots cannot deadlock
+    private void withAllStripes(StripeAction<TEntity> action) {
+        int locked = 0;
+        try {
+            for (; locked < locks.length; ++locked) {
+                locks[locked].lock();
+            }
+            for (HashSetEntityStateTracker<TEntity> stripe : stripes) {
+                action.apply(stripe);
+            }
+        } finally {
+            while (locked > 0) {
+                locks[--locked].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityChanges;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class DefaultEntityChanges<TKey, TEntity> implements EntityChanges<TKey, TEntity> {
+    private final EntityType<TKey, TEntity> entityType;
+    private final Set<TKey> insertedKeys = new LinkedHashSet<>();
+    private final Set<TKey> updatedKeys = new LinkedHashSet<>();
+    private final Set<TKey> deletedKeys = new LinkedHashSet<>();
+
+    public DefaultEntityChanges(EntityType<TKey, TEntity> entityType) {
+        this.entityType = entityType;
+    }
+
+    @Override
+    public EntityType<TKey, TEntity> getEntityType() {
+        return entityType;
+    }
+
+    @Override
+    public Set<TKey> getInsertedKeys() {
+        return Collections.unmodifiableSet(insertedKeys);
+    }
+
+    @Override
+    public Set<TKey> getUpdatedKeys() {
+        return Collections.unmodifiableSet(updatedKeys);
+    }
+
+    @Override
+    public Set<TKey> getDeletedKeys() {
+        return Collections.unmodifiableSet(deletedKeys);
+    }
+
+    public boolean isEmpty() {
+        return insertedKeys.isEmpty() && updatedKeys.isEmpty() && deletedKeys.isEmpty();
+    }
+
+    public void keyInserted(TKey key) {
+        if (deletedKeys.remove(key)) updatedKeys.add(key);
+        else insertedKeys.add(key);
+    }
+
+    public void keyUpdated(TKey key) {
+        if (!insertedKeys.contains(key)) updatedKeys.add(key);
+    }
+
+    public void keyDeleted(TKey key) {
+        if (insertedKeys.remove(key)) return;
+        updatedKeys.remove(key);
+        deletedKeys.add(key);
+    }
+}
@@ -10,13 +10,14 @@ import com.slimgears.slimrepo.core.internal.interfaces.RepositorySessionNotifier
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Denis on 03-May-15.
  *
  */
 public class DefaultEntitySessionNotifier implements EntitySessionNotifier, RepositorySessionNotifier.Listener {
-    private final Map<EntityType, RepositorySessionNotifier.Listener> listenerMap = new HashMap<>();
+    private final Map<EntityType, RepositorySessionNotifier.Listener> listenerMap = new ConcurrentHashMap<>();
 
     public DefaultEntitySessionNotifier(RepositorySessionNotifier notifier) {
         notifier.addListener(this);
@@ -5,19 +5,32 @@ package com.slimgears.slimrepo.core.internal;
 import com.annimon.stream.Collectors;
 import com.annimon.stream.Stream;
 import com.slimgears.slimrepo.core.interfaces.Repository;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
 import com.slimgears.slimrepo.core.interfaces.entities.EntitySet;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.StaleEntityException;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
 import com.slimgears.slimrepo.core.interfaces.queries.EntityDeleteQuery;
 import com.slimgears.slimrepo.core.interfaces.queries.EntitySelectQuery;
 import com.slimgears.slimrepo.core.interfaces.queries.EntityUpdateQuery;
+import com.slimgears.slimrepo.core.interfaces.queries.SelectQuery;
 import com.slimgears.slimrepo.core.internal.interfaces.*;
 import com.slimgears.slimrepo.core.internal.query.DefaultEntityDeleteQuery;
 import com.slimgears.slimrepo.core.internal.query.DefaultEntitySelectQuery;
 import com.slimgears.slimrepo.core.internal.query.DefaultEntityUpdateQuery;
 import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.query.RawSelectQuery;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -27,12 +40,12 @@ import java.util.Collection;
 public class DefaultEntitySet<TKey, TEntity> extends AbstractEntitySet<TKey, TEntity> implements
         RepositorySessionNotifier.Listener {
     protected final SessionEntityServiceProvider<TKey, TEntity> sessionEntityServiceProvider;
-    private EntityCache<TKey, TEntity> entityCache;
-    private EntityStateTracker<TEntity> stateTracker;
-    private QueryProvider<TKey, TEntity> queryProvider;
+    private volatile EntityCache<TKey, TEntity> entityCache;
+    private volatile EntityStateTracker<TEntity> stateTracker;
+    private volatile QueryProvider<TKey, TEntity> queryProvider;
 
     public static class Provider<TKey, TEntity> implements EntitySet.Provider<TEntity> {
-        private EntitySet<TEntity> entitySet = null;
+        private volatile EntitySet<TEntity> entitySet = null;
         private final SessionServiceProvider sessionServiceProvider;
         private final EntityType<TKey, TEntity> entityType;
         private final Object syncRoot = new Object();
@@ -73,6 +86,39 @@ public class DefaultEntitySet<TKey, TEntity> extends AbstractEntitySet<TKey, TEn
         return new DefaultEntityUpdateQuery<>(entityType, getQueryProvider());
     }
 
+    @Override
+    public InputStream openBlob(TEntity entity, BlobField<TEntity, ?> field) throws IOException {
+        return getQueryProvider().prepareReadBlob(entityType.getKey(entity), field).execute();
+    }
+
+    // Columns are mapped to fields by their aliases (see SyntaxProvider.rawFieldAlias), entities are resolved through
+    // the session entity cache like results of query()
+    @Override
+    public SelectQuery<TEntity> rawQuery(String statement, String... parameters) {
+        final EntityCache<TKey, TEntity> cache = getCache();
+        final Field<TEntity, TKey> keyField = entityType.getKeyField();
+        return new RawSelectQuery<>(
+                getQueryProvider().prepareRawSelect(statement, parameters),
+                row -> cache.get(row.getValue(keyField), () -> entityType.newInstance(row)),
+                entityType.getEntityClass());
+    }
+
+    @Override
+    public <T> SelectQuery<T> rawQuery(final Field<TEntity, T> field, String statement, String... parameters) {
+        return new RawSelectQuery<>(
+                getQueryProvider().prepareRawSelect(statement, parameters),
+                row -> row.getValue(field),
+                field.metaInfo().getValueType());
+    }
+
+    @Override
+    public SelectQuery<String[]> rawQueryValues(String statement, String... parameters) {
+        return new RawSelectQuery<>(
+                getQueryProvider().prepareRawSelectValues(statement, parameters),
+                row -> row,
+                String[].class);
+    }
+
     @Override
     public void addAll(Iterable<TEntity> entities) throws IOException {
         for (TEntity entity : entities) {
@@ -88,41 +134,167 @@ public class DefaultEntitySet<TKey, TEntity> extends AbstractEntitySet<TKey, TEn
         }
     }
 
+    @Override
+    public void mergeAll(Iterable<TEntity> entities) throws IOException {
+        EntityCache<TKey, TEntity> cache = getCache();
+        for (TEntity entity : entities) {
+            TKey key = entityType.getKey(entity);
+            if (key == null && entityType.getKeyField().metaInfo().isAutoIncremented()) {
+                getStateTracker().entityAdded(entity);
+                continue;
+            }
+
+            TEntity cachedEntity = key != null ? cache.getIfPresent(key) : null;
+            if (cachedEntity != null && cachedEntity != entity) {
+                entityType.copy(entity, cachedEntity);
+            }
+            getStateTracker().entityMerged(entity);
+        }
+    }
+
     @Override
     public void onSavingChanges(Repository session) throws IOException {
-        EntityStateTracker<TEntity> tracker = getStateTracker();
-        insert(tracker.getAddedEntities());
-        delete(tracker.getDeletedEntities());
-        update(tracker.getModifiedEntities());
-        tracker.clearChanges();
+        // Changes, tracked by other threads while saving, are left for the next save
+        EntityStateTracker<TEntity> changes = getStateTracker().detachChanges();
+        Map<TEntity, Object> versions = null;
+        try {
+            versions = applyVersions(changes);
+            insert(changes.getAddedEntities());
+            upsert(changes.getMergedEntities());
+            delete(changes.getDeletedEntities());
+            update(changes.getModifiedEntities(), versions);
+        } catch (Throwable e) {
+            restoreVersions(versions);
+            restoreChanges(changes);
+            throw e;
+        }
     }
 
     @Override
     public void onDiscardingChanges(Repository session) {
-        EntityStateTracker<TEntity> tracker = getStateTracker();
+        EntityStateTracker<TEntity> changes = getStateTracker().detachChanges();
         EntityCache<TKey, TEntity> cache = getCache();
 
         //noinspection unchecked
         Stream
-                .of(tracker.getModifiedEntities(),
-                    tracker.getAddedEntities(),
-                    tracker.getModifiedEntities())
+                .of(changes.getModifiedEntities(),
+                    changes.getAddedEntities(),
+                    changes.getMergedEntities())
                 .flatMap(Stream::of)
                 .map(entityType::getKey)
                 .forEach(cache::invalidate);
-
-        tracker.clearChanges();
     }
 
     @Override
     public void onClosing(Repository session) {
     }
 
+    private void restoreChanges(EntityStateTracker<TEntity> changes) {
+        EntityStateTracker<TEntity> tracker = getStateTracker();
+        for (TEntity entity : changes.getAddedEntities()) {
+            tracker.entityAdded(entity);
+        }
+        for (TEntity entity : changes.getMergedEntities()) {
+            tracker.entityMerged(entity);
+        }
+        for (TEntity entity : changes.getDeletedEntities()) {
+            tracker.entityDeleted(entity);
+        }
+        for (TEntity entity : changes.getModifiedEntities()) {
+            tracker.entityModified(entity);
+        }
+    }
+
+    // Verifies that stored versions of the entities to be saved were not changed or deleted by another session,
+    // then increments them. Added entities without a version get the initial one, so every stored entity is versioned.
+    // Returns the previous versions, which are expected by the update statements.
+    @SuppressWarnings("unchecked")
+    private Map<TEntity, Object> applyVersions(EntityStateTracker<TEntity> changes) throws IOException {
+        ValueField<TEntity, Object> versionField = (ValueField<TEntity, Object>)entityType.getVersionField();
+        if (versionField == null) return null;
+
+        Map<TEntity, Object> versions = new IdentityHashMap<>();
+        for (TEntity entity : changes.getAddedEntities()) {
+            Object version = versionField.getValue(entity);
+            if (isVersioned(version)) continue;
+            versions.put(entity, version);
+            versionField.setValue(entity, nextVersion(versionField, null));
+        }
+
+        List<TEntity> entities = new ArrayList<>(changes.getMergedEntities());
+        entities.addAll(changes.getModifiedEntities());
+        if (entities.isEmpty()) return versions;
+
+        Map<TKey, Object> storedVersions;
+        try {
+            storedVersions = query()
+                    .where(entityType.getKeyField().in(Stream.of(entities)
+                            .map(entityType::getKey)
+                            .collect(Collectors.toList())))
+                    .selectToMap(entityType.getKeyField(), versionField);
+        } catch (Throwable e) {
+            restoreVersions(versions);
+            throw e;
+        }
+
+        List<TKey> staleKeys = new ArrayList<>();
+        for (TEntity entity : entities) {
+            TKey key = entityType.getKey(entity);
+            Object version = versionField.getValue(entity);
+            Object storedVersion = storedVersions.get(key);
+            if (!storedVersions.containsKey(key)) {
+                // Versioned entity without stored row was deleted by another session
+                if (isVersioned(version)) staleKeys.add(key);
+            } else if (storedVersion != null ? !storedVersion.equals(version) : version != null) {
+                staleKeys.add(key);
+            }
+        }
+        if (!staleKeys.isEmpty()) {
+            restoreVersions(versions);
+            throw new StaleEntityException(entityType, staleKeys);
+        }
+
+        for (TEntity entity : entities) {
+            Object version = versionField.getValue(entity);
+            versions.put(entity, version);
+            versionField.setValue(entity, nextVersion(versionField, version));
+            getCache().invalidate(entityType.getKey(entity));
+        }
+        return versions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restoreVersions(Map<TEntity, Object> versions) {
+        if (versions == null) return;
+        ValueField<TEntity, Object> versionField = (ValueField<TEntity, Object>)entityType.getVersionField();
+        for (Map.Entry<TEntity, Object> entry : versions.entrySet()) {
+            versionField.setValue(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static boolean isVersioned(Object version) {
+        return version != null && ((Number)version).longValue() != 0;
+    }
+
+    private static Object nextVersion(ValueField<?, ?> versionField, Object version) {
+        long next = version != null ? ((Number)version).longValue() + 1 : 1;
+        Class<?> type = versionField.metaInfo().getValueType();
+        if (type == Long.class || type == long.class) return next;
+        if (type == Integer.class || type == int.class) return (int)next;
+        if (type == Short.class || type == short.class) return (short)next;
+        throw new RuntimeException("Version field " + versionField.metaInfo().getName() + " should be of integral type");
+    }
+
     private void insert(Collection<TEntity> entities) throws IOException {
         if (entities.isEmpty()) return;
         getQueryProvider().prepareInsert(entities).execute();
     }
 
+    private void upsert(Collection<TEntity> entities) throws IOException {
+        if (entities.isEmpty()) return;
+        getQueryProvider().prepareUpsert(entities).execute();
+    }
+
     private void delete(Collection<TEntity> entities) throws IOException {
         if (entities.isEmpty()) return;
         deleteQuery()
@@ -133,11 +305,18 @@ public class DefaultEntitySet<TKey, TEntity> extends AbstractEntitySet<TKey, TEn
                 .execute();
     }
 
-    private void update(Collection<TEntity> entities) throws IOException {
+    @SuppressWarnings("unchecked")
+    private void update(Collection<TEntity> entities, Map<TEntity, Object> versions) throws IOException {
         if (entities.isEmpty()) return;
+        ValueField<TEntity, Object> versionField = (ValueField<TEntity, Object>)entityType.getVersionField();
         for (TEntity entity : entities) {
+            Condition<TEntity> condition = entityType.getKeyField().eq(entityType.getKey(entity));
+            if (versions != null) {
+                Object version = versions.get(entity);
+                condition = Conditions.and(condition, version != null ? versionField.eq(version) : versionField.isNull());
+            }
             updateQuery()
-                    .where(entityType.getKeyField().eq(entityType.getKey(entity)))
+                    .where(condition)
                     .setAll(entity)
                     .prepare()
                     .execute();
@@ -0,0 +1,164 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.annimon.stream.function.Predicate;
+import com.slimgears.slimrepo.core.interfaces.Repository;
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityChanges;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.interfaces.queries.LiveQuery;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps results of a query up to date: changed rows are re-read by key and re-evaluated with the compiled
+ * condition, changes of related entity types trigger full re-query
+ */
+public class DefaultLiveQuery<TKey, TEntity> implements LiveQuery<TEntity>, RepositoryService.ChangeListener<TKey, TEntity> {
+    private static final int MAX_KEYS_PER_QUERY = 500;
+
+    private final RepositoryService<?> repositoryService;
+    private final EntityType<TKey, TEntity> entityType;
+    private final Condition<TEntity> condition;
+    private final Predicate<TEntity> predicate;
+    private final LiveQuery.Listener<TEntity> listener;
+    private final Map<TKey, TEntity> results = new LinkedHashMap<>();
+    private final List<EntityType<?, ?>> relatedEntityTypes = new ArrayList<>();
+    private final RepositoryService.ChangeListener<?, ?> relatedChangeListener = changes -> refresh();
+
+    public DefaultLiveQuery(RepositoryService<?> repositoryService, EntityType<TKey, TEntity> entityType, Condition<TEntity> condition, LiveQuery.Listener<TEntity> listener) {
+        this.repositoryService = repositoryService;
+        this.entityType = entityType;
+        this.condition = condition;
+        this.predicate = PredicateCompiler.compile(condition);
+        this.listener = listener;
+        addRelatedEntityTypes(entityType);
+    }
+
+    public DefaultLiveQuery<TKey, TEntity> start() throws IOException {
+        repositoryService.addChangeListener(entityType, this);
+        for (EntityType<?, ?> relatedEntityType : relatedEntityTypes) {
+            addRelatedChangeListener(relatedEntityType);
+        }
+        load();
+        return this;
+    }
+
+    @Override
+    public synchronized List<TEntity> getResults() {
+        return new ArrayList<>(results.values());
+    }
+
+    @Override
+    public void onChanged(EntityChanges<TKey, TEntity> changes) {
+        try {
+            if (apply(changes)) listener.onResultsChanged(this);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        repositoryService.removeChangeListener(entityType, this);
+        for (EntityType<?, ?> relatedEntityType : relatedEntityTypes) {
+            removeRelatedChangeListener(relatedEntityType);
+        }
+    }
+
+    private void refresh() {
+        try {
+            load();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        listener.onResultsChanged(this);
+    }
+
+    private void load() throws IOException {
+        List<TEntity> entities;
+        try (Repository repository = repositoryService.open()) {
+            entities = repository.entities(entityType).query().where(condition).prepare().toList();
+        }
+
+        synchronized (this) {
+            results.clear();
+            for (TEntity entity : entities) {
+                results.put(entityType.getKey(entity), entity);
+            }
+        }
+    }
+
+    private boolean apply(EntityChanges<TKey, TEntity> changes) throws IOException {
+        List<TKey> changedKeys = new ArrayList<>(changes.getInsertedKeys());
+        changedKeys.addAll(changes.getUpdatedKeys());
+        List<TEntity> entities = loadByKeys(changedKeys);
+
+        synchronized (this) {
+            boolean changed = false;
+            for (TKey key : changes.getDeletedKeys()) {
+                changed |= results.remove(key) != null;
+            }
+
+            Set<TKey> missingKeys = new HashSet<>(changedKeys);
+            for (TEntity entity : entities) {
+                TKey key = entityType.getKey(entity);
+                missingKeys.remove(key);
+                if (predicate.test(entity)) {
+                    results.put(key, entity);
+                    changed = true;
+                } else {
+                    changed |= results.remove(key) != null;
+                }
+            }
+
+            for (TKey key : missingKeys) {
+                changed |= results.remove(key) != null;
+            }
+            return changed;
+        }
+    }
+
+    private List<TEntity> loadByKeys(List<TKey> keys) throws IOException {
+        List<TEntity> entities = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) return entities;
+
+        try (Repository repository = repositoryService.open()) {
+            for (int i = 0; i < keys.size(); i += MAX_KEYS_PER_QUERY) {
+                entities.addAll(repository.entities(entityType).query()
+                        .where(entityType.getKeyField().in(keys.subList(i, Math.min(i + MAX_KEYS_PER_QUERY, keys.size()))))
+                        .prepare()
+                        .toList());
+            }
+        }
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addRelatedChangeListener(EntityType<?, ?> relatedEntityType) {
+        repositoryService.addChangeListener((EntityType<Object, Object>)relatedEntityType, (RepositoryService.ChangeListener<Object, Object>)relatedChangeListener);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeRelatedChangeListener(EntityType<?, ?> relatedEntityType) {
+        repositoryService.removeChangeListener((EntityType<Object, Object>)relatedEntityType, (RepositoryService.ChangeListener<Object, Object>)relatedChangeListener);
+    }
+
+    private void addRelatedEntityTypes(EntityType<?, ?> entityType) {
+        for (RelationalField<?, ?> field : entityType.getRelationalFields()) {
+            EntityType<?, ?> relatedEntityType = field.metaInfo().getRelatedEntityType();
+            if (relatedEntityType == this.entityType || relatedEntityTypes.contains(relatedEntityType)) continue;
+            relatedEntityTypes.add(relatedEntityType);
+            addRelatedEntityTypes(relatedEntityType);
+        }
+    }
+}
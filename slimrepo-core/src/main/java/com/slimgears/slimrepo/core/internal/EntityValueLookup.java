@@ -0,0 +1,23 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+
+public class EntityValueLookup<TEntity> implements FieldValueLookup<TEntity> {
+    private final TEntity entity;
+
+    public EntityValueLookup(TEntity entity) {
+        this.entity = entity;
+    }
+
+    public TEntity getEntity() {
+        return entity;
+    }
+
+    @Override
+    public <T> T getValue(Field<TEntity, T> field) {
+        return field.getValue(entity);
+    }
+}
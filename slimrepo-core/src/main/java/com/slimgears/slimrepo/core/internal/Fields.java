@@ -5,11 +5,9 @@ package com.slimgears.slimrepo.core.internal;
 import com.slimgears.slimrepo.core.interfaces.conditions.*;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.fields.*;
+import com.slimgears.slimrepo.core.internal.interfaces.KeyGenerator;
 
-import java.math.BigInteger;
-import java.nio.ByteBuffer;
 import java.util.Collection;
-import java.util.UUID;
 
 /**
  * Created by Denis on 11-Apr-15
@@ -25,6 +23,8 @@ public class Fields {
         private final boolean nullable;
         private final ValueGetter<TEntity, T> valueGetter;
         private final ValueSetter<TEntity, T> valueSetter;
+        private KeyGenerator<T> keyGenerator;
+        private boolean version;
 
         AbstractField(String name, Class<T> type, ValueGetter<TEntity, T> getter, ValueSetter<TEntity, T> setter, boolean nullable) {
             this.name = name;
@@ -32,6 +32,7 @@ public class Fields {
             this.nullable = nullable;
             this.valueGetter = getter;
             this.valueSetter = setter;
+            this.keyGenerator = KeyGenerators.random(type);
         }
 
         @Override
@@ -51,7 +52,8 @@ public class Fields {
 
         @Override
         public T generateValue() {
-            throw new RuntimeException("Cannot generate value of type " + type.getSimpleName());
+            if (keyGenerator == null) throw new RuntimeException("Cannot generate value of type " + type.getSimpleName());
+            return keyGenerator.generateKey();
         }
 
         @Override
@@ -69,6 +71,21 @@ public class Fields {
             return false;
         }
 
+        @Override
+        public boolean isFullTextSearch() {
+            return false;
+        }
+
+        @Override
+        public boolean isCompressed() {
+            return false;
+        }
+
+        @Override
+        public boolean isVersion() {
+            return version;
+        }
+
         @Override
         public T getValue(TEntity entity) {
             return valueGetter.getValue(entity);
@@ -138,6 +155,26 @@ public class Fields {
             //noinspection unchecked
             return Conditions.notIn(this, (T[]) values.toArray());
         }
+
+        @Override
+        public <TOther> SubqueryCondition<TEntity, T, TOther> in(Field<TOther, T> selectedField, Condition<TOther> condition) {
+            return Conditions.in(this, selectedField, condition);
+        }
+
+        @Override
+        public <TOther> SubqueryCondition<TEntity, T, TOther> notIn(Field<TOther, T> selectedField, Condition<TOther> condition) {
+            return Conditions.notIn(this, selectedField, condition);
+        }
+
+        @Override
+        public <TOther> SubqueryCondition<TEntity, T, TOther> exists(Field<TOther, T> relatedField, Condition<TOther> condition) {
+            return Conditions.exists(this, relatedField, condition);
+        }
+
+        @Override
+        public <TOther> SubqueryCondition<TEntity, T, TOther> notExists(Field<TOther, T> relatedField, Condition<TOther> condition) {
+            return Conditions.notExists(this, relatedField, condition);
+        }
     }
 
     static class ValueFieldImplementation<TEntity, T> extends AbstractValueField<TEntity, T> {
@@ -189,17 +226,23 @@ public class Fields {
     }
 
     static class StringFieldImplementation<TEntity> extends AbstractValueField<TEntity, String> implements StringField<TEntity> {
-        StringFieldImplementation(String name, ValueGetter<TEntity, String> getter, ValueSetter<TEntity, String> setter, boolean nullable) {
+        private final boolean fullTextSearch;
+        private final boolean compressed;
+
+        StringFieldImplementation(String name, ValueGetter<TEntity, String> getter, ValueSetter<TEntity, String> setter, boolean nullable, boolean fullTextSearch, boolean compressed) {
             super(name, String.class, getter, setter, nullable);
+            this.fullTextSearch = fullTextSearch;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public boolean isFullTextSearch() {
+            return fullTextSearch;
         }
 
         @Override
-        public String generateValue() {
-            UUID uuid = UUID.randomUUID();
-            ByteBuffer buffer = ByteBuffer.wrap(new byte[16]);
-            buffer.putLong(uuid.getMostSignificantBits());
-            buffer.putLong(uuid.getLeastSignificantBits());
-            return new BigInteger(buffer.array()).abs().toString(32);
+        public boolean isCompressed() {
+            return compressed;
         }
 
         @Override
@@ -231,11 +274,24 @@ public class Fields {
         public BinaryCondition<TEntity, String> notEndsWith(String substr) {
             return Conditions.notEndsWith(this, substr);
         }
+
+        @Override
+        public BinaryCondition<TEntity, String> matches(String query) {
+            return Conditions.matches(this, query);
+        }
     }
 
     static class BlobFieldImplementation<TEntity, T> extends AbstractField<TEntity, T> implements BlobField<TEntity, T> {
-        BlobFieldImplementation(String name, Class<T> type, ValueGetter<TEntity, T> getter, ValueSetter<TEntity, T> setter, boolean nullable) {
+        private final boolean compressed;
+
+        BlobFieldImplementation(String name, Class<T> type, ValueGetter<TEntity, T> getter, ValueSetter<TEntity, T> setter, boolean nullable, boolean compressed) {
             super(name, type, getter, setter, nullable);
+            this.compressed = compressed;
+        }
+
+        @Override
+        public boolean isCompressed() {
+            return compressed;
         }
     }
 
@@ -268,6 +324,18 @@ public class Fields {
         }
     }
 
+    // Overrides the random key generation, which is used by default for string and UUID keys
+    public static <TEntity, T, TField extends Field<TEntity, T>> TField withKeyGenerator(TField field, KeyGenerator<T> keyGenerator) {
+        ((AbstractField<TEntity, T>)field).keyGenerator = keyGenerator;
+        return field;
+    }
+
+    // Marks integral field as row version, checked and incremented when entities are saved
+    public static <TEntity, T, TField extends ValueField<TEntity, T>> TField asVersion(TField field) {
+        ((AbstractField<TEntity, T>)field).version = true;
+        return field;
+    }
+
     public static <TEntity, T> ComparableField<TEntity, T> comparableField(String name,
                                                                            Class<T> fieldType,
                                                                            ValueGetter<TEntity, T> getter,
@@ -288,7 +356,24 @@ public class Fields {
                                                              ValueGetter<TEntity, String> getter,
                                                              ValueSetter<TEntity, String> setter,
                                                              boolean nullable) {
-        return new StringFieldImplementation<>(name, getter, setter, nullable);
+        return stringField(name, getter, setter, nullable, false);
+    }
+
+    public static <TEntity> StringField<TEntity> stringField(String name,
+                                                             ValueGetter<TEntity, String> getter,
+                                                             ValueSetter<TEntity, String> setter,
+                                                             boolean nullable,
+                                                             boolean fullTextSearch) {
+        return stringField(name, getter, setter, nullable, fullTextSearch, false);
+    }
+
+    public static <TEntity> StringField<TEntity> stringField(String name,
+                                                             ValueGetter<TEntity, String> getter,
+                                                             ValueSetter<TEntity, String> setter,
+                                                             boolean nullable,
+                                                             boolean fullTextSearch,
+                                                             boolean compressed) {
+        return new StringFieldImplementation<>(name, getter, setter, nullable, fullTextSearch, compressed);
     }
 
     public static <TEntity, T> BlobField<TEntity, T> blobField(String name,
@@ -296,7 +381,16 @@ public class Fields {
                                                                ValueGetter<TEntity, T> getter,
                                                                ValueSetter<TEntity, T> setter,
                                                                boolean nullable) {
-        return new BlobFieldImplementation<>(name, fieldType, getter, setter, nullable);
+        return blobField(name, fieldType, getter, setter, nullable, false);
+    }
+
+    public static <TEntity, T> BlobField<TEntity, T> blobField(String name,
+                                                               Class<T> fieldType,
+                                                               ValueGetter<TEntity, T> getter,
+                                                               ValueSetter<TEntity, T> setter,
+                                                               boolean nullable,
+                                                               boolean compressed) {
+        return new BlobFieldImplementation<>(name, fieldType, getter, setter, nullable, compressed);
     }
 
     public static <TEntity, TRelatedEntity> RelationalField<TEntity, TRelatedEntity> relationalField(String name,
@@ -12,9 +12,10 @@ import java.util.Set;
  *
  */
 public class HashSetEntityStateTracker<TEntity> implements EntityStateTracker<TEntity> {
-    private final Set<TEntity> modifiedEntities = new LinkedHashSet<>();
-    private final Set<TEntity> addedEntities = new LinkedHashSet<>();
-    private final Set<TEntity> deletedEntities = new LinkedHashSet<>();
+    private Set<TEntity> modifiedEntities = new LinkedHashSet<>();
+    private Set<TEntity> addedEntities = new LinkedHashSet<>();
+    private Set<TEntity> deletedEntities = new LinkedHashSet<>();
+    private Set<TEntity> mergedEntities = new LinkedHashSet<>();
 
     @Override
     public Set<TEntity> getModifiedEntities() {
@@ -31,6 +32,11 @@ public class HashSetEntityStateTracker<TEntity> implements EntityStateTracker<TE
         return deletedEntities;
     }
 
+    @Override
+    public Set<TEntity> getMergedEntities() {
+        return mergedEntities;
+    }
+
     @Override
     public void entityModified(TEntity entity) {
         if (!addedEntities.contains(entity) || !deletedEntities.contains(entity)) modifiedEntities.add(entity);
@@ -43,6 +49,7 @@ public class HashSetEntityStateTracker<TEntity> implements EntityStateTracker<TE
         } else {
             deletedEntities.add(entity);
             modifiedEntities.remove(entity);
+            mergedEntities.remove(entity);
         }
     }
 
@@ -56,17 +63,49 @@ public class HashSetEntityStateTracker<TEntity> implements EntityStateTracker<TE
         }
     }
 
+    @Override
+    public void entityMerged(TEntity entity) {
+        if (addedEntities.contains(entity)) return;
+        deletedEntities.remove(entity);
+        modifiedEntities.remove(entity);
+        mergedEntities.add(entity);
+    }
+
     @Override
     public void clearChanges() {
         addedEntities.clear();
         deletedEntities.clear();
         modifiedEntities.clear();
+        mergedEntities.clear();
+    }
+
+    @Override
+    public EntityStateTracker<TEntity> detachChanges() {
+        HashSetEntityStateTracker<TEntity> changes = new HashSetEntityStateTracker<>();
+        changes.modifiedEntities = modifiedEntities;
+        changes.addedEntities = addedEntities;
+        changes.deletedEntities = deletedEntities;
+        changes.mergedEntities = mergedEntities;
+        modifiedEntities = new LinkedHashSet<>();
+        addedEntities = new LinkedHashSet<>();
+        deletedEntities = new LinkedHashSet<>();
+        mergedEntities = new LinkedHashSet<>();
+        return changes;
+    }
+
+    // Appends changes of disjoint entities, as tracked by another stripe
+    void addChanges(HashSetEntityStateTracker<TEntity> changes) {
+        modifiedEntities.addAll(changes.modifiedEntities);
+        addedEntities.addAll(changes.addedEntities);
+        deletedEntities.addAll(changes.deletedEntities);
+        mergedEntities.addAll(changes.mergedEntities);
     }
 
     @Override
     public boolean hasChanges() {
         return  (!modifiedEntities.isEmpty()) ||
                 (!addedEntities.isEmpty()) ||
-                (!deletedEntities.isEmpty());
+                (!deletedEntities.isEmpty()) ||
+                (!mergedEntities.isEmpty());
     }
 }
@@ -0,0 +1,104 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+import com.slimgears.slimrepo.core.utilities.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HistogramMetricsSink implements MetricsSink {
+    private final ConcurrentMap<String, StatementMetrics> statementMetrics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CacheMetrics> cacheMetrics = new ConcurrentHashMap<>();
+    private final LatencyHistogram statementBuildLatency = new LatencyHistogram();
+    private final LatencyHistogram transactionLatency = new LatencyHistogram();
+    private final AtomicLong cancelledTransactions = new AtomicLong();
+
+    public static class StatementMetrics {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong rowCount = new AtomicLong();
+
+        public long getRowCount() {
+            return rowCount.get();
+        }
+    }
+
+    public static class CacheMetrics {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public double getHitRatio() {
+            long hitCount = hits.get();
+            long total = hitCount + misses.get();
+            return total != 0 ? (double)hitCount / total : 0;
+        }
+    }
+
+    @Override
+    public void onStatementBuilt(String statement, long durationNanos) {
+        statementBuildLatency.record(durationNanos);
+    }
+
+    @Override
+    public void onStatementExecuted(String statement, long durationNanos, long rowCount) {
+        StatementMetrics metrics = statementMetrics.get(statement);
+        if (metrics == null) {
+            StatementMetrics newMetrics = new StatementMetrics();
+            metrics = statementMetrics.putIfAbsent(statement, newMetrics);
+            if (metrics == null) metrics = newMetrics;
+        }
+        metrics.latency.record(durationNanos);
+        metrics.rowCount.addAndGet(rowCount);
+    }
+
+    @Override
+    public void onTransactionCompleted(long durationNanos, boolean committed) {
+        transactionLatency.record(durationNanos);
+        if (!committed) cancelledTransactions.incrementAndGet();
+    }
+
+    @Override
+    public void onCacheLookup(EntityType<?, ?> entityType, boolean hit) {
+        CacheMetrics metrics = cacheMetrics.get(entityType.getName());
+        if (metrics == null) {
+            CacheMetrics newMetrics = new CacheMetrics();
+            metrics = cacheMetrics.putIfAbsent(entityType.getName(), newMetrics);
+            if (metrics == null) metrics = newMetrics;
+        }
+        if (hit) metrics.hits.incrementAndGet();
+        else metrics.misses.incrementAndGet();
+    }
+
+    public Map<String, StatementMetrics> getStatementMetrics() {
+        return Collections.unmodifiableMap(statementMetrics);
+    }
+
+    public Map<String, CacheMetrics> getCacheMetrics() {
+        return Collections.unmodifiableMap(cacheMetrics);
+    }
+
+    public LatencyHistogram getStatementBuildLatency() {
+        return statementBuildLatency;
+    }
+
+    public LatencyHistogram getTransactionLatency() {
+        return transactionLatency;
+    }
+
+    public long getCancelledTransactions() {
+        return cancelledTransactions.get();
+    }
+}
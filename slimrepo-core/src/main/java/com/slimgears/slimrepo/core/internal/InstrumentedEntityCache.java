@@ -0,0 +1,60 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.interfaces.EntityCache;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+
+import java.util.concurrent.Callable;
+
+public class InstrumentedEntityCache<TKey, TEntity> implements EntityCache<TKey, TEntity> {
+    private final EntityCache<TKey, TEntity> underlyingCache;
+    private final EntityType<TKey, TEntity> entityType;
+    private final MetricsSink metricsSink;
+
+    public InstrumentedEntityCache(EntityCache<TKey, TEntity> underlyingCache, EntityType<TKey, TEntity> entityType, MetricsSink metricsSink) {
+        this.underlyingCache = underlyingCache;
+        this.entityType = entityType;
+        this.metricsSink = metricsSink;
+    }
+
+    @Override
+    public TEntity get(TKey id, Callable<TEntity> valueLoader) {
+        boolean[] loaded = {false};
+        TEntity entity = underlyingCache.get(id, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        metricsSink.onCacheLookup(entityType, !loaded[0]);
+        return entity;
+    }
+
+    @Override
+    public TEntity getIfPresent(TKey id) {
+        TEntity entity = underlyingCache.getIfPresent(id);
+        metricsSink.onCacheLookup(entityType, entity != null);
+        return entity;
+    }
+
+    @Override
+    public void put(TEntity entity) {
+        underlyingCache.put(entity);
+    }
+
+    @Override
+    public void invalidateAll() {
+        underlyingCache.invalidateAll();
+    }
+
+    @SafeVarargs
+    @Override
+    public final void invalidateAll(TKey... keys) {
+        underlyingCache.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidate(TKey id) {
+        underlyingCache.invalidate(id);
+    }
+}
@@ -0,0 +1,50 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.IOException;
+
+/**
+ * Records the duration of the outermost transaction only; nested transactions are part of it
+ */
+public class InstrumentedTransactionProvider implements TransactionProvider {
+    private final TransactionProvider underlyingProvider;
+    private final MetricsSink metricsSink;
+    private long startTime;
+    private int transactionDepth;
+    private boolean cancelled;
+
+    public InstrumentedTransactionProvider(TransactionProvider underlyingProvider, MetricsSink metricsSink) {
+        this.underlyingProvider = underlyingProvider;
+        this.metricsSink = metricsSink;
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        if (transactionDepth == 0) {
+            startTime = System.nanoTime();
+            cancelled = false;
+        }
+        underlyingProvider.beginTransaction();
+        ++transactionDepth;
+    }
+
+    @Override
+    public void commitTransaction() throws IOException {
+        underlyingProvider.commitTransaction();
+        if (--transactionDepth == 0) metricsSink.onTransactionCompleted(System.nanoTime() - startTime, !cancelled);
+    }
+
+    @Override
+    public void cancelTransaction() throws IOException {
+        try {
+            underlyingProvider.cancelTransaction();
+        } finally {
+            cancelled = true;
+            if (--transactionDepth == 0) metricsSink.onTransactionCompleted(System.nanoTime() - startTime, false);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.KeyGenerator;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Time ordered keys start with a millisecond timestamp and are monotonic within a millisecond, so that
+ * consecutive inserts are appended to the end of the key index instead of landing at random positions
+ */
+public class KeyGenerators {
+    private static final char[] CROCKFORD_BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    public static final KeyGenerator<String> RANDOM_STRING = () -> {
+        UUID uuid = UUID.randomUUID();
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[16]);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        return new BigInteger(buffer.array()).abs().toString(32);
+    };
+
+    public static final KeyGenerator<UUID> RANDOM_UUID = UUID::randomUUID;
+
+    // ULID: 48 bit timestamp followed by 80 random bits, encoded as 26 characters of Crockford's base 32
+    public static final KeyGenerator<String> TIME_ORDERED_STRING = new KeyGenerator<String>() {
+        private final Random random = new SecureRandom();
+        private long lastTime = -1;
+        private long randomHigh;
+        private long randomLow;
+
+        @Override
+        public synchronized String generateKey() {
+            long time = System.currentTimeMillis();
+            if (time > lastTime) {
+                lastTime = time;
+                randomHigh = random.nextInt() & 0xffff;
+                randomLow = random.nextLong();
+            } else if (++randomLow == 0 && (randomHigh = (randomHigh + 1) & 0xffff) == 0) {
+                ++lastTime;
+            }
+
+            char[] chars = new char[26];
+            encode(chars, 0, 10, lastTime);
+            encode(chars, 10, 4, (randomHigh << 4) | (randomLow >>> 60));
+            encode(chars, 14, 12, randomLow & 0x0fffffffffffffffL);
+            return new String(chars);
+        }
+    };
+
+    // UUID version 7: 48 bit timestamp, 12 bit sequence within the millisecond and 62 random bits
+    public static final KeyGenerator<UUID> TIME_ORDERED_UUID = new KeyGenerator<UUID>() {
+        private final Random random = new SecureRandom();
+        private long lastTime = -1;
+        private long sequence;
+
+        @Override
+        public synchronized UUID generateKey() {
+            long time = System.currentTimeMillis();
+            if (time > lastTime) {
+                lastTime = time;
+                sequence = random.nextInt() & 0x3ff;
+            } else if (++sequence > 0xfff) {
+                ++lastTime;
+                sequence = 0;
+            }
+
+            long mostSignificantBits = (lastTime << 16) | 0x7000 | sequence;
+            long leastSignificantBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+            return new UUID(mostSignificantBits, leastSignificantBits);
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public static <T> KeyGenerator<T> timeOrdered(Class<T> keyType) {
+        if (keyType == String.class) return (KeyGenerator<T>)TIME_ORDERED_STRING;
+        if (keyType == UUID.class) return (KeyGenerator<T>)TIME_ORDERED_UUID;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> KeyGenerator<T> random(Class<T> keyType) {
+        if (keyType == String.class) return (KeyGenerator<T>)RANDOM_STRING;
+        if (keyType == UUID.class) return (KeyGenerator<T>)RANDOM_UUID;
+        return null;
+    }
+
+    private static void encode(char[] chars, int offset, int length, long value) {
+        for (int i = offset + length - 1; i >= offset; --i) {
+            chars[i] = CROCKFORD_BASE32[(int)(value & 0x1f)];
+            value >>>= 5;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.internal.interfaces.EntityCache;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Entity cache for integral keys, backed by an open addressing (linear probing) long to entity map
+ */
+public class LongKeyEntityCache<TKey, TEntity> implements EntityCache<TKey, TEntity> {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final EntityType<TKey, TEntity> entityType;
+    private long[] keys;
+    private Object[] entities;
+    private int size;
+
+    public LongKeyEntityCache(EntityType<TKey, TEntity> entityType) {
+        this.entityType = entityType;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public static boolean isApplicable(EntityType<?, ?> entityType) {
+        Field<?, ?> keyField = entityType.getKeyField();
+        if (!(keyField instanceof ComparableField)) return false;
+        Class valueType = keyField.metaInfo().getValueType();
+        return valueType == Long.class || valueType == long.class ||
+                valueType == Integer.class || valueType == int.class ||
+                valueType == Short.class || valueType == short.class ||
+                valueType == Byte.class || valueType == byte.class;
+    }
+
+    @Override
+    public TEntity get(TKey id, Callable<TEntity> valueLoader) {
+        return get(toLong(id), valueLoader);
+    }
+
+    public TEntity get(long id, Callable<TEntity> valueLoader) {
+        TEntity entity = getIfPresent(id);
+        if (entity != null) return entity;
+        try {
+            return putIfAbsent(id, valueLoader.call());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public TEntity getIfPresent(TKey id) {
+        return getIfPresent(toLong(id));
+    }
+
+    public synchronized TEntity getIfPresent(long id) {
+        int index = indexOf(id);
+        //noinspection unchecked
+        return (TEntity)entities[index];
+    }
+
+    @Override
+    public void put(TEntity entity) {
+        putIfAbsent(toLong(entityType.getKey(entity)), entity);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        Arrays.fill(entities, null);
+        size = 0;
+    }
+
+    @SafeVarargs
+    @Override
+    public final synchronized void invalidateAll(TKey... keys) {
+        for (TKey key : keys) {
+            remove(toLong(key));
+        }
+    }
+
+    @Override
+    public void invalidate(TKey id) {
+        invalidate(toLong(id));
+    }
+
+    public synchronized void invalidate(long id) {
+        remove(id);
+    }
+
+    private synchronized TEntity putIfAbsent(long id, TEntity entity) {
+        int index = indexOf(id);
+        if (entities[index] != null) {
+            //noinspection unchecked
+            return (TEntity)entities[index];
+        }
+
+        keys[index] = id;
+        entities[index] = entity;
+        if (++size > keys.length * LOAD_FACTOR) rehash(keys.length * 2);
+        return entity;
+    }
+
+    private void remove(long id) {
+        int index = indexOf(id);
+        if (entities[index] == null) return;
+
+        entities[index] = null;
+        --size;
+
+        // Backward shift deletion keeps probe sequences unbroken without tombstones
+        int mask = keys.length - 1;
+        int hole = index;
+        for (int i = (index + 1) & mask; entities[i] != null; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                entities[hole] = entities[i];
+                entities[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private int indexOf(long id) {
+        int mask = keys.length - 1;
+        int index = hash(id) & mask;
+        while (entities[index] != null && keys[index] != id) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldEntities = entities;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldEntities[i] == null) continue;
+            int index = indexOf(oldKeys[i]);
+            keys[index] = oldKeys[i];
+            entities[index] = oldEntities[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        entities = new Object[capacity];
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private static long toLong(Object id) {
+        return ((Number)id).longValue();
+    }
+}
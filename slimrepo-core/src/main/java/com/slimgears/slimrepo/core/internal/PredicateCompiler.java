@@ -0,0 +1,235 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.annimon.stream.function.Predicate;
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CompositeCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.RelationalCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.SubqueryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.TernaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.UnaryCondition;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.utilities.FullTextPattern;
+import com.slimgears.slimrepo.core.utilities.LikePattern;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class PredicateCompiler<TEntity> extends PredicateVisitor<TEntity, Predicate<TEntity>> {
+    private static final Predicate<Object> ALWAYS_TRUE = entity -> true;
+
+    private final SubqueryResolver subqueryResolver;
+
+    public interface SubqueryResolver {
+        <TOther, V> Set<V> resolve(Field<TOther, V> selectedField, Condition<TOther> condition);
+    }
+
+    private PredicateCompiler(SubqueryResolver subqueryResolver) {
+        this.subqueryResolver = subqueryResolver;
+    }
+
+    public static <TEntity> Predicate<TEntity> compile(Condition<TEntity> condition) {
+        return compile(condition, null);
+    }
+
+    // Subquery values are resolved once, when the predicate is compiled, and then probed by hash lookups
+    public static <TEntity> Predicate<TEntity> compile(Condition<TEntity> condition, SubqueryResolver subqueryResolver) {
+        //noinspection unchecked
+        return condition != null
+                ? new PredicateCompiler<TEntity>(subqueryResolver).visit(condition)
+                : (Predicate<TEntity>)ALWAYS_TRUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static int compare(Object first, Object second) {
+        return ((Comparable<Object>)first).compareTo(second);
+    }
+
+    @Override
+    protected <V> Predicate<TEntity> visitBinary(BinaryCondition<TEntity, V> predicate) {
+        final Field<TEntity, V> field = predicate.getField();
+        final V argument = predicate.getValue();
+        if (argument == null) return entity -> false;
+
+        switch (predicate.getType()) {
+            case VALUE_FIELD_EQUALS: return entity -> argument.equals(field.getValue(entity));
+            case VALUE_FIELD_NOT_EQUALS: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && !argument.equals(value);
+            };
+            case NUMBER_FIELD_GREATER: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && compare(value, argument) > 0;
+            };
+            case NUMBER_FIELD_GREATER_EQUAL: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && compare(value, argument) >= 0;
+            };
+            case NUMBER_FIELD_LESS: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && compare(value, argument) < 0;
+            };
+            case NUMBER_FIELD_LESS_EQUAL: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && compare(value, argument) <= 0;
+            };
+            case STRING_FIELD_CONTAINS: return like(field, "%" + argument + "%", true);
+            case STRING_FIELD_NOT_CONTAINS: return like(field, "%" + argument + "%", false);
+            case STRING_FIELD_STARTS_WITH: return like(field, argument + "%", true);
+            case STRING_FIELD_NOT_STARTS_WITH: return like(field, argument + "%", false);
+            case STRING_FIELD_ENDS_WITH: return like(field, "%" + argument, true);
+            case STRING_FIELD_NOT_ENDS_WITH: return like(field, "%" + argument, false);
+            case STRING_FIELD_MATCHES: return matches(field, argument.toString());
+            default: return visitUnknown(predicate);
+        }
+    }
+
+    @Override
+    protected <V> Predicate<TEntity> visitTernary(TernaryCondition<TEntity, V> predicate) {
+        final Field<TEntity, V> field = predicate.getField();
+        final V min = predicate.getFirst();
+        final V max = predicate.getSecond();
+        if (min == null || max == null) return entity -> false;
+
+        return entity -> {
+            V value = field.getValue(entity);
+            return value != null && compare(value, min) >= 0 && compare(value, max) <= 0;
+        };
+    }
+
+    @Override
+    protected <V> Predicate<TEntity> visitCollection(CollectionCondition<TEntity, V> predicate) {
+        final Field<TEntity, V> field = predicate.getField();
+        final Set<V> values = new HashSet<>(Arrays.asList(predicate.getValues()));
+
+        switch (predicate.getType()) {
+            case VALUE_FIELD_IN: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && values.contains(value);
+            };
+            case VALUE_FIELD_NOT_IN: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && !values.contains(value);
+            };
+            default: return visitUnknown(predicate);
+        }
+    }
+
+    @Override
+    protected <V> Predicate<TEntity> visitUnary(UnaryCondition<TEntity, V> predicate) {
+        final Field<TEntity, V> field = predicate.getField();
+        switch (predicate.getType()) {
+            case FIELD_IS_NULL: return entity -> field.getValue(entity) == null;
+            case FIELD_IS_NOT_NULL: return entity -> field.getValue(entity) != null;
+            default: return visitUnknown(predicate);
+        }
+    }
+
+    @Override
+    protected Predicate<TEntity> visitComposite(CompositeCondition<TEntity> predicate) {
+        Condition<TEntity>[] arguments = predicate.getArguments();
+        final Predicate<TEntity>[] predicates = compileAll(arguments);
+
+        switch (predicate.getType()) {
+            case COMPOSITE_AND:
+                if (predicates.length == 2) {
+                    final Predicate<TEntity> first = predicates[0];
+                    final Predicate<TEntity> second = predicates[1];
+                    return entity -> first.test(entity) && second.test(entity);
+                }
+                return entity -> {
+                    for (Predicate<TEntity> p : predicates) {
+                        if (!p.test(entity)) return false;
+                    }
+                    return true;
+                };
+            case COMPOSITE_OR:
+                if (predicates.length == 2) {
+                    final Predicate<TEntity> first = predicates[0];
+                    final Predicate<TEntity> second = predicates[1];
+                    return entity -> first.test(entity) || second.test(entity);
+                }
+                return entity -> {
+                    for (Predicate<TEntity> p : predicates) {
+                        if (p.test(entity)) return true;
+                    }
+                    return false;
+                };
+            case COMPOSITE_NOT:
+                final Predicate<TEntity> negated = predicates[0];
+                return entity -> !negated.test(entity);
+            default:
+                return visitUnknown(predicate);
+        }
+    }
+
+    @Override
+    protected <V> Predicate<TEntity> visitRelational(RelationalCondition<TEntity, V> condition) {
+        final Field<TEntity, V> field = condition.getField();
+        final Predicate<V> related = compile(condition.getCondition(), subqueryResolver);
+        return entity -> {
+            V value = field.getValue(entity);
+            return value != null && related.test(value);
+        };
+    }
+
+    @Override
+    protected <V, TOther> Predicate<TEntity> visitSubquery(SubqueryCondition<TEntity, V, TOther> condition) {
+        if (subqueryResolver == null) throw new RuntimeException("Subquery conditions are not supported in this context");
+
+        final Field<TEntity, V> field = condition.getField();
+        final Set<V> values = subqueryResolver.resolve(condition.getSelectedField(), condition.getCondition());
+        switch (condition.getType()) {
+            case SUBQUERY_IN:
+            case SUBQUERY_EXISTS: return entity -> {
+                V value = field.getValue(entity);
+                return value != null && values.contains(value);
+            };
+            // Same as SQL: NOT IN is never satisfied when the subquery selects a null value
+            case SUBQUERY_NOT_IN: return entity -> {
+                if (values.isEmpty()) return true;
+                V value = field.getValue(entity);
+                return value != null && !values.contains(null) && !values.contains(value);
+            };
+            case SUBQUERY_NOT_EXISTS: return entity -> {
+                V value = field.getValue(entity);
+                return value == null || !values.contains(value);
+            };
+            default: return visitUnknown(condition);
+        }
+    }
+
+    @Override
+    protected Predicate<TEntity> visitUnknown(Condition<TEntity> condition) {
+        throw new RuntimeException("Not supported predicate: " + condition.getType());
+    }
+
+    private <V> Predicate<TEntity> like(final Field<TEntity, V> field, String pattern, final boolean expected) {
+        final LikePattern likePattern = LikePattern.compile(pattern);
+        return entity -> {
+            V value = field.getValue(entity);
+            return value != null && likePattern.matches(value.toString()) == expected;
+        };
+    }
+
+    private <V> Predicate<TEntity> matches(final Field<TEntity, V> field, String query) {
+        final FullTextPattern pattern = FullTextPattern.compile(query);
+        return entity -> {
+            V value = field.getValue(entity);
+            return value != null && pattern.matches(value.toString());
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<TEntity>[] compileAll(Condition<TEntity>[] conditions) {
+        Predicate<TEntity>[] predicates = new Predicate[conditions.length];
+        for (int i = 0; i < conditions.length; ++i) {
+            predicates[i] = visit(conditions[i]);
+        }
+        return predicates;
+    }
+}
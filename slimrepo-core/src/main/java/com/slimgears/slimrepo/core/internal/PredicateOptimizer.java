@@ -0,0 +1,317 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CompositeCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.interfaces.conditions.FieldCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.PredicateType;
+import com.slimgears.slimrepo.core.interfaces.conditions.RelationalCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.SubqueryCondition;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simplifies condition trees before translation: flattens AND / OR chains, merges equality and IN predicates
+ * on the same field, folds contradictions and tautologies and merges relational conditions of the same relation.
+ * TRUE is represented by null (no condition) and FALSE by an empty IN predicate.
+ */
+@SuppressWarnings("unchecked")
+public class PredicateOptimizer {
+    private static final Object[] NO_VALUES = new Object[0];
+
+    static class FieldGroup {
+        final Field field;
+        final List<Condition> members = new ArrayList<>();
+        Set<Object> values;
+        boolean isNull;
+        boolean isNotNull;
+        List<Condition> related;
+
+        FieldGroup(Field field) {
+            this.field = field;
+        }
+    }
+
+    public static <TEntity> Condition<TEntity> optimize(Condition<TEntity> condition) {
+        if (condition instanceof CompositeCondition && condition.getType() != PredicateType.COMPOSITE_NOT) {
+            return optimizeComposite((CompositeCondition<TEntity>)condition);
+        }
+        if (condition instanceof CollectionCondition) return optimizeCollection((CollectionCondition<TEntity, Object>)condition);
+        if (condition instanceof RelationalCondition) return optimizeRelational((RelationalCondition<TEntity, Object>)condition);
+        if (condition instanceof SubqueryCondition) return optimizeSubquery((SubqueryCondition<TEntity, Object, Object>)condition);
+        return condition;
+    }
+
+    public static boolean isFalse(Condition<?> condition) {
+        return condition instanceof CollectionCondition &&
+                condition.getType() == PredicateType.VALUE_FIELD_IN &&
+                ((CollectionCondition<?, ?>)condition).getValues().length == 0;
+    }
+
+    // Such conditions can be evaluated against the foreign key column, without joining the related table
+    public static boolean referencesRelatedKeyOnly(RelationalCondition<?, ?> condition) {
+        return referencesFieldOnly(condition.getCondition(), condition.getField().metaInfo().getRelatedEntityType().getKeyField());
+    }
+
+    private static boolean referencesFieldOnly(Condition<?> condition, Field<?, ?> field) {
+        if (condition instanceof CompositeCondition) {
+            for (Condition<?> argument : ((CompositeCondition<?>)condition).getArguments()) {
+                if (!referencesFieldOnly(argument, field)) return false;
+            }
+            return true;
+        }
+        return condition instanceof FieldCondition &&
+                !(condition instanceof RelationalCondition) &&
+                condition.getType() != PredicateType.STRING_FIELD_MATCHES &&
+                ((FieldCondition<?, ?>)condition).getField() == field;
+    }
+
+    private static <TEntity, T> Condition<TEntity> optimizeCollection(CollectionCondition<TEntity, T> condition) {
+        T[] values = condition.getValues();
+        if (values.length == 0) return condition.getType() == PredicateType.VALUE_FIELD_IN ? condition : null;
+
+        T[] normalized = normalize(new LinkedHashSet<>(Arrays.asList(values)));
+        if (condition.getType() == PredicateType.VALUE_FIELD_IN) return inCondition(condition.getField(), normalized, condition);
+        return Arrays.equals(normalized, values) ? condition : Conditions.notIn(condition.getField(), normalized);
+    }
+
+    private static <TEntity, TRelatedEntity> Condition<TEntity> optimizeRelational(RelationalCondition<TEntity, TRelatedEntity> condition) {
+        Condition<TRelatedEntity> relatedCondition = optimize(condition.getCondition());
+        if (relatedCondition == null) return null;
+        if (isFalse(relatedCondition)) return falseCondition(condition.getField());
+        return relatedCondition != condition.getCondition()
+                ? Conditions.is(condition.getField(), relatedCondition)
+                : condition;
+    }
+
+    private static <TEntity, T, TOther> Condition<TEntity> optimizeSubquery(SubqueryCondition<TEntity, T, TOther> condition) {
+        Condition<TOther> subqueryCondition = condition.getCondition() != null ? optimize(condition.getCondition()) : null;
+        if (subqueryCondition != null && isFalse(subqueryCondition)) {
+            boolean negated = condition.getType() == PredicateType.SUBQUERY_NOT_IN || condition.getType() == PredicateType.SUBQUERY_NOT_EXISTS;
+            return negated ? null : falseCondition(condition.getField());
+        }
+        if (subqueryCondition == condition.getCondition()) return condition;
+
+        switch (condition.getType()) {
+            case SUBQUERY_IN: return Conditions.in(condition.getField(), condition.getSelectedField(), subqueryCondition);
+            case SUBQUERY_NOT_IN: return Conditions.notIn(condition.getField(), condition.getSelectedField(), subqueryCondition);
+            case SUBQUERY_EXISTS: return Conditions.exists(condition.getField(), condition.getSelectedField(), subqueryCondition);
+            default: return Conditions.notExists(condition.getField(), condition.getSelectedField(), subqueryCondition);
+        }
+    }
+
+    private static <TEntity> Condition<TEntity> optimizeComposite(CompositeCondition<TEntity> condition) {
+        PredicateType type = condition.getType();
+        boolean conjunction = type == PredicateType.COMPOSITE_AND;
+
+        List<Condition<TEntity>> arguments = new ArrayList<>();
+        Condition<TEntity> falseArgument = null;
+        boolean changed = false;
+        for (Condition<TEntity> argument : flatten(type, condition)) {
+            Condition<TEntity> optimized = optimize(argument);
+            changed |= optimized != argument;
+            if (optimized == null) {
+                if (!conjunction) return null;
+            } else if (isFalse(optimized)) {
+                if (conjunction) return optimized;
+                falseArgument = optimized;
+            } else if (optimized.getType() == type && optimized instanceof CompositeCondition) {
+                arguments.addAll(Arrays.asList(((CompositeCondition<TEntity>)optimized).getArguments()));
+            } else {
+                arguments.add(optimized);
+            }
+        }
+        changed |= arguments.size() != condition.getArguments().length;
+
+        List<Object> slots = new ArrayList<>(arguments.size());
+        Map<Field, FieldGroup> groups = new HashMap<>();
+        for (Condition<TEntity> argument : arguments) {
+            Field field = groupField(argument);
+            if (field == null) {
+                slots.add(argument);
+                continue;
+            }
+            FieldGroup group = groups.get(field);
+            if (group == null) {
+                groups.put(field, group = new FieldGroup(field));
+                slots.add(group);
+            }
+            addToGroup(group, argument, conjunction);
+        }
+
+        if (!changed && !hasMergedGroups(groups.values())) return condition;
+
+        List<Condition<TEntity>> result = new ArrayList<>(slots.size());
+        for (Object slot : slots) {
+            if (slot instanceof Condition) {
+                result.add((Condition<TEntity>)slot);
+                continue;
+            }
+            FieldGroup group = (FieldGroup)slot;
+            if (group.members.size() == 1) {
+                result.add(group.members.get(0));
+                continue;
+            }
+            for (Condition<TEntity> merged : PredicateOptimizer.<TEntity>mergeGroup(group, conjunction)) {
+                if (merged == null) {
+                    if (!conjunction) return null;
+                } else if (isFalse(merged)) {
+                    if (conjunction) return merged;
+                    falseArgument = merged;
+                } else {
+                    result.add(merged);
+                }
+            }
+        }
+
+        if (result.isEmpty()) return conjunction ? null : falseArgument;
+        if (result.size() == 1) return result.get(0);
+        Condition<TEntity>[] resultArguments = result.toArray(new Condition[result.size()]);
+        return conjunction ? Conditions.and(resultArguments) : Conditions.or(resultArguments);
+    }
+
+    private static boolean hasMergedGroups(Collection<FieldGroup> groups) {
+        for (FieldGroup group : groups) {
+            if (group.members.size() > 1) return true;
+        }
+        return false;
+    }
+
+    private static <TEntity> List<Condition<TEntity>> flatten(PredicateType type, CompositeCondition<TEntity> condition) {
+        List<Condition<TEntity>> arguments = new ArrayList<>();
+        for (Condition<TEntity> argument : condition.getArguments()) {
+            if (argument instanceof CompositeCondition && argument.getType() == type) {
+                arguments.addAll(flatten(type, (CompositeCondition<TEntity>)argument));
+            } else {
+                arguments.add(argument);
+            }
+        }
+        return arguments;
+    }
+
+    private static Field groupField(Condition<?> condition) {
+        switch (condition.getType()) {
+            case VALUE_FIELD_EQUALS:
+                return ((BinaryCondition<?, ?>)condition).getValue() != null ? ((BinaryCondition<?, ?>)condition).getField() : null;
+            case VALUE_FIELD_IN:
+                return condition instanceof CollectionCondition ? ((CollectionCondition<?, ?>)condition).getField() : null;
+            case FIELD_IS_NULL:
+            case FIELD_IS_NOT_NULL:
+            case RELATIONAL_IS:
+                return condition instanceof FieldCondition ? ((FieldCondition<?, ?>)condition).getField() : null;
+            default:
+                return null;
+        }
+    }
+
+    private static void addToGroup(FieldGroup group, Condition<?> condition, boolean conjunction) {
+        group.members.add(condition);
+        switch (condition.getType()) {
+            case VALUE_FIELD_EQUALS:
+                addValues(group, Arrays.asList(((BinaryCondition<?, ?>)condition).getValue()), conjunction);
+                break;
+            case VALUE_FIELD_IN:
+                addValues(group, Arrays.asList(((CollectionCondition<?, ?>)condition).getValues()), conjunction);
+                break;
+            case FIELD_IS_NULL:
+                group.isNull = true;
+                break;
+            case FIELD_IS_NOT_NULL:
+                group.isNotNull = true;
+                break;
+            case RELATIONAL_IS:
+                if (group.related == null) group.related = new ArrayList<>();
+                group.related.add(((RelationalCondition<?, ?>)condition).getCondition());
+                break;
+        }
+    }
+
+    private static void addValues(FieldGroup group, Collection<Object> values, boolean conjunction) {
+        if (group.values == null) {
+            group.values = new LinkedHashSet<>(values);
+        } else if (conjunction) {
+            group.values.retainAll(values);
+        } else {
+            group.values.addAll(values);
+        }
+    }
+
+    private static <TEntity> List<Condition<TEntity>> mergeGroup(FieldGroup group, boolean conjunction) {
+        List<Condition<TEntity>> merged = new ArrayList<>();
+        Field<TEntity, Object> field = group.field;
+        if (conjunction) {
+            if (group.isNull && (group.isNotNull || group.values != null)) {
+                merged.add(falseCondition(field));
+                return merged;
+            }
+            if (group.values != null) group.isNotNull = false;
+        } else if (group.isNull && group.isNotNull) {
+            merged.add(null);
+            return merged;
+        }
+
+        if (group.values != null) merged.add(inCondition(field, normalize(group.values), null));
+        if (group.isNull) merged.add(Conditions.isNull(field));
+        if (group.isNotNull) merged.add(Conditions.isNotNull(field));
+        if (group.related != null) {
+            Condition[] related = group.related.toArray(new Condition[group.related.size()]);
+            merged.add(optimize(Conditions.is((RelationalField<TEntity, Object>)field, conjunction ? Conditions.and(related) : Conditions.or(related))));
+        }
+        return merged;
+    }
+
+    private static <TEntity, T> Condition<TEntity> inCondition(Field<TEntity, T> field, T[] values, CollectionCondition<TEntity, T> original) {
+        if (values.length == 0) return falseCondition(field);
+        if (original != null && Arrays.equals(values, original.getValues())) return original;
+        if (values.length == 1 && field instanceof ValueField) return Conditions.equals((ValueField<TEntity, T>)field, values[0]);
+        return Conditions.in(field, values);
+    }
+
+    private static <TEntity, T> Condition<TEntity> falseCondition(Field<TEntity, T> field) {
+        return Conditions.in(field, (T[])NO_VALUES);
+    }
+
+    // Distinct values are sorted, so that equal sets produce identical statements
+    private static <T> T[] normalize(Collection<T> values) {
+        T[] result = values.toArray((T[])Array.newInstance(commonClass(values), values.size()));
+        if (isSortable(result)) Arrays.sort(result);
+        return result;
+    }
+
+    private static Class<?> commonClass(Collection<?> values) {
+        Class<?> common = null;
+        for (Object value : values) {
+            if (value == null) continue;
+            Class<?> valueClass = value instanceof Enum ? ((Enum<?>)value).getDeclaringClass() : value.getClass();
+            while (common != null && !common.isAssignableFrom(valueClass)) {
+                common = common.getSuperclass();
+            }
+            if (common == null) common = valueClass;
+        }
+        return common != null ? common : Object.class;
+    }
+
+    private static boolean isSortable(Object[] values) {
+        if (values.length < 2 || !(values[0] instanceof Comparable)) return false;
+        Class<?> valueClass = values[0].getClass();
+        for (Object value : values) {
+            if (value == null || value.getClass() != valueClass) return false;
+        }
+        return true;
+    }
+}
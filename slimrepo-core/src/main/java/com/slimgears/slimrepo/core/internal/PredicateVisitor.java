@@ -16,6 +16,7 @@ public abstract class PredicateVisitor<TEntity, T> {
         if (condition instanceof CollectionCondition) return visitCollection((CollectionCondition<TEntity, ?>) condition);
         if (condition instanceof CompositeCondition) return visitComposite((CompositeCondition<TEntity>) condition);
         if (condition instanceof RelationalCondition) return visitRelational((RelationalCondition<TEntity, ?>) condition);
+        if (condition instanceof SubqueryCondition) return visitSubquery((SubqueryCondition<TEntity, ?, ?>) condition);
         return visitUnknown(condition);
     }
 
@@ -47,6 +48,10 @@ public abstract class PredicateVisitor<TEntity, T> {
         return defaultValue();
     }
 
+    protected <V, TOther> T visitSubquery(SubqueryCondition<TEntity, V, TOther> condition) {
+        return defaultValue();
+    }
+
     protected T defaultValue() {
         return null;
     }
@@ -0,0 +1,261 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CompositeCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.FieldCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.RelationalCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.SubqueryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.TernaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.UnaryCondition;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class QueryResultCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final ConcurrentMap<EntityType<?, ?>, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityType<?, ?>, EntityType<?, ?>[]> dependencies = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    static class Entry {
+        final long[] versions;
+        final Object value;
+
+        Entry(long[] versions, Object value) {
+            this.versions = versions;
+            this.value = value;
+        }
+    }
+
+    static class KeyBuilder<TEntity> extends PredicateVisitor<TEntity, StringBuilder> {
+        private final StringBuilder builder;
+
+        KeyBuilder(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        protected <V> StringBuilder visitBinary(BinaryCondition<TEntity, V> predicate) {
+            return appendValue(appendField(predicate).append(','), predicate.getValue()).append(')');
+        }
+
+        @Override
+        protected <V> StringBuilder visitTernary(TernaryCondition<TEntity, V> predicate) {
+            appendValue(appendField(predicate).append(','), predicate.getFirst()).append(',');
+            return appendValue(builder, predicate.getSecond()).append(')');
+        }
+
+        @Override
+        protected <V> StringBuilder visitCollection(CollectionCondition<TEntity, V> predicate) {
+            appendField(predicate);
+            for (V value : predicate.getValues()) {
+                appendValue(builder.append(','), value);
+            }
+            return builder.append(')');
+        }
+
+        @Override
+        protected <V> StringBuilder visitUnary(UnaryCondition<TEntity, V> predicate) {
+            return appendField(predicate).append(')');
+        }
+
+        @Override
+        protected StringBuilder visitComposite(CompositeCondition<TEntity> predicate) {
+            builder.append(predicate.getType()).append('(');
+            for (Condition<TEntity> argument : predicate.getArguments()) {
+                visit(argument).append(',');
+            }
+            return builder.append(')');
+        }
+
+        @Override
+        protected <V> StringBuilder visitRelational(RelationalCondition<TEntity, V> condition) {
+            appendField(condition).append(',');
+            new KeyBuilder<V>(builder).visit(condition.getCondition());
+            return builder.append(')');
+        }
+
+        @Override
+        protected StringBuilder visitUnknown(Condition<TEntity> condition) {
+            throw new RuntimeException("Not supported predicate: " + condition.getType());
+        }
+
+        private StringBuilder appendField(FieldCondition<TEntity, ?> predicate) {
+            return appendField(builder.append(predicate.getType()).append('('), predicate.getField());
+        }
+
+        static StringBuilder appendField(StringBuilder builder, Field<?, ?> field) {
+            return builder
+                    .append(field.metaInfo().getEntityType().getName())
+                    .append('.')
+                    .append(field.metaInfo().getName());
+        }
+
+        // Values are length prefixed, so that separators inside string values cannot make different conditions match
+        private StringBuilder appendValue(StringBuilder builder, Object value) {
+            if (value == null) return builder.append("null");
+            String text = (value instanceof Date) ? String.valueOf(((Date)value).getTime()) : String.valueOf(value);
+            return builder
+                    .append(value.getClass().getSimpleName()).append(':')
+                    .append(text.length()).append(':')
+                    .append(text);
+        }
+    }
+
+    public QueryResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public QueryResultCache(final int capacity) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void invalidate(EntityType<?, ?> entityType) {
+        getTableVersion(entityType).incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    long[] getVersions(EntityType<?, ?> entityType) {
+        EntityType<?, ?>[] entityTypes = getDependencies(entityType);
+        long[] versions = new long[entityTypes.length];
+        for (int i = 0; i < entityTypes.length; ++i) {
+            versions[i] = getTableVersion(entityTypes[i]).get();
+        }
+        return versions;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String key, EntityType<?, ?> entityType) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null || !Arrays.equals(entry.versions, getVersions(entityType))) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        return (T)entry.value;
+    }
+
+    void put(String key, long[] versions, Object value) {
+        synchronized (entries) {
+            entries.put(key, new Entry(versions, value));
+        }
+    }
+
+    // Subquery results depend on tables which are not tracked as dependencies of the queried entity type, so such
+    // queries are not cached
+    static <TKey, TEntity> String keyOf(String kind, SelectQueryParams<TKey, TEntity> params) {
+        if (params.condition != null && hasSubqueries(params.condition)) return null;
+
+        StringBuilder builder = new StringBuilder(kind).append(':').append(params.entityType.getName());
+        if (params.condition != null) {
+            new KeyBuilder<TEntity>(builder.append(" where ")).visit(params.condition);
+        }
+        if (params.orderByRank) {
+            builder.append(" rank");
+        }
+        if (params.order != null) {
+            builder.append(" order ");
+            for (OrderFieldInfo orderField : params.order) {
+                KeyBuilder.appendField(builder, orderField.field).append(orderField.ascending ? " asc," : " desc,");
+            }
+        }
+        if (params.pagination != null) {
+            builder.append(" limit ").append(params.pagination.limit).append(" offset ").append(params.pagination.offset);
+        }
+        return builder.toString();
+    }
+
+    private static <TEntity> boolean hasSubqueries(Condition<TEntity> condition) {
+        return new PredicateVisitor<TEntity, Boolean>() {
+            @Override
+            protected Boolean visitComposite(CompositeCondition<TEntity> predicate) {
+                for (Condition<TEntity> argument : predicate.getArguments()) {
+                    if (visit(argument)) return true;
+                }
+                return false;
+            }
+
+            @Override
+            protected <V> Boolean visitRelational(RelationalCondition<TEntity, V> condition) {
+                return hasSubqueries(condition.getCondition());
+            }
+
+            @Override
+            protected <V, TOther> Boolean visitSubquery(SubqueryCondition<TEntity, V, TOther> condition) {
+                return true;
+            }
+
+            @Override
+            protected Boolean defaultValue() {
+                return false;
+            }
+        }.visit(condition);
+    }
+
+    private AtomicLong getTableVersion(EntityType<?, ?> entityType) {
+        AtomicLong version = tableVersions.get(entityType);
+        if (version != null) return version;
+        AtomicLong existing = tableVersions.putIfAbsent(entityType, version = new AtomicLong());
+        return existing != null ? existing : version;
+    }
+
+    private EntityType<?, ?>[] getDependencies(EntityType<?, ?> entityType) {
+        EntityType<?, ?>[] entityTypes = dependencies.get(entityType);
+        if (entityTypes != null) return entityTypes;
+
+        List<EntityType<?, ?>> dependencyList = new ArrayList<>();
+        addDependencies(dependencyList, entityType);
+        entityTypes = dependencyList.toArray(new EntityType<?, ?>[dependencyList.size()]);
+        dependencies.putIfAbsent(entityType, entityTypes);
+        return entityTypes;
+    }
+
+    private static void addDependencies(List<EntityType<?, ?>> dependencyList, EntityType<?, ?> entityType) {
+        if (dependencyList.contains(entityType)) return;
+        dependencyList.add(entityType);
+        for (RelationalField<?, ?> field : entityType.getRelationalFields()) {
+            addDependencies(dependencyList, field.metaInfo().getRelatedEntityType());
+        }
+    }
+}
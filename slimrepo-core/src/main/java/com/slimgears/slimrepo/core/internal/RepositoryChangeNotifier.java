@@ -0,0 +1,44 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityChanges;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class RepositoryChangeNotifier {
+    private final ConcurrentMap<EntityType<?, ?>, List<RepositoryService.ChangeListener<?, ?>>> listeners = new ConcurrentHashMap<>();
+
+    public <TKey, TEntity> void addListener(EntityType<TKey, TEntity> entityType, RepositoryService.ChangeListener<TKey, TEntity> listener) {
+        List<RepositoryService.ChangeListener<?, ?>> entityListeners = listeners.get(entityType);
+        if (entityListeners == null) {
+            List<RepositoryService.ChangeListener<?, ?>> existing = listeners.putIfAbsent(entityType, entityListeners = new CopyOnWriteArrayList<>());
+            if (existing != null) entityListeners = existing;
+        }
+        entityListeners.add(listener);
+    }
+
+    public <TKey, TEntity> void removeListener(EntityType<TKey, TEntity> entityType, RepositoryService.ChangeListener<TKey, TEntity> listener) {
+        List<RepositoryService.ChangeListener<?, ?>> entityListeners = listeners.get(entityType);
+        if (entityListeners != null) entityListeners.remove(listener);
+    }
+
+    public boolean hasListeners(EntityType<?, ?> entityType) {
+        List<RepositoryService.ChangeListener<?, ?>> entityListeners = listeners.get(entityType);
+        return entityListeners != null && !entityListeners.isEmpty();
+    }
+
+    public <TKey, TEntity> void notifyChanged(EntityChanges<TKey, TEntity> changes) {
+        List<RepositoryService.ChangeListener<?, ?>> entityListeners = listeners.get(changes.getEntityType());
+        if (entityListeners == null) return;
+        for (RepositoryService.ChangeListener<?, ?> listener : entityListeners) {
+            //noinspection unchecked
+            ((RepositoryService.ChangeListener<TKey, TEntity>)listener).onChanged(changes);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.IOException;
+
+public class ResultCacheTransactionProvider implements TransactionProvider {
+    private final TransactionProvider underlyingProvider;
+    private final SessionResultCache resultCache;
+
+    public ResultCacheTransactionProvider(TransactionProvider underlyingProvider, SessionResultCache resultCache) {
+        this.underlyingProvider = underlyingProvider;
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        underlyingProvider.beginTransaction();
+        resultCache.onTransactionStarted();
+    }
+
+    @Override
+    public void commitTransaction() throws IOException {
+        try {
+            underlyingProvider.commitTransaction();
+        } finally {
+            resultCache.onTransactionCompleted();
+        }
+    }
+
+    @Override
+    public void cancelTransaction() throws IOException {
+        try {
+            underlyingProvider.cancelTransaction();
+        } finally {
+            resultCache.onTransactionCompleted();
+        }
+    }
+}
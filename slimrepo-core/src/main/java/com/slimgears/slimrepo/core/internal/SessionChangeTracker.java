@@ -0,0 +1,60 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects changed keys of a session and publishes them once the outermost transaction is committed
+ * (or immediately, for writes executed outside of a transaction)
+ */
+public class SessionChangeTracker {
+    private final RepositoryChangeNotifier notifier;
+    private final Map<EntityType<?, ?>, DefaultEntityChanges<?, ?>> pendingChanges = new LinkedHashMap<>();
+    private int transactionDepth;
+
+    public SessionChangeTracker(RepositoryChangeNotifier notifier) {
+        this.notifier = notifier;
+    }
+
+    public boolean isTracked(EntityType<?, ?> entityType) {
+        return notifier.hasListeners(entityType);
+    }
+
+    public <TKey, TEntity> DefaultEntityChanges<TKey, TEntity> getChanges(EntityType<TKey, TEntity> entityType) {
+        //noinspection unchecked
+        DefaultEntityChanges<TKey, TEntity> changes = (DefaultEntityChanges<TKey, TEntity>)pendingChanges.get(entityType);
+        if (changes == null) pendingChanges.put(entityType, changes = new DefaultEntityChanges<>(entityType));
+        return changes;
+    }
+
+    public void onChangesRecorded() {
+        if (transactionDepth == 0) publish();
+    }
+
+    public void onTransactionStarted() {
+        ++transactionDepth;
+    }
+
+    public void onTransactionCommitted() {
+        if (--transactionDepth == 0) publish();
+    }
+
+    public void onTransactionCancelled() {
+        if (--transactionDepth == 0) pendingChanges.clear();
+    }
+
+    private void publish() {
+        if (pendingChanges.isEmpty()) return;
+        List<DefaultEntityChanges<?, ?>> changes = new ArrayList<>(pendingChanges.values());
+        pendingChanges.clear();
+        for (DefaultEntityChanges<?, ?> entityChanges : changes) {
+            if (!entityChanges.isEmpty()) notifier.notifyChanged(entityChanges);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Session view of the shared query result cache. Tables written within a transaction are invalidated again once the
+ * outermost transaction is committed or cancelled, and the session bypasses the cache while it has uncommitted writes
+ */
+public class SessionResultCache {
+    private final QueryResultCache resultCache;
+    private final Set<EntityType<?, ?>> pendingEntityTypes = new LinkedHashSet<>();
+    private int transactionDepth;
+
+    public SessionResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public boolean isBypassed() {
+        return !pendingEntityTypes.isEmpty();
+    }
+
+    public void invalidate(EntityType<?, ?> entityType) {
+        resultCache.invalidate(entityType);
+        if (transactionDepth > 0) pendingEntityTypes.add(entityType);
+    }
+
+    public void onTransactionStarted() {
+        ++transactionDepth;
+    }
+
+    public void onTransactionCompleted() {
+        if (--transactionDepth == 0) invalidatePending();
+    }
+
+    private void invalidatePending() {
+        for (EntityType<?, ?> entityType : pendingEntityTypes) {
+            resultCache.invalidate(entityType);
+        }
+        pendingEntityTypes.clear();
+    }
+}
@@ -3,6 +3,7 @@
 package com.slimgears.slimrepo.core.internal;
 
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpression;
 
 /**
  * Created by Denis on 08-Apr-15
@@ -11,9 +12,17 @@ import com.slimgears.slimrepo.core.interfaces.fields.Field;
 public class UpdateFieldInfo {
     public final Field field;
     public final Object value;
+    public final UpdateExpression expression;
 
     public UpdateFieldInfo(Field field, Object value) {
         this.field = field;
         this.value = value;
+        this.expression = null;
+    }
+
+    public UpdateFieldInfo(Field field, UpdateExpression expression) {
+        this.field = field;
+        this.value = null;
+        this.expression = expression;
     }
 }
@@ -0,0 +1,45 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.internal.interfaces.BlobCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class BlobCodecTypeConverter<T> extends AbstractSpecificTypeConverter<T, byte[]> {
+    private final BlobCodec<T> codec;
+
+    public BlobCodecTypeConverter(Class<T> sourceType, BlobCodec<T> codec) {
+        super(sourceType, byte[].class);
+        this.codec = codec;
+    }
+
+    public T decode(InputStream stream) throws IOException {
+        return codec.decode(new DataInputStream(stream));
+    }
+
+    @Override
+    protected T fromInbound(byte[] value) {
+        try {
+            return decode(new ByteArrayInputStream(value));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected byte[] toOutbound(T value) {
+        ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+        try {
+            codec.encode(value, new DataOutputStream(byteArrayStream));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return byteArrayStream.toByteArray();
+    }
+}
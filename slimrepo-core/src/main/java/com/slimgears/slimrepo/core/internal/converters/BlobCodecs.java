@@ -0,0 +1,108 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.internal.interfaces.BlobCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Date;
+
+/**
+ * Compact encoding primitives used by generated blob codecs
+ */
+public class BlobCodecs {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void writeVarLong(DataOutput output, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            output.writeByte((int)((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        output.writeByte((int)zigZag);
+    }
+
+    public static long readVarLong(DataInput input) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            zigZag |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    public static void writeVarInt(DataOutput output, int value) throws IOException {
+        writeVarLong(output, value);
+    }
+
+    public static int readVarInt(DataInput input) throws IOException {
+        return (int)readVarLong(input);
+    }
+
+    public static void writeBytes(DataOutput output, byte[] value) throws IOException {
+        if (value == null) {
+            writeVarInt(output, 0);
+            return;
+        }
+        writeVarInt(output, value.length + 1);
+        output.write(value);
+    }
+
+    public static byte[] readBytes(DataInput input) throws IOException {
+        int length = readVarInt(input) - 1;
+        if (length < 0) return null;
+        byte[] value = new byte[length];
+        input.readFully(value);
+        return value;
+    }
+
+    public static void writeString(DataOutput output, String value) throws IOException {
+        writeBytes(output, value != null ? value.getBytes(UTF_8) : null);
+    }
+
+    public static String readString(DataInput input) throws IOException {
+        byte[] bytes = readBytes(input);
+        return bytes != null ? new String(bytes, UTF_8) : null;
+    }
+
+    public static void writeDate(DataOutput output, Date value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) writeVarLong(output, value.getTime());
+    }
+
+    public static Date readDate(DataInput input) throws IOException {
+        return input.readBoolean() ? new Date(readVarLong(input)) : null;
+    }
+
+    public static void writeEnum(DataOutput output, Enum<?> value) throws IOException {
+        writeVarInt(output, value != null ? value.ordinal() + 1 : 0);
+    }
+
+    public static <E extends Enum<E>> E readEnum(DataInput input, Class<E> enumClass) throws IOException {
+        int ordinal = readVarInt(input) - 1;
+        return ordinal >= 0 ? enumClass.getEnumConstants()[ordinal] : null;
+    }
+
+    public static <T> void writeObject(DataOutput output, BlobCodec<T> codec, T value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) codec.encode(value, output);
+    }
+
+    public static <T> T readObject(DataInput input, BlobCodec<T> codec) throws IOException {
+        return input.readBoolean() ? codec.decode(input) : null;
+    }
+
+    public static void writeSerializable(DataOutput output, Object value) throws IOException {
+        writeBytes(output, value != null ? SerializableTypeConverter.INSTANCE.toOutbound((Serializable)value) : null);
+    }
+
+    public static <T> T readSerializable(DataInput input, Class<T> valueClass) throws IOException {
+        byte[] bytes = readBytes(input);
+        return bytes != null ? valueClass.cast(SerializableTypeConverter.INSTANCE.fromInbound(bytes)) : null;
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.internal.interfaces.TypeConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores converted value as a marker byte followed by either raw or deflated bytes
+ */
+public class CompressingTypeConverter<T> implements TypeConverter<T> {
+    public static final int DEFAULT_THRESHOLD = 256;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    private final TypeConverter<T> underlyingConverter;
+    private final int threshold;
+
+    public CompressingTypeConverter(TypeConverter<T> underlyingConverter, int threshold) {
+        this.underlyingConverter = underlyingConverter;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public T toEntityType(Field<?, T> field, Object value) {
+        if (value == null) return null;
+        byte[] stored = (byte[])value;
+        byte[] bytes = stored[0] == DEFLATED ? inflate(stored) : Arrays.copyOfRange(stored, 1, stored.length);
+        Object inbound = underlyingConverter.getInboundType(field) == String.class
+                ? new String(bytes, UTF_8)
+                : bytes;
+        return underlyingConverter.toEntityType(field, inbound);
+    }
+
+    @Override
+    public Object fromEntityType(Field<?, T> field, T value) {
+        Object outbound = underlyingConverter.fromEntityType(field, value);
+        if (outbound == null) return null;
+
+        byte[] bytes;
+        if (outbound instanceof String) bytes = ((String)outbound).getBytes(UTF_8);
+        else if (outbound instanceof byte[]) bytes = (byte[])outbound;
+        else throw new RuntimeException("Field type " + field.metaInfo().getValueType().getSimpleName() + " cannot be compressed");
+
+        if (bytes.length >= threshold) {
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < bytes.length + 1) return deflated;
+        }
+
+        byte[] stored = new byte[bytes.length + 1];
+        stored[0] = RAW;
+        System.arraycopy(bytes, 0, stored, 1, bytes.length);
+        return stored;
+    }
+
+    @Override
+    public Class getOutboundType(Field<?, T> field) {
+        return byte[].class;
+    }
+
+    @Override
+    public Class getInboundType(Field<?, T> field) {
+        return byte[].class;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(bytes.length / 2 + 1);
+            stream.write(DEFLATED);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                stream.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return stream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 1, stored.length - 1);
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(stored.length * 2);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput()) throw new RuntimeException("Truncated compressed value");
+                stream.write(buffer, 0, count);
+            }
+            return stream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new RuntimeException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Denis on 24-Apr-15
@@ -68,6 +69,8 @@ public class DefaultFieldTypeMapper implements FieldTypeMapper, FieldTypeMapping
 
     private final MappingTypeConverter mappingTypeConverter = new MappingTypeConverter();
     private final Collection<MatcherConverterEntry> matcherConverterEntries = new ArrayList<>();
+    private final Map<TypeConverter, TypeConverter> compressingConverters = new ConcurrentHashMap<>();
+    private int compressionThreshold = CompressingTypeConverter.DEFAULT_THRESHOLD;
 
     public DefaultFieldTypeMapper() {
         registerConverter(mappingTypeConverter, mappingTypeConverter);
@@ -110,10 +113,19 @@ public class DefaultFieldTypeMapper implements FieldTypeMapper, FieldTypeMapping
         }
     }
 
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        compressingConverters.clear();
+    }
+
     @SuppressWarnings("unchecked")
     private <T> TypeConverter<T> getConverter(Field<?, T> field) {
         for (MatcherConverterEntry entry : matcherConverterEntries) {
-            if (entry.matcher.match(field)) return entry.converter;
+            if (entry.matcher.match(field)) {
+                return field.metaInfo().isCompressed()
+                        ? getCompressingConverter(entry.converter)
+                        : entry.converter;
+            }
         }
 
         throw new RuntimeException(
@@ -121,4 +133,13 @@ public class DefaultFieldTypeMapper implements FieldTypeMapper, FieldTypeMapping
                 field.metaInfo().getValueType().getSimpleName() +
                 " is not registered");
     }
+
+    @SuppressWarnings("unchecked")
+    private TypeConverter getCompressingConverter(TypeConverter converter) {
+        TypeConverter compressingConverter = compressingConverters.get(converter);
+        if (compressingConverter != null) return compressingConverter;
+        compressingConverter = new CompressingTypeConverter<>(converter, compressionThreshold);
+        compressingConverters.put(converter, compressingConverter);
+        return compressingConverter;
+    }
 }
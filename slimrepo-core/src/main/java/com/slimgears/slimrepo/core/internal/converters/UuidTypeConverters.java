@@ -0,0 +1,42 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * UUID storage modes: canonical 36 character TEXT or compact 16 byte BLOB. Both preserve the order of
+ * time ordered UUIDs. Without any of them installed UUID values are stored serialized.
+ */
+public class UuidTypeConverters {
+    public static final AbstractSpecificTypeConverter<UUID, String> TEXT =
+            new AbstractSpecificTypeConverter<UUID, String>(UUID.class, String.class) {
+                @Override
+                protected String toOutbound(UUID value) {
+                    return value.toString();
+                }
+
+                @Override
+                protected UUID fromInbound(String value) {
+                    return UUID.fromString(value);
+                }
+            };
+
+    public static final AbstractSpecificTypeConverter<UUID, byte[]> BLOB =
+            new AbstractSpecificTypeConverter<UUID, byte[]>(UUID.class, byte[].class) {
+                @Override
+                protected byte[] toOutbound(UUID value) {
+                    return ByteBuffer.allocate(16)
+                            .putLong(value.getMostSignificantBits())
+                            .putLong(value.getLeastSignificantBits())
+                            .array();
+                }
+
+                @Override
+                protected UUID fromInbound(byte[] value) {
+                    ByteBuffer buffer = ByteBuffer.wrap(value);
+                    return new UUID(buffer.getLong(), buffer.getLong());
+                }
+            };
+}
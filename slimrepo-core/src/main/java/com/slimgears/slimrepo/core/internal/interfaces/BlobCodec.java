@@ -0,0 +1,12 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.interfaces;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface BlobCodec<T> {
+    void encode(T value, DataOutput output) throws IOException;
+    T decode(DataInput input) throws IOException;
+}
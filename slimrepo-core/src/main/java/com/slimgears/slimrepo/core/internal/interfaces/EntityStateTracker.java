@@ -12,11 +12,14 @@ public interface EntityStateTracker<TEntity> {
     Collection<TEntity> getModifiedEntities();
     Collection<TEntity> getAddedEntities();
     Collection<TEntity> getDeletedEntities();
+    Collection<TEntity> getMergedEntities();
 
     void entityModified(TEntity entity);
     void entityDeleted(TEntity entity);
     void entityAdded(TEntity entity);
+    void entityMerged(TEntity entity);
 
     void clearChanges();
     boolean hasChanges();
+    EntityStateTracker<TEntity> detachChanges();
 }
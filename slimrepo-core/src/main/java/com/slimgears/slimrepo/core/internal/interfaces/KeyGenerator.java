@@ -0,0 +1,7 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.interfaces;
+
+public interface KeyGenerator<T> {
+    T generateKey();
+}
@@ -0,0 +1,12 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.interfaces;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+
+public interface MetricsSink {
+    void onStatementBuilt(String statement, long durationNanos);
+    void onStatementExecuted(String statement, long durationNanos, long rowCount);
+    void onTransactionCompleted(long durationNanos, boolean committed);
+    void onCacheLookup(EntityType<?, ?> entityType, boolean hit);
+}
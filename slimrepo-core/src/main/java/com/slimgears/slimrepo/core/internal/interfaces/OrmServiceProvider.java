@@ -2,6 +2,9 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.internal.interfaces;
 
+import com.slimgears.slimrepo.core.internal.QueryResultCache;
+import com.slimgears.slimrepo.core.internal.RepositoryChangeNotifier;
+
 /**
  * Created by Denis on 15-Apr-15
  *
@@ -10,4 +13,8 @@ public interface OrmServiceProvider {
     SessionServiceProvider createSessionServiceProvider(RepositoryModel model);
     FieldTypeMapper getFieldTypeMapper();
     FieldTypeMappingRegistrar getFieldTypeMapperRegistrar();
+    MetricsSink getMetricsSink();
+    QueryResultCache getQueryResultCache();
+    RepositoryChangeNotifier getChangeNotifier();
+    int getSessionConcurrencyLevel();
 }
@@ -4,8 +4,11 @@ package com.slimgears.slimrepo.core.internal.interfaces;
 
 import com.slimgears.slimrepo.core.interfaces.entities.EntitySet;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.SessionChangeTracker;
+import com.slimgears.slimrepo.core.internal.SessionResultCache;
 
 import java.io.Closeable;
+import java.io.IOException;
 
 /**
  * Created by Denis on 14-Apr-15
@@ -19,4 +22,9 @@ public interface SessionServiceProvider extends RepositorySessionNotifier, Repos
     RepositoryCreator getRepositoryCreator();
     OrmServiceProvider getOrmServiceProvider();
     EntitySessionNotifier getEntitySessionNotifier();
+    SessionChangeTracker getChangeTracker();
+    SessionResultCache getResultCache();
+    Closeable relaxDurability() throws IOException;
+    void backup(String path) throws IOException;
+    void restore(String backupPath, String targetPath) throws IOException;
 }
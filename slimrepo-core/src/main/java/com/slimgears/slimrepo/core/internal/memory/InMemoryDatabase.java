@@ -0,0 +1,124 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.annimon.stream.function.Predicate;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.PredicateCompiler;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class InMemoryDatabase implements TransactionProvider, PredicateCompiler.SubqueryResolver {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentMap<EntityType<?, ?>, InMemoryTable<?, ?>> tables = new ConcurrentHashMap<>();
+    private final Collection<ValueField<?, ?>> indexedFields;
+    private Deque<Runnable> undoLog;
+
+    InMemoryDatabase(Collection<ValueField<?, ?>> indexedFields) {
+        this.indexedFields = indexedFields;
+    }
+
+    @Override
+    public void beginTransaction() throws IOException {
+        lock.writeLock().lock();
+        if (lock.writeLock().getHoldCount() == 1) undoLog = new ArrayDeque<>();
+    }
+
+    @Override
+    public void commitTransaction() throws IOException {
+        if (lock.writeLock().getHoldCount() == 1) undoLog = null;
+        lock.writeLock().unlock();
+    }
+
+    @Override
+    public void cancelTransaction() throws IOException {
+        if (lock.writeLock().getHoldCount() == 1) {
+            while (!undoLog.isEmpty()) {
+                undoLog.pop().run();
+            }
+            undoLog = null;
+        }
+        lock.writeLock().unlock();
+    }
+
+    public void clear() throws IOException {
+        beginTransaction();
+        tables.clear();
+        commitTransaction();
+    }
+
+    // Hash semi-join: values of the selected field are collected into a set, probed by the outer predicate
+    @Override
+    @SuppressWarnings("unchecked")
+    public <TOther, V> Set<V> resolve(Field<TOther, V> selectedField, Condition<TOther> condition) {
+        InMemoryTable<Object, TOther> table = getTable((EntityType<Object, TOther>)selectedField.metaInfo().getEntityType());
+        Predicate<TOther> predicate = PredicateCompiler.compile(condition, this);
+        Collection<InMemoryTable.Row<TOther>> candidates = table.findCandidates(condition);
+
+        Set<V> values = new HashSet<>();
+        for (InMemoryTable.Row<TOther> row : candidates != null ? candidates : table.getRows()) {
+            if (predicate.test(row.entity)) values.add(selectedField.getValue(row.entity));
+        }
+        return values;
+    }
+
+    void create(RepositoryModel model) {
+        for (EntityType<?, ?> entityType : model.getEntityTypes()) {
+            getTable(entityType);
+        }
+    }
+
+    void beginRead() {
+        lock.readLock().lock();
+    }
+
+    void endRead() {
+        lock.readLock().unlock();
+    }
+
+    void onUndo(Runnable action) {
+        if (undoLog != null) undoLog.push(action);
+    }
+
+    @SuppressWarnings("unchecked")
+    <TKey, TEntity> InMemoryTable<TKey, TEntity> getTable(EntityType<TKey, TEntity> entityType) {
+        InMemoryTable<TKey, TEntity> table = (InMemoryTable<TKey, TEntity>)tables.get(entityType);
+        if (table != null) return table;
+
+        table = new InMemoryTable<>(this, entityType);
+        for (ValueField<?, ?> field : indexedFields) {
+            if (field.metaInfo().getEntityType() == entityType) addIndex(table, (ValueField<TEntity, ?>)field);
+        }
+
+        InMemoryTable<TKey, TEntity> existing = (InMemoryTable<TKey, TEntity>)tables.putIfAbsent(entityType, table);
+        return existing != null ? existing : table;
+    }
+
+    @SuppressWarnings("unchecked")
+    void addIndex(ValueField<?, ?> field) throws IOException {
+        InMemoryTable<?, Object> table = (InMemoryTable<?, Object>)tables.get(field.metaInfo().getEntityType());
+        if (table == null) return;
+
+        beginTransaction();
+        addIndex(table, (ValueField<Object, ?>)field);
+        commitTransaction();
+    }
+
+    private <TEntity> void addIndex(InMemoryTable<?, TEntity> table, ValueField<TEntity, ?> field) {
+        table.addIndex(field, field instanceof ComparableField);
+    }
+}
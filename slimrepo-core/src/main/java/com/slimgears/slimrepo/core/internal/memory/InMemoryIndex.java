@@ -0,0 +1,163 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.TernaryCondition;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+abstract class InMemoryIndex<TEntity> {
+    protected final Field<TEntity, ?> field;
+    private final Set<InMemoryTable.Row<TEntity>> nullRows = newRowSet();
+
+    static <TEntity> InMemoryIndex<TEntity> create(Field<TEntity, ?> field, boolean sorted) {
+        return sorted ? new SortedIndex<>(field) : new HashIndex<>(field);
+    }
+
+    InMemoryIndex(Field<TEntity, ?> field) {
+        this.field = field;
+    }
+
+    protected abstract Map<Object, Set<InMemoryTable.Row<TEntity>>> valueMap();
+
+    void add(InMemoryTable.Row<TEntity> row) {
+        Object value = field.getValue(row.entity);
+        if (value == null) {
+            nullRows.add(row);
+            return;
+        }
+
+        Set<InMemoryTable.Row<TEntity>> rows = valueMap().get(value);
+        if (rows == null) valueMap().put(value, rows = newRowSet());
+        rows.add(row);
+    }
+
+    void remove(InMemoryTable.Row<TEntity> row) {
+        Object value = field.getValue(row.entity);
+        if (value == null) {
+            nullRows.remove(row);
+            return;
+        }
+
+        Set<InMemoryTable.Row<TEntity>> rows = valueMap().get(value);
+        if (rows == null) return;
+        rows.remove(row);
+        if (rows.isEmpty()) valueMap().remove(value);
+    }
+
+    Collection<InMemoryTable.Row<TEntity>> find(Condition<TEntity> condition) {
+        switch (condition.getType()) {
+            case FIELD_IS_NULL:
+                return nullRows;
+            case VALUE_FIELD_EQUALS:
+                return rowsOf(lookup(((BinaryCondition<TEntity, ?>)condition).getValue()));
+            case VALUE_FIELD_IN:
+                Set<InMemoryTable.Row<TEntity>> rows = new LinkedHashSet<>();
+                for (Object value : ((CollectionCondition<TEntity, ?>)condition).getValues()) {
+                    rows.addAll(rowsOf(lookup(value)));
+                }
+                return rows;
+            default:
+                return null;
+        }
+    }
+
+    private Set<InMemoryTable.Row<TEntity>> lookup(Object value) {
+        return value != null ? valueMap().get(value) : null;
+    }
+
+    protected Collection<InMemoryTable.Row<TEntity>> rowsOf(Set<InMemoryTable.Row<TEntity>> rows) {
+        return rows != null ? rows : Collections.<InMemoryTable.Row<TEntity>>emptySet();
+    }
+
+    protected Collection<InMemoryTable.Row<TEntity>> rowsOf(Map<Object, Set<InMemoryTable.Row<TEntity>>> map) {
+        List<InMemoryTable.Row<TEntity>> rows = new ArrayList<>();
+        for (Set<InMemoryTable.Row<TEntity>> valueRows : map.values()) {
+            rows.addAll(valueRows);
+        }
+        return rows;
+    }
+
+    private static <TEntity> Set<InMemoryTable.Row<TEntity>> newRowSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<InMemoryTable.Row<TEntity>, Boolean>());
+    }
+
+    static class HashIndex<TEntity> extends InMemoryIndex<TEntity> {
+        private final ConcurrentMap<Object, Set<InMemoryTable.Row<TEntity>>> valueMap = new ConcurrentHashMap<>();
+
+        HashIndex(Field<TEntity, ?> field) {
+            super(field);
+        }
+
+        @Override
+        protected Map<Object, Set<InMemoryTable.Row<TEntity>>> valueMap() {
+            return valueMap;
+        }
+    }
+
+    static class SortedIndex<TEntity> extends InMemoryIndex<TEntity> {
+        private final ConcurrentNavigableMap<Object, Set<InMemoryTable.Row<TEntity>>> valueMap = new ConcurrentSkipListMap<>();
+
+        SortedIndex(Field<TEntity, ?> field) {
+            super(field);
+        }
+
+        @Override
+        protected Map<Object, Set<InMemoryTable.Row<TEntity>>> valueMap() {
+            return valueMap;
+        }
+
+        @Override
+        Collection<InMemoryTable.Row<TEntity>> find(Condition<TEntity> condition) {
+            if (hasNullArgument(condition)) return Collections.emptySet();
+            switch (condition.getType()) {
+                case NUMBER_FIELD_GREATER:
+                    return rowsOf(valueMap.tailMap(valueOf(condition), false));
+                case NUMBER_FIELD_GREATER_EQUAL:
+                    return rowsOf(valueMap.tailMap(valueOf(condition), true));
+                case NUMBER_FIELD_LESS:
+                    return rowsOf(valueMap.headMap(valueOf(condition), false));
+                case NUMBER_FIELD_LESS_EQUAL:
+                    return rowsOf(valueMap.headMap(valueOf(condition), true));
+                case NUMBER_FIELD_BETWEEN:
+                    TernaryCondition<TEntity, ?> between = (TernaryCondition<TEntity, ?>)condition;
+                    if (compare(between.getFirst(), between.getSecond()) > 0) return Collections.emptySet();
+                    return rowsOf(valueMap.subMap(between.getFirst(), true, between.getSecond(), true));
+                default:
+                    return super.find(condition);
+            }
+        }
+
+        private static boolean hasNullArgument(Condition<?> condition) {
+            if (condition instanceof BinaryCondition) return ((BinaryCondition<?, ?>)condition).getValue() == null;
+            if (condition instanceof TernaryCondition) {
+                TernaryCondition<?, ?> ternary = (TernaryCondition<?, ?>)condition;
+                return ternary.getFirst() == null || ternary.getSecond() == null;
+            }
+            return false;
+        }
+
+        private static Object valueOf(Condition<?> condition) {
+            return ((BinaryCondition<?, ?>)condition).getValue();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int compare(Object first, Object second) {
+            return ((Comparable<Object>)first).compareTo(second);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.AbstractOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InMemoryOrmServiceProvider extends AbstractOrmServiceProvider {
+    private final ConcurrentMap<String, InMemoryDatabase> databases = new ConcurrentHashMap<>();
+    private final Collection<ValueField<?, ?>> indexedFields = new CopyOnWriteArrayList<>();
+
+    @Override
+    public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
+        return new InMemorySessionServiceProvider(this, getDatabase(model));
+    }
+
+    public InMemoryDatabase getDatabase(RepositoryModel model) {
+        InMemoryDatabase database = databases.get(model.getName());
+        if (database != null) return database;
+        database = new InMemoryDatabase(indexedFields);
+        InMemoryDatabase existing = databases.putIfAbsent(model.getName(), database);
+        return existing != null ? existing : database;
+    }
+
+    public InMemoryOrmServiceProvider addIndex(ValueField<?, ?>... fields) throws IOException {
+        for (ValueField<?, ?> field : fields) {
+            if (indexedFields.contains(field)) continue;
+            indexedFields.add(field);
+            for (InMemoryDatabase database : databases.values()) {
+                database.addIndex(field);
+            }
+        }
+        return this;
+    }
+}
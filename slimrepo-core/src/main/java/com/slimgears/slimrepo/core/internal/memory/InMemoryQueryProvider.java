@@ -0,0 +1,216 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.annimon.stream.function.Predicate;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.internal.DefaultCloseableIterator;
+import com.slimgears.slimrepo.core.internal.EntityValueLookup;
+import com.slimgears.slimrepo.core.internal.OrderFieldInfo;
+import com.slimgears.slimrepo.core.internal.PredicateCompiler;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMapper;
+import com.slimgears.slimrepo.core.internal.query.ConditionalQueryParams;
+import com.slimgears.slimrepo.core.internal.query.DeleteQueryParams;
+import com.slimgears.slimrepo.core.internal.query.PreparedQuery;
+import com.slimgears.slimrepo.core.internal.query.QueryPagination;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class InMemoryQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEntity> {
+    private static final Comparator<InMemoryTable.Row<?>> ROW_ID_COMPARATOR = (first, second) -> Long.compare(first.id, second.id);
+
+    private final InMemoryDatabase database;
+    private final EntityType<TKey, TEntity> entityType;
+    private final FieldTypeMapper fieldTypeMapper;
+
+    interface TableAction<TKey, TEntity> {
+        void apply(InMemoryTable<TKey, TEntity> table) throws IOException;
+    }
+
+    public InMemoryQueryProvider(InMemoryDatabase database, EntityType<TKey, TEntity> entityType, FieldTypeMapper fieldTypeMapper) {
+        this.database = database;
+        this.entityType = entityType;
+        this.fieldTypeMapper = fieldTypeMapper;
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareSelect(final SelectQueryParams<TKey, TEntity> query) {
+        return () -> {
+            List<FieldValueLookup<TEntity>> lookups = new ArrayList<>();
+            InMemoryTable<TKey, TEntity> table = getTable();
+            database.beginRead();
+            try {
+                for (InMemoryTable.Row<TEntity> row : find(table, query, query.order)) {
+                    lookups.add(new EntityValueLookup<>(table.detach(row.entity)));
+                }
+            } finally {
+                database.endRead();
+            }
+            return new DefaultCloseableIterator<>(lookups.iterator());
+        };
+    }
+
+    @Override
+    public PreparedQuery<Long> prepareCount(final SelectQueryParams<TKey, TEntity> query) {
+        return () -> {
+            InMemoryTable<TKey, TEntity> table = getTable();
+            database.beginRead();
+            try {
+                if (query.condition == null && query.pagination == null) return (long)table.size();
+                return (long)find(table, query, null).size();
+            } finally {
+                database.endRead();
+            }
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpdate(final UpdateQueryParams<TKey, TEntity> query) {
+        return write(table -> {
+            for (InMemoryTable.Row<TEntity> row : find(table, query, null)) {
+                table.update(row, query.updates);
+            }
+        });
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareDelete(final DeleteQueryParams<TKey, TEntity> query) {
+        return write(table -> {
+            for (InMemoryTable.Row<TEntity> row : find(table, query, null)) {
+                table.delete(row);
+            }
+        });
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareInsert(final Collection<TEntity> entities) {
+        return write(table -> {
+            for (TEntity entity : entities) {
+                table.insert(entity);
+            }
+        });
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpsert(final Collection<TEntity> entities) {
+        return write(table -> {
+            for (TEntity entity : entities) {
+                table.upsert(entity);
+            }
+        });
+    }
+
+    @Override
+    public PreparedQuery<InputStream> prepareReadBlob(final TKey key, final BlobField<TEntity, ?> field) {
+        return () -> {
+            InMemoryTable<TKey, TEntity> table = getTable();
+            Object value;
+            database.beginRead();
+            try {
+                InMemoryTable.Row<TEntity> row = table.getRow(key);
+                if (row == null) return null;
+                value = toBlob(field, row.entity);
+            } finally {
+                database.endRead();
+            }
+            return new ByteArrayInputStream(value != null ? (byte[])value : new byte[0]);
+        };
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(String statement, String... parameters) {
+        throw new RuntimeException("Raw SQL queries are not supported by in-memory storage");
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(String statement, String... parameters) {
+        throw new RuntimeException("Raw SQL queries are not supported by in-memory storage");
+    }
+
+    private <T> Object toBlob(BlobField<TEntity, T> field, TEntity entity) {
+        T value = field.getValue(entity);
+        return (value instanceof byte[]) ? value : fieldTypeMapper.fromFieldType(field, value);
+    }
+
+    private PreparedQuery<Void> write(final TableAction<TKey, TEntity> action) {
+        return () -> {
+            InMemoryTable<TKey, TEntity> table = getTable();
+            database.beginTransaction();
+            try {
+                action.apply(table);
+            } catch (Throwable e) {
+                database.cancelTransaction();
+                throw e;
+            }
+            database.commitTransaction();
+            return null;
+        };
+    }
+
+    private InMemoryTable<TKey, TEntity> getTable() {
+        return database.getTable(entityType);
+    }
+
+    // Compiled on each execution, under the database lock, so that subquery conditions see the current rows
+    private List<InMemoryTable.Row<TEntity>> find(InMemoryTable<TKey, TEntity> table, ConditionalQueryParams<TKey, TEntity, ?> query, Collection<OrderFieldInfo> order) throws IOException {
+        Predicate<TEntity> predicate = PredicateCompiler.compile(query.condition, database);
+        Collection<InMemoryTable.Row<TEntity>> candidates = table.findCandidates(query.condition);
+        boolean indexed = candidates != null;
+        if (!indexed) candidates = table.getRows();
+
+        List<InMemoryTable.Row<TEntity>> rows = new ArrayList<>();
+        for (InMemoryTable.Row<TEntity> row : candidates) {
+            if (predicate.test(row.entity)) rows.add(row);
+        }
+
+        if (indexed) Collections.sort(rows, ROW_ID_COMPARATOR);
+        if (order != null && !order.isEmpty()) Collections.sort(rows, orderComparator(order));
+        return paginate(rows, query.pagination);
+    }
+
+    private Comparator<InMemoryTable.Row<TEntity>> orderComparator(final Collection<OrderFieldInfo> order) {
+        return (first, second) -> {
+            for (OrderFieldInfo orderField : order) {
+                int result = compareValues(orderValue(orderField.field, first.entity), orderValue(orderField.field, second.entity));
+                if (result != 0) return orderField.ascending ? result : -result;
+            }
+            return 0;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object orderValue(Field field, TEntity entity) {
+        Object value = field.getValue(entity);
+        if (value == null || !(field instanceof RelationalField)) return value;
+        return ((EntityType<Object, Object>)((RelationalField)field).metaInfo().getRelatedEntityType()).getKey(value);
+    }
+
+    private static int compareValues(Object first, Object second) {
+        if (first == second) return 0;
+        if (first == null) return -1;
+        if (second == null) return 1;
+        return PredicateCompiler.compare(first, second);
+    }
+
+    private static <T> List<T> paginate(List<T> rows, QueryPagination pagination) {
+        if (pagination == null) return rows;
+        int from = Math.min(Math.max(pagination.offset, 0), rows.size());
+        int to = pagination.limit >= 0 ? Math.min(from + pagination.limit, rows.size()) : rows.size();
+        return rows.subList(from, to);
+    }
+}
@@ -0,0 +1,52 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.AbstractSessionEntityServiceProvider;
+import com.slimgears.slimrepo.core.internal.CachingQueryProvider;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingQueryProvider;
+import com.slimgears.slimrepo.core.internal.InstrumentedEntityCache;
+import com.slimgears.slimrepo.core.internal.SessionResultCache;
+import com.slimgears.slimrepo.core.internal.interfaces.EntityCache;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+
+public class InMemorySessionEntityServiceProvider<TKey, TEntity> extends AbstractSessionEntityServiceProvider<TKey, TEntity> {
+    protected final InMemorySessionServiceProvider serviceProvider;
+    protected final EntityType<TKey, TEntity> entityType;
+    private QueryProvider<TKey, TEntity> queryProvider;
+
+    public InMemorySessionEntityServiceProvider(InMemorySessionServiceProvider serviceProvider, EntityType<TKey, TEntity> entityType) {
+        super(entityType, serviceProvider.getOrmServiceProvider().getSessionConcurrencyLevel());
+        this.serviceProvider = serviceProvider;
+        this.entityType = entityType;
+    }
+
+    @Override
+    public QueryProvider<TKey, TEntity> getQueryProvider() {
+        return queryProvider != null
+                ? queryProvider
+                : (queryProvider = withChangeTracking(withResultCache(createQueryProvider())));
+    }
+
+    protected QueryProvider<TKey, TEntity> createQueryProvider() {
+        return new InMemoryQueryProvider<>(serviceProvider.getDatabase(), entityType, serviceProvider.getOrmServiceProvider().getFieldTypeMapper());
+    }
+
+    private QueryProvider<TKey, TEntity> withResultCache(QueryProvider<TKey, TEntity> queryProvider) {
+        SessionResultCache resultCache = serviceProvider.getResultCache();
+        return resultCache != null ? new CachingQueryProvider<>(queryProvider, entityType, getEntityCache(), resultCache) : queryProvider;
+    }
+
+    private QueryProvider<TKey, TEntity> withChangeTracking(QueryProvider<TKey, TEntity> queryProvider) {
+        return new ChangeTrackingQueryProvider<>(queryProvider, entityType, serviceProvider.getChangeTracker());
+    }
+
+    @Override
+    protected EntityCache<TKey, TEntity> createEntityCache() {
+        EntityCache<TKey, TEntity> cache = super.createEntityCache();
+        MetricsSink metricsSink = serviceProvider.getOrmServiceProvider().getMetricsSink();
+        return metricsSink != null ? new InstrumentedEntityCache<>(cache, entityType, metricsSink) : cache;
+    }
+}
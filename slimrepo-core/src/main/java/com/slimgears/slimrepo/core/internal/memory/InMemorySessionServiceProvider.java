@@ -0,0 +1,71 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.AbstractSessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingTransactionProvider;
+import com.slimgears.slimrepo.core.internal.InstrumentedTransactionProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryCreator;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionEntityServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.IOException;
+
+public class InMemorySessionServiceProvider extends AbstractSessionServiceProvider {
+    private final InMemoryOrmServiceProvider ormServiceProvider;
+    private final InMemoryDatabase database;
+    private volatile TransactionProvider transactionProvider;
+    private final Object syncRoot = new Object();
+
+    public InMemorySessionServiceProvider(InMemoryOrmServiceProvider ormServiceProvider, InMemoryDatabase database) {
+        this.ormServiceProvider = ormServiceProvider;
+        this.database = database;
+    }
+
+    @Override
+    protected <TKey, TEntity> SessionEntityServiceProvider<TKey, TEntity> createEntityServiceProvider(EntityType<TKey, TEntity> entityType) {
+        return new InMemorySessionEntityServiceProvider<>(this, entityType);
+    }
+
+    @Override
+    protected RepositoryCreator createRepositoryCreator() {
+        return new RepositoryCreator() {
+            @Override
+            public void createRepository(RepositoryModel model) throws IOException {
+                database.create(model);
+            }
+
+            @Override
+            public void upgradeRepository(RepositoryModel newModel) throws IOException {
+                database.create(newModel);
+            }
+        };
+    }
+
+    @Override
+    public TransactionProvider getTransactionProvider() {
+        if (transactionProvider != null) return transactionProvider;
+        synchronized (syncRoot) {
+            if (transactionProvider != null) return transactionProvider;
+            MetricsSink metricsSink = ormServiceProvider.getMetricsSink();
+            TransactionProvider underlyingProvider = metricsSink != null ? new InstrumentedTransactionProvider(database, metricsSink) : database;
+            return transactionProvider = new ChangeTrackingTransactionProvider(withResultCache(underlyingProvider), getChangeTracker());
+        }
+    }
+
+    @Override
+    public InMemoryOrmServiceProvider getOrmServiceProvider() {
+        return ormServiceProvider;
+    }
+
+    public InMemoryDatabase getDatabase() {
+        return database;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+}
@@ -0,0 +1,270 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CompositeCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.FieldCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.PredicateType;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpression;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpressionType;
+import com.slimgears.slimrepo.core.internal.UpdateFieldInfo;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+class InMemoryTable<TKey, TEntity> {
+    private final InMemoryDatabase database;
+    private final EntityType<TKey, TEntity> entityType;
+    private final ConcurrentMap<TKey, Row<TEntity>> rowsByKey = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, Row<TEntity>> rowsById = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Field<TEntity, ?>, InMemoryIndex<TEntity>> indexes = new ConcurrentHashMap<>();
+    private long lastRowId;
+    private long lastGeneratedKey;
+
+    static class Row<TEntity> {
+        final long id;
+        final TEntity entity;
+
+        Row(long id, TEntity entity) {
+            this.id = id;
+            this.entity = entity;
+        }
+    }
+
+    InMemoryTable(InMemoryDatabase database, EntityType<TKey, TEntity> entityType) {
+        this.database = database;
+        this.entityType = entityType;
+    }
+
+    Collection<Row<TEntity>> getRows() {
+        return rowsById.values();
+    }
+
+    Row<TEntity> getRow(TKey key) {
+        return key != null ? rowsByKey.get(key) : null;
+    }
+
+    int size() {
+        return rowsByKey.size();
+    }
+
+    void addIndex(ValueField<TEntity, ?> field, boolean sorted) {
+        if (indexes.containsKey(field)) return;
+        InMemoryIndex<TEntity> index = InMemoryIndex.create(field, sorted);
+        for (Row<TEntity> row : rowsById.values()) {
+            index.add(row);
+        }
+        indexes.put(field, index);
+    }
+
+    Collection<Row<TEntity>> findCandidates(Condition<TEntity> condition) {
+        if (condition == null) return null;
+
+        if (condition.getType() == PredicateType.COMPOSITE_AND) {
+            Collection<Row<TEntity>> candidates = null;
+            for (Condition<TEntity> argument : ((CompositeCondition<TEntity>)condition).getArguments()) {
+                Collection<Row<TEntity>> rows = findCandidates(argument);
+                if (rows != null && (candidates == null || rows.size() < candidates.size())) candidates = rows;
+            }
+            return candidates;
+        }
+
+        if (!(condition instanceof FieldCondition)) return null;
+
+        Field<TEntity, ?> field = ((FieldCondition<TEntity, ?>)condition).getField();
+        if (field == entityType.getKeyField()) return findByKey(condition);
+
+        InMemoryIndex<TEntity> index = indexes.get(field);
+        return index != null ? index.find(condition) : null;
+    }
+
+    void insert(TEntity entity) throws IOException {
+        TKey key = assignKey(entity);
+        if (rowsByKey.containsKey(key)) throw new IOException("Duplicate key in " + entityType.getName() + ": " + key);
+
+        final Row<TEntity> row = new Row<>(++lastRowId, attach(entity));
+        addRow(row);
+        database.onUndo(() -> removeRow(row));
+    }
+
+    void upsert(TEntity entity) throws IOException {
+        Row<TEntity> row = getRow(entityType.getKey(entity));
+        if (row == null) {
+            insert(entity);
+            return;
+        }
+        replace(row, attach(entity));
+    }
+
+    void update(Row<TEntity> row, Collection<UpdateFieldInfo> updates) {
+        TEntity entity = entityType.clone(row.entity);
+        for (UpdateFieldInfo update : updates) {
+            Object value = update.expression != null ? evaluate(update.expression, row.entity) : update.value;
+            //noinspection unchecked
+            update.field.setValue(entity, update.field instanceof RelationalField
+                    ? attachRelated((RelationalField<TEntity, ?>)update.field, value)
+                    : value);
+        }
+        replace(row, entity);
+    }
+
+    void delete(final Row<TEntity> row) {
+        removeRow(row);
+        database.onUndo(() -> addRow(row));
+    }
+
+    TEntity detach(TEntity entity) {
+        TEntity detached = entityType.clone(entity);
+        for (RelationalField<TEntity, ?> field : entityType.getRelationalFields()) {
+            detachRelated(detached, field);
+        }
+        return detached;
+    }
+
+    private void replace(final Row<TEntity> row, TEntity entity) {
+        final TEntity previous = entityType.clone(row.entity);
+        updateRow(row, entity);
+        database.onUndo(() -> updateRow(row, previous));
+    }
+
+    private void updateRow(Row<TEntity> row, TEntity entity) {
+        unindexRow(row);
+        rowsByKey.remove(entityType.getKey(row.entity));
+        entityType.copy(entity, row.entity);
+        rowsByKey.put(entityType.getKey(row.entity), row);
+        indexRow(row);
+    }
+
+    private void addRow(Row<TEntity> row) {
+        rowsByKey.put(entityType.getKey(row.entity), row);
+        rowsById.put(row.id, row);
+        indexRow(row);
+    }
+
+    private void removeRow(Row<TEntity> row) {
+        unindexRow(row);
+        rowsById.remove(row.id);
+        rowsByKey.remove(entityType.getKey(row.entity));
+    }
+
+    private void indexRow(Row<TEntity> row) {
+        for (InMemoryIndex<TEntity> index : indexes.values()) {
+            index.add(row);
+        }
+    }
+
+    private void unindexRow(Row<TEntity> row) {
+        for (InMemoryIndex<TEntity> index : indexes.values()) {
+            index.remove(row);
+        }
+    }
+
+    private Collection<Row<TEntity>> findByKey(Condition<TEntity> condition) {
+        switch (condition.getType()) {
+            case VALUE_FIELD_EQUALS:
+                //noinspection unchecked
+                return rowsOf(getRow(((BinaryCondition<TEntity, TKey>)condition).getValue()));
+            case VALUE_FIELD_IN:
+                Set<Row<TEntity>> rows = new LinkedHashSet<>();
+                //noinspection unchecked
+                for (TKey key : ((CollectionCondition<TEntity, TKey>)condition).getValues()) {
+                    Row<TEntity> row = getRow(key);
+                    if (row != null) rows.add(row);
+                }
+                return rows;
+            default:
+                return null;
+        }
+    }
+
+    // Expressions are evaluated against the row as it was before the update, with SQL null semantics
+    @SuppressWarnings("unchecked")
+    private Object evaluate(UpdateExpression<TEntity, ?> expression, TEntity entity) {
+        Object operand = expression.getOperand().getValue(entity);
+        Object argument = expression.getArgument();
+        switch (expression.getType()) {
+            case FIELD_VALUE: return operand;
+            case COALESCE: return operand != null ? operand : argument;
+        }
+
+        if (operand == null || argument == null) return null;
+        switch (expression.getType()) {
+            case ADD:
+            case MULTIPLY: return arithmetic(expression.getType(), (Number)operand, (Number)argument);
+            case MIN: return ((Comparable<Object>)operand).compareTo(argument) <= 0 ? operand : argument;
+            case MAX: return ((Comparable<Object>)operand).compareTo(argument) >= 0 ? operand : argument;
+            default: throw new RuntimeException("Not supported expression type: " + expression.getType());
+        }
+    }
+
+    private static Number arithmetic(UpdateExpressionType type, Number left, Number right) {
+        boolean add = type == UpdateExpressionType.ADD;
+        if (left instanceof Integer) return add ? left.intValue() + right.intValue() : left.intValue() * right.intValue();
+        if (left instanceof Long) return add ? left.longValue() + right.longValue() : left.longValue() * right.longValue();
+        if (left instanceof Short) return (short)(add ? left.shortValue() + right.shortValue() : left.shortValue() * right.shortValue());
+        if (left instanceof Byte) return (byte)(add ? left.byteValue() + right.byteValue() : left.byteValue() * right.byteValue());
+        if (left instanceof Float) return add ? left.floatValue() + right.floatValue() : left.floatValue() * right.floatValue();
+        return add ? left.doubleValue() + right.doubleValue() : left.doubleValue() * right.doubleValue();
+    }
+
+    private Collection<Row<TEntity>> rowsOf(Row<TEntity> row) {
+        return row != null ? Collections.singletonList(row) : Collections.<Row<TEntity>>emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private TKey assignKey(TEntity entity) {
+        ValueField<TEntity, TKey> keyField = entityType.getKeyField();
+        TKey key = keyField.getValue(entity);
+
+        if (keyField.metaInfo().isAutoIncremented()) {
+            Class<TKey> keyType = keyField.metaInfo().getValueType();
+            if (keyType == Integer.class) key = (TKey)Integer.valueOf((int)++lastGeneratedKey);
+            else if (keyType == Long.class) key = (TKey)Long.valueOf(++lastGeneratedKey);
+        } else if (key == null) {
+            key = keyField.metaInfo().generateValue();
+        }
+
+        keyField.setValue(entity, key);
+        return key;
+    }
+
+    private TEntity attach(TEntity entity) {
+        TEntity attached = entityType.clone(entity);
+        for (RelationalField<TEntity, ?> field : entityType.getRelationalFields()) {
+            //noinspection unchecked
+            ((Field<TEntity, Object>)field).setValue(attached, attachRelated(field, field.getValue(attached)));
+        }
+        return attached;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object attachRelated(RelationalField<TEntity, ?> field, Object related) {
+        if (related == null) return null;
+        InMemoryTable<Object, Object> relatedTable = database.getTable((EntityType<Object, Object>)field.metaInfo().getRelatedEntityType());
+        Row<Object> row = relatedTable.getRow(relatedTable.entityType.getKey(related));
+        return row != null ? row.entity : relatedTable.entityType.clone(related);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <TRelated> void detachRelated(TEntity entity, RelationalField<TEntity, TRelated> field) {
+        TRelated related = field.getValue(entity);
+        if (related == null) return;
+        InMemoryTable<Object, TRelated> relatedTable = database.getTable((EntityType<Object, TRelated>)field.metaInfo().getRelatedEntityType());
+        Row<TRelated> row = relatedTable.getRow(relatedTable.entityType.getKey(related));
+        field.setValue(entity, relatedTable.detach(row != null ? row.entity : related));
+    }
+}
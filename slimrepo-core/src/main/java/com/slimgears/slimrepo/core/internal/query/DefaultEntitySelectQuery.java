@@ -167,6 +167,12 @@ public class DefaultEntitySelectQuery<TKey, TEntity>
         return builder();
     }
 
+    @Override
+    public Builder<TEntity> orderByRank() {
+        queryParams.orderByRank = true;
+        return builder();
+    }
+
     @Override
     public <S> SelectQuery<S> select(Field<TEntity, S> field) {
         return new SelectFieldQuery<>(field, queryParams);
@@ -8,6 +8,7 @@ import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.entities.FieldValueMap;
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
 import com.slimgears.slimrepo.core.interfaces.queries.EntityUpdateQuery;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpression;
 import com.slimgears.slimrepo.core.internal.UpdateFieldInfo;
 
 import java.io.IOException;
@@ -37,6 +38,12 @@ public class DefaultEntityUpdateQuery<TKey, TEntity>
         return this;
     }
 
+    @Override
+    public <T> Builder<TEntity> setExpression(Field<TEntity, T> field, UpdateExpression<TEntity, T> expression) {
+        addUpdate(new UpdateFieldInfo(field, expression));
+        return this;
+    }
+
     @Override
     public Builder<TEntity> setAll(TEntity entity) {
         queryParams.entityType.entityToMap(entity, new FieldValueMap<TEntity>() {
@@ -61,8 +68,12 @@ public class DefaultEntityUpdateQuery<TKey, TEntity>
     }
 
     private <T> void addUpdate(Field<TEntity, T> field, T value) {
+        addUpdate(new UpdateFieldInfo(field, value));
+    }
+
+    private void addUpdate(UpdateFieldInfo update) {
         if (queryParams.updates == null) queryParams.updates = new ArrayList<>();
-        queryParams.updates.add(new UpdateFieldInfo(field, value));
+        queryParams.updates.add(update);
     }
 
     @Override
@@ -3,8 +3,10 @@
 package com.slimgears.slimrepo.core.internal.query;
 
 import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
 import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
 
+import java.io.InputStream;
 import java.util.Collection;
 
 /**
@@ -17,4 +19,8 @@ public interface QueryProvider<TKey, TEntity> {
     PreparedQuery<Void> prepareUpdate(UpdateQueryParams<TKey, TEntity> query);
     PreparedQuery<Void> prepareDelete(DeleteQueryParams<TKey, TEntity> query);
     PreparedQuery<Void> prepareInsert(Collection<TEntity> entities);
+    PreparedQuery<Void> prepareUpsert(Collection<TEntity> entities);
+    PreparedQuery<InputStream> prepareReadBlob(TKey key, BlobField<TEntity, ?> field);
+    PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(String statement, String... parameters);
+    PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(String statement, String... parameters);
 }
@@ -0,0 +1,105 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.query;
+
+import com.annimon.stream.function.Function;
+import com.slimgears.slimrepo.core.interfaces.queries.SelectQuery;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.utilities.Iterators;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Select query over rows of a hand written statement, each row is converted by the mapper
+ */
+public class RawSelectQuery<TRow, T> implements SelectQuery<T> {
+    private final PreparedQuery<CloseableIterator<TRow>> preparedQuery;
+    private final Function<TRow, T> mapper;
+    private final Class<T> elementClass;
+
+    class MappingIterator implements CloseableIterator<T> {
+        private final CloseableIterator<TRow> rowIterator;
+
+        MappingIterator(CloseableIterator<TRow> rowIterator) {
+            this.rowIterator = rowIterator;
+        }
+
+        @Override
+        public void close() throws IOException {
+            rowIterator.close();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rowIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return mapper.apply(rowIterator.next());
+        }
+
+        @Override
+        public void remove() {
+            rowIterator.remove();
+        }
+    }
+
+    public RawSelectQuery(PreparedQuery<CloseableIterator<TRow>> preparedQuery, Function<TRow, T> mapper, Class<T> elementClass) {
+        this.preparedQuery = preparedQuery;
+        this.mapper = mapper;
+        this.elementClass = elementClass;
+    }
+
+    @Override
+    public T firstOrDefault() throws IOException {
+        try (CloseableIterator<T> iterator = execute()) {
+            return iterator.hasNext() ? iterator.next() : null;
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) throw (IOException)e.getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<T> toList() throws IOException {
+        return Arrays.asList(toArray());
+    }
+
+    @Override
+    public T[] toArray() throws IOException {
+        try (CloseableIterator<T> iterator = execute()) {
+            return Iterators.toArray(iterator, elementClass);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) throw (IOException)e.getCause();
+            throw e;
+        }
+    }
+
+    // The statement is opaque, so rows are counted rather than wrapped into a COUNT(*) statement
+    @Override
+    public long count() throws IOException {
+        long count = 0;
+        try (CloseableIterator<TRow> rows = preparedQuery.execute()) {
+            for (; rows.hasNext(); rows.next()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+        try {
+            return execute();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private CloseableIterator<T> execute() throws IOException {
+        return new MappingIterator(preparedQuery.execute());
+    }
+}
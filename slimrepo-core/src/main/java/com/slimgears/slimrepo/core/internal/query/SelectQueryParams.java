@@ -16,6 +16,7 @@ import java.util.Collection;
 public class SelectQueryParams<TKey, TEntity> extends ConditionalQueryParams<TKey, TEntity, SelectQueryParams<TKey, TEntity>> {
     public Collection<Field<TEntity, ?>> fields;
     public Collection<OrderFieldInfo> order;
+    public boolean orderByRank;
 
     public SelectQueryParams(EntityType<TKey, TEntity> entityType, Condition<TEntity> condition, Collection<Field<TEntity, ?>> fields, Collection<OrderFieldInfo> order, QueryPagination pagination) {
         super(entityType, condition, pagination);
@@ -25,11 +26,13 @@ public class SelectQueryParams<TKey, TEntity> extends ConditionalQueryParams<TKe
 
     @Override
     public SelectQueryParams<TKey, TEntity> fork() {
-        return new SelectQueryParams<>(
+        SelectQueryParams<TKey, TEntity> params = new SelectQueryParams<>(
                 entityType,
                 condition,
                 cloneCollection(fields),
                 cloneCollection(order),
                 clonePagination());
+        params.orderByRank = orderByRank;
+        return params;
     }
 }
@@ -0,0 +1,128 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sharding;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.internal.AbstractOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMappingRegistrar;
+import com.slimgears.slimrepo.core.internal.interfaces.OrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.TypeConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Partitions selected entity types across several underlying providers (e.g. one SQLite file per shard) by key hash.
+ * Entity types that are not sharded are stored in the first shard. Joins are performed within a shard, so sharded
+ * entity types can neither have relational fields nor be referred to by other entity types.
+ */
+public class ShardedOrmServiceProvider extends AbstractOrmServiceProvider {
+    private final List<OrmServiceProvider> shards;
+    private final Collection<EntityType<?, ?>> shardedEntityTypes = new CopyOnWriteArraySet<>();
+
+    class ShardedFieldTypeMappingRegistrar implements FieldTypeMappingRegistrar {
+        @Override
+        public <T> void registerConverter(Class<? extends T> valueType, TypeConverter<T> converter) {
+            for (OrmServiceProvider shard : shards) {
+                shard.getFieldTypeMapperRegistrar().registerConverter(valueType, converter);
+            }
+        }
+
+        @Override
+        public void registerConverter(Matcher matcher, TypeConverter converter) {
+            for (OrmServiceProvider shard : shards) {
+                shard.getFieldTypeMapperRegistrar().registerConverter(matcher, converter);
+            }
+        }
+
+        @Override
+        public void registerNotConvertibleTypes(Iterable<Class> types) {
+            for (OrmServiceProvider shard : shards) {
+                shard.getFieldTypeMapperRegistrar().registerNotConvertibleTypes(types);
+            }
+        }
+
+        @Override
+        public <T> T toFieldType(Field<?, T> field, Object value) {
+            return getShard(0).getFieldTypeMapper().toFieldType(field, value);
+        }
+
+        @Override
+        public <T> Object fromFieldType(Field<?, T> field, T value) {
+            return getShard(0).getFieldTypeMapper().fromFieldType(field, value);
+        }
+
+        @Override
+        public <T> Class getOutboundType(Field<?, T> field) {
+            return getShard(0).getFieldTypeMapper().getOutboundType(field);
+        }
+
+        @Override
+        public <T> Class getInboundType(Field<?, T> field) {
+            return getShard(0).getFieldTypeMapper().getInboundType(field);
+        }
+    }
+
+    public ShardedOrmServiceProvider(OrmServiceProvider... shards) {
+        if (shards.length == 0) throw new IllegalArgumentException("At least one shard should be provided");
+        this.shards = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(shards)));
+    }
+
+    public ShardedOrmServiceProvider shardEntityTypes(EntityType<?, ?>... entityTypes) {
+        for (EntityType<?, ?> entityType : entityTypes) {
+            // Joins are performed within a shard, so related entities would be lost on every shard but the first
+            if (!entityType.getRelationalFields().isEmpty()) {
+                throw new IllegalArgumentException("Entity type " + entityType.getName() + " has relational fields and cannot be sharded");
+            }
+        }
+        shardedEntityTypes.addAll(Arrays.asList(entityTypes));
+        return this;
+    }
+
+    public boolean isSharded(EntityType<?, ?> entityType) {
+        return shards.size() > 1 && shardedEntityTypes.contains(entityType);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public OrmServiceProvider getShard(int index) {
+        return shards.get(index);
+    }
+
+    public int getShardIndex(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.size();
+    }
+
+    @Override
+    public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
+        for (EntityType<?, ?> entityType : model.getEntityTypes()) {
+            for (RelationalField<?, ?> field : entityType.getRelationalFields()) {
+                if (shardedEntityTypes.contains(field.metaInfo().getRelatedEntityType())) {
+                    throw new IllegalArgumentException("Entity type " + entityType.getName() + " refers to sharded entity type " +
+                            field.metaInfo().getRelatedEntityType().getName());
+                }
+            }
+        }
+        return new ShardedSessionServiceProvider(this, model);
+    }
+
+    @Override
+    protected FieldTypeMappingRegistrar createTypeMappingRegistrar() {
+        return new ShardedFieldTypeMappingRegistrar();
+    }
+
+    @Override
+    protected void onMapFieldTypes(FieldTypeMappingRegistrar registrar) {
+    }
+}
@@ -0,0 +1,304 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sharding;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.FieldCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.PredicateType;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.internal.DefaultCloseableIterator;
+import com.slimgears.slimrepo.core.internal.OrderFieldInfo;
+import com.slimgears.slimrepo.core.internal.PredicateCompiler;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.query.ConditionalQueryParams;
+import com.slimgears.slimrepo.core.internal.query.DeleteQueryParams;
+import com.slimgears.slimrepo.core.internal.query.PreparedQuery;
+import com.slimgears.slimrepo.core.internal.query.QueryPagination;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Routes key addressed operations to a single shard and fans other queries out to all shards in parallel.
+ * Shard results are merged by the query order and paginated after merging.
+ */
+public class ShardedQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEntity> {
+    private final ShardedSessionServiceProvider sessionServiceProvider;
+    private final ShardedOrmServiceProvider ormServiceProvider;
+    private final EntityType<TKey, TEntity> entityType;
+    private final boolean sharded;
+
+    static class MaterializedRow<TEntity> implements FieldValueLookup<TEntity> {
+        private final Map<Field<TEntity, ?>, Object> values = new HashMap<>();
+
+        MaterializedRow(FieldValueLookup<TEntity> row, Collection<Field<TEntity, ?>> fields) {
+            for (Field<TEntity, ?> field : fields) {
+                values.put(field, row.getValue(field));
+            }
+        }
+
+        @Override
+        public <T> T getValue(Field<TEntity, T> field) {
+            //noinspection unchecked
+            return (T)values.get(field);
+        }
+    }
+
+    public ShardedQueryProvider(ShardedSessionServiceProvider sessionServiceProvider, EntityType<TKey, TEntity> entityType) {
+        this.sessionServiceProvider = sessionServiceProvider;
+        this.ormServiceProvider = sessionServiceProvider.getOrmServiceProvider();
+        this.entityType = entityType;
+        this.sharded = ormServiceProvider.isSharded(entityType);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareSelect(final SelectQueryParams<TKey, TEntity> query) {
+        final Collection<Integer> shards = shardsOf(query.condition);
+        if (shards.size() == 1) {
+            final int shard = shards.iterator().next();
+            return () -> new DefaultCloseableIterator<>(fetchRows(shard, query).iterator());
+        }
+
+        final SelectQueryParams<TKey, TEntity> shardQuery = query.fork();
+        shardQuery.pagination = topRowsPagination(query.pagination);
+        return () -> {
+            List<FieldValueLookup<TEntity>> rows = new ArrayList<>();
+            for (List<FieldValueLookup<TEntity>> shardRows : sessionServiceProvider.executeAll(shards, (shard, session) -> fetchRows(session, shardQuery))) {
+                rows.addAll(shardRows);
+            }
+            if (query.order != null && !query.order.isEmpty() && !query.orderByRank) {
+                Collections.sort(rows, orderComparator(query.order));
+            }
+            return new DefaultCloseableIterator<>(paginate(rows, query.pagination).iterator());
+        };
+    }
+
+    @Override
+    public PreparedQuery<Long> prepareCount(final SelectQueryParams<TKey, TEntity> query) {
+        final Collection<Integer> shards = shardsOf(query.condition);
+        final SelectQueryParams<TKey, TEntity> shardQuery = query.fork();
+        if (shards.size() > 1) shardQuery.pagination = null;
+
+        return () -> {
+            long count = 0;
+            for (long shardCount : sessionServiceProvider.executeAll(shards, (shard, session) -> queryProvider(session).prepareCount(shardQuery).execute())) {
+                count += shardCount;
+            }
+            if (shards.size() == 1 || query.pagination == null) return count;
+            count = Math.max(count - query.pagination.offset, 0);
+            return query.pagination.limit >= 0 ? Math.min(count, query.pagination.limit) : count;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpdate(final UpdateQueryParams<TKey, TEntity> query) {
+        final Collection<Integer> shards = shardsOf(query);
+        return () -> {
+            sessionServiceProvider.executeAll(shards, (shard, session) -> queryProvider(session).prepareUpdate(query).execute());
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareDelete(final DeleteQueryParams<TKey, TEntity> query) {
+        final Collection<Integer> shards = shardsOf(query);
+        return () -> {
+            sessionServiceProvider.executeAll(shards, (shard, session) -> queryProvider(session).prepareDelete(query).execute());
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareInsert(Collection<TEntity> entities) {
+        final Map<Integer, List<TEntity>> partitions = partition(entities);
+        return () -> {
+            sessionServiceProvider.executeAll(partitions.keySet(), (shard, session) -> queryProvider(session).prepareInsert(partitions.get(shard)).execute());
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpsert(Collection<TEntity> entities) {
+        final Map<Integer, List<TEntity>> partitions = partition(entities);
+        return () -> {
+            sessionServiceProvider.executeAll(partitions.keySet(), (shard, session) -> queryProvider(session).prepareUpsert(partitions.get(shard)).execute());
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<InputStream> prepareReadBlob(final TKey key, final BlobField<TEntity, ?> field) {
+        return () -> sessionServiceProvider.execute(shardOf(key), (shard, session) -> queryProvider(session).prepareReadBlob(key, field).execute());
+    }
+
+    // The statement runs on every shard and the rows are concatenated: ordering and limits apply per shard
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(final String statement, final String... parameters) {
+        final Collection<Integer> shards = shardsOf((Condition<TEntity>)null);
+        return () -> {
+            List<FieldValueLookup<TEntity>> rows = new ArrayList<>();
+            for (List<FieldValueLookup<TEntity>> shardRows : sessionServiceProvider.executeAll(shards, (shard, session) ->
+                    materialize(queryProvider(session).prepareRawSelect(statement, parameters), entityType.getFields()))) {
+                rows.addAll(shardRows);
+            }
+            return new DefaultCloseableIterator<>(rows.iterator());
+        };
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(final String statement, final String... parameters) {
+        final Collection<Integer> shards = shardsOf((Condition<TEntity>)null);
+        return () -> {
+            List<String[]> rows = new ArrayList<>();
+            for (List<String[]> shardRows : sessionServiceProvider.executeAll(shards, (shard, session) -> {
+                List<String[]> values = new ArrayList<>();
+                try (CloseableIterator<String[]> iterator = queryProvider(session).prepareRawSelectValues(statement, parameters).execute()) {
+                    while (iterator.hasNext()) {
+                        values.add(iterator.next());
+                    }
+                }
+                return values;
+            })) {
+                rows.addAll(shardRows);
+            }
+            return new DefaultCloseableIterator<>(rows.iterator());
+        };
+    }
+
+    private QueryProvider<TKey, TEntity> queryProvider(SessionServiceProvider session) {
+        return session.getEntityServiceProvider(entityType).getQueryProvider();
+    }
+
+    private List<FieldValueLookup<TEntity>> fetchRows(int shard, final SelectQueryParams<TKey, TEntity> query) throws IOException {
+        return sessionServiceProvider.execute(shard, (index, session) -> fetchRows(session, query));
+    }
+
+    // Rows are copied on the shard thread, as lookups of the underlying providers may be bound to their cursors
+    private List<FieldValueLookup<TEntity>> fetchRows(SessionServiceProvider session, SelectQueryParams<TKey, TEntity> query) throws IOException {
+        Collection<Field<TEntity, ?>> fields = entityType.getFields();
+        if (query.fields != null) {
+            fields = new ArrayList<>(query.fields);
+            if (query.order != null) {
+                for (OrderFieldInfo orderField : query.order) {
+                    //noinspection unchecked
+                    fields.add(orderField.field);
+                }
+            }
+        }
+        return materialize(queryProvider(session).prepareSelect(query), fields);
+    }
+
+    private List<FieldValueLookup<TEntity>> materialize(PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> query, Collection<Field<TEntity, ?>> fields) throws IOException {
+        List<FieldValueLookup<TEntity>> rows = new ArrayList<>();
+        try (CloseableIterator<FieldValueLookup<TEntity>> iterator = query.execute()) {
+            while (iterator.hasNext()) {
+                rows.add(new MaterializedRow<>(iterator.next(), fields));
+            }
+        }
+        return rows;
+    }
+
+    private int shardOf(TKey key) {
+        return sharded ? ormServiceProvider.getShardIndex(key) : 0;
+    }
+
+    private Collection<Integer> shardsOf(ConditionalQueryParams<TKey, TEntity, ?> query) {
+        Collection<Integer> shards = shardsOf(query.condition);
+        QueryPagination pagination = query.pagination;
+        if (shards.size() > 1 && pagination != null && (pagination.offset > 0 || pagination.limit >= 0)) {
+            throw new RuntimeException("Paginated modification of sharded entity " + entityType.getName() + " is not supported");
+        }
+        return shards;
+    }
+
+    private Collection<Integer> shardsOf(Condition<TEntity> condition) {
+        if (!sharded) return Collections.singletonList(0);
+        if (condition instanceof FieldCondition && ((FieldCondition)condition).getField() == entityType.getKeyField()) {
+            if (condition.getType() == PredicateType.VALUE_FIELD_EQUALS) {
+                //noinspection unchecked
+                return Collections.singletonList(shardOf(((BinaryCondition<TEntity, TKey>)condition).getValue()));
+            }
+            if (condition.getType() == PredicateType.VALUE_FIELD_IN) {
+                Collection<Integer> shards = new TreeSet<>();
+                //noinspection unchecked
+                for (TKey key : ((CollectionCondition<TEntity, TKey>)condition).getValues()) {
+                    shards.add(shardOf(key));
+                }
+                return shards;
+            }
+        }
+        return sessionServiceProvider.allShards();
+    }
+
+    private Map<Integer, List<TEntity>> partition(Collection<TEntity> entities) {
+        Map<Integer, List<TEntity>> partitions = new TreeMap<>();
+        for (TEntity entity : entities) {
+            TKey key = entityType.getKey(entity);
+            if (sharded && key == null) {
+                throw new RuntimeException("Sharded entity " + entityType.getName() + " requires application assigned keys");
+            }
+            int shard = sharded ? shardOf(key) : 0;
+            List<TEntity> partition = partitions.get(shard);
+            if (partition == null) partitions.put(shard, partition = new ArrayList<>());
+            partition.add(entity);
+        }
+        return partitions;
+    }
+
+    private static QueryPagination topRowsPagination(QueryPagination pagination) {
+        if (pagination == null || pagination.limit < 0) return null;
+        QueryPagination topRows = new QueryPagination();
+        topRows.limit = pagination.offset + pagination.limit;
+        return topRows;
+    }
+
+    private Comparator<FieldValueLookup<TEntity>> orderComparator(final Collection<OrderFieldInfo> order) {
+        return (first, second) -> {
+            for (OrderFieldInfo orderField : order) {
+                int result = compareValues(orderValue(orderField.field, first), orderValue(orderField.field, second));
+                if (result != 0) return orderField.ascending ? result : -result;
+            }
+            return 0;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object orderValue(Field field, FieldValueLookup<TEntity> row) {
+        Object value = row.getValue(field);
+        if (value == null || !(field instanceof RelationalField)) return value;
+        return ((EntityType<Object, Object>)((RelationalField)field).metaInfo().getRelatedEntityType()).getKey(value);
+    }
+
+    private static int compareValues(Object first, Object second) {
+        if (first == second) return 0;
+        if (first == null) return -1;
+        if (second == null) return 1;
+        return PredicateCompiler.compare(first, second);
+    }
+
+    private static <T> List<T> paginate(List<T> rows, QueryPagination pagination) {
+        if (pagination == null) return rows;
+        int from = Math.min(Math.max(pagination.offset, 0), rows.size());
+        int to = pagination.limit >= 0 ? Math.min(from + pagination.limit, rows.size()) : rows.size();
+        return rows.subList(from, to);
+    }
+}
@@ -0,0 +1,27 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sharding;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.AbstractSessionEntityServiceProvider;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingQueryProvider;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+
+public class ShardedSessionEntityServiceProvider<TKey, TEntity> extends AbstractSessionEntityServiceProvider<TKey, TEntity> {
+    private final ShardedSessionServiceProvider serviceProvider;
+    private final EntityType<TKey, TEntity> entityType;
+    private QueryProvider<TKey, TEntity> queryProvider;
+
+    public ShardedSessionEntityServiceProvider(ShardedSessionServiceProvider serviceProvider, EntityType<TKey, TEntity> entityType) {
+        super(entityType, serviceProvider.getOrmServiceProvider().getSessionConcurrencyLevel());
+        this.serviceProvider = serviceProvider;
+        this.entityType = entityType;
+    }
+
+    @Override
+    public QueryProvider<TKey, TEntity> getQueryProvider() {
+        return queryProvider != null
+                ? queryProvider
+                : (queryProvider = new ChangeTrackingQueryProvider<>(new ShardedQueryProvider<>(serviceProvider, entityType), entityType, serviceProvider.getChangeTracker()));
+    }
+}
@@ -0,0 +1,216 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sharding;
+
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.AbstractSessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingTransactionProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryCreator;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionEntityServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Every shard session is accessed from its own worker thread only, since underlying transactions are bound to the
+ * thread which started them
+ */
+public class ShardedSessionServiceProvider extends AbstractSessionServiceProvider {
+    private final ShardedOrmServiceProvider ormServiceProvider;
+    private final RepositoryModel model;
+    private final SessionServiceProvider[] shardSessions;
+    private final ExecutorService[] shardExecutors;
+    private TransactionProvider transactionProvider;
+
+    public interface ShardAction<T> {
+        T execute(int shard, SessionServiceProvider shardSession) throws IOException;
+    }
+
+    class ShardedTransactionProvider implements TransactionProvider {
+        private final List<Integer> allShards = allShards();
+
+        @Override
+        public void beginTransaction() throws IOException {
+            executeAll(allShards, (shard, session) -> {
+                session.getTransactionProvider().beginTransaction();
+                return null;
+            });
+        }
+
+        @Override
+        public void commitTransaction() throws IOException {
+            executeAll(allShards, (shard, session) -> {
+                session.getTransactionProvider().commitTransaction();
+                return null;
+            });
+        }
+
+        @Override
+        public void cancelTransaction() throws IOException {
+            executeAll(allShards, (shard, session) -> {
+                session.getTransactionProvider().cancelTransaction();
+                return null;
+            });
+        }
+    }
+
+    public ShardedSessionServiceProvider(ShardedOrmServiceProvider ormServiceProvider, RepositoryModel model) {
+        this.ormServiceProvider = ormServiceProvider;
+        this.model = model;
+        this.shardSessions = new SessionServiceProvider[ormServiceProvider.getShardCount()];
+        this.shardExecutors = new ExecutorService[ormServiceProvider.getShardCount()];
+    }
+
+    @Override
+    protected <TKey, TEntity> SessionEntityServiceProvider<TKey, TEntity> createEntityServiceProvider(EntityType<TKey, TEntity> entityType) {
+        return new ShardedSessionEntityServiceProvider<>(this, entityType);
+    }
+
+    @Override
+    protected RepositoryCreator createRepositoryCreator() {
+        return new RepositoryCreator() {
+            @Override
+            public void createRepository(final RepositoryModel model) throws IOException {
+                executeAll(allShards(), (shard, session) -> {
+                    session.getRepositoryCreator().createRepository(model);
+                    return null;
+                });
+            }
+
+            @Override
+            public void upgradeRepository(final RepositoryModel newModel) throws IOException {
+                executeAll(allShards(), (shard, session) -> {
+                    session.getRepositoryCreator().upgradeRepository(newModel);
+                    return null;
+                });
+            }
+        };
+    }
+
+    @Override
+    public synchronized TransactionProvider getTransactionProvider() {
+        return transactionProvider != null
+                ? transactionProvider
+                : (transactionProvider = new ChangeTrackingTransactionProvider(new ShardedTransactionProvider(), getChangeTracker()));
+    }
+
+    @Override
+    public ShardedOrmServiceProvider getOrmServiceProvider() {
+        return ormServiceProvider;
+    }
+
+    @Override
+    public Closeable relaxDurability() throws IOException {
+        final List<Closeable> closeables = executeAll(allShards(), (shard, session) -> session.relaxDurability());
+        return () -> executeAll(allShards(), (shard, session) -> {
+            closeables.get(shard).close();
+            return null;
+        });
+    }
+
+    // Every shard is backed up into a separate file: <path>.<shard index>
+    @Override
+    public void backup(final String path) throws IOException {
+        executeAll(allShards(), (shard, session) -> {
+            session.backup(shardPath(path, shard));
+            return null;
+        });
+    }
+
+    @Override
+    public void restore(final String backupPath, final String targetPath) throws IOException {
+        executeAll(allShards(), (shard, session) -> {
+            session.restore(shardPath(backupPath, shard), shardPath(targetPath, shard));
+            return null;
+        });
+    }
+
+    public <T> T execute(int shard, ShardAction<T> action) throws IOException {
+        List<Integer> shards = new ArrayList<>(1);
+        shards.add(shard);
+        return executeAll(shards, action).get(0);
+    }
+
+    public <T> List<T> executeAll(Collection<Integer> shards, final ShardAction<T> action) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (final int shard : shards) {
+            final SessionServiceProvider session = getShardSession(shard);
+            futures.add(getShardExecutor(shard).submit(() -> action.execute(shard, session)));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        Throwable error = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (error == null) error = e.getCause();
+                results.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        if (error instanceof IOException) throw (IOException)error;
+        if (error instanceof RuntimeException) throw (RuntimeException)error;
+        if (error != null) throw new RuntimeException(error);
+        return results;
+    }
+
+    public List<Integer> allShards() {
+        List<Integer> shards = new ArrayList<>(shardSessions.length);
+        for (int i = 0; i < shardSessions.length; ++i) {
+            shards.add(i);
+        }
+        return shards;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            List<Integer> openShards = new ArrayList<>();
+            for (int i = 0; i < shardSessions.length; ++i) {
+                if (shardSessions[i] != null) openShards.add(i);
+            }
+            executeAll(openShards, (shard, session) -> {
+                session.close();
+                return null;
+            });
+        } finally {
+            for (ExecutorService executor : shardExecutors) {
+                if (executor != null) executor.shutdown();
+            }
+        }
+    }
+
+    private static String shardPath(String path, int shard) {
+        return path + "." + shard;
+    }
+
+    private synchronized SessionServiceProvider getShardSession(int shard) {
+        return shardSessions[shard] != null
+                ? shardSessions[shard]
+                : (shardSessions[shard] = ormServiceProvider.getShard(shard).createSessionServiceProvider(model));
+    }
+
+    private synchronized ExecutorService getShardExecutor(final int shard) {
+        return shardExecutors[shard] != null
+                ? shardExecutors[shard]
+                : (shardExecutors[shard] = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "slimrepo-shard-" + shard);
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+}
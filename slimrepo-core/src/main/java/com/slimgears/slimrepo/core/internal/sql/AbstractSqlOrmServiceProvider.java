@@ -14,6 +14,8 @@ import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
 public abstract class AbstractSqlOrmServiceProvider extends AbstractOrmServiceProvider implements SqlOrmServiceProvider {
     private SqlStatementBuilder sqlBuilder;
     private SqlStatementBuilder.SyntaxProvider syntaxProvider;
+    private SqlQueryPlanDiagnostics queryPlanDiagnostics;
+    private int selectChunkSize;
 
     @Override
     public SqlStatementBuilder getStatementBuilder() {
@@ -29,6 +31,25 @@ public abstract class AbstractSqlOrmServiceProvider extends AbstractOrmServicePr
                 : (syntaxProvider = createSyntaxProvider());
     }
 
+    @Override
+    public SqlQueryPlanDiagnostics getQueryPlanDiagnostics() {
+        return queryPlanDiagnostics;
+    }
+
+    public void setQueryPlanDiagnostics(SqlQueryPlanDiagnostics queryPlanDiagnostics) {
+        this.queryPlanDiagnostics = queryPlanDiagnostics;
+    }
+
+    @Override
+    public int getSelectChunkSize() {
+        return selectChunkSize;
+    }
+
+    // Unordered and unpaginated selects of entities with comparable keys are read in chunks of this size, 0 disables chunking
+    public void setSelectChunkSize(int selectChunkSize) {
+        this.selectChunkSize = selectChunkSize;
+    }
+
     protected SqlStatementBuilder createStatementBuilder() {
         SqlStatementBuilder.SyntaxProvider syntaxProvider = getSyntaxProvider();
         SqlStatementBuilder.PredicateBuilder predicateBuilder = createPredicateBuilder(syntaxProvider);
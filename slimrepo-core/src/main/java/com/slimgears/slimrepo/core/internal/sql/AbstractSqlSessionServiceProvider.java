@@ -4,6 +4,10 @@ package com.slimgears.slimrepo.core.internal.sql;
 
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.internal.AbstractSessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingTransactionProvider;
+import com.slimgears.slimrepo.core.internal.InstrumentedTransactionProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
 import com.slimgears.slimrepo.core.internal.interfaces.RepositoryCreator;
 import com.slimgears.slimrepo.core.internal.interfaces.SessionEntityServiceProvider;
 import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
@@ -11,7 +15,9 @@ import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlOrmServiceProvider;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSchemeProvider;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
 
+import java.io.Closeable;
 import java.io.IOException;
 
 /**
@@ -19,10 +25,14 @@ import java.io.IOException;
  *
  */
 public abstract class AbstractSqlSessionServiceProvider extends AbstractSessionServiceProvider implements SqlSessionServiceProvider {
-    private SqlCommandExecutor sqlExecutor;
-    private TransactionProvider transactionProvider;
-    private SqlOrmServiceProvider ormServiceProvider;
-    private SqlSchemeProvider schemeProvider;
+    private static final String BACKUP_SCHEMA_NAME = "backup";
+    private static final int[] VACUUM_INTO_MIN_VERSION = {3, 27};
+
+    private volatile SqlCommandExecutor sqlExecutor;
+    private volatile TransactionProvider transactionProvider;
+    private final SqlOrmServiceProvider ormServiceProvider;
+    private volatile SqlSchemeProvider schemeProvider;
+    private final Object syncRoot = new Object();
 
     public AbstractSqlSessionServiceProvider(SqlOrmServiceProvider serviceProvider) {
         this.ormServiceProvider = serviceProvider;
@@ -30,8 +40,10 @@ public abstract class AbstractSqlSessionServiceProvider extends AbstractSessionS
 
     @Override
     public void close() throws IOException {
-        sqlExecutor = null;
-        transactionProvider = null;
+        synchronized (syncRoot) {
+            sqlExecutor = null;
+            transactionProvider = null;
+        }
     }
 
     protected abstract SqlCommandExecutor createCommandExecutor();
@@ -45,23 +57,64 @@ public abstract class AbstractSqlSessionServiceProvider extends AbstractSessionS
 
     @Override
     public SqlCommandExecutor getExecutor() {
-        return sqlExecutor != null
-                ? sqlExecutor
-                : (sqlExecutor = createCommandExecutor());
+        SqlCommandExecutor executor = sqlExecutor;
+        if (executor != null) return executor;
+        synchronized (syncRoot) {
+            return sqlExecutor != null
+                    ? sqlExecutor
+                    : (sqlExecutor = instrument(createCommandExecutor()));
+        }
     }
 
     @Override
     public TransactionProvider getTransactionProvider() {
-        return transactionProvider != null
-                ? transactionProvider
-                : (transactionProvider = createTransactionProvider());
+        TransactionProvider provider = transactionProvider;
+        if (provider != null) return provider;
+        synchronized (syncRoot) {
+            return transactionProvider != null
+                    ? transactionProvider
+                    : (transactionProvider = new ChangeTrackingTransactionProvider(withResultCache(instrument(createTransactionProvider())), getChangeTracker()));
+        }
     }
 
     @Override
     public SqlSchemeProvider getSchemeProvider() {
-        return schemeProvider != null
-                ? schemeProvider
-                : (schemeProvider = createSchemeProvider());
+        if (schemeProvider != null) return schemeProvider;
+        synchronized (syncRoot) {
+            return schemeProvider != null
+                    ? schemeProvider
+                    : (schemeProvider = createSchemeProvider());
+        }
+    }
+
+    @Override
+    public Closeable relaxDurability() throws IOException {
+        final SqlCommandExecutor executor = getExecutor();
+        final SqlStatementBuilder sqlBuilder = getOrmServiceProvider().getStatementBuilder();
+        final long synchronous = executor.count(sqlBuilder.pragmaStatement("synchronous"));
+        executor.execute(sqlBuilder.pragmaStatement("synchronous", "OFF"));
+        return () -> executor.execute(sqlBuilder.pragmaStatement("synchronous", String.valueOf(synchronous)));
+    }
+
+    @Override
+    public void backup(String path) throws IOException {
+        SqlCommandExecutor executor = getExecutor();
+        SqlStatementBuilder sqlBuilder = getOrmServiceProvider().getStatementBuilder();
+        checkVacuumIntoSupported(executor, sqlBuilder);
+        executor.execute(sqlBuilder.vacuumIntoStatement(null, path));
+    }
+
+    @Override
+    public void restore(String backupPath, String targetPath) throws IOException {
+        SqlCommandExecutor executor = getExecutor();
+        SqlStatementBuilder sqlBuilder = getOrmServiceProvider().getStatementBuilder();
+        checkVacuumIntoSupported(executor, sqlBuilder);
+        executor.execute(sqlBuilder.attachDatabaseStatement(backupPath, BACKUP_SCHEMA_NAME));
+        try {
+            executor.execute(sqlBuilder.vacuumIntoStatement(BACKUP_SCHEMA_NAME, targetPath));
+        } finally {
+            executor.execute(sqlBuilder.detachDatabaseStatement(BACKUP_SCHEMA_NAME));
+        }
     }
 
     @Override
@@ -73,4 +126,41 @@ public abstract class AbstractSqlSessionServiceProvider extends AbstractSessionS
     public SqlOrmServiceProvider getOrmServiceProvider() {
         return ormServiceProvider;
     }
+
+    // VACUUM INTO is available since SQLite 3.27 (Android API 30), older versions reject it as a syntax error
+    private static void checkVacuumIntoSupported(SqlCommandExecutor executor, SqlStatementBuilder sqlBuilder) throws IOException {
+        String version;
+        try (CloseableIterator<String[]> rows = executor.selectValues(sqlBuilder.versionStatement())) {
+            version = rows.hasNext() ? rows.next()[0] : null;
+        }
+        if (!isVersionAtLeast(version, VACUUM_INTO_MIN_VERSION)) {
+            throw new IOException("Backup and restore require SQLite " + VACUUM_INTO_MIN_VERSION[0] + "." + VACUUM_INTO_MIN_VERSION[1] +
+                    " or newer, current version: " + version);
+        }
+    }
+
+    private static boolean isVersionAtLeast(String version, int[] minVersion) {
+        if (version == null) return false;
+        String[] parts = version.split("\\.");
+        for (int i = 0; i < minVersion.length; ++i) {
+            int part;
+            try {
+                part = i < parts.length ? Integer.parseInt(parts[i]) : 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (part != minVersion[i]) return part > minVersion[i];
+        }
+        return true;
+    }
+
+    private SqlCommandExecutor instrument(SqlCommandExecutor executor) {
+        MetricsSink metricsSink = ormServiceProvider.getMetricsSink();
+        return metricsSink != null ? new InstrumentedSqlCommandExecutor(executor, metricsSink) : executor;
+    }
+
+    private TransactionProvider instrument(TransactionProvider transactionProvider) {
+        MetricsSink metricsSink = ormServiceProvider.getMetricsSink();
+        return metricsSink != null ? new InstrumentedTransactionProvider(transactionProvider, metricsSink) : transactionProvider;
+    }
 }
@@ -18,6 +18,7 @@ import java.util.Map;
  */
 public abstract class AbstractSqlSyntaxProvider implements SqlStatementBuilder.SyntaxProvider {
     private static final Map<Class, String> CLASS_TO_TYPE_NAME_MAP = new HashMap<>();
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
     static {
         registerType("INTEGER", int.class, Integer.class, short.class, Short.class, long.class, Long.class);
@@ -51,8 +52,28 @@ public abstract class AbstractSqlSyntaxProvider implements SqlStatementBuilder.S
 
     @Override
     public <T> String substituteParameter(SqlCommand.Parameters params, Field<?, T> field, T value) {
+        // Parameters are bound as text, so BLOB values are inlined as literals instead
+        if (value != null && !isBindable(field)) return blobLiteral((byte[])fieldTypeMapper.fromFieldType(field, value));
         int index = params.getCount();
-        return parameterReference(index, params.add(valueToString(field, value)));
+        // Null is bound as a real NULL rather than the "NULL" literal text, keeping the statement text independent of values
+        return parameterReference(index, params.add(value != null ? valueToString(field, value) : null));
+    }
+
+    @Override
+    public boolean isBindable(Field<?, ?> field) {
+        return fieldTypeMapper.getOutboundType(field) != byte[].class;
+    }
+
+    protected String blobLiteral(byte[] value) {
+        char[] chars = new char[value.length * 2 + 3];
+        chars[0] = 'X';
+        chars[1] = '\'';
+        for (int i = 0; i < value.length; ++i) {
+            chars[2 + i * 2] = HEX_DIGITS[(value[i] >> 4) & 0xf];
+            chars[3 + i * 2] = HEX_DIGITS[value[i] & 0xf];
+        }
+        chars[chars.length - 1] = '\'';
+        return new String(chars);
     }
 
     @Override
@@ -0,0 +1,86 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+
+import java.io.IOException;
+
+public class InstrumentedSqlCommandExecutor implements SqlCommandExecutor {
+    private final SqlCommandExecutor underlyingExecutor;
+    private final MetricsSink metricsSink;
+
+    class CountingIterator<T> implements CloseableIterator<T> {
+        private final CloseableIterator<T> underlyingIterator;
+        private final String statement;
+        private final long startTime;
+        private long rowCount;
+        private boolean closed;
+
+        CountingIterator(CloseableIterator<T> underlyingIterator, String statement, long startTime) {
+            this.underlyingIterator = underlyingIterator;
+            this.statement = statement;
+            this.startTime = startTime;
+        }
+
+        @Override
+        public void close() throws IOException {
+            underlyingIterator.close();
+            if (closed) return;
+            closed = true;
+            metricsSink.onStatementExecuted(statement, System.nanoTime() - startTime, rowCount);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return underlyingIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T item = underlyingIterator.next();
+            ++rowCount;
+            return item;
+        }
+
+        @Override
+        public void remove() {
+            underlyingIterator.remove();
+        }
+    }
+
+    public InstrumentedSqlCommandExecutor(SqlCommandExecutor underlyingExecutor, MetricsSink metricsSink) {
+        this.underlyingExecutor = underlyingExecutor;
+        this.metricsSink = metricsSink;
+    }
+
+    @Override
+    public long count(String statement, String... parameters) throws IOException {
+        long startTime = System.nanoTime();
+        long count = underlyingExecutor.count(statement, parameters);
+        metricsSink.onStatementExecuted(statement, System.nanoTime() - startTime, 1);
+        return count;
+    }
+
+    @Override
+    public <T> CloseableIterator<FieldValueLookup<T>> select(String statement, String... parameters) throws IOException {
+        long startTime = System.nanoTime();
+        return new CountingIterator<>(underlyingExecutor.<T>select(statement, parameters), statement, startTime);
+    }
+
+    @Override
+    public void execute(String statement, String... parameters) throws IOException {
+        long startTime = System.nanoTime();
+        underlyingExecutor.execute(statement, parameters);
+        metricsSink.onStatementExecuted(statement, System.nanoTime() - startTime, 0);
+    }
+
+    @Override
+    public CloseableIterator<String[]> selectValues(String statement, String... parameters) throws IOException {
+        long startTime = System.nanoTime();
+        return new CountingIterator<>(underlyingExecutor.selectValues(statement, parameters), statement, startTime);
+    }
+}
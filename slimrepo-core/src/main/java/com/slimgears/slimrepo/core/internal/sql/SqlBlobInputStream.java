@@ -0,0 +1,84 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class SqlBlobInputStream extends InputStream {
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private final SqlCommandExecutor executor;
+    private final String statement;
+    private final String[] parameters;
+    private final int chunkSize;
+    private long offset = 1;
+    private byte[] chunk;
+    private int position;
+    private boolean lastChunk;
+
+    private SqlBlobInputStream(SqlCommandExecutor executor, String statement, String[] parameters, int chunkSize) {
+        this.executor = executor;
+        this.statement = statement;
+        this.parameters = parameters.clone();
+        this.chunkSize = chunkSize;
+    }
+
+    public static InputStream open(SqlCommandExecutor executor, String statement, String[] parameters, int chunkSize) throws IOException {
+        SqlBlobInputStream stream = new SqlBlobInputStream(executor, statement, parameters, chunkSize);
+        return stream.fetchChunk() ? stream : null;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunk()) return -1;
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (!ensureChunk()) return -1;
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk != null ? chunk.length - position : 0;
+    }
+
+    private boolean ensureChunk() throws IOException {
+        while (chunk == null || position == chunk.length) {
+            if (lastChunk || !fetchChunk()) return false;
+        }
+        return true;
+    }
+
+    private boolean fetchChunk() throws IOException {
+        parameters[0] = String.valueOf(offset);
+        parameters[1] = String.valueOf(chunkSize);
+        try (CloseableIterator<String[]> rows = executor.selectValues(statement, parameters)) {
+            if (!rows.hasNext()) return false;
+            chunk = fromHex(rows.next()[0]);
+        }
+        position = 0;
+        offset += chunk.length;
+        lastChunk = chunk.length < chunkSize;
+        return true;
+    }
+
+    private static byte[] fromHex(String hex) {
+        if (hex == null) return new byte[0];
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte)((Character.digit(hex.charAt(2 * i), 16) << 4) | Character.digit(hex.charAt(2 * i + 1), 16));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Pages through key ordered rows, re-querying the rows following the last seen key once a chunk is exhausted
+ */
+public class SqlChunkedRowIterator<TKey, TEntity> implements CloseableIterator<FieldValueLookup<TEntity>> {
+    private final ChunkQuery<TKey, TEntity> chunkQuery;
+    private final ValueField<TEntity, TKey> keyField;
+    private final int chunkSize;
+    private CloseableIterator<FieldValueLookup<TEntity>> chunk;
+    private int rowsInChunk;
+    private TKey lastKey;
+
+    public interface ChunkQuery<TKey, TEntity> {
+        CloseableIterator<FieldValueLookup<TEntity>> select(TKey lastKey) throws IOException;
+    }
+
+    public SqlChunkedRowIterator(ChunkQuery<TKey, TEntity> chunkQuery, ValueField<TEntity, TKey> keyField, int chunkSize) throws IOException {
+        this.chunkQuery = chunkQuery;
+        this.keyField = keyField;
+        this.chunkSize = chunkSize;
+        this.chunk = chunkQuery.select(null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!chunk.hasNext()) {
+                if (rowsInChunk < chunkSize) return false;
+                chunk.close();
+                chunk = chunkQuery.select(lastKey);
+                rowsInChunk = 0;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public FieldValueLookup<TEntity> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        FieldValueLookup<TEntity> row = chunk.next();
+        lastKey = row.getValue(keyField);
+        ++rowsInChunk;
+        return row;
+    }
+
+    @Override
+    public void remove() {
+        throw new RuntimeException("Not implemented");
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunk.close();
+    }
+}
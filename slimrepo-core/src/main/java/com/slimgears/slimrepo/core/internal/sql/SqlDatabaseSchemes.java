@@ -18,6 +18,9 @@ import java.util.Set;
  *
  */
 public class SqlDatabaseSchemes {
+    private final static String FULL_TEXT_TABLE_SUFFIX = "_fts";
+    private final static String[] FULL_TEXT_SHADOW_TABLE_SUFFIXES = {"_data", "_idx", "_content", "_docsize", "_config"};
+
     private final static Predicate<SqlDatabaseSchemeDifference.TableSchemeDifference> PREDICATE_NOT_EMPTY_TABLE_DIFF = input ->
             !input.getAddedFields().isEmpty() ||
             !input.getDeletedFields().isEmpty() ||
@@ -143,6 +146,24 @@ public class SqlDatabaseSchemes {
         return new TableSchemeDifference(oldTable, newTable);
     }
 
+    public static String fullTextTableName(String tableName) {
+        return tableName + FULL_TEXT_TABLE_SUFFIX;
+    }
+
+    public static String fullTextBaseTableName(String fullTextTableName) {
+        return fullTextTableName.endsWith(FULL_TEXT_TABLE_SUFFIX)
+                ? fullTextTableName.substring(0, fullTextTableName.length() - FULL_TEXT_TABLE_SUFFIX.length())
+                : null;
+    }
+
+    public static boolean isFullTextTable(String tableName) {
+        if (tableName.endsWith(FULL_TEXT_TABLE_SUFFIX)) return true;
+        for (String suffix : FULL_TEXT_SHADOW_TABLE_SUFFIXES) {
+            if (tableName.endsWith(FULL_TEXT_TABLE_SUFFIX + suffix)) return true;
+        }
+        return false;
+    }
+
     public static boolean fieldsEqual(SqlDatabaseScheme.FieldScheme oldField, SqlDatabaseScheme.FieldScheme newField) {
         if (oldField == null || newField == null) return oldField == newField;
 
@@ -2,6 +2,7 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.internal.sql;
 
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommand;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
 
@@ -12,6 +13,7 @@ import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
 class SqlLazyCommand implements SqlCommand {
     private final SqlStatementBuilder sqlBuilder;
     private final CommandBuilder commandBuilder;
+    private final MetricsSink metricsSink;
     private String statement;
     private Parameters parameters;
 
@@ -20,8 +22,13 @@ class SqlLazyCommand implements SqlCommand {
     }
 
     public SqlLazyCommand(SqlStatementBuilder sqlBuilder, CommandBuilder commandBuilder) {
+        this(sqlBuilder, commandBuilder, null);
+    }
+
+    public SqlLazyCommand(SqlStatementBuilder sqlBuilder, CommandBuilder commandBuilder, MetricsSink metricsSink) {
         this.sqlBuilder = sqlBuilder;
         this.commandBuilder = commandBuilder;
+        this.metricsSink = metricsSink;
     }
 
     @Override
@@ -38,8 +45,10 @@ class SqlLazyCommand implements SqlCommand {
 
     private void ensureCommandWasBuilt() {
         if (statement == null || parameters == null) {
+            long startTime = metricsSink != null ? System.nanoTime() : 0;
             parameters = new SqlCommandParameters();
             statement = commandBuilder.buildCommand(sqlBuilder, parameters);
+            if (metricsSink != null) metricsSink.onStatementBuilt(statement, System.nanoTime() - startTime);
         }
     }
 }
@@ -3,15 +3,14 @@
 package com.slimgears.slimrepo.core.internal.sql;
 
 import com.slimgears.slimrepo.core.interfaces.conditions.*;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.internal.PredicateOptimizer;
 import com.slimgears.slimrepo.core.internal.PredicateVisitor;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommand;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
-import com.slimgears.slimrepo.core.utilities.Iterators;
-import com.slimgears.slimrepo.core.utilities.Joiner;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -19,30 +18,33 @@ import java.util.Map;
  *
  */
 public class SqlPredicateBuilder implements SqlStatementBuilder.PredicateBuilder {
-    private static final Map<PredicateType, String> OPERATOR_FORMATS = new HashMap<>();
+    private static final Map<PredicateType, String> OPERATORS = new HashMap<>();
     private static final Map<PredicateType, String> ARGUMENT_FORMATS = new HashMap<>();
 
     static {
-        OPERATOR_FORMATS.put(PredicateType.FIELD_IS_NULL, "IS NULL");
-        OPERATOR_FORMATS.put(PredicateType.FIELD_IS_NOT_NULL, "IS NOT NULL");
-        OPERATOR_FORMATS.put(PredicateType.VALUE_FIELD_EQUALS, "= %1$s");
-        OPERATOR_FORMATS.put(PredicateType.VALUE_FIELD_NOT_EQUALS, "<> %1$s");
-        OPERATOR_FORMATS.put(PredicateType.VALUE_FIELD_IN, "IN (%1$s)");
-        OPERATOR_FORMATS.put(PredicateType.VALUE_FIELD_NOT_IN, "NOT IN (%1$s)");
-        OPERATOR_FORMATS.put(PredicateType.NUMBER_FIELD_GREATER, "> %1$s");
-        OPERATOR_FORMATS.put(PredicateType.NUMBER_FIELD_LESS, "< %1$s");
-        OPERATOR_FORMATS.put(PredicateType.NUMBER_FIELD_GREATER_EQUAL, ">= %1$s");
-        OPERATOR_FORMATS.put(PredicateType.NUMBER_FIELD_LESS_EQUAL, "<= %1$s");
-        OPERATOR_FORMATS.put(PredicateType.NUMBER_FIELD_BETWEEN, "BETWEEN %1$s AND %2$s");
-        OPERATOR_FORMATS.put(PredicateType.STRING_FIELD_CONTAINS, "LIKE %1$s");
-        OPERATOR_FORMATS.put(PredicateType.STRING_FIELD_NOT_CONTAINS, "NOT LIKE %1$s");
-        OPERATOR_FORMATS.put(PredicateType.STRING_FIELD_STARTS_WITH, "LIKE %1$s");
-        OPERATOR_FORMATS.put(PredicateType.STRING_FIELD_ENDS_WITH, "LIKE %1$s");
-        OPERATOR_FORMATS.put(PredicateType.STRING_FIELD_NOT_STARTS_WITH, "NOT LIKE %1$s");
-        OPERATOR_FORMATS.put(PredicateType.STRING_FIELD_NOT_ENDS_WITH, "NOT LIKE %1$s");
-        OPERATOR_FORMATS.put(PredicateType.COMPOSITE_AND, "(%1$s) AND (%2$s)");
-        OPERATOR_FORMATS.put(PredicateType.COMPOSITE_OR, "(%1$s) OR (%2$s)");
-        OPERATOR_FORMATS.put(PredicateType.COMPOSITE_NOT, "NOT (%1$s)");
+        OPERATORS.put(PredicateType.FIELD_IS_NULL, "IS NULL");
+        OPERATORS.put(PredicateType.FIELD_IS_NOT_NULL, "IS NOT NULL");
+        OPERATORS.put(PredicateType.VALUE_FIELD_EQUALS, "=");
+        OPERATORS.put(PredicateType.VALUE_FIELD_NOT_EQUALS, "<>");
+        OPERATORS.put(PredicateType.VALUE_FIELD_IN, "IN");
+        OPERATORS.put(PredicateType.VALUE_FIELD_NOT_IN, "NOT IN");
+        OPERATORS.put(PredicateType.NUMBER_FIELD_GREATER, ">");
+        OPERATORS.put(PredicateType.NUMBER_FIELD_LESS, "<");
+        OPERATORS.put(PredicateType.NUMBER_FIELD_GREATER_EQUAL, ">=");
+        OPERATORS.put(PredicateType.NUMBER_FIELD_LESS_EQUAL, "<=");
+        OPERATORS.put(PredicateType.NUMBER_FIELD_BETWEEN, "BETWEEN");
+        OPERATORS.put(PredicateType.STRING_FIELD_CONTAINS, "LIKE");
+        OPERATORS.put(PredicateType.STRING_FIELD_NOT_CONTAINS, "NOT LIKE");
+        OPERATORS.put(PredicateType.STRING_FIELD_STARTS_WITH, "LIKE");
+        OPERATORS.put(PredicateType.STRING_FIELD_ENDS_WITH, "LIKE");
+        OPERATORS.put(PredicateType.STRING_FIELD_NOT_STARTS_WITH, "NOT LIKE");
+        OPERATORS.put(PredicateType.STRING_FIELD_NOT_ENDS_WITH, "NOT LIKE");
+        OPERATORS.put(PredicateType.COMPOSITE_AND, " AND ");
+        OPERATORS.put(PredicateType.COMPOSITE_OR, " OR ");
+        OPERATORS.put(PredicateType.SUBQUERY_IN, "IN");
+        OPERATORS.put(PredicateType.SUBQUERY_NOT_IN, "NOT IN");
+        OPERATORS.put(PredicateType.SUBQUERY_EXISTS, "EXISTS");
+        OPERATORS.put(PredicateType.SUBQUERY_NOT_EXISTS, "NOT EXISTS");
 
         ARGUMENT_FORMATS.put(PredicateType.STRING_FIELD_CONTAINS, "%%%s%%");
         ARGUMENT_FORMATS.put(PredicateType.STRING_FIELD_NOT_CONTAINS, "%%%s%%");
@@ -58,104 +60,205 @@ public class SqlPredicateBuilder implements SqlStatementBuilder.PredicateBuilder
         this.syntaxProvider = syntaxProvider;
     }
 
-    private String operator(PredicateType predicateType, String... args) {
-        String format = OPERATOR_FORMATS.get(predicateType);
-        if (format == null) throw new RuntimeException("Not support predicate type: " + predicateType);
-        return String.format(format, (Object[])args);
+    private static String operator(PredicateType predicateType) {
+        String operator = OPERATORS.get(predicateType);
+        if (operator == null) throw new RuntimeException("Not support predicate type: " + predicateType);
+        return operator;
     }
 
-    class BuilderVisitor<T> extends PredicateVisitor<T, String>  {
+    // Appends the whole predicate to a single builder, conditions on a related key are applied to the foreign key column.
+    // Subqueries are not joined with related tables, so their relational conditions are rendered as nested subqueries
+    class BuilderVisitor<T> extends PredicateVisitor<T, Void> {
+        private final StringBuilder builder;
         private final SqlCommand.Parameters parameters;
+        private final Field<?, ?> substitutedField;
+        private final Field<?, ?> substitute;
+        private final boolean subquery;
 
-        BuilderVisitor(SqlCommand.Parameters parameters) {
+        BuilderVisitor(StringBuilder builder, SqlCommand.Parameters parameters, Field<?, ?> substitutedField, Field<?, ?> substitute, boolean subquery) {
+            this.builder = builder;
             this.parameters = parameters;
+            this.substitutedField = substitutedField;
+            this.substitute = substitute;
+            this.subquery = subquery;
         }
 
-        private <V> String substituteArg(FieldCondition<T, V> condition, V value) {
-            return SqlPredicateBuilder.this.substituteArg(parameters, condition, value);
+        private <V> void appendArg(FieldCondition<T, V> condition, V value) {
+            builder.append(substituteArg(parameters, condition, value));
         }
 
-        @SafeVarargs
-        private final <V> String[] substituteArgs(FieldCondition<T, V> type, V... args) {
-            String[] substitutedArgs = new String[args.length];
-            for (int i = 0; i < args.length; ++i) {
-                substitutedArgs[i] = substituteArg(type, args[i]);
-            }
-            return substitutedArgs;
+        private <V> void appendField(FieldCondition<T, V> predicate) {
+            builder.append(fieldName(predicate))
+                    .append(' ')
+                    .append(operator(predicate.getType()));
         }
 
-        private <V> String fieldOperator(FieldCondition<T, V> predicate, String... args) {
-            PredicateType type = predicate.getType();
-            return fieldName(predicate.getField()) + " " + operator(type, args);
+        private <V> String fieldName(FieldCondition<T, V> predicate) {
+            Field<?, ?> field = predicate.getField();
+            return SqlPredicateBuilder.this.fieldName(field == substitutedField ? substitute : field);
+        }
+
+        private <V> void appendSubquery(Field<V, ?> selectedField, Condition<V> condition, String correlatedFieldName) {
+            EntityType<?, ?> entityType = selectedField.metaInfo().getEntityType();
+            builder.append("(SELECT ")
+                    .append(correlatedFieldName != null ? "1" : SqlPredicateBuilder.this.fieldName(selectedField))
+                    .append(" FROM ")
+                    .append(syntaxProvider.tableName(entityType));
+
+            if (correlatedFieldName != null) {
+                builder.append(" WHERE ")
+                        .append(SqlPredicateBuilder.this.fieldName(selectedField))
+                        .append(" = ")
+                        .append(correlatedFieldName);
+                if (condition != null) builder.append(" AND (");
+            } else if (condition != null) {
+                builder.append(" WHERE ");
+            }
+
+            if (condition != null) {
+                new BuilderVisitor<V>(builder, parameters, null, null, true).visit(condition);
+                if (correlatedFieldName != null) builder.append(')');
+            }
+            builder.append(')');
         }
 
         @Override
-        protected <V> String visitBinary(BinaryCondition<T, V> predicate) {
-            return fieldOperator(predicate, substituteArg(predicate, predicate.getValue()));
+        protected <V> Void visitBinary(BinaryCondition<T, V> predicate) {
+            if (predicate.getType() == PredicateType.STRING_FIELD_MATCHES) {
+                builder.append(matchOperator(predicate.getField(), substituteArg(parameters, predicate, predicate.getValue())));
+                return null;
+            }
+            appendField(predicate);
+            builder.append(' ');
+            appendArg(predicate, predicate.getValue());
+            return null;
         }
 
         @Override
-        protected <V> String visitTernary(TernaryCondition<T, V> predicate) {
-            return fieldOperator(predicate, substituteArgs(predicate, predicate.getFirst()        , predicate.getSecond()));
-    }
+        protected <V> Void visitTernary(TernaryCondition<T, V> predicate) {
+            appendField(predicate);
+            builder.append(' ');
+            appendArg(predicate, predicate.getFirst());
+            builder.append(" AND ");
+            appendArg(predicate, predicate.getSecond());
+            return null;
+        }
 
         @Override
-        protected <V> String visitCollection(CollectionCondition<T, V> predicate) {
-            return fieldOperator(predicate, joinStrings(substituteArgs(predicate, predicate.getValues())));
+        protected <V> Void visitCollection(CollectionCondition<T, V> predicate) {
+            appendField(predicate);
+            builder.append(" (");
+            V[] values = predicate.getValues();
+            for (int i = 0; i < values.length; ++i) {
+                if (i > 0) builder.append(", ");
+                appendArg(predicate, values[i]);
+            }
+            builder.append(')');
+            return null;
         }
 
         @Override
-        protected <V> String visitUnary(UnaryCondition<T, V> predicate) {
-            return fieldOperator(predicate);
+        protected <V> Void visitUnary(UnaryCondition<T, V> predicate) {
+            appendField(predicate);
+            return null;
         }
 
         @Override
-        protected String visitComposite(CompositeCondition<T> predicate) {
-            return combine(predicate.getType(), Iterators.forArray(predicate.getArguments()));
+        protected Void visitComposite(CompositeCondition<T> predicate) {
+            Condition<T>[] arguments = predicate.getArguments();
+            if (predicate.getType() == PredicateType.COMPOSITE_NOT) {
+                builder.append("NOT (");
+                visit(arguments[0]);
+                builder.append(')');
+                return null;
+            }
+
+            String operator = operator(predicate.getType());
+            for (int i = 0; i < arguments.length; ++i) {
+                if (i > 0) builder.append(operator);
+                builder.append('(');
+                visit(arguments[i]);
+                builder.append(')');
+            }
+            return null;
         }
 
         @Override
-        protected String visitUnknown(Condition<T> condition) {
+        protected Void visitUnknown(Condition<T> condition) {
             throw new RuntimeException("Not supported predicate class: " + condition.getClass().getName());
         }
 
         @Override
-        protected <V> String visitRelational(RelationalCondition<T, V> condition) {
-            return build(condition.getCondition(), parameters);
+        protected <V> Void visitRelational(RelationalCondition<T, V> condition) {
+            //noinspection unchecked
+            Field<V, ?> relatedKeyField = (Field<V, ?>)condition.getField().metaInfo().getRelatedEntityType().getKeyField();
+            if (PredicateOptimizer.referencesRelatedKeyOnly(condition)) {
+                new BuilderVisitor<V>(builder, parameters, relatedKeyField, condition.getField(), subquery).visit(condition.getCondition());
+            } else if (subquery) {
+                builder.append(fieldName(condition)).append(" IN ");
+                appendSubquery(relatedKeyField, condition.getCondition(), null);
+            } else {
+                new BuilderVisitor<V>(builder, parameters, null, null, false).visit(condition.getCondition());
+            }
+            return null;
         }
 
-        private String combine(PredicateType type, Iterator<Condition<T>> predicateIterator) {
-            String first = visit(predicateIterator.next());
-            if (!predicateIterator.hasNext()) return first;
-            String second = combine(type, predicateIterator);
-            return operator(type, first, second);
+        @Override
+        protected <V, TOther> Void visitSubquery(SubqueryCondition<T, V, TOther> condition) {
+            switch (condition.getType()) {
+                case SUBQUERY_IN:
+                case SUBQUERY_NOT_IN:
+                    appendField(condition);
+                    builder.append(' ');
+                    appendSubquery(condition.getSelectedField(), condition.getCondition(), null);
+                    break;
+                default:
+                    if (condition.getSelectedField().metaInfo().getEntityType() == condition.getField().metaInfo().getEntityType()) {
+                        throw new RuntimeException("Correlated subquery on the queried entity type is not supported: " +
+                                condition.getField().metaInfo().getEntityType().getName());
+                    }
+                    builder.append(operator(condition.getType())).append(' ');
+                    appendSubquery(condition.getSelectedField(), condition.getCondition(), fieldName(condition));
+                    break;
+            }
+            return null;
         }
     }
 
     @Override
     public <T> String build(Condition<T> condition, SqlCommand.Parameters parameters) {
-        BuilderVisitor<T> visitor = new BuilderVisitor<>(parameters);
-        return visitor.visit(condition);
+        StringBuilder builder = new StringBuilder();
+        new BuilderVisitor<T>(builder, parameters, null, null, false).visit(condition);
+        return builder.toString();
     }
 
+    // Null is inlined rather than bound: some drivers reject null query arguments, and it never compares as equal anyway
     protected <T, V> String substituteArg(SqlCommand.Parameters params, FieldCondition<T, V> condition, V value) {
-        return syntaxProvider.parameterReference(params.getCount(), params.add(valueToString(condition, value)));
+        if (value == null) return "NULL";
+        return syntaxProvider.substituteParameter(params, condition.getField(), formatArgument(condition, value));
+    }
+
+    protected String matchOperator(Field<?, ?> field, String arg) {
+        Field.MetaInfo<?> metaInfo = field.metaInfo();
+        if (!metaInfo.isFullTextSearch()) {
+            throw new RuntimeException("Field " + metaInfo.getName() + " is not indexed for full-text search");
+        }
+        String tableName = metaInfo.getEntityType().getName();
+        return syntaxProvider.tableName(tableName) + ".rowid IN (SELECT rowid FROM " +
+                syntaxProvider.tableName(SqlDatabaseSchemes.fullTextTableName(tableName)) +
+                " WHERE " + syntaxProvider.simpleFieldName(field) + " MATCH " + arg + ")";
     }
 
     protected String fieldName(Field field) {
         return syntaxProvider.qualifiedFieldName(field);
     }
 
-    protected <T, V> String valueToString(FieldCondition<T, V> condition, V value) {
+    protected <T, V> V formatArgument(FieldCondition<T, V> condition, V value) {
         if (value instanceof String) {
             String argFormat = ARGUMENT_FORMATS.get(condition.getType());
             if (argFormat != null) //noinspection unchecked
                 value = (V)String.format(argFormat, value);
         }
-        return syntaxProvider.valueToString(condition.getField(), value);
-    }
-
-    private String joinStrings(String... strings) {
-        return Joiner.on(", ").join(strings);
+        return value;
     }
 }
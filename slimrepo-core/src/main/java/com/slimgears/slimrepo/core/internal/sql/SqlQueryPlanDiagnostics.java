@@ -0,0 +1,104 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.annimon.stream.Collectors;
+import com.annimon.stream.Stream;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class SqlQueryPlanDiagnostics {
+    private static final int DETAIL_COLUMN = 3;
+
+    private final ConcurrentMap<String, QueryPlan> queryPlans = new ConcurrentHashMap<>();
+    private final Listener listener;
+
+    public interface Listener {
+        void onQueryPlanCaptured(QueryPlan plan);
+    }
+
+    public static class QueryPlan {
+        public final EntityType<?, ?> entityType;
+        public final Condition<?> condition;
+        public final String statement;
+        public final List<String> details;
+
+        QueryPlan(EntityType<?, ?> entityType, Condition<?> condition, String statement, List<String> details) {
+            this.entityType = entityType;
+            this.condition = condition;
+            this.statement = statement;
+            this.details = Collections.unmodifiableList(details);
+        }
+
+        public boolean hasFullScan() {
+            for (String detail : details) {
+                if (detail.startsWith("SCAN ") && !detail.contains(" USING ")) return true;
+            }
+            return false;
+        }
+
+        public boolean hasTempBTree() {
+            for (String detail : details) {
+                if (detail.contains("USE TEMP B-TREE")) return true;
+            }
+            return false;
+        }
+
+        public boolean isSuspicious() {
+            return hasFullScan() || hasTempBTree();
+        }
+
+        @Override
+        public String toString() {
+            return entityType.getName() + ": " + Stream.of(details).collect(Collectors.joining("; ")) + "\n" + statement;
+        }
+    }
+
+    public SqlQueryPlanDiagnostics() {
+        this(null);
+    }
+
+    public SqlQueryPlanDiagnostics(Listener listener) {
+        this.listener = listener;
+    }
+
+    public Collection<QueryPlan> getQueryPlans() {
+        return Collections.unmodifiableCollection(queryPlans.values());
+    }
+
+    public Collection<QueryPlan> getSuspiciousQueryPlans() {
+        return Stream.of(queryPlans.values()).filter(QueryPlan::isSuspicious).collect(Collectors.toList());
+    }
+
+    public void clear() {
+        queryPlans.clear();
+    }
+
+    void analyze(SqlCommandExecutor executor, SqlStatementBuilder sqlBuilder, EntityType<?, ?> entityType, Condition<?> condition, String statement, String... parameters) throws IOException {
+        if (queryPlans.containsKey(statement)) return;
+
+        List<String> details = new ArrayList<>();
+        try (CloseableIterator<String[]> rows = executor.selectValues(sqlBuilder.explainQueryPlanStatement(statement), parameters)) {
+            while (rows.hasNext()) {
+                String[] row = rows.next();
+                if (row.length > DETAIL_COLUMN) details.add(row[DETAIL_COLUMN]);
+            }
+        }
+
+        QueryPlan plan = new QueryPlan(entityType, condition, statement, details);
+        if (queryPlans.putIfAbsent(statement, plan) == null && listener != null) {
+            listener.onQueryPlanCaptured(plan);
+        }
+    }
+}
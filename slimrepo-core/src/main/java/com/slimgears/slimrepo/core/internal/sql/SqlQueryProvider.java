@@ -2,8 +2,13 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.internal.sql;
 
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.BlobField;
+import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
+import com.slimgears.slimrepo.core.internal.OrderFieldInfo;
+import com.slimgears.slimrepo.core.internal.PredicateOptimizer;
 import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
 import com.slimgears.slimrepo.core.internal.query.*;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommand;
@@ -11,13 +16,21 @@ import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSessionServiceProvider;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Created by Denis on 13-Apr-15
  *
  */
 public class SqlQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEntity> {
+    // Full-sized batches produce identical statement text, so the driver can reuse the compiled statement
+    private static final int MAX_PARAMETERS_PER_STATEMENT = 999;
+
     protected final EntityType<TKey, TEntity> entityType;
     protected final SqlSessionServiceProvider serviceProvider;
     private SqlStatementBuilder sqlBuilder;
@@ -28,33 +41,56 @@ public class SqlQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEnt
         this.serviceProvider = serviceProvider;
     }
 
+    private interface BatchStatementBuilder<TKey, TEntity> {
+        String build(SqlStatementBuilder sqlBuilder, InsertQueryParams<TKey, TEntity> params, SqlCommand.Parameters parameters);
+    }
+
     @Override
     public PreparedQuery<Void> prepareInsert(final Collection<TEntity> entities) {
-        final SqlCommand command = new SqlLazyCommand(getBuilder(), (sqlBuilder1, parameters) ->
-                sqlBuilder1.insertStatement(new InsertQueryParams<>(entityType, entities), parameters));
         return () -> {
-            getExecutor().execute(command.getStatement(), command.getParameters().getValues());
+            if (entityType.getKeyField().metaInfo().isAutoIncremented()) insertWithGeneratedKeys(entities);
+            else executeBatches(entities, SqlStatementBuilder::insertStatement);
+            return null;
+        };
+    }
+
+    @Override
+    public PreparedQuery<Void> prepareUpsert(final Collection<TEntity> entities) {
+        return () -> {
+            executeBatches(entities, SqlStatementBuilder::upsertStatement);
             return null;
         };
     }
 
     @Override
-    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareSelect(final SelectQueryParams<TKey, TEntity> query) {
-        final SqlCommand command = new SqlLazyCommand(getBuilder(), (sqlBuilder1, parameters) ->
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareSelect(SelectQueryParams<TKey, TEntity> selectQuery) {
+        final SelectQueryParams<TKey, TEntity> query = optimized(selectQuery);
+        int chunkSize = serviceProvider.getOrmServiceProvider().getSelectChunkSize();
+        if (chunkSize > 0 && isChunkable(query)) return prepareChunkedSelect(query, chunkSize);
+
+        final SqlCommand command = createCommand((sqlBuilder1, parameters) ->
                 sqlBuilder1.selectStatement(query, parameters));
-        return () -> getExecutor().select(command.getStatement(), command.getParameters().getValues());
+        return () -> {
+            analyzeQueryPlan(query, command);
+            return getExecutor().select(command.getStatement(), command.getParameters().getValues());
+        };
     }
 
     @Override
-    public PreparedQuery<Long> prepareCount(final SelectQueryParams<TKey, TEntity> query) {
-        final SqlCommand command = new SqlLazyCommand(getBuilder(), (sqlBuilder1, parameters) ->
+    public PreparedQuery<Long> prepareCount(SelectQueryParams<TKey, TEntity> countQuery) {
+        final SelectQueryParams<TKey, TEntity> query = optimized(countQuery);
+        final SqlCommand command = createCommand((sqlBuilder1, parameters) ->
                 sqlBuilder1.countStatement(query, parameters));
-        return () -> getExecutor().count(command.getStatement(), command.getParameters().getValues());
+        return () -> {
+            analyzeQueryPlan(query, command);
+            return getExecutor().count(command.getStatement(), command.getParameters().getValues());
+        };
     }
 
     @Override
-    public PreparedQuery<Void> prepareUpdate(final UpdateQueryParams<TKey, TEntity> query) {
-        final SqlCommand command = new SqlLazyCommand(getBuilder(), (sqlBuilder1, parameters) -> sqlBuilder1.updateStatement(query, parameters));
+    public PreparedQuery<Void> prepareUpdate(UpdateQueryParams<TKey, TEntity> updateQuery) {
+        final UpdateQueryParams<TKey, TEntity> query = optimized(updateQuery);
+        final SqlCommand command = createCommand((sqlBuilder1, parameters) -> sqlBuilder1.updateStatement(query, parameters));
         return () -> {
             getExecutor().execute(command.getStatement(), command.getParameters().getValues());
             return null;
@@ -62,8 +98,9 @@ public class SqlQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEnt
     }
 
     @Override
-    public PreparedQuery<Void> prepareDelete(final DeleteQueryParams<TKey, TEntity> query) {
-        final SqlCommand command = new SqlLazyCommand(getBuilder(), (sqlBuilder1, parameters) ->
+    public PreparedQuery<Void> prepareDelete(DeleteQueryParams<TKey, TEntity> deleteQuery) {
+        final DeleteQueryParams<TKey, TEntity> query = optimized(deleteQuery);
+        final SqlCommand command = createCommand((sqlBuilder1, parameters) ->
                 sqlBuilder1.deleteStatement(query, parameters));
         return () -> {
             getExecutor().execute(command.getStatement(), command.getParameters().getValues());
@@ -71,6 +108,119 @@ public class SqlQueryProvider<TKey, TEntity> implements QueryProvider<TKey, TEnt
         };
     }
 
+    @Override
+    public PreparedQuery<InputStream> prepareReadBlob(final TKey key, final BlobField<TEntity, ?> field) {
+        final SqlCommand command = createCommand((sqlBuilder1, parameters) ->
+                sqlBuilder1.readBlobChunkStatement(entityType, field, key, SqlBlobInputStream.DEFAULT_CHUNK_SIZE, parameters));
+        return () -> SqlBlobInputStream.open(getExecutor(), command.getStatement(), command.getParameters().getValues(), SqlBlobInputStream.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareRawSelect(final String statement, final String... parameters) {
+        return () -> getExecutor().select(statement, parameters);
+    }
+
+    @Override
+    public PreparedQuery<CloseableIterator<String[]>> prepareRawSelectValues(final String statement, final String... parameters) {
+        return () -> getExecutor().selectValues(statement, parameters);
+    }
+
+    private PreparedQuery<CloseableIterator<FieldValueLookup<TEntity>>> prepareChunkedSelect(final SelectQueryParams<TKey, TEntity> query, final int chunkSize) {
+        //noinspection unchecked
+        final ComparableField<TEntity, TKey> keyField = (ComparableField<TEntity, TKey>)entityType.getKeyField();
+        final SelectQueryParams<TKey, TEntity> firstChunkQuery = chunkQuery(query, keyField, null, chunkSize);
+        final SqlCommand firstChunkCommand = createCommand((sqlBuilder1, parameters) ->
+                sqlBuilder1.selectStatement(firstChunkQuery, parameters));
+        return () -> {
+            analyzeQueryPlan(firstChunkQuery, firstChunkCommand);
+            return new SqlChunkedRowIterator<>(lastKey -> {
+                SqlCommand command = lastKey != null
+                        ? createCommand((sqlBuilder1, parameters) -> sqlBuilder1.selectStatement(chunkQuery(query, keyField, lastKey, chunkSize), parameters))
+                        : firstChunkCommand;
+                return getExecutor().select(command.getStatement(), command.getParameters().getValues());
+            }, keyField, chunkSize);
+        };
+    }
+
+    private <TQueryParams extends ConditionalQueryParams<TKey, TEntity, TQueryParams>> TQueryParams optimized(TQueryParams query) {
+        Condition<TEntity> condition = PredicateOptimizer.optimize(query.condition);
+        if (condition == query.condition) return query;
+        TQueryParams optimizedQuery = query.fork();
+        optimizedQuery.condition = condition;
+        return optimizedQuery;
+    }
+
+    private boolean isChunkable(SelectQueryParams<TKey, TEntity> query) {
+        return query.fields == null &&
+                (query.order == null || query.order.isEmpty()) &&
+                !query.orderByRank &&
+                (query.pagination == null || (query.pagination.limit < 0 && query.pagination.offset == 0)) &&
+                entityType.getKeyField() instanceof ComparableField;
+    }
+
+    private SelectQueryParams<TKey, TEntity> chunkQuery(SelectQueryParams<TKey, TEntity> query, ComparableField<TEntity, TKey> keyField, TKey lastKey, int chunkSize) {
+        SelectQueryParams<TKey, TEntity> chunkQuery = query.fork();
+        if (lastKey != null) {
+            Condition<TEntity> afterLastKey = keyField.greaterThan(lastKey);
+            chunkQuery.condition = chunkQuery.condition != null ? chunkQuery.condition.and(afterLastKey) : afterLastKey;
+        }
+        chunkQuery.order = new ArrayList<>();
+        chunkQuery.order.add(new OrderFieldInfo(keyField, true));
+        chunkQuery.pagination = new QueryPagination();
+        chunkQuery.pagination.limit = chunkSize;
+        return chunkQuery;
+    }
+
+    private void executeBatches(Collection<TEntity> entities, BatchStatementBuilder<TKey, TEntity> statementBuilder) throws IOException {
+        int rowsPerStatement = Math.max(1, MAX_PARAMETERS_PER_STATEMENT / entityType.getFields().size());
+        if (entities.size() <= rowsPerStatement) {
+            executeBatch(entities, statementBuilder);
+            return;
+        }
+
+        List<TEntity> batch = new ArrayList<>(rowsPerStatement);
+        for (TEntity entity : entities) {
+            batch.add(entity);
+            if (batch.size() == rowsPerStatement) {
+                executeBatch(batch, statementBuilder);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) executeBatch(batch, statementBuilder);
+    }
+
+    // Generated keys can only be read back per row, so entities with auto-incremented keys are not batched
+    private void insertWithGeneratedKeys(Collection<TEntity> entities) throws IOException {
+        String lastInsertRowIdStatement = getBuilder().lastInsertRowIdStatement();
+        for (TEntity entity : entities) {
+            executeBatch(Collections.singletonList(entity), SqlStatementBuilder::insertStatement);
+            setGeneratedKey(entity, getExecutor().count(lastInsertRowIdStatement));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setGeneratedKey(TEntity entity, long id) {
+        Class keyType = entityType.getKeyField().metaInfo().getValueType();
+        if (keyType == Integer.class) entityType.setKey(entity, (TKey)(Integer)(int)id);
+        else if (keyType == Long.class) entityType.setKey(entity, (TKey)(Long)id);
+    }
+
+    private void executeBatch(Collection<TEntity> entities, BatchStatementBuilder<TKey, TEntity> statementBuilder) throws IOException {
+        SqlCommand command = createCommand((sqlBuilder1, parameters) ->
+                statementBuilder.build(sqlBuilder1, new InsertQueryParams<>(entityType, entities), parameters));
+        getExecutor().execute(command.getStatement(), command.getParameters().getValues());
+    }
+
+    private void analyzeQueryPlan(SelectQueryParams<TKey, TEntity> query, SqlCommand command) throws IOException {
+        SqlQueryPlanDiagnostics diagnostics = serviceProvider.getOrmServiceProvider().getQueryPlanDiagnostics();
+        if (diagnostics == null) return;
+        diagnostics.analyze(getExecutor(), getBuilder(), entityType, query.condition, command.getStatement(), command.getParameters().getValues());
+    }
+
+    private SqlCommand createCommand(SqlLazyCommand.CommandBuilder commandBuilder) {
+        return new SqlLazyCommand(getBuilder(), commandBuilder, serviceProvider.getOrmServiceProvider().getMetricsSink());
+    }
+
     private SqlCommandExecutor getExecutor() {
         if (sqlExecutor != null) return sqlExecutor;
         return sqlExecutor = serviceProvider.getExecutor();
@@ -2,6 +2,8 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.internal.sql;
 
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
 import com.slimgears.slimrepo.core.internal.interfaces.RepositoryCreator;
 import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
 import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
@@ -9,6 +11,11 @@ import com.slimgears.slimrepo.core.internal.sql.interfaces.*;
 import com.slimgears.slimrepo.core.utilities.Sets;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -34,6 +41,10 @@ class SqlRepositoryCreator implements RepositoryCreator {
         try {
             SqlDatabaseScheme scheme = schemeProvider.getModelScheme(model);
             createScheme(scheme);
+            for (EntityType<?, ?> entityType : model.getEntityTypes()) {
+                Collection<String> fieldNames = fullTextFieldNames(entityType);
+                if (!fieldNames.isEmpty()) createFullTextIndex(entityType.getName(), fieldNames);
+            }
         } catch (Throwable e) {
             transactionProvider.cancelTransaction();
             throw e;
@@ -56,7 +67,7 @@ class SqlRepositoryCreator implements RepositoryCreator {
         transactionProvider.beginTransaction();
         try {
             for (String tableName : diff.getDeletedTables().keySet()) {
-                dropTable(tableName);
+                if (!SqlDatabaseSchemes.isFullTextTable(tableName)) dropTable(tableName);
             }
 
             for (SqlDatabaseScheme.TableScheme table : diff.getAddedTables().values()) {
@@ -66,6 +77,8 @@ class SqlRepositoryCreator implements RepositoryCreator {
             for (SqlDatabaseSchemeDifference.TableSchemeDifference tableDiff : diff.getModifiedTables().values()) {
                 upgradeTable(tableDiff);
             }
+
+            upgradeFullTextIndexes(newModel, actualScheme, modelScheme, diff);
         } catch (Throwable e) {
             transactionProvider.cancelTransaction();
             throw e;
@@ -73,6 +86,61 @@ class SqlRepositoryCreator implements RepositoryCreator {
         transactionProvider.commitTransaction();
     }
 
+    private void upgradeFullTextIndexes(RepositoryModel model, SqlDatabaseScheme actualScheme, SqlDatabaseScheme modelScheme, SqlDatabaseSchemeDifference diff) throws IOException {
+        Map<String, Collection<String>> fullTextFields = new LinkedHashMap<>();
+        for (EntityType<?, ?> entityType : model.getEntityTypes()) {
+            Collection<String> fieldNames = fullTextFieldNames(entityType);
+            if (!fieldNames.isEmpty() && modelScheme.getTable(entityType.getName()) != null) {
+                fullTextFields.put(entityType.getName(), fieldNames);
+            }
+        }
+
+        for (String tableName : actualScheme.getTables().keySet()) {
+            String baseTableName = SqlDatabaseSchemes.fullTextBaseTableName(tableName);
+            if (baseTableName != null && !fullTextFields.containsKey(baseTableName)) dropFullTextIndex(baseTableName);
+        }
+
+        for (Map.Entry<String, Collection<String>> entry : fullTextFields.entrySet()) {
+            String tableName = entry.getKey();
+            SqlDatabaseScheme.TableScheme actualFullTextTable = actualScheme.getTable(SqlDatabaseSchemes.fullTextTableName(tableName));
+            if (diff.getAddedTables().containsKey(tableName)) {
+                if (actualFullTextTable != null) dropFullTextIndex(tableName);
+                createFullTextIndex(tableName, entry.getValue());
+                continue;
+            }
+
+            // Recreated tables lose their triggers and rowids, so the index is rebuilt from the table content
+            SqlDatabaseSchemeDifference.TableSchemeDifference tableDiff = diff.getModifiedTables().get(tableName);
+            if (actualFullTextTable == null ||
+                    !new ArrayList<>(actualFullTextTable.getFields().keySet()).equals(new ArrayList<>(entry.getValue())) ||
+                    (tableDiff != null && !isAdditive(tableDiff))) {
+                dropFullTextIndex(tableName);
+                createFullTextIndex(tableName, entry.getValue());
+                sqlExecutor.execute(sqlBuilder.rebuildFullTextIndexStatement(tableName));
+            }
+        }
+    }
+
+    private void createFullTextIndex(String tableName, Collection<String> fieldNames) throws IOException {
+        for (String statement : sqlBuilder.createFullTextIndexStatements(tableName, fieldNames)) {
+            sqlExecutor.execute(statement);
+        }
+    }
+
+    private void dropFullTextIndex(String tableName) throws IOException {
+        for (String statement : sqlBuilder.dropFullTextIndexStatements(tableName)) {
+            sqlExecutor.execute(statement);
+        }
+    }
+
+    private static Collection<String> fullTextFieldNames(EntityType<?, ?> entityType) {
+        List<String> fieldNames = new ArrayList<>();
+        for (Field<?, ?> field : entityType.getFields()) {
+            if (field.metaInfo().isFullTextSearch()) fieldNames.add(field.metaInfo().getName());
+        }
+        return fieldNames;
+    }
+
     private void createTable(SqlDatabaseScheme.TableScheme tableScheme) throws IOException {
         sqlExecutor.execute(sqlBuilder.createTableStatement(tableScheme));
     }
@@ -82,6 +150,13 @@ class SqlRepositoryCreator implements RepositoryCreator {
     }
 
     private void upgradeTable(SqlDatabaseSchemeDifference.TableSchemeDifference tableDiff) throws IOException {
+        if (isAdditive(tableDiff)) {
+            for (SqlDatabaseScheme.FieldScheme field : tableDiff.getAddedFields().values()) {
+                addColumn(tableDiff.getNewTableScheme().getName(), field);
+            }
+            return;
+        }
+
         SqlDatabaseScheme.TableScheme targetTable = tableDiff.getNewTableScheme();
         String targetTableName = targetTable.getName();
         String backupTableName = targetTableName + "_Backup";
@@ -96,6 +171,22 @@ class SqlRepositoryCreator implements RepositoryCreator {
         copyData(backupTableName, targetTable, fieldNames);
     }
 
+    private boolean isAdditive(SqlDatabaseSchemeDifference.TableSchemeDifference tableDiff) {
+        if (!tableDiff.getDeletedFields().isEmpty() || !tableDiff.getModifiedFields().isEmpty()) return false;
+        for (SqlDatabaseScheme.FieldScheme field : tableDiff.getAddedFields().values()) {
+            if (!canAddColumn(field)) return false;
+        }
+        return true;
+    }
+
+    private boolean canAddColumn(SqlDatabaseScheme.FieldScheme field) {
+        return !field.isPrimaryKey() && (!field.isNotNull() || field.getDefaultValue() != null);
+    }
+
+    private void addColumn(String tableName, SqlDatabaseScheme.FieldScheme field) throws IOException {
+        sqlExecutor.execute(sqlBuilder.addColumnStatement(tableName, field));
+    }
+
     private void cloneTable(String srcTableName, String clonedTableName) throws IOException {
         sqlExecutor.execute(sqlBuilder.cloneTableStatement(srcTableName, clonedTableName));
     }
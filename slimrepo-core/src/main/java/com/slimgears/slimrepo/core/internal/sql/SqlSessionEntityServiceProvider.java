@@ -4,6 +4,12 @@ package com.slimgears.slimrepo.core.internal.sql;
 
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.internal.AbstractSessionEntityServiceProvider;
+import com.slimgears.slimrepo.core.internal.CachingQueryProvider;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingQueryProvider;
+import com.slimgears.slimrepo.core.internal.InstrumentedEntityCache;
+import com.slimgears.slimrepo.core.internal.SessionResultCache;
+import com.slimgears.slimrepo.core.internal.interfaces.EntityCache;
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
 import com.slimgears.slimrepo.core.internal.interfaces.SessionEntityServiceProvider;
 import com.slimgears.slimrepo.core.internal.query.QueryProvider;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSessionServiceProvider;
@@ -20,7 +26,7 @@ public class SqlSessionEntityServiceProvider<TKey, TEntity>
     private QueryProvider<TKey, TEntity> queryProvider;
 
     public SqlSessionEntityServiceProvider(SqlSessionServiceProvider serviceProvider, EntityType<TKey, TEntity> entityType) {
-        super(entityType);
+        super(entityType, serviceProvider.getOrmServiceProvider().getSessionConcurrencyLevel());
         this.serviceProvider = serviceProvider;
         this.entityType = entityType;
     }
@@ -29,10 +35,26 @@ public class SqlSessionEntityServiceProvider<TKey, TEntity>
     public QueryProvider<TKey, TEntity> getQueryProvider() {
         return queryProvider != null
                 ? queryProvider
-                : (queryProvider = createQueryProvider());
+                : (queryProvider = withChangeTracking(withResultCache(createQueryProvider())));
     }
 
     protected QueryProvider<TKey, TEntity> createQueryProvider() {
         return new SqlQueryProvider<>(serviceProvider, entityType);
     }
+
+    private QueryProvider<TKey, TEntity> withResultCache(QueryProvider<TKey, TEntity> queryProvider) {
+        SessionResultCache resultCache = serviceProvider.getResultCache();
+        return resultCache != null ? new CachingQueryProvider<>(queryProvider, entityType, getEntityCache(), resultCache) : queryProvider;
+    }
+
+    private QueryProvider<TKey, TEntity> withChangeTracking(QueryProvider<TKey, TEntity> queryProvider) {
+        return new ChangeTrackingQueryProvider<>(queryProvider, entityType, serviceProvider.getChangeTracker());
+    }
+
+    @Override
+    protected EntityCache<TKey, TEntity> createEntityCache() {
+        EntityCache<TKey, TEntity> cache = super.createEntityCache();
+        MetricsSink metricsSink = serviceProvider.getOrmServiceProvider().getMetricsSink();
+        return metricsSink != null ? new InstrumentedEntityCache<>(cache, entityType, metricsSink) : cache;
+    }
 }
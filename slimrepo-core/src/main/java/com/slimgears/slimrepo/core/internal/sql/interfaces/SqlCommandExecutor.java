@@ -15,4 +15,5 @@ public interface SqlCommandExecutor {
     long count(String statement, String... parameters) throws IOException;
     <T> CloseableIterator<FieldValueLookup<T>> select(String statement, String... parameters) throws IOException;
     void execute(String statement, String... parameters) throws IOException;
+    CloseableIterator<String[]> selectValues(String statement, String... parameters) throws IOException;
 }
@@ -3,6 +3,7 @@
 package com.slimgears.slimrepo.core.internal.sql.interfaces;
 
 import com.slimgears.slimrepo.core.internal.interfaces.OrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.SqlQueryPlanDiagnostics;
 
 /**
  * Created by Denis on 14-Apr-15
@@ -11,4 +12,6 @@ import com.slimgears.slimrepo.core.internal.interfaces.OrmServiceProvider;
 public interface SqlOrmServiceProvider extends OrmServiceProvider {
     SqlStatementBuilder getStatementBuilder();
     SqlStatementBuilder.SyntaxProvider getSyntaxProvider();
+    SqlQueryPlanDiagnostics getQueryPlanDiagnostics();
+    int getSelectChunkSize();
 }
@@ -11,6 +11,9 @@ import com.slimgears.slimrepo.core.internal.query.InsertQueryParams;
 import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
 import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Created by Denis on 08-Apr-15
  *
@@ -27,6 +30,7 @@ public interface SqlStatementBuilder {
         String parameterReference(int index, String name);
         <T> String valueToString(Field<?, T> field, T value);
         <T> String substituteParameter(SqlCommand.Parameters params, Field<?, T> field, T value);
+        boolean isBindable(Field<?, ?> field);
         String fieldAlias(Field<?, ?> field);
         String rawFieldAlias(Field<?, ?> field);
     }
@@ -40,9 +44,23 @@ public interface SqlStatementBuilder {
     <TKey, TEntity> String updateStatement(UpdateQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams);
     <TKey, TEntity> String deleteStatement(DeleteQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams);
     <TKey, TEntity> String insertStatement(InsertQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams);
+    <TKey, TEntity> String upsertStatement(InsertQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams);
+    <TKey, TEntity> String readBlobChunkStatement(EntityType<TKey, TEntity> entityType, Field<TEntity, ?> field, TKey key, int chunkSize, SqlCommand.Parameters sqlParams);
 
     String copyData(String fromTable, SqlDatabaseScheme.TableScheme toTable, Iterable<String> fieldNames);
     String cloneTableStatement(String existingTableName, String newTableName);
     String createTableStatement(SqlDatabaseScheme.TableScheme tableScheme);
+    String addColumnStatement(String tableName, SqlDatabaseScheme.FieldScheme field);
     String dropTableStatement(String tableName);
+    String pragmaStatement(String name);
+    String pragmaStatement(String name, String value);
+    String lastInsertRowIdStatement();
+    String versionStatement();
+    String explainQueryPlanStatement(String statement);
+    String attachDatabaseStatement(String path, String schemaName);
+    String detachDatabaseStatement(String schemaName);
+    String vacuumIntoStatement(String schemaName, String path);
+    List<String> createFullTextIndexStatements(String tableName, Collection<String> fieldNames);
+    List<String> dropFullTextIndexStatements(String tableName);
+    String rebuildFullTextIndexStatement(String tableName);
 }
@@ -4,23 +4,34 @@ package com.slimgears.slimrepo.core.internal.sql.sqlite;
 
 import com.annimon.stream.Collectors;
 import com.annimon.stream.Stream;
+import com.slimgears.slimrepo.core.interfaces.conditions.BinaryCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CompositeCondition;
 import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.interfaces.conditions.PredicateType;
 import com.slimgears.slimrepo.core.interfaces.conditions.RelationalCondition;
 import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
 import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
 import com.slimgears.slimrepo.core.interfaces.fields.RelationalField;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpression;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpressionType;
 import com.slimgears.slimrepo.core.internal.EntityFieldValueMap;
 import com.slimgears.slimrepo.core.internal.OrderFieldInfo;
+import com.slimgears.slimrepo.core.internal.PredicateOptimizer;
 import com.slimgears.slimrepo.core.internal.PredicateVisitor;
 import com.slimgears.slimrepo.core.internal.UpdateFieldInfo;
 import com.slimgears.slimrepo.core.internal.query.*;
+import com.slimgears.slimrepo.core.internal.sql.SqlDatabaseSchemes;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommand;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlDatabaseScheme;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+import com.slimgears.slimrepo.core.utilities.Joiner;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by Denis on 08-Apr-15
@@ -30,6 +41,30 @@ import java.util.*;
 class SqliteStatementBuilder implements SqlStatementBuilder {
     private final PredicateBuilder predicateBuilder;
     private final SyntaxProvider syntaxProvider;
+    private final ConcurrentMap<EntityType, StatementTemplate> selectByKeyTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityType, StatementTemplate> updateByKeyTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityType, StatementTemplate> deleteByKeyTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityType, StatementTemplate> insertRowTemplates = new ConcurrentHashMap<>();
+
+    // Statement text of key based CRUD operations does not depend on values, so it is built once per entity type
+    // and only parameters are bound on subsequent calls
+    static class StatementTemplate {
+        final Object shape;
+        final String statement;
+
+        StatementTemplate(Object shape, String statement) {
+            this.shape = shape;
+            this.statement = statement;
+        }
+    }
+
+    interface StatementFactory {
+        String build();
+    }
+
+    interface ParametersBinder {
+        void bind();
+    }
 
     public SqliteStatementBuilder(PredicateBuilder predicateBuilder, SyntaxProvider syntaxProvider) {
         this.predicateBuilder = predicateBuilder;
@@ -48,7 +83,18 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
     }
 
     @Override
-    public <TKey, TEntity> String selectStatement(SelectQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
+    public <TKey, TEntity> String selectStatement(final SelectQueryParams<TKey, TEntity> params, final SqlCommand.Parameters sqlParams) {
+        final TKey key = keyOf(params.entityType, params.condition);
+        if (key == null || params.fields != null || (params.order != null && !params.order.isEmpty()) || !isBindable(params.entityType.getKeyField())) {
+            return buildSelectStatement(params, sqlParams);
+        }
+
+        return fromTemplate(selectByKeyTemplates, params.entityType, limitClause(params.pagination),
+                () -> buildSelectStatement(params, sqlParams),
+                () -> substituteParameter(sqlParams, params.entityType.getKeyField(), key));
+    }
+
+    private <TKey, TEntity> String buildSelectStatement(SelectQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
         Iterable<RelationalField> relationalFields = (params.fields != null)
                 ? findRelationalFields(params.fields)
                 : getAllRelationalFields(params.entityType);
@@ -56,6 +102,22 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
                 ? params.fields
                 : params.entityType.getFields();
 
+        BinaryCondition<TEntity, String> rankCondition = params.orderByRank ? findRankCondition(params.condition) : null;
+        if (rankCondition != null) {
+            String fullTextTableName = fullTextTableName(params.entityType);
+            List<String> orderTerms = new ArrayList<>();
+            orderTerms.add(fullTextTableName + ".rank");
+            orderTerms.addAll(orderTerms(params.order));
+            return
+                    selectClause(params.entityType, fields) +
+                    fromClause(params.entityType) +
+                    fullTextJoinClause(params.entityType) +
+                    joinClauses(relationalFields) +
+                    rankWhereClause(rankCondition, exclude(params.condition, rankCondition), sqlParams) +
+                    orderByClause(orderTerms) +
+                    limitClause(params.pagination);
+        }
+
         return
                 selectClause(params.entityType, fields) +
                 fromClause(params.entityType) +
@@ -66,7 +128,31 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
     }
 
     @Override
-    public <TKey, TEntity> String updateStatement(UpdateQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
+    public <TKey, TEntity> String updateStatement(final UpdateQueryParams<TKey, TEntity> params, final SqlCommand.Parameters sqlParams) {
+        final TKey key = keyOf(params.entityType, params.condition);
+        if (key == null || params.pagination != null || params.updates == null || params.updates.isEmpty() || !isBindable(params.entityType.getKeyField())) {
+            return buildUpdateStatement(params, sqlParams);
+        }
+
+        List<Field> updatedFields = new ArrayList<>(params.updates.size());
+        for (UpdateFieldInfo update : params.updates) {
+            if (update.expression != null) return buildUpdateStatement(params, sqlParams);
+            updatedFields.add(update.field);
+        }
+        if (!isBindable(updatedFields)) return buildUpdateStatement(params, sqlParams);
+
+        return fromTemplate(updateByKeyTemplates, params.entityType, updatedFields,
+                () -> buildUpdateStatement(params, sqlParams),
+                () -> {
+                    for (UpdateFieldInfo update : params.updates) {
+                        //noinspection unchecked
+                        substituteParameter(sqlParams, update.field, update.value);
+                    }
+                    substituteParameter(sqlParams, params.entityType.getKeyField(), key);
+                });
+    }
+
+    private <TKey, TEntity> String buildUpdateStatement(UpdateQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
         return
                 updateClause(params.entityType) +
                 setClause(params.updates, sqlParams) +
@@ -75,20 +161,63 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
     }
 
     @Override
-    public <TKey, TEntity> String deleteStatement(DeleteQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
+    public <TKey, TEntity> String deleteStatement(final DeleteQueryParams<TKey, TEntity> params, final SqlCommand.Parameters sqlParams) {
+        final TKey key = keyOf(params.entityType, params.condition);
+        if (key == null || params.pagination != null || !isBindable(params.entityType.getKeyField())) return buildDeleteStatement(params, sqlParams);
+
+        return fromTemplate(deleteByKeyTemplates, params.entityType, "",
+                () -> buildDeleteStatement(params, sqlParams),
+                () -> substituteParameter(sqlParams, params.entityType.getKeyField(), key));
+    }
+
+    private <TKey, TEntity> String buildDeleteStatement(DeleteQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
         return "DELETE " + fromClause(params.entityType) +
                 whereClause(params.condition, sqlParams) +
                 limitClause(params.pagination);
     }
 
     @Override
-    public <TKey, TEntity> String insertStatement(InsertQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
-        Stream<Field> fields = fieldsToInsert(params.entityType);
+    public <TKey, TEntity> String insertStatement(final InsertQueryParams<TKey, TEntity> params, final SqlCommand.Parameters sqlParams) {
+        final Collection<Field> fields = fieldsToInsert(params.entityType);
+        if (params.entities.size() != 1 || !isBindable(fields)) return buildInsertStatement(params, fields, sqlParams);
+
+        return fromTemplate(insertRowTemplates, params.entityType, "",
+                () -> buildInsertStatement(params, fields, sqlParams),
+                () -> {
+                    FieldValueLookup row = new EntityFieldValueMap<>(params.entityType, params.entities.iterator().next());
+                    for (Field field : fields) {
+                        //noinspection unchecked
+                        substituteParameter(sqlParams, field, row.getValue(field));
+                    }
+                });
+    }
+
+    private <TKey, TEntity> String buildInsertStatement(InsertQueryParams<TKey, TEntity> params, Collection<Field> fields, SqlCommand.Parameters sqlParams) {
         return
-                insertClause(params.entityType, fields) +
+                insertClause(params.entityType, Stream.of(fields)) +
                 valuesClause(fields, sqlParams, entitiesToRows(params.entityType, Stream.of(params.entities)));
     }
 
+    @Override
+    public <TKey, TEntity> String upsertStatement(InsertQueryParams<TKey, TEntity> params, SqlCommand.Parameters sqlParams) {
+        Collection<Field> fields = fieldsToUpsert(params.entityType);
+        return
+                insertClause(params.entityType, Stream.of(fields)) +
+                valuesClause(fields, sqlParams, entitiesToRows(params.entityType, Stream.of(params.entities))) + "\n" +
+                onConflictClause(params.entityType, fields);
+    }
+
+    @Override
+    public <TKey, TEntity> String readBlobChunkStatement(EntityType<TKey, TEntity> entityType, Field<TEntity, ?> field, TKey key, int chunkSize, SqlCommand.Parameters sqlParams) {
+        // Plain values are read back as text, so each chunk is transferred hex encoded
+        String offset = syntaxProvider.parameterReference(sqlParams.getCount(), sqlParams.add("1"));
+        String length = syntaxProvider.parameterReference(sqlParams.getCount(), sqlParams.add(String.valueOf(chunkSize)));
+        return
+                "SELECT hex(substr(" + qualifiedFieldName(field) + ", " + offset + ", " + length + "))\n" +
+                fromClause(entityType) +
+                whereClause(entityType.getKeyField().eq(key), sqlParams);
+    }
+
     @Override
     public String copyData(String fromTable, SqlDatabaseScheme.TableScheme toTable, Iterable<String> fieldNames) {
         Set<String> fieldNameSet = Stream.of(fieldNames).collect(Collectors.toSet());
@@ -116,11 +245,92 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
                         columnDefinitions(tableScheme) + ")";
     }
 
+    @Override
+    public String addColumnStatement(String tableName, SqlDatabaseScheme.FieldScheme field) {
+        String statement = "ALTER TABLE " + syntaxProvider.tableName(tableName) + " ADD COLUMN " + columnDefinition(field);
+        return field.isNotNull()
+                ? statement + " DEFAULT " + field.getDefaultValue()
+                : statement;
+    }
+
     @Override
     public String dropTableStatement(String name) {
         return "DROP TABLE IF EXISTS " + syntaxProvider.tableName(name);
     }
 
+    @Override
+    public String pragmaStatement(String name) {
+        return "PRAGMA " + name;
+    }
+
+    @Override
+    public String pragmaStatement(String name, String value) {
+        return "PRAGMA " + name + " = " + value;
+    }
+
+    @Override
+    public String lastInsertRowIdStatement() {
+        return "SELECT last_insert_rowid()";
+    }
+
+    @Override
+    public String versionStatement() {
+        return "SELECT sqlite_version()";
+    }
+
+    @Override
+    public String explainQueryPlanStatement(String statement) {
+        return "EXPLAIN QUERY PLAN " + statement;
+    }
+
+    @Override
+    public String attachDatabaseStatement(String path, String schemaName) {
+        return "ATTACH DATABASE " + stringLiteral(path) + " AS " + syntaxProvider.tableName(schemaName);
+    }
+
+    @Override
+    public String detachDatabaseStatement(String schemaName) {
+        return "DETACH DATABASE " + syntaxProvider.tableName(schemaName);
+    }
+
+    @Override
+    public String vacuumIntoStatement(String schemaName, String path) {
+        return schemaName != null
+                ? "VACUUM " + syntaxProvider.tableName(schemaName) + " INTO " + stringLiteral(path)
+                : "VACUUM INTO " + stringLiteral(path);
+    }
+
+    @Override
+    public List<String> createFullTextIndexStatements(String tableName, Collection<String> fieldNames) {
+        String fullTextTableName = syntaxProvider.tableName(SqlDatabaseSchemes.fullTextTableName(tableName));
+        String columns = Stream.of(fieldNames).map(syntaxProvider::simpleFieldName).collect(Collectors.joining(", "));
+        String newValues = Stream.of(fieldNames).map(name -> "new." + syntaxProvider.simpleFieldName(name)).collect(Collectors.joining(", "));
+        String oldValues = Stream.of(fieldNames).map(name -> "old." + syntaxProvider.simpleFieldName(name)).collect(Collectors.joining(", "));
+        String insertNew = "    INSERT INTO " + fullTextTableName + " (rowid, " + columns + ") VALUES (new.rowid, " + newValues + ");\n";
+        String deleteOld = "    INSERT INTO " + fullTextTableName + " (" + fullTextTableName + ", rowid, " + columns + ") VALUES ('delete', old.rowid, " + oldValues + ");\n";
+
+        return Arrays.asList(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS " + fullTextTableName + " USING fts5(" + columns + ", content='" + tableName + "')",
+                createTriggerClause(tableName, "insert", "AFTER INSERT") + insertNew + "END",
+                createTriggerClause(tableName, "delete", "AFTER DELETE") + deleteOld + "END",
+                createTriggerClause(tableName, "update", "AFTER UPDATE OF " + columns) + deleteOld + insertNew + "END");
+    }
+
+    @Override
+    public List<String> dropFullTextIndexStatements(String tableName) {
+        return Arrays.asList(
+                "DROP TRIGGER IF EXISTS " + fullTextTriggerName(tableName, "insert"),
+                "DROP TRIGGER IF EXISTS " + fullTextTriggerName(tableName, "delete"),
+                "DROP TRIGGER IF EXISTS " + fullTextTriggerName(tableName, "update"),
+                dropTableStatement(SqlDatabaseSchemes.fullTextTableName(tableName)));
+    }
+
+    @Override
+    public String rebuildFullTextIndexStatement(String tableName) {
+        String fullTextTableName = syntaxProvider.tableName(SqlDatabaseSchemes.fullTextTableName(tableName));
+        return "INSERT INTO " + fullTextTableName + " (" + fullTextTableName + ") VALUES ('rebuild')";
+    }
+
     protected String insertClause(EntityType entityType, Stream<Field> fields) {
         return "INSERT INTO " +
                 syntaxProvider.tableName(entityType) +
@@ -133,19 +343,116 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
                 " (" + fieldNames.map(syntaxProvider::simpleFieldName).collect(Collectors.joining(", ")) + ")\n";
     }
 
-    protected String valuesClause(final Stream<Field> fields, final SqlCommand.Parameters parameters, Stream<FieldValueLookup> rows) {
+    protected String valuesClause(final Collection<Field> fields, final SqlCommand.Parameters parameters, Stream<FieldValueLookup> rows) {
         //noinspection unchecked
         return "VALUES " +
                 rows
-                        .map(row -> "(" + fields
+                        .map(row -> "(" + Stream.of(fields)
                                 .map(field -> substituteParameter(parameters, field, row.getValue(field)))
                                 .collect(Collectors.joining(", ")) + ")")
                         .collect(Collectors.joining(", "));
     }
 
-    private Stream<Field> fieldsToInsert(final EntityType entityType) {
+    protected String onConflictClause(EntityType entityType, Collection<Field> fields) {
+        Field keyField = entityType.getKeyField();
+        String conflictTarget = "ON CONFLICT (" + fieldName(keyField) + ") DO ";
+        List<String> assignments = Stream.of(fields)
+                .filter(field -> field != keyField)
+                .map(field -> fieldName(field) + " = excluded." + fieldName(field))
+                .collect(Collectors.toList());
+        if (assignments.isEmpty()) return conflictTarget + "NOTHING";
+
+        // Stored rows are never overwritten by older versions of versioned entities
+        Field versionField = entityType.getVersionField();
+        return versionField == null
+                ? conflictTarget + "UPDATE SET " + Joiner.on(", ").join(assignments)
+                : conflictTarget + "UPDATE SET " + Joiner.on(", ").join(assignments) +
+                        " WHERE " + qualifiedFieldName(versionField) + " < excluded." + fieldName(versionField);
+    }
+
+    private String createTriggerClause(String tableName, String name, String event) {
+        return "CREATE TRIGGER IF NOT EXISTS " + fullTextTriggerName(tableName, name) + " " + event + " ON " + syntaxProvider.tableName(tableName) + " BEGIN\n";
+    }
+
+    private String fullTextTriggerName(String tableName, String name) {
+        return syntaxProvider.tableName(SqlDatabaseSchemes.fullTextTableName(tableName) + "_" + name);
+    }
+
+    private String fullTextTableName(EntityType entityType) {
+        return syntaxProvider.tableName(SqlDatabaseSchemes.fullTextTableName(entityType.getName()));
+    }
+
+    private String fullTextJoinClause(EntityType entityType) {
+        String fullTextTableName = fullTextTableName(entityType);
+        return "INNER JOIN " + fullTextTableName + " ON " + fullTextTableName + ".rowid = " + syntaxProvider.tableName(entityType) + ".rowid\n";
+    }
+
+    // Ranking requires MATCH to be applied to the joined full-text table itself, so only a top level conjunct can be used
+    private <TEntity> BinaryCondition<TEntity, String> findRankCondition(Condition<TEntity> condition) {
+        if (condition == null) return null;
+        if (condition.getType() == PredicateType.STRING_FIELD_MATCHES) {
+            //noinspection unchecked
+            return (BinaryCondition<TEntity, String>)condition;
+        }
+        if (condition.getType() != PredicateType.COMPOSITE_AND) return null;
+        for (Condition<TEntity> argument : ((CompositeCondition<TEntity>)condition).getArguments()) {
+            if (argument.getType() == PredicateType.STRING_FIELD_MATCHES) {
+                //noinspection unchecked
+                return (BinaryCondition<TEntity, String>)argument;
+            }
+        }
+        return null;
+    }
+
+    private <TEntity> Condition<TEntity> exclude(Condition<TEntity> condition, Condition<TEntity> excluded) {
+        if (condition == excluded) return null;
+        List<Condition<TEntity>> arguments = new ArrayList<>();
+        for (Condition<TEntity> argument : ((CompositeCondition<TEntity>)condition).getArguments()) {
+            if (argument != excluded) arguments.add(argument);
+        }
+        //noinspection unchecked
+        return arguments.size() == 1 ? arguments.get(0) : Conditions.and(arguments.toArray(new Condition[arguments.size()]));
+    }
+
+    private <TEntity> String rankWhereClause(BinaryCondition<TEntity, String> rankCondition, Condition<TEntity> condition, SqlCommand.Parameters parameters) {
+        String matchPredicate = fullTextTableName(rankCondition.getField().metaInfo().getEntityType()) + "." +
+                fieldName(rankCondition.getField()) + " MATCH " +
+                substituteParameter(parameters, rankCondition.getField(), rankCondition.getValue());
+        return condition != null
+                ? "WHERE " + matchPredicate + " AND (" + predicateBuilder.build(condition, parameters) + ")\n"
+                : "WHERE " + matchPredicate + "\n";
+    }
+
+    private String fromTemplate(ConcurrentMap<EntityType, StatementTemplate> templates, EntityType entityType, Object shape, StatementFactory factory, ParametersBinder binder) {
+        StatementTemplate template = templates.get(entityType);
+        if (template != null && template.shape.equals(shape)) {
+            binder.bind();
+            return template.statement;
+        }
+
+        String statement = factory.build();
+        templates.put(entityType, new StatementTemplate(shape, statement));
+        return statement;
+    }
+
+    private <TKey, TEntity> TKey keyOf(EntityType<TKey, TEntity> entityType, Condition<TEntity> condition) {
+        if (condition == null || condition.getType() != PredicateType.VALUE_FIELD_EQUALS) return null;
+        BinaryCondition<TEntity, ?> binaryCondition = (BinaryCondition<TEntity, ?>)condition;
         //noinspection unchecked
-        return Stream.of(entityType.getFields()).filter(field -> !isAutoIncremented(entityType, (Field)field));
+        return binaryCondition.getField() == entityType.getKeyField() ? (TKey)binaryCondition.getValue() : null;
+    }
+
+    private Collection<Field> fieldsToInsert(EntityType entityType) {
+        List<Field> fields = new ArrayList<>();
+        for (Object field : entityType.getFields()) {
+            if (!isAutoIncremented(entityType, (Field)field)) fields.add((Field)field);
+        }
+        return fields;
+    }
+
+    private Collection<Field> fieldsToUpsert(EntityType entityType) {
+        //noinspection unchecked
+        return new ArrayList<Field>(entityType.getFields());
     }
 
     private String limitClause(QueryPagination pagination) {
@@ -211,11 +518,20 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
     }
 
     private String orderByClause(Collection<OrderFieldInfo> orderFields) {
-        if (orderFields == null || orderFields.isEmpty()) return "";
-        return "ORDER BY " + Stream
+        return orderByClause(orderTerms(orderFields));
+    }
+
+    private String orderByClause(List<String> orderTerms) {
+        if (orderTerms.isEmpty()) return "";
+        return "ORDER BY " + Joiner.on(", ").join(orderTerms) + "\n";
+    }
+
+    private List<String> orderTerms(Collection<OrderFieldInfo> orderFields) {
+        if (orderFields == null) return new ArrayList<>();
+        return Stream
                 .of(orderFields)
                 .map(orderField -> qualifiedFieldName(orderField.field) + " " + (orderField.ascending ? "ASC" : "DESC"))
-                .collect(Collectors.joining(", ")) + "\n";
+                .collect(Collectors.toList());
     }
 
     private String setClause(final Collection<UpdateFieldInfo> updateFields, final SqlCommand.Parameters parameters) {
@@ -223,10 +539,34 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
         //noinspection unchecked
         return "SET " + Stream
                 .of(updateFields)
-                .map(updateField -> fieldName(updateField.field) + " = " + substituteParameter(parameters, updateField.field, updateField.value))
+                .map(updateField -> fieldName(updateField.field) + " = " + (updateField.expression != null
+                        ? expression(updateField.expression, parameters)
+                        : substituteParameter(parameters, updateField.field, updateField.value)))
                 .collect(Collectors.joining(", ")) + "\n";
     }
 
+    private String expression(UpdateExpression<?, ?> expression, SqlCommand.Parameters parameters) {
+        String operand = fieldName(expression.getOperand());
+        if (expression.getType() == UpdateExpressionType.FIELD_VALUE) return operand;
+
+        //noinspection unchecked
+        String argument = substituteParameter(parameters, (Field)expression.getOperand(), expression.getArgument());
+        switch (expression.getType()) {
+            case ADD: return "(" + operand + " + " + argument + ")";
+            case MULTIPLY: return "(" + operand + " * " + argument + ")";
+            case COALESCE: return "COALESCE(" + operand + ", " + argument + ")";
+            case MIN: return "MIN(" + operand + ", " + typedArgument(expression.getOperand(), argument) + ")";
+            case MAX: return "MAX(" + operand + ", " + typedArgument(expression.getOperand(), argument) + ")";
+            default: throw new RuntimeException("Not supported expression type: " + expression.getType());
+        }
+    }
+
+    // Parameters are bound as text, and SQLite ranks any text above any number, so scalar MIN / MAX
+    // would compare the stored value with a string unless the argument is cast to the column type
+    private String typedArgument(Field<?, ?> field, String argument) {
+        return "CAST(" + argument + " AS " + syntaxProvider.typeName(field) + ")";
+    }
+
     private String updateClause(EntityType entityType) {
         return "UPDATE " + syntaxProvider.tableName(entityType) + "\n";
     }
@@ -274,6 +614,18 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
         return entityType.getKeyField() == field && field instanceof ComparableField;
     }
 
+    // Values of fields which cannot be bound are inlined into the statement text, so it cannot be reused as a template
+    private boolean isBindable(Field<?, ?> field) {
+        return syntaxProvider.isBindable(field);
+    }
+
+    private boolean isBindable(Collection<Field> fields) {
+        for (Field<?, ?> field : fields) {
+            if (!syntaxProvider.isBindable(field)) return false;
+        }
+        return true;
+    }
+
     private <T> String substituteParameter(SqlCommand.Parameters parameters, Field<?, T> field, T value) {
         return syntaxProvider.substituteParameter(parameters, field, value);
     }
@@ -306,8 +658,18 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
     private Iterable<RelationalField> findRelationalFieldsInCondition(Condition<?> condition) {
         final Set<RelationalField> relationalFields = new LinkedHashSet<>();
         PredicateVisitor visitor = new PredicateVisitor() {
+            @Override
+            protected Object visitComposite(CompositeCondition compositeCondition) {
+                for (Object argument : compositeCondition.getArguments()) {
+                    //noinspection unchecked
+                    visit((Condition)argument);
+                }
+                return null;
+            }
+
             @Override
             public Object visitRelational(RelationalCondition relationalCondition) {
+                if (PredicateOptimizer.referencesRelatedKeyOnly(relationalCondition)) return null;
                 if (relationalFields.add(relationalCondition.getField())) {
                     //noinspection unchecked
                     visit(relationalCondition.getCondition());
@@ -334,4 +696,8 @@ class SqliteStatementBuilder implements SqlStatementBuilder {
         //noinspection unchecked
         return entityType.getRelationalFields();
     }
+
+    private static String stringLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
 }
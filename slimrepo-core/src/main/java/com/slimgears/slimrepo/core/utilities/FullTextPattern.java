@@ -0,0 +1,68 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory approximation of FTS5 MATCH: every query term (or 'term*' prefix) must appear as a token of the value.
+ * Boolean operators and phrase queries are not interpreted
+ */
+public class FullTextPattern {
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+\\*?");
+    private static final Set<String> OPERATORS = new HashSet<>(Arrays.asList("AND", "OR", "NOT", "NEAR"));
+
+    private final String[] terms;
+    private final boolean[] prefixes;
+
+    private FullTextPattern(String[] terms, boolean[] prefixes) {
+        this.terms = terms;
+        this.prefixes = prefixes;
+    }
+
+    public static FullTextPattern compile(String query) {
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = TOKEN_PATTERN.matcher(query);
+        while (matcher.find()) {
+            String term = matcher.group();
+            if (!OPERATORS.contains(term)) terms.add(term);
+        }
+
+        boolean[] prefixes = new boolean[terms.size()];
+        for (int i = 0; i < prefixes.length; ++i) {
+            String term = terms.get(i);
+            prefixes[i] = term.endsWith("*");
+            terms.set(i, (prefixes[i] ? term.substring(0, term.length() - 1) : term).toLowerCase(Locale.ROOT));
+        }
+        return new FullTextPattern(terms.toArray(new String[terms.size()]), prefixes);
+    }
+
+    public boolean matches(CharSequence str) {
+        if (terms.length == 0) return false;
+
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN_PATTERN.matcher(str);
+        while (matcher.find()) {
+            tokens.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+
+        for (int i = 0; i < terms.length; ++i) {
+            if (!containsTerm(tokens, terms[i], prefixes[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsTerm(List<String> tokens, String term, boolean prefix) {
+        for (String token : tokens) {
+            if (prefix ? token.startsWith(term) : token.equals(term)) return true;
+        }
+        return false;
+    }
+}
@@ -2,15 +2,15 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.utilities;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 /**
  * Created by ditskovi on 2/20/2016.
  *
  */
 public class HashMapLoadingCache<TKey, TValue> implements LoadingCache<TKey, TValue> {
-    private final Map<TKey, TValue> cache = new HashMap<>();
+    private final Map<TKey, TValue> cache = new ConcurrentHashMap<>();
     private final Object lock = new Object();
     private final Loader<TKey, TValue> loader;
 
@@ -0,0 +1,75 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    // Bucket i holds samples in [2^i, 2^(i+1)) microseconds, bucket 0 also holds everything below 1us
+    private static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long durationNanos) {
+        buckets.incrementAndGet(bucketOf(durationNanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(durationNanos);
+
+        long max = maxNanos.get();
+        while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long n = count.get();
+        return n != 0 ? totalNanos.get() / n : 0;
+    }
+
+    public long getPercentileNanos(double percentile) {
+        long n = count.get();
+        if (n == 0) return 0;
+
+        long threshold = (long)Math.ceil(n * percentile / 100.0);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            accumulated += buckets.get(i);
+            if (accumulated >= threshold) return Math.min(upperBoundNanos(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    public long[] getBuckets() {
+        long[] values = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            values[i] = buckets.get(i);
+        }
+        return values;
+    }
+
+    private static int bucketOf(long durationNanos) {
+        long micros = durationNanos / 1000;
+        if (micros <= 0) return 0;
+        return Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long upperBoundNanos(int bucket) {
+        return (1L << (bucket + 1)) * 1000;
+    }
+}
@@ -0,0 +1,101 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL LIKE pattern ('%' - any sequence, '_' - any character), matched case-insensitively for ASCII letters,
+ * the same way SQLite does by default
+ */
+public class LikePattern {
+    private final char[][] segments;
+    private final boolean hasWildcard;
+    private final boolean anchoredStart;
+    private final boolean anchoredEnd;
+    private final int minLength;
+
+    private LikePattern(char[][] segments, boolean hasWildcard, boolean anchoredStart, boolean anchoredEnd) {
+        this.segments = segments;
+        this.hasWildcard = hasWildcard;
+        this.anchoredStart = anchoredStart;
+        this.anchoredEnd = anchoredEnd;
+
+        int length = 0;
+        for (char[] segment : segments) length += segment.length;
+        this.minLength = length;
+    }
+
+    public static LikePattern compile(String pattern) {
+        List<char[]> segments = new ArrayList<>();
+        for (String segment : pattern.split("%")) {
+            if (!segment.isEmpty()) segments.add(toLowerCase(segment.toCharArray()));
+        }
+
+        return new LikePattern(
+                segments.toArray(new char[segments.size()][]),
+                pattern.indexOf('%') >= 0,
+                !pattern.startsWith("%"),
+                !pattern.endsWith("%"));
+    }
+
+    public boolean matches(CharSequence str) {
+        int length = str.length();
+        if (length < minLength) return false;
+        if (segments.length == 0) return hasWildcard || length == 0;
+        if (!hasWildcard) return length == minLength && matchesAt(str, 0, segments[0]);
+
+        int first = 0;
+        int last = segments.length;
+        int start = 0;
+        int end = length;
+
+        if (anchoredStart) {
+            if (!matchesAt(str, 0, segments[0])) return false;
+            start = segments[0].length;
+            first = 1;
+        }
+
+        if (anchoredEnd) {
+            char[] segment = segments[last - 1];
+            if (end - segment.length < start || !matchesAt(str, end - segment.length, segment)) return false;
+            end -= segment.length;
+            --last;
+        }
+
+        for (int i = first; i < last; ++i) {
+            int index = indexOf(str, segments[i], start, end);
+            if (index < 0) return false;
+            start = index + segments[i].length;
+        }
+
+        return true;
+    }
+
+    private static int indexOf(CharSequence str, char[] segment, int start, int end) {
+        for (int i = start; i <= end - segment.length; ++i) {
+            if (matchesAt(str, i, segment)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean matchesAt(CharSequence str, int offset, char[] segment) {
+        for (int i = 0; i < segment.length; ++i) {
+            char ch = segment[i];
+            if (ch != '_' && toLowerCase(str.charAt(offset + i)) != ch) return false;
+        }
+        return true;
+    }
+
+    private static char[] toLowerCase(char[] chars) {
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = toLowerCase(chars[i]);
+        }
+        return chars;
+    }
+
+    private static char toLowerCase(char ch) {
+        return (ch >= 'A' && ch <= 'Z') ? (char)(ch + ('a' - 'A')) : ch;
+    }
+}
@@ -0,0 +1,115 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.memory.InMemoryOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+
+@RunWith(JUnit4.class)
+public class CachingQueryProviderTest extends AbstractSqlMockTest {
+    private InMemoryOrmServiceProvider inMemoryProvider;
+    private QueryResultCache resultCache;
+
+    @Before
+    public void setupRepository() throws IOException {
+        resultCache = new QueryResultCache();
+        inMemoryProvider = new InMemoryOrmServiceProvider();
+        inMemoryProvider.setQueryResultCache(resultCache);
+
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(inMemoryProvider);
+        repo.update(repository -> {
+            for (int i = 0; i < 4; ++i) {
+                repository.users().add(UserEntity.builder().userId("id-" + i).userFirstName("John").build());
+            }
+        });
+    }
+
+    @Test
+    public void cancelledWriteNotServedToOtherSessions() throws IOException {
+        try (SessionServiceProvider writer = openSession(); SessionServiceProvider reader = openSession()) {
+            writer.getTransactionProvider().beginTransaction();
+            usersOf(writer).prepareInsert(Collections.singletonList(UserEntity.builder().userId("id-4").build())).execute();
+            Assert.assertEquals(5L, countUsers(writer));
+            Assert.assertEquals(5L, countUsers(reader));
+            writer.getTransactionProvider().cancelTransaction();
+
+            Assert.assertEquals(4L, countUsers(reader));
+            Assert.assertEquals(4L, countUsers(writer));
+        }
+    }
+
+    @Test
+    public void sessionWithUncommittedWritesBypassesCache() throws IOException {
+        try (SessionServiceProvider session = openSession()) {
+            Assert.assertEquals(4L, countUsers(session));
+            Assert.assertEquals(4L, countUsers(session));
+            Assert.assertEquals(1, resultCache.getHitCount());
+
+            session.getTransactionProvider().beginTransaction();
+            usersOf(session).prepareInsert(Collections.singletonList(UserEntity.builder().userId("id-4").build())).execute();
+            Assert.assertEquals(5L, countUsers(session));
+            Assert.assertEquals(5L, countUsers(session));
+            session.getTransactionProvider().commitTransaction();
+            Assert.assertEquals(1, resultCache.getHitCount());
+
+            Assert.assertEquals(5L, countUsers(session));
+            Assert.assertEquals(5L, countUsers(session));
+            Assert.assertEquals(2, resultCache.getHitCount());
+        }
+    }
+
+    @Test
+    public void queryResultCacheServesRepeatedQueriesUntilTableChanges() throws IOException {
+        QueryResultCache sqlResultCache = new QueryResultCache();
+        ormServiceProviderMock.setQueryResultCache(sqlResultCache);
+
+        testQuery(repository -> {
+            Assert.assertEquals(10, repository.users().query().where(UserEntity.UserFirstName.eq("John")).prepare().toList().size());
+            Assert.assertEquals(10, repository.users().query().where(UserEntity.UserFirstName.eq("John")).prepare().toList().size());
+            return repository;
+        });
+        Mockito.verify(executorMock, times(1)).select(any(String.class), any());
+        Assert.assertEquals(1, sqlResultCache.getHitCount());
+
+        testUpdate(repository -> repository.users().updateQuery()
+                .where(UserEntity.UserFirstName.eq("John"))
+                .set(UserEntity.UserLastName, "Smith")
+                .prepare()
+                .execute());
+        testQuery(repository -> repository.users().query().where(UserEntity.UserFirstName.eq("John")).prepare().toList());
+        Mockito.verify(executorMock, times(2)).select(any(String.class), any());
+        Assert.assertEquals(2, sqlResultCache.getMissCount());
+    }
+
+    private SessionServiceProvider openSession() {
+        return inMemoryProvider.createSessionServiceProvider(GeneratedUserRepository.Model.Instance);
+    }
+
+    private static QueryProvider<String, UserEntity> usersOf(SessionServiceProvider session) {
+        return session.getEntityServiceProvider(UserEntity.EntityMetaType).getQueryProvider();
+    }
+
+    private static long countUsers(SessionServiceProvider session) throws IOException {
+        return usersOf(session).prepareCount(new SelectQueryParams<>(UserEntity.EntityMetaType, null, null, null, null)).execute();
+    }
+}
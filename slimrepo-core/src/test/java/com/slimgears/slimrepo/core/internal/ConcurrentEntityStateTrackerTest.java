@@ -0,0 +1,120 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.EntityStateTracker;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import com.slimgears.slimrepo.core.utilities.Joiner;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.times;
+
+@RunWith(JUnit4.class)
+public class ConcurrentEntityStateTrackerTest extends AbstractSqlMockTest {
+    @Test
+    public void stateTransitionsMatchHashSetTracker() {
+        EntityStateTracker<String> expected = new HashSetEntityStateTracker<>();
+        EntityStateTracker<String> actual = new ConcurrentEntityStateTracker<>(4);
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; ++i) {
+            String entity = "id-" + random.nextInt(50);
+            switch (random.nextInt(4)) {
+                case 0: expected.entityAdded(entity); actual.entityAdded(entity); break;
+                case 1: expected.entityDeleted(entity); actual.entityDeleted(entity); break;
+                case 2: expected.entityModified(entity); actual.entityModified(entity); break;
+                default: expected.entityMerged(entity); actual.entityMerged(entity); break;
+            }
+        }
+
+        assertSameChanges(expected, actual);
+        EntityStateTracker<String> detached = actual.detachChanges();
+        assertSameChanges(expected, detached);
+        Assert.assertFalse(actual.hasChanges());
+        Assert.assertTrue(actual.getAddedEntities().isEmpty());
+    }
+
+    @Test
+    public void changesFromConcurrentThreadsTracked() throws InterruptedException {
+        final EntityStateTracker<String> tracker = new ConcurrentEntityStateTracker<>(4);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            final int worker = i;
+            workers.add(new Thread(() -> {
+                for (int j = 0; j < 1000; ++j) {
+                    tracker.entityAdded("id-" + worker + "-" + j);
+                    if (j % 2 == 0) tracker.entityModified("id-" + worker + "-" + j);
+                }
+            }));
+        }
+        for (Thread thread : workers) thread.start();
+        for (Thread thread : workers) thread.join();
+
+        Assert.assertEquals(4000, tracker.getAddedEntities().size());
+        tracker.clearChanges();
+        Assert.assertFalse(tracker.hasChanges());
+    }
+
+    @Test
+    public void concurrentSessionPopulatedByMultipleThreads() throws IOException {
+        ormServiceProviderMock.setSessionConcurrencyLevel(4);
+        testUpdate(repository -> {
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < 4; ++i) {
+                final int worker = i;
+                workers.add(new Thread(() -> {
+                    for (int j = 0; j < 25; ++j) {
+                        try {
+                            repository.users().add(UserEntity.builder()
+                                    .userId("id-" + worker + "-" + j)
+                                    .userFirstName("John")
+                                    .userLastName("Doe")
+                                    .build());
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : workers) thread.start();
+            for (Thread thread : workers) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        EntityStateTracker<UserEntity> tracker = sessionServiceProviderMock
+                .getEntityServiceProvider(UserEntity.EntityMetaType)
+                .getEntityStateTracker();
+        Assert.assertTrue(tracker instanceof ConcurrentEntityStateTracker);
+        Assert.assertFalse(tracker.hasChanges());
+        Mockito.verify(transactionProviderMock, times(1)).commitTransaction();
+        String statements = Joiner.on("\n").join(sqlStatements);
+        for (int i = 0; i < 4; ++i) {
+            for (int j = 0; j < 25; ++j) {
+                Assert.assertTrue(statements.contains("id-" + i + "-" + j + ","));
+            }
+        }
+    }
+
+    private static void assertSameChanges(EntityStateTracker<String> expected, EntityStateTracker<String> actual) {
+        Assert.assertEquals(new HashSet<>(expected.getAddedEntities()), new HashSet<>(actual.getAddedEntities()));
+        Assert.assertEquals(new HashSet<>(expected.getDeletedEntities()), new HashSet<>(actual.getDeletedEntities()));
+        Assert.assertEquals(new HashSet<>(expected.getModifiedEntities()), new HashSet<>(actual.getModifiedEntities()));
+        Assert.assertEquals(new HashSet<>(expected.getMergedEntities()), new HashSet<>(actual.getMergedEntities()));
+        Assert.assertEquals(expected.hasChanges(), actual.hasChanges());
+    }
+}
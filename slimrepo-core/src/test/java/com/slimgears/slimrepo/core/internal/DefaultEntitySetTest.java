@@ -0,0 +1,163 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.entities.StaleEntityException;
+import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
+import com.slimgears.slimrepo.core.interfaces.fields.StringField;
+import com.slimgears.slimrepo.core.internal.memory.InMemoryOrmServiceProvider;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class DefaultEntitySetTest extends AbstractSqlMockTest {
+    static class VersionedEntity {
+        String id;
+        String name;
+        Long version;
+
+        VersionedEntity() {
+        }
+
+        VersionedEntity(String id, String name, Long version) {
+            this.id = id;
+            this.name = name;
+            this.version = version;
+        }
+    }
+
+    private static final StringField<VersionedEntity> Id = Fields.stringField("id", e -> e.id, (e, v) -> e.id = v, false);
+    private static final StringField<VersionedEntity> Name = Fields.stringField("name", e -> e.name, (e, v) -> e.name = v, true);
+    private static final ComparableField<VersionedEntity, Long> Version = Fields.asVersion(
+            Fields.comparableField("version", Long.class, e -> e.version, (e, v) -> e.version = v, true));
+    private static final EntityType<String, VersionedEntity> EntityMetaType = new AbstractEntityType<String, VersionedEntity>(
+            VersionedEntity.class, Id, Name, Version) {
+        @Override
+        public VersionedEntity newInstance() {
+            return new VersionedEntity();
+        }
+    };
+
+    private RepositoryService<UserRepository> repo;
+
+    @Before
+    public void setupRepository() {
+        repo = new GeneratedUserRepositoryService(new InMemoryOrmServiceProvider());
+    }
+
+    @Test
+    public void addedEntitiesGetInitialVersion() throws IOException {
+        VersionedEntity entity = new VersionedEntity("id-1", "John", null);
+        repo.update(repository -> repository.entities(EntityMetaType).add(entity));
+
+        Assert.assertEquals(Long.valueOf(1), entity.version);
+        Assert.assertEquals(Long.valueOf(1), stored("id-1").version);
+    }
+
+    @Test
+    public void entityWithoutStoredVersionIsUpdated() throws IOException {
+        repo.update(repository -> repository.entities(EntityMetaType).add(new VersionedEntity("id-1", "John", null)));
+        repo.update(repository -> repository.entities(EntityMetaType).updateQuery()
+                .where(Id.eq("id-1"))
+                .set(Version, null)
+                .prepare()
+                .execute());
+
+        VersionedEntity entity = new VersionedEntity("id-1", "Jake", null);
+        repo.update(repository -> repository.entities(EntityMetaType).mergeAll(Collections.singletonList(entity)));
+
+        VersionedEntity stored = stored("id-1");
+        Assert.assertEquals("Jake", stored.name);
+        Assert.assertEquals(Long.valueOf(1), stored.version);
+    }
+
+    @Test
+    public void entityDeletedByAnotherSessionIsStale() throws IOException {
+        repo.update(repository -> repository.entities(EntityMetaType).add(new VersionedEntity("id-1", "John", null)));
+        VersionedEntity entity = stored("id-1");
+        repo.update(repository -> repository.entities(EntityMetaType).remove(stored("id-1")));
+
+        entity.name = "Jake";
+        try {
+            repo.update(repository -> repository.entities(EntityMetaType).mergeAll(Collections.singletonList(entity)));
+            Assert.fail();
+        } catch (StaleEntityException e) {
+            Assert.assertEquals(Collections.singletonList("id-1"), e.getKeys());
+        }
+        Assert.assertEquals(Long.valueOf(1), entity.version);
+        Assert.assertNull(stored("id-1"));
+    }
+
+    @Test
+    public void newEntityMergedWithoutVersionIsInserted() throws IOException {
+        VersionedEntity entity = new VersionedEntity("id-1", "John", null);
+        repo.update(repository -> repository.entities(EntityMetaType).mergeAll(Collections.singletonList(entity)));
+
+        Assert.assertEquals(Long.valueOf(1), entity.version);
+        Assert.assertEquals("John", stored("id-1").name);
+    }
+
+    @Test
+    public void versionedEntitiesCheckedAndIncrementedOnSave() throws IOException {
+        final ComparableField<UserEntity, Integer> version = Fields.asVersion(
+                Fields.comparableField("age", Integer.class, UserEntity::getAge, UserEntity::setAge, false));
+        final EntityType<String, UserEntity> versionedType = new AbstractEntityType<String, UserEntity>(
+                UserEntity.class, Fields.stringField("userId", UserEntity::getUserId, UserEntity::setUserId, false), version) {
+            @Override
+            public UserEntity newInstance() {
+                return UserEntity.create();
+            }
+        };
+        Assert.assertSame(version, versionedType.getVersionField());
+
+        final UserEntity john = UserEntity.builder().userId("id-1").age(3).build();
+        final UserEntity jake = UserEntity.builder().userId("id-2").age(1).build();
+        FieldValueLookup[] storedVersions = {
+                new EntityFieldValueMap<>(versionedType, UserEntity.builder().userId("id-1").age(3).build()),
+                new EntityFieldValueMap<>(versionedType, UserEntity.builder().userId("id-2").age(2).build())};
+        when(executorMock.select(any(String.class), any()))
+                .thenAnswer(answer(iteratorMock(storedVersions)))
+                .thenAnswer(answer(iteratorMock(storedVersions)));
+
+        try {
+            testUpdate(repository -> repository.entities(versionedType).mergeAll(Arrays.asList(john, jake)));
+            Assert.fail();
+        } catch (StaleEntityException e) {
+            Assert.assertEquals(Collections.singletonList("id-2"), new ArrayList<>(e.getKeys()));
+        }
+        Mockito.verify(transactionProviderMock, times(1)).cancelTransaction();
+        Assert.assertEquals(3, john.getAge());
+
+        jake.setAge(2);
+        sqlStatements.clear();
+        testUpdate(repository -> {});
+        Mockito.verify(transactionProviderMock, times(1)).commitTransaction();
+        Assert.assertEquals(4, john.getAge());
+        Assert.assertEquals(3, jake.getAge());
+        assertSqlEquals("upsert-versioned-users.sql");
+    }
+
+    private VersionedEntity stored(String id) throws IOException {
+        return repo.query(repository -> repository.entities(EntityMetaType).findFirst(Id, id));
+    }
+}
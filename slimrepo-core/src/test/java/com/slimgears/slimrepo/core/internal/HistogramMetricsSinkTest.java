@@ -0,0 +1,73 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.annimon.stream.Stream;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+@RunWith(JUnit4.class)
+public class HistogramMetricsSinkTest extends AbstractSqlMockTest {
+    @Test
+    public void statementMetricsAggregatedPerStatement() {
+        HistogramMetricsSink metricsSink = new HistogramMetricsSink();
+        metricsSink.onStatementExecuted("SELECT 1", 1000, 3);
+        metricsSink.onStatementExecuted("SELECT 1", 3000, 2);
+        metricsSink.onStatementExecuted("SELECT 2", 2000, 1);
+        metricsSink.onStatementBuilt("SELECT 1", 500);
+
+        Assert.assertEquals(2, metricsSink.getStatementMetrics().size());
+        HistogramMetricsSink.StatementMetrics metrics = metricsSink.getStatementMetrics().get("SELECT 1");
+        Assert.assertEquals(5, metrics.getRowCount());
+        Assert.assertEquals(2, metrics.latency.getCount());
+        Assert.assertEquals(4000, metrics.latency.getTotalNanos());
+        Assert.assertEquals(3000, metrics.latency.getMaxNanos());
+        Assert.assertEquals(1, metricsSink.getStatementBuildLatency().getCount());
+    }
+
+    @Test
+    public void cacheLookupsAndCancelledTransactionsCounted() {
+        HistogramMetricsSink metricsSink = new HistogramMetricsSink();
+        metricsSink.onCacheLookup(RoleEntity.EntityMetaType, true);
+        metricsSink.onCacheLookup(RoleEntity.EntityMetaType, true);
+        metricsSink.onCacheLookup(RoleEntity.EntityMetaType, true);
+        metricsSink.onCacheLookup(RoleEntity.EntityMetaType, false);
+        metricsSink.onTransactionCompleted(1000, true);
+        metricsSink.onTransactionCompleted(2000, false);
+
+        HistogramMetricsSink.CacheMetrics metrics = metricsSink.getCacheMetrics().get(RoleEntity.EntityMetaType.getName());
+        Assert.assertEquals(3, metrics.getHits());
+        Assert.assertEquals(1, metrics.getMisses());
+        Assert.assertEquals(0.75, metrics.getHitRatio(), 0.0);
+        Assert.assertEquals(2, metricsSink.getTransactionLatency().getCount());
+        Assert.assertEquals(1, metricsSink.getCancelledTransactions());
+    }
+
+    @Test
+    public void metricsRecordedWhenSinkInstalled() throws IOException {
+        HistogramMetricsSink metricsSink = new HistogramMetricsSink();
+        ormServiceProviderMock.setMetricsSink(metricsSink);
+
+        testUpdate(repository -> {
+            repository.users().findAllWhere(UserEntity.UserFirstName.eq("John"));
+            repository.users().add(UserEntity.builder().userId("id-1").userFirstName("Jake").build());
+        });
+
+        Assert.assertEquals(2, metricsSink.getStatementMetrics().size());
+        Assert.assertEquals(2, metricsSink.getStatementBuildLatency().getCount());
+        Assert.assertEquals(1, metricsSink.getTransactionLatency().getCount());
+        Assert.assertEquals(0, metricsSink.getCancelledTransactions());
+        long rowCount = Stream.of(metricsSink.getStatementMetrics().values())
+                .map(HistogramMetricsSink.StatementMetrics::getRowCount)
+                .reduce(0L, (a, b) -> a + b);
+        Assert.assertEquals(10, rowCount);
+        Assert.assertEquals(0.0, metricsSink.getCacheMetrics().get(UserEntity.EntityMetaType.getName()).getHitRatio(), 0.0);
+    }
+}
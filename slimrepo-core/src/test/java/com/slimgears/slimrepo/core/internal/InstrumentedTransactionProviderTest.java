@@ -0,0 +1,61 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.internal.interfaces.MetricsSink;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(JUnit4.class)
+public class InstrumentedTransactionProviderTest {
+    @Mock private TransactionProvider transactionProviderMock;
+    @Mock private MetricsSink metricsSinkMock;
+
+    private TransactionProvider transactionProvider;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        transactionProvider = new InstrumentedTransactionProvider(transactionProviderMock, metricsSinkMock);
+    }
+
+    @Test
+    public void nestedTransactionsRecordedOnce() throws IOException {
+        transactionProvider.beginTransaction();
+        transactionProvider.beginTransaction();
+        transactionProvider.commitTransaction();
+        Mockito.verify(metricsSinkMock, never()).onTransactionCompleted(anyLong(), anyBoolean());
+
+        transactionProvider.commitTransaction();
+        Mockito.verify(metricsSinkMock, times(1)).onTransactionCompleted(anyLong(), eq(true));
+        Mockito.verify(transactionProviderMock, times(2)).commitTransaction();
+    }
+
+    @Test
+    public void nestedCancelRecordedAsCancelled() throws IOException {
+        transactionProvider.beginTransaction();
+        transactionProvider.beginTransaction();
+        transactionProvider.cancelTransaction();
+        transactionProvider.commitTransaction();
+        Mockito.verify(metricsSinkMock, times(1)).onTransactionCompleted(anyLong(), eq(false));
+        Mockito.verify(metricsSinkMock, never()).onTransactionCompleted(anyLong(), eq(true));
+
+        transactionProvider.beginTransaction();
+        transactionProvider.commitTransaction();
+        Mockito.verify(metricsSinkMock, times(1)).onTransactionCompleted(anyLong(), eq(true));
+    }
+}
@@ -0,0 +1,54 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.fields.StringField;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.UUID;
+
+@RunWith(JUnit4.class)
+public class KeyGeneratorsTest {
+    @Test
+    public void randomKeysGeneratedUnlessTimeOrderedRequested() {
+        Assert.assertEquals(4, Fields.valueField("uuid", UUID.class, entity -> null, (entity, value) -> {}, false).metaInfo().generateValue().version());
+        Assert.assertEquals(4, KeyGenerators.random(UUID.class).generateKey().version());
+        Assert.assertNull(KeyGenerators.random(Long.class));
+        Assert.assertNull(KeyGenerators.timeOrdered(Long.class));
+    }
+
+    @Test
+    public void timeOrderedStringKeysMonotonic() {
+        StringField<UserEntity> userId = Fields.withKeyGenerator(
+                Fields.stringField("userId", entity -> null, (entity, value) -> {}, false),
+                KeyGenerators.timeOrdered(String.class));
+        String lastKey = "";
+        for (int i = 0; i < 1000; ++i) {
+            String key = userId.metaInfo().generateValue();
+            Assert.assertEquals(26, key.length());
+            Assert.assertTrue(key.matches("[0-9A-HJKMNP-TV-Z]+"));
+            Assert.assertTrue(key.compareTo(lastKey) > 0);
+            lastKey = key;
+        }
+    }
+
+    @Test
+    public void timeOrderedUuidsMonotonic() {
+        ValueField<UserEntity, UUID> uuidField = Fields.withKeyGenerator(
+                Fields.valueField("uuid", UUID.class, entity -> null, (entity, value) -> {}, false),
+                KeyGenerators.timeOrdered(UUID.class));
+        UUID lastKey = uuidField.metaInfo().generateValue();
+        for (int i = 0; i < 1000; ++i) {
+            UUID key = uuidField.metaInfo().generateValue();
+            Assert.assertEquals(7, key.version());
+            Assert.assertEquals(2, key.variant());
+            Assert.assertTrue(lastKey.toString().compareTo(key.toString()) < 0);
+            lastKey = key;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class LongKeyEntityCacheTest {
+    @Test
+    public void integralKeyEntityCacheStoresEntitiesByPrimitiveKey() {
+        Assert.assertTrue(LongKeyEntityCache.isApplicable(RoleEntity.EntityMetaType));
+        Assert.assertFalse(LongKeyEntityCache.isApplicable(UserEntity.EntityMetaType));
+
+        LongKeyEntityCache<Integer, RoleEntity> cache = new LongKeyEntityCache<>(RoleEntity.EntityMetaType);
+        for (int i = 0; i < 1000; ++i) {
+            cache.put(RoleEntity.create().setRoleId(i * 64));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            cache.invalidate(i * 64);
+        }
+        for (int i = 0; i < 1000; ++i) {
+            RoleEntity role = cache.getIfPresent(i * 64);
+            if (i % 2 == 0) Assert.assertNull(role);
+            else Assert.assertEquals(i * 64, role.getRoleId());
+        }
+
+        RoleEntity loaded = cache.get(-1L, () -> RoleEntity.create().setRoleId(-1));
+        Assert.assertSame(loaded, cache.get(-1, () -> RoleEntity.create().setRoleId(-1)));
+        cache.invalidateAll();
+        Assert.assertNull(cache.getIfPresent(64));
+    }
+
+    @Test
+    public void randomPutsAndInvalidationsMatchHashMap() {
+        LongKeyEntityCache<Integer, RoleEntity> cache = new LongKeyEntityCache<>(RoleEntity.EntityMetaType);
+        Map<Integer, RoleEntity> expected = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; ++i) {
+            int key = random.nextInt(200) - 100;
+            if (random.nextInt(3) == 0) {
+                cache.invalidate(key);
+                expected.remove(key);
+            } else {
+                RoleEntity role = RoleEntity.create().setRoleId(key);
+                cache.put(role);
+                if (!expected.containsKey(key)) expected.put(key, role);
+            }
+        }
+        for (int key = -100; key < 100; ++key) {
+            Assert.assertSame(expected.get(key), cache.getIfPresent(key));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Date;
+
+@RunWith(JUnit4.class)
+public class PredicateCompilerTest {
+    @SuppressWarnings("unchecked")
+    @Test
+    public void conditionsCompiledToPredicates() {
+        RoleEntity admin = RoleEntity.create().setRoleDescription("Admin");
+        UserEntity john = UserEntity.builder()
+                .userId("id-1")
+                .userFirstName("John")
+                .userLastName("Smith")
+                .role(admin)
+                .age(30)
+                .build();
+
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.UserLastName.contains("MIT")).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.UserLastName.startsWith("S_i")).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.UserLastName.notEndsWith("th")).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.UserFirstName.in("Jake", "John")).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.Age.between(20, 30)).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.LastVisitDate.greaterThan(new Date())).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.AccountStatus.isNull()).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(Conditions.and(
+                UserEntity.Role.is(RoleEntity.RoleDescription.eq("Admin")),
+                Conditions.or(UserEntity.Age.lessThan(18), UserEntity.UserId.notIn("id-2", "id-3")))).test(john));
+    }
+
+    @Test
+    public void nullArgumentsNeverMatched() {
+        UserEntity john = UserEntity.builder().userId("id-1").userFirstName("John").age(30).build();
+
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.UserLastName.eq(null)).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.UserLastName.notEq(null)).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.UserLastName.notEq("Smith")).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.Age.between(null, 40)).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.UserLastName.notIn("Smith")).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(null).test(john));
+    }
+
+    @Test
+    public void fullTextMatchesCompiledToTokenLookups() {
+        UserEntity john = UserEntity.builder().userId("id-1").userFirstName("John Paul").userLastName("Smith").build();
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.UserLastName.matches("smi*")).test(john));
+        Assert.assertTrue(PredicateCompiler.compile(UserEntity.UserFirstName.matches("paul JOHN")).test(john));
+        Assert.assertFalse(PredicateCompiler.compile(UserEntity.UserFirstName.matches("jo")).test(john));
+    }
+}
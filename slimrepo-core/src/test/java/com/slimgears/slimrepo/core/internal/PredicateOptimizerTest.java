@@ -0,0 +1,69 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.CollectionCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.CompositeCondition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.interfaces.conditions.PredicateType;
+import com.slimgears.slimrepo.core.interfaces.conditions.RelationalCondition;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PredicateOptimizerTest {
+    @Test
+    public void equalityPredicatesMergedIntoSortedIn() {
+        Condition<UserEntity> optimized = PredicateOptimizer.optimize(Conditions.or(
+                UserEntity.UserFirstName.eq("John"),
+                Conditions.or(UserEntity.UserFirstName.eq("Jake"), UserEntity.UserFirstName.in("John", "Adam"))));
+
+        Assert.assertEquals(PredicateType.VALUE_FIELD_IN, optimized.getType());
+        Assert.assertArrayEquals(new Object[] {"Adam", "Jake", "John"}, ((CollectionCondition<?, ?>)optimized).getValues());
+    }
+
+    @Test
+    public void contradictionsAndTautologiesFolded() {
+        Assert.assertTrue(PredicateOptimizer.isFalse(PredicateOptimizer.optimize(Conditions.and(
+                UserEntity.UserFirstName.eq("John"), UserEntity.UserFirstName.eq("Jake")))));
+        Assert.assertTrue(PredicateOptimizer.isFalse(PredicateOptimizer.optimize(Conditions.and(
+                UserEntity.UserFirstName.isNull(), UserEntity.UserFirstName.eq("John")))));
+        Assert.assertTrue(PredicateOptimizer.isFalse(PredicateOptimizer.optimize(Conditions.and(
+                UserEntity.Age.greaterThan(20), UserEntity.UserFirstName.in()))));
+        Assert.assertTrue(PredicateOptimizer.isFalse(PredicateOptimizer.optimize(
+                UserEntity.Role.is(RoleEntity.RoleId.in()))));
+        Assert.assertNull(PredicateOptimizer.optimize(Conditions.or(
+                UserEntity.UserFirstName.isNull(), UserEntity.UserFirstName.isNotNull())));
+        Assert.assertNull(PredicateOptimizer.optimize(UserEntity.UserFirstName.notIn()));
+        Assert.assertFalse(PredicateOptimizer.isFalse(UserEntity.UserFirstName.notIn()));
+    }
+
+    @Test
+    public void relationalConditionsOfSameRelationMerged() {
+        Condition<UserEntity> optimized = PredicateOptimizer.optimize(Conditions.and(
+                UserEntity.Role.is(RoleEntity.RoleId.greaterThan(1)),
+                UserEntity.Role.is(RoleEntity.RoleId.lessThan(5))));
+
+        Assert.assertEquals(PredicateType.RELATIONAL_IS, optimized.getType());
+        RelationalCondition<?, ?> relational = (RelationalCondition<?, ?>)optimized;
+        Assert.assertEquals(PredicateType.COMPOSITE_AND, relational.getCondition().getType());
+        Assert.assertEquals(2, ((CompositeCondition<?>)relational.getCondition()).getArguments().length);
+        Assert.assertTrue(PredicateOptimizer.referencesRelatedKeyOnly(relational));
+        Assert.assertFalse(PredicateOptimizer.referencesRelatedKeyOnly(
+                (RelationalCondition<?, ?>)UserEntity.Role.is(RoleEntity.RoleDescription.eq("Admin"))));
+    }
+
+    @Test
+    public void optimalConditionsReturnedAsIs() {
+        Condition<UserEntity> equals = UserEntity.UserFirstName.eq("John");
+        Condition<UserEntity> conjunction = Conditions.and(UserEntity.UserFirstName.eq("John"), UserEntity.Age.greaterThan(20));
+        Assert.assertSame(equals, PredicateOptimizer.optimize(equals));
+        Assert.assertSame(conjunction, PredicateOptimizer.optimize(conjunction));
+        Assert.assertNull(PredicateOptimizer.optimize(null));
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.Condition;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QueryResultCacheTest {
+    @Test
+    public void entriesInvalidatedWhenTableOrRelatedTableChanges() {
+        QueryResultCache cache = new QueryResultCache();
+        cache.put("users", cache.getVersions(UserEntity.EntityMetaType), 10L);
+        Assert.assertEquals(Long.valueOf(10), cache.get("users", UserEntity.EntityMetaType));
+
+        cache.invalidate(RoleEntity.EntityMetaType);
+        Assert.assertNull(cache.get("users", UserEntity.EntityMetaType));
+
+        cache.put("users", cache.getVersions(UserEntity.EntityMetaType), 11L);
+        cache.put("roles", cache.getVersions(RoleEntity.EntityMetaType), 2L);
+        cache.invalidate(UserEntity.EntityMetaType);
+        Assert.assertNull(cache.get("users", UserEntity.EntityMetaType));
+        Assert.assertEquals(Long.valueOf(2), cache.get("roles", RoleEntity.EntityMetaType));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesEvicted() {
+        QueryResultCache cache = new QueryResultCache(2);
+        long[] versions = cache.getVersions(RoleEntity.EntityMetaType);
+        cache.put("first", versions, 1);
+        cache.put("second", versions, 2);
+        Assert.assertEquals(Integer.valueOf(1), cache.get("first", RoleEntity.EntityMetaType));
+
+        cache.put("third", versions, 3);
+        Assert.assertNull(cache.get("second", RoleEntity.EntityMetaType));
+        Assert.assertEquals(Integer.valueOf(1), cache.get("first", RoleEntity.EntityMetaType));
+
+        cache.invalidateAll();
+        Assert.assertNull(cache.get("third", RoleEntity.EntityMetaType));
+    }
+
+    @Test
+    public void keysDistinguishConditionsAndSkipSubqueries() {
+        String johnKey = QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq("John")));
+        Assert.assertEquals(johnKey, QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq("John"))));
+        Assert.assertNotEquals(johnKey, QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq("Jake"))));
+        Assert.assertNotEquals(johnKey, QueryResultCache.keyOf("count", params(UserEntity.UserFirstName.eq("John"))));
+        Assert.assertNotEquals(
+                QueryResultCache.keyOf("select", params(UserEntity.Age.eq(1))),
+                QueryResultCache.keyOf("select", params(UserEntity.Age.eq(null))));
+        Assert.assertNull(QueryResultCache.keyOf("select", params(UserEntity.Age.in(RoleEntity.RoleId, null))));
+    }
+
+    @Test
+    public void keysOfValuesWithSeparatorsDoNotCollide() {
+        Assert.assertNotEquals(
+                QueryResultCache.keyOf("select", params(UserEntity.UserId.in("a,String:b"))),
+                QueryResultCache.keyOf("select", params(UserEntity.UserId.in("a", "b"))));
+        Assert.assertNotEquals(
+                QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq("a),VALUE_FIELD_EQUALS(UserEntity.userLastName,String:b"))),
+                QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq("a").and(UserEntity.UserLastName.eq("b")))));
+        Assert.assertNotEquals(
+                QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq("null"))),
+                QueryResultCache.keyOf("select", params(UserEntity.UserFirstName.eq(null))));
+    }
+
+    private static SelectQueryParams<String, UserEntity> params(Condition<UserEntity> condition) {
+        return new SelectQueryParams<>(UserEntity.EntityMetaType, condition, null, null, null);
+    }
+}
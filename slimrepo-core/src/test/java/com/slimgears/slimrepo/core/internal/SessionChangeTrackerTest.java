@@ -0,0 +1,115 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityChanges;
+import com.slimgears.slimrepo.core.interfaces.queries.LiveQuery;
+import com.slimgears.slimrepo.core.internal.memory.InMemoryOrmServiceProvider;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class SessionChangeTrackerTest {
+    private final List<EntityChanges<String, UserEntity>> notifications = new ArrayList<>();
+    private SessionChangeTracker changeTracker;
+
+    @Before
+    public void setup() {
+        RepositoryChangeNotifier notifier = new RepositoryChangeNotifier();
+        notifier.addListener(UserEntity.EntityMetaType, notifications::add);
+        changeTracker = new SessionChangeTracker(notifier);
+    }
+
+    @Test
+    public void changesPublishedWhenOutermostTransactionCommitted() {
+        changeTracker.onTransactionStarted();
+        changeTracker.onTransactionStarted();
+        changeTracker.getChanges(UserEntity.EntityMetaType).keyInserted("id-1");
+        changeTracker.onChangesRecorded();
+        changeTracker.onTransactionCommitted();
+        Assert.assertTrue(notifications.isEmpty());
+
+        changeTracker.onTransactionCommitted();
+        Assert.assertEquals(1, notifications.size());
+        Assert.assertEquals(Collections.singleton("id-1"), notifications.get(0).getInsertedKeys());
+    }
+
+    @Test
+    public void changesDiscardedWhenTransactionCancelled() {
+        changeTracker.onTransactionStarted();
+        changeTracker.getChanges(UserEntity.EntityMetaType).keyUpdated("id-1");
+        changeTracker.onTransactionCancelled();
+
+        changeTracker.onTransactionStarted();
+        changeTracker.onTransactionCommitted();
+        Assert.assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    public void changesOutsideTransactionPublishedImmediately() {
+        changeTracker.getChanges(UserEntity.EntityMetaType).keyDeleted("id-1");
+        changeTracker.onChangesRecorded();
+        Assert.assertEquals(Collections.singleton("id-1"), notifications.get(0).getDeletedKeys());
+
+        changeTracker.getChanges(UserEntity.EntityMetaType).keyInserted("id-2");
+        changeTracker.getChanges(UserEntity.EntityMetaType).keyDeleted("id-2");
+        changeTracker.onChangesRecorded();
+        Assert.assertEquals(1, notifications.size());
+    }
+
+    @Test
+    public void changeListenersNotifiedAfterCommit() throws IOException {
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(new InMemoryOrmServiceProvider());
+        final List<EntityChanges<String, UserEntity>> changes = new ArrayList<>();
+        repo.addChangeListener(UserEntity.EntityMetaType, changes::add);
+
+        final List<Integer> liveResultSizes = new ArrayList<>();
+        LiveQuery<UserEntity> liveQuery = repo.liveQuery(UserEntity.EntityMetaType, UserEntity.Age.greaterOrEq(21),
+                query -> liveResultSizes.add(query.getResults().size()));
+        Assert.assertEquals(0, liveQuery.getResults().size());
+
+        repo.update(repository -> {
+            for (int i = 0; i < 3; ++i) {
+                repository.users().add(UserEntity.builder().userId("id-" + i).age(20 + i).build());
+            }
+            Assert.assertTrue(changes.isEmpty());
+        });
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id-0", "id-1", "id-2")), changes.get(0).getInsertedKeys());
+        Assert.assertEquals(2, liveQuery.getResults().size());
+
+        repo.update(repository -> repository.users().updateQuery()
+                .where(UserEntity.Age.lessThan(22))
+                .set(UserEntity.Age, 30)
+                .prepare()
+                .execute());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id-0", "id-1")), changes.get(1).getUpdatedKeys());
+        Assert.assertEquals(3, liveQuery.getResults().size());
+
+        repo.update(repository -> repository.users().deleteQuery()
+                .where(UserEntity.UserId.eq("id-2"))
+                .prepare()
+                .execute());
+        Assert.assertEquals(Collections.singleton("id-2"), changes.get(2).getDeletedKeys());
+        Assert.assertEquals(Arrays.asList(2, 3, 2), liveResultSizes);
+
+        liveQuery.close();
+        repo.update(repository -> repository.users().add(UserEntity.builder().userId("id-3").age(40).build()));
+        Assert.assertEquals(4, changes.size());
+        Assert.assertEquals(3, liveResultSizes.size());
+    }
+}
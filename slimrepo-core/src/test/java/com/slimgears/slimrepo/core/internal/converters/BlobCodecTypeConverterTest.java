@@ -0,0 +1,64 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.internal.interfaces.BlobCodec;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class BlobCodecTypeConverterTest extends AbstractSqlMockTest {
+    @Test
+    public void blobFieldEncodedWithCodecAndStreamed() throws IOException {
+        BlobCodecTypeConverter<ArrayList> converter = new BlobCodecTypeConverter<>(ArrayList.class, new BlobCodec<ArrayList>() {
+            @Override
+            public void encode(ArrayList value, DataOutput output) throws IOException {
+                BlobCodecs.writeVarInt(output, value.size());
+                for (Object item : value) {
+                    BlobCodecs.writeString(output, (String)item);
+                }
+            }
+
+            @Override
+            public ArrayList decode(DataInput input) throws IOException {
+                int size = BlobCodecs.readVarInt(input);
+                ArrayList<String> value = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    value.add(BlobCodecs.readString(input));
+                }
+                return value;
+            }
+        });
+        converter.install(ormServiceProviderMock.getFieldTypeMapperRegistrar());
+
+        ArrayList<String> comments = new ArrayList<>(Arrays.asList("first", "second"));
+        byte[] encoded = (byte[])ormServiceProviderMock.getFieldTypeMapper().fromFieldType(UserEntity.Comments, comments);
+        Assert.assertEquals(14, encoded.length);
+        Assert.assertEquals(comments, ormServiceProviderMock.getFieldTypeMapper().toFieldType(UserEntity.Comments, encoded));
+
+        when(executorMock.selectValues(any(String.class), any()))
+                .thenAnswer(answer(iteratorMock(new String[][] {{"040C66697273740E7365636F6E64"}})));
+        ArrayList streamed = testQuery(repository -> {
+            UserEntity user = UserEntity.builder().userId("id-1").build();
+            try (InputStream stream = repository.users().openBlob(user, UserEntity.Comments)) {
+                return converter.decode(stream);
+            }
+        });
+        Assert.assertEquals(comments, streamed);
+        assertSqlEquals("read-blob.sql");
+    }
+}
@@ -0,0 +1,66 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.prototype.generated.AccountStatus;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+@RunWith(JUnit4.class)
+public class BlobCodecsTest {
+    @Test
+    public void variableLengthIntegersRoundTripped() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, 300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        for (long value : values) {
+            BlobCodecs.writeVarLong(output, value);
+        }
+        Assert.assertEquals(1, encode(63).length);
+        Assert.assertEquals(2, encode(64).length);
+        Assert.assertEquals(10, encode(Long.MIN_VALUE).length);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (long value : values) {
+            Assert.assertEquals(value, BlobCodecs.readVarLong(input));
+        }
+    }
+
+    @Test
+    public void nullableValuesRoundTripped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        BlobCodecs.writeString(output, "Gr\u00fc\u00dfe");
+        BlobCodecs.writeString(output, null);
+        BlobCodecs.writeString(output, "");
+        BlobCodecs.writeDate(output, new Date(1000));
+        BlobCodecs.writeDate(output, null);
+        BlobCodecs.writeEnum(output, AccountStatus.PAUSED);
+        BlobCodecs.writeEnum(output, null);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assert.assertEquals("Gr\u00fc\u00dfe", BlobCodecs.readString(input));
+        Assert.assertNull(BlobCodecs.readString(input));
+        Assert.assertEquals("", BlobCodecs.readString(input));
+        Assert.assertEquals(new Date(1000), BlobCodecs.readDate(input));
+        Assert.assertNull(BlobCodecs.readDate(input));
+        Assert.assertEquals(AccountStatus.PAUSED, BlobCodecs.readEnum(input, AccountStatus.class));
+        Assert.assertNull(BlobCodecs.readEnum(input, AccountStatus.class));
+        Assert.assertEquals(-1, input.read());
+    }
+
+    private static byte[] encode(long value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BlobCodecs.writeVarLong(new DataOutputStream(bytes), value);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.interfaces.fields.StringField;
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.Fields;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMapper;
+import com.slimgears.slimrepo.core.internal.interfaces.TypeConverter;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class CompressingTypeConverterTest extends AbstractSqlMockTest {
+    @SuppressWarnings("unchecked")
+    private final TypeConverter<byte[]> converter = new CompressingTypeConverter<>((TypeConverter<byte[]>)EmptyTypeConverter.INSTANCE, 16);
+    private final ValueField<UserEntity, byte[]> data = Fields.valueField("data", byte[].class, entity -> null, (entity, value) -> {}, true);
+
+    @Test
+    public void incompressibleValueStoredRaw() {
+        byte[] value = new byte[64];
+        new Random(1).nextBytes(value);
+
+        byte[] stored = (byte[])converter.fromEntityType(data, value);
+        Assert.assertEquals(65, stored.length);
+        Assert.assertEquals(0, stored[0]);
+        Assert.assertArrayEquals(value, converter.toEntityType(data, stored));
+        Assert.assertNull(converter.fromEntityType(data, null));
+        Assert.assertNull(converter.toEntityType(data, null));
+    }
+
+    @Test
+    public void truncatedCompressedValueRejected() {
+        byte[] value = new byte[256];
+        byte[] stored = (byte[])converter.fromEntityType(data, value);
+        Assert.assertEquals(1, stored[0]);
+        Assert.assertArrayEquals(value, converter.toEntityType(data, stored));
+
+        try {
+            converter.toEntityType(data, Arrays.copyOf(stored, stored.length / 2));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("Truncated compressed value", e.getMessage());
+        }
+    }
+
+    @Test
+    public void compressedFieldDeflatedAboveThreshold() {
+        StringField<UserEntity> notes = Fields.stringField("notes", UserEntity::getUserLastName, UserEntity::setUserLastName, true, false, true);
+        FieldTypeMapper fieldTypeMapper = ormServiceProviderMock.getFieldTypeMapper();
+        Assert.assertEquals(byte[].class, fieldTypeMapper.getOutboundType(notes));
+
+        byte[] small = (byte[])fieldTypeMapper.fromFieldType(notes, "Short note");
+        Assert.assertEquals(11, small.length);
+        Assert.assertEquals(0, small[0]);
+        Assert.assertEquals("Short note", fieldTypeMapper.toFieldType(notes, small));
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            builder.append("{\"id\": ").append(i).append(", \"status\": \"ACTIVE\"}\n");
+        }
+        String large = builder.toString();
+        byte[] compressed = (byte[])fieldTypeMapper.fromFieldType(notes, large);
+        Assert.assertEquals(1, compressed[0]);
+        Assert.assertTrue(compressed.length < large.length() / 4);
+        Assert.assertEquals(large, fieldTypeMapper.toFieldType(notes, compressed));
+    }
+}
@@ -0,0 +1,53 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.converters;
+
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.Fields;
+import com.slimgears.slimrepo.core.internal.KeyGenerators;
+import com.slimgears.slimrepo.core.internal.interfaces.FieldTypeMapper;
+import com.slimgears.slimrepo.core.internal.sql.AbstractSqlMockTest;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.UUID;
+
+@RunWith(JUnit4.class)
+public class UuidTypeConvertersTest extends AbstractSqlMockTest {
+    private final ValueField<UserEntity, UUID> uuidField = Fields.valueField("uuid", UUID.class, entity -> null, (entity, value) -> {}, false);
+
+    @Test
+    public void blobStorageCompactAndOrderPreserving() {
+        UuidTypeConverters.BLOB.install(ormServiceProviderMock.getFieldTypeMapperRegistrar());
+        FieldTypeMapper fieldTypeMapper = ormServiceProviderMock.getFieldTypeMapper();
+
+        UUID first = KeyGenerators.TIME_ORDERED_UUID.generateKey();
+        UUID second = KeyGenerators.TIME_ORDERED_UUID.generateKey();
+        byte[] firstBytes = (byte[])fieldTypeMapper.fromFieldType(uuidField, first);
+        byte[] secondBytes = (byte[])fieldTypeMapper.fromFieldType(uuidField, second);
+        Assert.assertEquals(16, firstBytes.length);
+        Assert.assertEquals(first, fieldTypeMapper.toFieldType(uuidField, firstBytes));
+        Assert.assertTrue(compareUnsigned(firstBytes, secondBytes) < 0);
+    }
+
+    @Test
+    public void textStorageCanonical() {
+        UuidTypeConverters.TEXT.install(ormServiceProviderMock.getFieldTypeMapperRegistrar());
+        FieldTypeMapper fieldTypeMapper = ormServiceProviderMock.getFieldTypeMapper();
+
+        UUID uuid = KeyGenerators.TIME_ORDERED_UUID.generateKey();
+        Assert.assertEquals(uuid.toString(), fieldTypeMapper.fromFieldType(uuidField, uuid));
+        Assert.assertEquals(uuid, fieldTypeMapper.toFieldType(uuidField, uuid.toString()));
+    }
+
+    private static int compareUnsigned(byte[] first, byte[] second) {
+        for (int i = 0; i < first.length; ++i) {
+            int diff = (first[i] & 0xff) - (second[i] & 0xff);
+            if (diff != 0) return diff;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,74 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public class InMemoryIndexTest {
+    @Test
+    public void hashIndexFindsEqualAndNullValues() {
+        InMemoryIndex<UserEntity> index = InMemoryIndex.create(UserEntity.UserLastName, false);
+        InMemoryTable.Row<UserEntity> doe = row(1, "Doe", 20);
+        InMemoryTable.Row<UserEntity> smith = row(2, "Smith", 30);
+        InMemoryTable.Row<UserEntity> unnamed = row(3, null, 40);
+        index.add(doe);
+        index.add(smith);
+        index.add(unnamed);
+
+        Assert.assertEquals(ids(1), ids(index.find(UserEntity.UserLastName.eq("Doe"))));
+        Assert.assertEquals(ids(1, 2), ids(index.find(UserEntity.UserLastName.in("Doe", "Smith", "Doe"))));
+        Assert.assertEquals(ids(3), ids(index.find(UserEntity.UserLastName.isNull())));
+        Assert.assertTrue(index.find(UserEntity.UserLastName.eq(null)).isEmpty());
+        Assert.assertNull(index.find(UserEntity.UserLastName.contains("o")));
+
+        index.remove(doe);
+        index.remove(unnamed);
+        Assert.assertTrue(index.find(UserEntity.UserLastName.eq("Doe")).isEmpty());
+        Assert.assertTrue(index.find(UserEntity.UserLastName.isNull()).isEmpty());
+    }
+
+    @Test
+    public void sortedIndexFindsRanges() {
+        InMemoryIndex<UserEntity> index = InMemoryIndex.create(UserEntity.Age, true);
+        for (int i = 0; i < 5; ++i) {
+            index.add(row(i, "Doe", 20 + i));
+        }
+
+        Assert.assertEquals(ids(3, 4), ids(index.find(UserEntity.Age.greaterThan(22))));
+        Assert.assertEquals(ids(2, 3, 4), ids(index.find(UserEntity.Age.greaterOrEq(22))));
+        Assert.assertEquals(ids(0, 1), ids(index.find(UserEntity.Age.lessThan(22))));
+        Assert.assertEquals(ids(0, 1, 2), ids(index.find(UserEntity.Age.lessOrEq(22))));
+        Assert.assertEquals(ids(1, 2, 3), ids(index.find(UserEntity.Age.between(21, 23))));
+        Assert.assertTrue(index.find(UserEntity.Age.between(23, 21)).isEmpty());
+        Assert.assertEquals(ids(2), ids(index.find(UserEntity.Age.eq(22))));
+    }
+
+    private static InMemoryTable.Row<UserEntity> row(long id, String lastName, int age) {
+        return new InMemoryTable.Row<>(id, UserEntity.builder()
+                .userId("id-" + id)
+                .userLastName(lastName)
+                .age(age)
+                .build());
+    }
+
+    private static Set<Long> ids(long... ids) {
+        Set<Long> set = new HashSet<>();
+        for (long id : ids) set.add(id);
+        return set;
+    }
+
+    private static Set<Long> ids(Collection<InMemoryTable.Row<UserEntity>> rows) {
+        Set<Long> set = new HashSet<>();
+        for (InMemoryTable.Row<UserEntity> row : rows) set.add(row.id);
+        return set;
+    }
+}
@@ -0,0 +1,200 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.memory;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpressions;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+@RunWith(JUnit4.class)
+public class InMemoryOrmServiceProviderTest {
+    private RepositoryService<UserRepository> repo;
+
+    @Before
+    public void setup() throws IOException {
+        repo = new GeneratedUserRepositoryService(new InMemoryOrmServiceProvider().addIndex(UserEntity.Age));
+        repo.update(repository -> {
+            for (int i = 0; i < 4; ++i) {
+                repository.users().add(UserEntity.builder()
+                        .userId("id-" + i)
+                        .userFirstName("John")
+                        .age(20 + i)
+                        .build());
+            }
+        });
+    }
+
+    @Test
+    public void repeatedKeysInListMatchedOnce() throws IOException {
+        Assert.assertEquals(2L, (long)repo.query(repository -> repository.users()
+                .countAllWhere(UserEntity.UserId.in("id-1", "id-1", "id-2"))));
+        Assert.assertEquals(2L, (long)repo.query(repository -> repository.users()
+                .countAllWhere(UserEntity.Age.in(21, 21, 22))));
+
+        repo.update(repository -> repository.users().updateQuery()
+                .where(UserEntity.UserId.in("id-1", "id-1"))
+                .setExpression(UserEntity.Age, UpdateExpressions.increment(UserEntity.Age, 1))
+                .prepare()
+                .execute());
+        repo.update(repository -> repository.users().updateQuery()
+                .where(UserEntity.Age.in(23, 23))
+                .setExpression(UserEntity.Age, UpdateExpressions.increment(UserEntity.Age, 1))
+                .prepare()
+                .execute());
+
+        Assert.assertEquals(22, repo.query(repository -> repository.users().findFirst(UserEntity.UserId, "id-1")).getAge());
+        Assert.assertEquals(24, repo.query(repository -> repository.users().findFirst(UserEntity.UserId, "id-3")).getAge());
+    }
+
+    @Test
+    public void inMemoryProviderQueriesThroughIndexes() throws IOException {
+        InMemoryOrmServiceProvider inMemoryProvider = new InMemoryOrmServiceProvider()
+                .addIndex(UserEntity.Age, UserEntity.UserLastName);
+        RepositoryService<UserRepository> indexedRepo = new GeneratedUserRepositoryService(inMemoryProvider);
+
+        final RoleEntity admin = RoleEntity.create().setRoleDescription("Admin");
+        indexedRepo.update(repository -> {
+            repository.roles().add(admin);
+            for (int i = 0; i < 10; ++i) {
+                repository.users().add(UserEntity.builder()
+                        .userId("id-" + i)
+                        .userFirstName("John")
+                        .userLastName(i % 2 == 0 ? "Doe" : "Smith")
+                        .role(i < 3 ? admin : null)
+                        .age(20 + i)
+                        .build());
+            }
+        });
+
+        UserEntity[] users = indexedRepo.query(repository -> repository.users().query()
+                .where(Conditions.and(UserEntity.Age.greaterOrEq(23), UserEntity.UserLastName.eq("Doe")))
+                .orderDesc(UserEntity.Age)
+                .skip(1)
+                .limit(2)
+                .prepare()
+                .toArray());
+        Assert.assertEquals(2, users.length);
+        Assert.assertEquals("id-6", users[0].getUserId());
+        Assert.assertEquals("id-4", users[1].getUserId());
+
+        Assert.assertEquals(3L, (long)indexedRepo.query(repository -> repository.users()
+                .countAllWhere(UserEntity.Role.is(RoleEntity.RoleDescription.contains("adm")))));
+        Assert.assertEquals("Admin", indexedRepo.query(repository -> repository.users().findFirst(UserEntity.UserId, "id-1")).getRole().getRoleDescription());
+
+        indexedRepo.update(repository -> repository.users().updateQuery()
+                .where(UserEntity.Age.lessThan(22))
+                .set(UserEntity.UserLastName, "Doe")
+                .prepare()
+                .execute());
+        Assert.assertEquals(6L, (long)indexedRepo.query(repository -> repository.users().countAllWhere(UserEntity.UserLastName.eq("Doe"))));
+
+        indexedRepo.update(repository -> repository.users().deleteQuery()
+                .where(UserEntity.UserId.in("id-0", "id-1"))
+                .prepare()
+                .execute());
+        Assert.assertEquals(8L, (long)indexedRepo.query(repository -> repository.users().countAll()));
+
+        try {
+            indexedRepo.update(repository -> repository.users().add(
+                    UserEntity.builder().userId("id-10").build(),
+                    UserEntity.builder().userId("id-2").build()));
+            Assert.fail("Duplicate key should not be inserted");
+        } catch (IOException e) {
+            Assert.assertEquals(8L, (long)indexedRepo.query(repository -> repository.users().countAll()));
+            Assert.assertNull(indexedRepo.query(repository -> repository.users().findFirst(UserEntity.UserId, "id-10")));
+        }
+    }
+
+    @Test
+    public void subqueryConditionsEvaluatedInMemory() throws IOException {
+        RepositoryService<UserRepository> subqueryRepo = new GeneratedUserRepositoryService(new InMemoryOrmServiceProvider());
+        subqueryRepo.update(repository -> {
+            for (int i = 0; i < 4; ++i) {
+                repository.roles().add(RoleEntity.create().setRoleDescription("Role " + i));
+            }
+            repository.users().add(UserEntity.builder().userId("id-1").userFirstName("John").age(1).build());
+            repository.users().add(UserEntity.builder().userId("id-2").userFirstName("Jake").age(2).build());
+            repository.users().add(UserEntity.builder().userId("id-3").userFirstName("Adam").age(3).build());
+        });
+
+        Assert.assertEquals(3L, (long)subqueryRepo.query(repository -> repository.roles()
+                .countAllWhere(RoleEntity.RoleId.in(UserEntity.Age, null))));
+        Assert.assertEquals(1L, (long)subqueryRepo.query(repository -> repository.roles()
+                .countAllWhere(RoleEntity.RoleId.exists(UserEntity.Age, UserEntity.UserFirstName.eq("Adam")))));
+        Assert.assertEquals(2L, (long)subqueryRepo.query(repository -> repository.roles()
+                .countAllWhere(RoleEntity.RoleId.notIn(UserEntity.Age, UserEntity.UserFirstName.startsWith("J")))));
+    }
+
+    @Test
+    public void updateExpressionsEvaluatedAgainstStoredValues() throws IOException {
+        RepositoryService<UserRepository> expressionRepo = new GeneratedUserRepositoryService(new InMemoryOrmServiceProvider());
+        expressionRepo.update(repository -> {
+            repository.users().add(UserEntity.builder().userId("id-1").userFirstName("John").age(20).build());
+            repository.users().add(UserEntity.builder().userId("id-2").userFirstName("Jane").age(30).userLastName("Smith").build());
+        });
+        expressionRepo.update(repository -> repository.users().updateQuery()
+                .setExpression(UserEntity.Age, UpdateExpressions.max(UserEntity.Age, 25))
+                .setExpression(UserEntity.UserLastName, UpdateExpressions.coalesce(UserEntity.UserLastName, "Doe"))
+                .prepare()
+                .execute());
+        UserEntity john = expressionRepo.query(repository -> repository.users().findFirst(UserEntity.UserId, "id-1"));
+        UserEntity jane = expressionRepo.query(repository -> repository.users().findFirst(UserEntity.UserId, "id-2"));
+        Assert.assertEquals(25, john.getAge());
+        Assert.assertEquals("Doe", john.getUserLastName());
+        Assert.assertEquals(30, jane.getAge());
+        Assert.assertEquals("Smith", jane.getUserLastName());
+    }
+
+    @Test
+    public void arithmeticExpressionsEvaluatedPerRow() throws IOException {
+        repo.update(repository -> {
+            repository.users().updateQuery()
+                    .where(UserEntity.UserId.eq("id-0"))
+                    .setExpression(UserEntity.Age, UpdateExpressions.increment(UserEntity.Age, 5))
+                    .prepare()
+                    .execute();
+            repository.users().updateQuery()
+                    .where(UserEntity.UserId.eq("id-1"))
+                    .setExpression(UserEntity.Age, UpdateExpressions.decrement(UserEntity.Age, 1))
+                    .prepare()
+                    .execute();
+            repository.users().updateQuery()
+                    .where(UserEntity.UserId.eq("id-2"))
+                    .setExpression(UserEntity.Age, UpdateExpressions.multiply(UserEntity.Age, 2))
+                    .prepare()
+                    .execute();
+            repository.users().updateQuery()
+                    .where(UserEntity.UserId.eq("id-3"))
+                    .setExpression(UserEntity.Age, UpdateExpressions.min(UserEntity.Age, 21))
+                    .prepare()
+                    .execute();
+        });
+
+        int[] expectedAges = {25, 20, 44, 21};
+        for (int i = 0; i < expectedAges.length; ++i) {
+            final String userId = "id-" + i;
+            Assert.assertEquals(expectedAges[i], repo.query(repository -> repository.users().findFirst(UserEntity.UserId, userId)).getAge());
+        }
+    }
+
+    @Test
+    public void rawQueriesRejected() throws IOException {
+        try {
+            repo.query(repository -> repository.users().rawQuery("SELECT * FROM `UserEntity`").toArray());
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("Raw SQL queries are not supported by in-memory storage", e.getMessage());
+        }
+    }
+}
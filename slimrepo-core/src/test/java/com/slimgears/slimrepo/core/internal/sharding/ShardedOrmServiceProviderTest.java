@@ -0,0 +1,163 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sharding;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.fields.ComparableField;
+import com.slimgears.slimrepo.core.interfaces.fields.StringField;
+import com.slimgears.slimrepo.core.internal.AbstractEntityType;
+import com.slimgears.slimrepo.core.internal.Fields;
+import com.slimgears.slimrepo.core.internal.memory.InMemoryOrmServiceProvider;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+@RunWith(JUnit4.class)
+public class ShardedOrmServiceProviderTest {
+    static class ShardedEntity {
+        String id;
+        String name;
+        Integer age;
+
+        ShardedEntity() {
+        }
+
+        ShardedEntity(String id, String name, Integer age) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    private static final StringField<ShardedEntity> Id = Fields.stringField("id", e -> e.id, (e, v) -> e.id = v, false);
+    private static final StringField<ShardedEntity> Name = Fields.stringField("name", e -> e.name, (e, v) -> e.name = v, true);
+    private static final ComparableField<ShardedEntity, Integer> Age = Fields.comparableField("age", Integer.class, e -> e.age, (e, v) -> e.age = v, true);
+    private static final EntityType<String, ShardedEntity> EntityMetaType = new AbstractEntityType<String, ShardedEntity>(
+            ShardedEntity.class, Id, Name, Age) {
+        @Override
+        public ShardedEntity newInstance() {
+            return new ShardedEntity();
+        }
+    };
+
+    @Test
+    public void shardIndexStableAndInRange() {
+        ShardedOrmServiceProvider shardedProvider = new ShardedOrmServiceProvider(
+                new InMemoryOrmServiceProvider(), new InMemoryOrmServiceProvider(), new InMemoryOrmServiceProvider())
+                .shardEntityTypes(EntityMetaType);
+        int[] counts = new int[3];
+        for (int i = 0; i < 300; ++i) {
+            int shard = shardedProvider.getShardIndex("id-" + i);
+            Assert.assertEquals(shard, shardedProvider.getShardIndex("id-" + i));
+            ++counts[shard];
+        }
+        for (int count : counts) {
+            Assert.assertTrue(count > 0);
+        }
+
+        Assert.assertTrue(shardedProvider.isSharded(EntityMetaType));
+        Assert.assertFalse(shardedProvider.isSharded(RoleEntity.EntityMetaType));
+        Assert.assertFalse(new ShardedOrmServiceProvider(new InMemoryOrmServiceProvider())
+                .shardEntityTypes(EntityMetaType)
+                .isSharded(EntityMetaType));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void atLeastOneShardRequired() {
+        new ShardedOrmServiceProvider();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void entityTypesWithRelationalFieldsNotSharded() {
+        new ShardedOrmServiceProvider(new InMemoryOrmServiceProvider(), new InMemoryOrmServiceProvider())
+                .shardEntityTypes(UserEntity.EntityMetaType);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void entityTypesReferredByOtherEntityTypesNotSharded() throws IOException {
+        ShardedOrmServiceProvider shardedProvider = new ShardedOrmServiceProvider(new InMemoryOrmServiceProvider(), new InMemoryOrmServiceProvider())
+                .shardEntityTypes(RoleEntity.EntityMetaType);
+        new GeneratedUserRepositoryService(shardedProvider).query(repository -> repository.roles().query().prepare().count());
+    }
+
+    @Test
+    public void entitiesStoredInShardOfTheirKey() throws IOException {
+        InMemoryOrmServiceProvider firstShard = new InMemoryOrmServiceProvider();
+        InMemoryOrmServiceProvider secondShard = new InMemoryOrmServiceProvider();
+        ShardedOrmServiceProvider shardedProvider = new ShardedOrmServiceProvider(firstShard, secondShard)
+                .shardEntityTypes(EntityMetaType);
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(shardedProvider);
+
+        repo.update(repository -> {
+            for (int i = 0; i < 10; ++i) {
+                repository.entities(EntityMetaType).add(new ShardedEntity("id-" + i, "John", 20 + i));
+            }
+        });
+
+        InMemoryOrmServiceProvider[] shards = {firstShard, secondShard};
+        for (int shard = 0; shard < shards.length; ++shard) {
+            ShardedEntity[] entities = new GeneratedUserRepositoryService(shards[shard]).query(repository -> repository.entities(EntityMetaType).query().prepare().toArray());
+            for (ShardedEntity entity : entities) {
+                Assert.assertEquals(shard, shardedProvider.getShardIndex(entity.id));
+            }
+        }
+    }
+
+    @Test
+    public void shardedProviderPartitionsEntitiesByKey() throws IOException {
+        InMemoryOrmServiceProvider firstShard = new InMemoryOrmServiceProvider();
+        InMemoryOrmServiceProvider secondShard = new InMemoryOrmServiceProvider();
+        ShardedOrmServiceProvider shardedProvider = new ShardedOrmServiceProvider(firstShard, secondShard)
+                .shardEntityTypes(EntityMetaType);
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(shardedProvider);
+
+        repo.update(repository -> {
+            repository.roles().add(RoleEntity.create().setRoleDescription("Admin"));
+            for (int i = 0; i < 20; ++i) {
+                repository.entities(EntityMetaType).add(new ShardedEntity("id-" + i, i % 2 == 0 ? "Doe" : "Smith", 20 + i));
+            }
+        });
+
+        long firstCount = new GeneratedUserRepositoryService(firstShard).query(repository -> repository.entities(EntityMetaType).query().prepare().count());
+        long secondCount = new GeneratedUserRepositoryService(secondShard).query(repository -> repository.entities(EntityMetaType).query().prepare().count());
+        Assert.assertEquals(20, firstCount + secondCount);
+        Assert.assertTrue(firstCount > 0 && secondCount > 0);
+        Assert.assertEquals(1L, (long)new GeneratedUserRepositoryService(firstShard).query(repository -> repository.roles().query().prepare().count()));
+
+        ShardedEntity[] entities = repo.query(repository -> repository.entities(EntityMetaType).query()
+                .where(Name.eq("Doe"))
+                .orderDesc(Age)
+                .skip(1)
+                .limit(3)
+                .prepare()
+                .toArray());
+        Assert.assertEquals(3, entities.length);
+        Assert.assertEquals("id-16", entities[0].id);
+        Assert.assertEquals("id-14", entities[1].id);
+        Assert.assertEquals("id-12", entities[2].id);
+        Assert.assertEquals(8L, (long)repo.query(repository -> repository.entities(EntityMetaType).query()
+                .where(Name.eq("Doe"))
+                .skip(2)
+                .prepare()
+                .count()));
+
+        repo.update(repository -> {
+            repository.entities(EntityMetaType).updateQuery().where(Id.eq("id-3")).set(Age, 99).prepare().execute();
+            repository.entities(EntityMetaType).removeAll(repository.entities(EntityMetaType).query().where(Id.in("id-4", "id-5")).prepare().toList());
+        });
+        Assert.assertEquals(18L, (long)repo.query(repository -> repository.entities(EntityMetaType).query().prepare().count()));
+        Assert.assertEquals("id-3", repo.query(repository -> repository.entities(EntityMetaType).query()
+                .orderDesc(Age)
+                .prepare()
+                .firstOrDefault()
+                .id));
+    }
+}
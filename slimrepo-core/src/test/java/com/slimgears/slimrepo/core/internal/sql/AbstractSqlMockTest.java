@@ -0,0 +1,229 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.annimon.stream.Collectors;
+import com.annimon.stream.Stream;
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.interfaces.fields.Field;
+import com.slimgears.slimrepo.core.internal.EntityFieldValueMap;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.internal.interfaces.RepositoryModel;
+import com.slimgears.slimrepo.core.internal.interfaces.SessionServiceProvider;
+import com.slimgears.slimrepo.core.internal.interfaces.TransactionProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlDatabaseScheme;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSchemeProvider;
+import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import com.slimgears.slimrepo.core.utilities.Joiner;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQLite service provider backed by mocked command executor, which traces the executed statements
+ */
+public abstract class AbstractSqlMockTest {
+    @Mock protected TransactionProvider transactionProviderMock;
+    @Mock protected SqlCommandExecutor executorMock;
+
+    protected SessionServiceProvider sessionServiceProviderMock;
+    protected AbstractSqliteOrmServiceProvider ormServiceProviderMock;
+    protected SqlSchemeProvider schemeProviderMock;
+    protected List<String> sqlStatements;
+
+    protected SqlDatabaseSchemeProxy databaseSchemeMock;
+    protected SqlDatabaseSchemeProxy repositorySchemeMock;
+
+    protected final RepositoryModel repositoryModel = GeneratedUserRepository.Model.Instance;
+
+    protected class TracingAnswer<T> implements Answer<T> {
+        private final T answer;
+
+        public TracingAnswer(T answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public T answer(InvocationOnMock invocation) {
+            String sql = (String)invocation.getArguments()[0];
+            Stream<Object> params = Stream.of(invocation.getArguments()).skip(1);
+            String sqlWithParams = sql + "\n{Params: [" + params.map(String::valueOf).collect(Collectors.joining(", ")) + "]}";
+            sqlStatements.add(sqlWithParams);
+            System.out.println(sqlWithParams);
+            return answer;
+        }
+    }
+
+    protected <T> TracingAnswer<T> answer(T returnValue) {
+        return new TracingAnswer<>(returnValue);
+    }
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        sqlStatements = new ArrayList<>();
+
+        ormServiceProviderMock = new AbstractSqliteOrmServiceProvider() {
+            @Override
+            public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
+                return sessionServiceProviderMock;
+            }
+        };
+
+        repositorySchemeMock = new SqlDatabaseSchemeProxy(getDatabaseScheme(repositoryModel));
+        databaseSchemeMock = new SqlDatabaseSchemeProxy(getDatabaseScheme(repositoryModel));
+        databaseSchemeMock.addTables(fullTextTableScheme(UserEntity.EntityMetaType, UserEntity.UserFirstName, UserEntity.UserLastName));
+
+        schemeProviderMock = Mockito.mock(SqlSchemeProvider.class);
+
+        when(schemeProviderMock.getModelScheme(repositoryModel)).thenReturn(repositorySchemeMock);
+        when(schemeProviderMock.getDatabaseScheme()).thenReturn(databaseSchemeMock);
+
+        sessionServiceProviderMock = new AbstractSqlSessionServiceProvider(ormServiceProviderMock) {
+            @Override
+            protected SqlCommandExecutor createCommandExecutor() {
+                return executorMock;
+            }
+
+            @Override
+            protected TransactionProvider createTransactionProvider() {
+                return transactionProviderMock;
+            }
+
+            @Override
+            protected SqlSchemeProvider createSchemeProvider() {
+                return schemeProviderMock;
+            }
+        };
+
+        when(executorMock.select(any(String.class), any()))
+                .thenAnswer(answer(rowsMock(10)));
+        when(executorMock.count(any(String.class), any()))
+                .thenAnswer(answer(0L));
+
+        doAnswer(answer(null))
+                .when(executorMock)
+                .execute(any(String.class), any());
+    }
+
+    protected void testUpdate(RepositoryService.UpdateAction<UserRepository> updateAction) throws IOException {
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
+        repo.update(updateAction);
+    }
+
+    protected <T> T testQuery(RepositoryService.QueryAction<UserRepository, T> queryAction) throws IOException {
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
+        T result = repo.query(queryAction);
+        Assert.assertNotNull(result);
+        return result;
+    }
+
+    protected CloseableIterator<FieldValueLookup> rowsMock(int count) {
+        FieldValueLookup[] rows = new FieldValueLookup[count];
+        for (int i = 0; i < count; ++i) {
+            rows[i] = new EntityFieldValueMap<>(
+                    UserEntity.EntityMetaType,
+                    UserEntity.builder()
+                            .userId("id-" + i)
+                            .userFirstName("John")
+                            .userLastName("Doe")
+                            .build());
+        }
+        return iteratorMock(rows);
+    }
+
+    protected CloseableIterator<FieldValueLookup> roleRowsMock(int... roleIds) {
+        FieldValueLookup[] rows = new FieldValueLookup[roleIds.length];
+        for (int i = 0; i < roleIds.length; ++i) {
+            rows[i] = new EntityFieldValueMap<>(
+                    RoleEntity.EntityMetaType,
+                    RoleEntity.create().setRoleId(roleIds[i]).setRoleDescription("Admin"));
+        }
+        return iteratorMock(rows);
+    }
+
+    @SafeVarargs
+    protected final <T> CloseableIterator<T> iteratorMock(T... entries) {
+        final Iterator<T> iterator = Arrays.asList(entries).iterator();
+        return new CloseableIterator<T>() {
+            @Override
+            public void close() throws IOException {
+
+            }
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new RuntimeException("Not implemented");
+            }
+        };
+    }
+
+    protected void assertSqlEquals(String resourceId) throws IOException {
+        Assert.assertNotNull(sqlStatements);
+        Assert.assertNotEquals(0, sqlStatements.size());
+        String actualSql = Joiner.on("\n").join(sqlStatements);
+        String[] actualLines = actualSql.split("\n");
+        try (InputStream stream = getClass().getResourceAsStream("/sql/" + resourceId)) {
+            List<String> expectedLines = IOUtils.readLines(stream);
+            Assert.assertEquals(expectedLines.size(), actualLines.length);
+            for (int i = 0; i < expectedLines.size(); ++i) {
+                Assert.assertEquals("Line mismatch", expectedLines.get(i), actualLines[i]);
+            }
+        }
+    }
+
+    @SafeVarargs
+    private final <TEntity> SqlDatabaseScheme.TableScheme fullTextTableScheme(EntityType<?, TEntity> entityType, Field<TEntity, ?>... fields) {
+        SimpleSqlDatabaseScheme.SimpleTableScheme tableScheme = new SimpleSqlDatabaseScheme.SimpleTableScheme(SqlDatabaseSchemes.fullTextTableName(entityType.getName()));
+        for (Field<TEntity, ?> field : fields) {
+            tableScheme.addField(field.metaInfo().getName(), "", false, false, null, "NULL");
+        }
+        return tableScheme;
+    }
+
+    private SqlDatabaseScheme getDatabaseScheme(RepositoryModel model) {
+        SqlSchemeProvider provider = new AbstractSqlSchemeProvider(ormServiceProviderMock.getSyntaxProvider()) {
+            @Override
+            public SqlDatabaseScheme getDatabaseScheme() {
+                return null;
+            }
+        };
+
+        return provider.getModelScheme(model);
+    }
+}
@@ -0,0 +1,80 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.prototype.UserRepository;
+import com.slimgears.slimrepo.core.prototype.generated.GeneratedUserRepositoryService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class AbstractSqlSessionServiceProviderTest extends AbstractSqlMockTest {
+    @Before
+    public void setupVersion() throws IOException {
+        sqliteVersion("3.31.1");
+    }
+
+    @Test
+    public void backupAndRestoreUseVacuumInto() throws IOException {
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
+        repo.backup("/backups/users.db");
+        repo.restore("/backups/users.db", "/replicas/user's.db");
+
+        Mockito.verify(transactionProviderMock, times(0)).beginTransaction();
+        Mockito.verify(executorMock, times(4)).execute(any(String.class), any());
+        assertSqlEquals("backup-restore.sql");
+    }
+
+    @Test
+    public void backupDetachedWhenRestoreFails() throws IOException {
+        doThrow(new IOException("Disk full"))
+                .when(executorMock)
+                .execute(startsWith("VACUUM"), any());
+
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
+        try {
+            repo.restore("/backups/users.db", "/replicas/users.db");
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Disk full", e.getMessage());
+        }
+
+        Mockito.verify(executorMock).execute(startsWith("DETACH DATABASE"), any());
+    }
+
+    @Test
+    public void backupRejectedBeforeSqlite327() throws IOException {
+        sqliteVersion("3.25.2");
+
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
+        try {
+            repo.restore("/backups/users.db", "/replicas/users.db");
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Backup and restore require SQLite 3.27 or newer, current version: 3.25.2", e.getMessage());
+        }
+
+        sqliteVersion("3.27.0");
+        repo.backup("/backups/users.db");
+        Mockito.verify(executorMock, times(1)).execute(any(String.class), any());
+    }
+
+    private void sqliteVersion(String version) throws IOException {
+        when(executorMock.selectValues(eq("SELECT sqlite_version()"), any()))
+                .thenAnswer(invocation -> iteratorMock(new String[][] {{version}}));
+    }
+}
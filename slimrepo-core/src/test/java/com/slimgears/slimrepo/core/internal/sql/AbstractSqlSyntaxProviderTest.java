@@ -0,0 +1,67 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.fields.ValueField;
+import com.slimgears.slimrepo.core.internal.Fields;
+import com.slimgears.slimrepo.core.internal.KeyGenerators;
+import com.slimgears.slimrepo.core.internal.converters.UuidTypeConverters;
+import com.slimgears.slimrepo.core.internal.query.InsertQueryParams;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+@RunWith(JUnit4.class)
+public class AbstractSqlSyntaxProviderTest extends AbstractSqlMockTest {
+    @Test
+    public void nullParameterBoundAsSqlNull() {
+        SqlCommandParameters params = new SqlCommandParameters();
+        String reference = ormServiceProviderMock.getSyntaxProvider().substituteParameter(params, UserEntity.UserLastName, null);
+
+        Assert.assertEquals("?", reference);
+        Assert.assertEquals(1, params.getCount());
+        Assert.assertNull(params.getValues()[0]);
+    }
+
+    @Test
+    public void insertStatementTextIndependentOfNullValues() {
+        SqlStatementBuilder sqlBuilder = ormServiceProviderMock.getStatementBuilder();
+        UserEntity userWithNulls = UserEntity.builder().userId("id-1").build();
+        UserEntity userWithValues = UserEntity.builder()
+                .userId("id-2")
+                .userFirstName("John")
+                .userLastName("Doe")
+                .lastVisitDate(new Date(0))
+                .build();
+
+        SqlCommandParameters nullParams = new SqlCommandParameters();
+        SqlCommandParameters valueParams = new SqlCommandParameters();
+        String nullStatement = sqlBuilder.insertStatement(new InsertQueryParams<>(UserEntity.EntityMetaType, Collections.singletonList(userWithNulls)), nullParams);
+        String valueStatement = sqlBuilder.insertStatement(new InsertQueryParams<>(UserEntity.EntityMetaType, Collections.singletonList(userWithValues)), valueParams);
+
+        Assert.assertEquals(valueStatement, nullStatement);
+        Assert.assertEquals(valueParams.getCount(), nullParams.getCount());
+        Assert.assertNull(nullParams.getValues()[1]);
+        Assert.assertFalse(Arrays.asList(nullParams.getValues()).contains("NULL"));
+    }
+
+    @Test
+    public void uuidBlobInlinedAsHexLiteral() {
+        ValueField<UserEntity, UUID> uuidField = Fields.valueField("uuid", UUID.class, entity -> null, (entity, value) -> {}, false);
+        UuidTypeConverters.BLOB.install(ormServiceProviderMock.getFieldTypeMapperRegistrar());
+        UUID uuid = KeyGenerators.TIME_ORDERED_UUID.generateKey();
+
+        SqlCommandParameters parameters = new SqlCommandParameters();
+        String literal = ormServiceProviderMock.getSyntaxProvider().substituteParameter(parameters, uuidField, uuid);
+        Assert.assertEquals("X'" + uuid.toString().replace("-", "").toUpperCase() + "'", literal);
+        Assert.assertEquals(0, parameters.getCount());
+    }
+}
@@ -2,42 +2,24 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.internal.sql;
 
-import com.annimon.stream.Collectors;
-import com.annimon.stream.Stream;
 import com.slimgears.slimrepo.core.interfaces.RepositoryService;
 import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
 import com.slimgears.slimrepo.core.interfaces.entities.EntitySet;
-import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
-import com.slimgears.slimrepo.core.internal.EntityFieldValueMap;
 import com.slimgears.slimrepo.core.internal.interfaces.*;
-import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlCommandExecutor;
-import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlDatabaseScheme;
-import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlOrmServiceProvider;
-import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSchemeProvider;
-import com.slimgears.slimrepo.core.internal.sql.sqlite.AbstractSqliteOrmServiceProvider;
 import com.slimgears.slimrepo.core.prototype.UserRepository;
 import com.slimgears.slimrepo.core.prototype.generated.*;
 import com.slimgears.slimrepo.core.utilities.Dates;
-import com.slimgears.slimrepo.core.utilities.Joiner;
-import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
-import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
-import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.mockito.MockitoAnnotations;
-import org.mockito.invocation.InvocationOnMock;
-import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.*;
 
 import static com.slimgears.slimrepo.core.utilities.Dates.addDays;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
@@ -46,90 +28,7 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
  *
  */
 @RunWith(JUnit4.class)
-public class PrototypeTest {
-    @Mock private TransactionProvider transactionProviderMock;
-    @Mock private SqlCommandExecutor executorMock;
-
-    private SessionServiceProvider sessionServiceProviderMock;
-    private SqlOrmServiceProvider ormServiceProviderMock;
-    private SqlSchemeProvider schemeProviderMock;
-    private List<String> sqlStatements;
-
-    private SqlDatabaseSchemeProxy databaseSchemeMock;
-    private SqlDatabaseSchemeProxy repositorySchemeMock;
-
-    private final RepositoryModel repositoryModel = GeneratedUserRepository.Model.Instance;
-
-    class TracingAnswer<T> implements Answer<T> {
-        private final T answer;
-
-        public TracingAnswer(T answer) {
-            this.answer = answer;
-        }
-
-        @Override
-        public T answer(InvocationOnMock invocation) {
-            String sql = (String)invocation.getArguments()[0];
-            Stream<Object> params = Stream.of(invocation.getArguments()).skip(1);
-            String sqlWithParams = sql + "\n{Params: [" + params.map(Object::toString).collect(Collectors.joining(", ")) + "]}";
-            sqlStatements.add(sqlWithParams);
-            System.out.println(sqlWithParams);
-            return answer;
-        }
-    }
-
-    private <T> TracingAnswer<T> answer(T returnValue) {
-        return new TracingAnswer<>(returnValue);
-    }
-
-    @Before
-    public void setup() throws IOException {
-        MockitoAnnotations.initMocks(this);
-
-        sqlStatements = new ArrayList<>();
-
-        ormServiceProviderMock = new AbstractSqliteOrmServiceProvider() {
-            @Override
-            public SessionServiceProvider createSessionServiceProvider(RepositoryModel model) {
-                return sessionServiceProviderMock;
-            }
-        };
-
-        repositorySchemeMock = new SqlDatabaseSchemeProxy(getDatabaseScheme(repositoryModel));
-        databaseSchemeMock = new SqlDatabaseSchemeProxy(getDatabaseScheme(repositoryModel));
-
-        schemeProviderMock = Mockito.mock(SqlSchemeProvider.class);
-
-        when(schemeProviderMock.getModelScheme(repositoryModel)).thenReturn(repositorySchemeMock);
-        when(schemeProviderMock.getDatabaseScheme()).thenReturn(databaseSchemeMock);
-
-        sessionServiceProviderMock = new AbstractSqlSessionServiceProvider(ormServiceProviderMock) {
-            @Override
-            protected SqlCommandExecutor createCommandExecutor() {
-                return executorMock;
-            }
-
-            @Override
-            protected TransactionProvider createTransactionProvider() {
-                return transactionProviderMock;
-            }
-
-            @Override
-            protected SqlSchemeProvider createSchemeProvider() {
-                return schemeProviderMock;
-            }
-        };
-
-        when(executorMock.select(any(String.class), any()))
-                .thenAnswer(answer(rowsMock(10)));
-        when(executorMock.count(any(String.class), any()))
-                .thenAnswer(answer(0L));
-
-        doAnswer(answer(null))
-                .when(executorMock)
-                .execute(any(String.class), any());
-    }
-
+public class PrototypeTest extends AbstractSqlMockTest {
     @Test
     public void queryCountWhereStringFieldContains() throws IOException {
         testQuery(repository -> repository.users().query()
@@ -212,6 +111,65 @@ public class PrototypeTest {
         assertSqlEquals("update-fields.sql");
     }
 
+    @Test
+    public void mergeAllTranslatedToUpsert() throws IOException {
+        testUpdate(repository -> repository.users().mergeAll(Arrays.asList(
+                UserEntity.builder()
+                        .userId("id-1")
+                        .userFirstName("John")
+                        .userLastName("Doe")
+                        .build(),
+                UserEntity.builder()
+                        .userId("id-2")
+                        .userFirstName("Jake")
+                        .userLastName("Smith")
+                        .build())));
+        Mockito.verify(executorMock).execute(any(String.class), any());
+        Mockito.verify(executorMock, times(0)).select(any(String.class), any());
+        assertSqlEquals("upsert-users.sql");
+    }
+
+    @Test
+    public void importAllInsertsInChunkedTransactions() throws IOException {
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            users.add(UserEntity.builder()
+                    .userId("id-" + i)
+                    .userFirstName("John")
+                    .userLastName("Doe")
+                    .build());
+        }
+
+        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
+        repo.importAll(UserEntity.EntityMetaType, users.iterator(), 2, true);
+
+        Mockito.verify(transactionProviderMock, times(3)).beginTransaction();
+        Mockito.verify(transactionProviderMock, times(3)).commitTransaction();
+        Mockito.verify(executorMock, times(5)).execute(any(String.class), any());
+        assertSqlEquals("import-users.sql");
+    }
+
+    @Test
+    public void queryPlanCapturedOncePerStatement() throws IOException {
+        SqlQueryPlanDiagnostics diagnostics = new SqlQueryPlanDiagnostics();
+        ormServiceProviderMock.setQueryPlanDiagnostics(diagnostics);
+        when(executorMock.selectValues(any(String.class), any()))
+                .thenAnswer(answer(iteratorMock(new String[][] {{"2", "0", "0", "SCAN TABLE UserEntity"}})));
+
+        testQuery(repository -> {
+            repository.users().findAllWhere(UserEntity.UserFirstName.eq("John"));
+            repository.users().findAllWhere(UserEntity.UserFirstName.eq("Jake"));
+            return repository;
+        });
+
+        Mockito.verify(executorMock, times(1)).selectValues(any(String.class), any());
+        Assert.assertEquals(1, diagnostics.getSuspiciousQueryPlans().size());
+        SqlQueryPlanDiagnostics.QueryPlan plan = diagnostics.getQueryPlans().iterator().next();
+        Assert.assertTrue(plan.hasFullScan());
+        Assert.assertFalse(plan.hasTempBTree());
+        Assert.assertSame(UserEntity.EntityMetaType, plan.entityType);
+    }
+
     @Test
     public void repositoryUpgradeWhenFieldAdded() throws IOException {
         databaseSchemeMock.hideFields(UserEntity.EntityMetaType, UserEntity.Comments);
@@ -280,81 +238,4 @@ public class PrototypeTest {
         Mockito.verify(executorMock, times(19)).select(any(String.class), any());
         assertSqlEquals("query-predicates.sql");
     }
-
-    private void testUpdate(RepositoryService.UpdateAction<UserRepository> updateAction) throws IOException {
-        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
-        repo.update(updateAction);
-    }
-
-    private <T> T testQuery(RepositoryService.QueryAction<UserRepository, T> queryAction) throws IOException {
-        RepositoryService<UserRepository> repo = new GeneratedUserRepositoryService(ormServiceProviderMock);
-        T result = repo.query(queryAction);
-        Assert.assertNotNull(result);
-        return result;
-    }
-
-    private CloseableIterator<FieldValueLookup> rowsMock(int count) {
-        FieldValueLookup[] rows = new FieldValueLookup[count];
-        for (int i = 0; i < count; ++i) {
-            rows[i] = new EntityFieldValueMap<>(
-                    UserEntity.EntityMetaType,
-                    UserEntity.builder()
-                            .userId("id-" + i)
-                            .userFirstName("John")
-                            .userLastName("Doe")
-                            .build());
-        }
-        return iteratorMock(rows);
-    }
-
-    @SafeVarargs
-    private final <T> CloseableIterator<T> iteratorMock(T... entries) {
-        final Iterator<T> iterator = Arrays.asList(entries).iterator();
-        return new CloseableIterator<T>() {
-            @Override
-            public void close() throws IOException {
-
-            }
-
-            @Override
-            public boolean hasNext() {
-                return iterator.hasNext();
-            }
-
-            @Override
-            public T next() {
-                return iterator.next();
-            }
-
-            @Override
-            public void remove() {
-                throw new RuntimeException("Not implemented");
-            }
-        };
-    }
-
-    private void assertSqlEquals(String resourceId) throws IOException {
-        Assert.assertNotNull(sqlStatements);
-        Assert.assertNotEquals(0, sqlStatements.size());
-        String actualSql = Joiner.on("\n").join(sqlStatements);
-        String[] actualLines = actualSql.split("\n");
-        try (InputStream stream = getClass().getResourceAsStream("/sql/" + resourceId)) {
-            List<String> expectedLines = IOUtils.readLines(stream);
-            Assert.assertEquals(expectedLines.size(), actualLines.length);
-            for (int i = 0; i < expectedLines.size(); ++i) {
-                Assert.assertEquals("Line mismatch", expectedLines.get(i), actualLines[i]);
-            }
-        }
-    }
-
-    private SqlDatabaseScheme getDatabaseScheme(RepositoryModel model) {
-        SqlSchemeProvider provider = new AbstractSqlSchemeProvider(ormServiceProviderMock.getSyntaxProvider()) {
-            @Override
-            public SqlDatabaseScheme getDatabaseScheme() {
-                return null;
-            }
-        };
-
-        return provider.getModelScheme(model);
-    }
 }
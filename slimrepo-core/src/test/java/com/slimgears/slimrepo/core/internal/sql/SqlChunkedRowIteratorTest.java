@@ -0,0 +1,64 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.entities.FieldValueLookup;
+import com.slimgears.slimrepo.core.internal.EntityFieldValueMap;
+import com.slimgears.slimrepo.core.internal.interfaces.CloseableIterator;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class SqlChunkedRowIteratorTest extends AbstractSqlMockTest {
+    @Test
+    public void nextChunkSelectedAfterLastKey() throws IOException {
+        List<Integer> lastKeys = new ArrayList<>();
+        List<Integer> roleIds = new ArrayList<>();
+        try (SqlChunkedRowIterator<Integer, RoleEntity> iterator = new SqlChunkedRowIterator<>(lastKey -> {
+            lastKeys.add(lastKey);
+            return lastKey == null ? roles(1, 2) : lastKey == 2 ? roles(3, 4) : roles();
+        }, RoleEntity.RoleId, 2)) {
+            while (iterator.hasNext()) {
+                roleIds.add(iterator.next().getValue(RoleEntity.RoleId));
+            }
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), roleIds);
+        Assert.assertEquals(Arrays.asList(null, 2, 4), lastKeys);
+    }
+
+    @Test
+    public void incompleteChunkEndsIteration() throws IOException {
+        List<Integer> lastKeys = new ArrayList<>();
+        List<Integer> roleIds = new ArrayList<>();
+        try (SqlChunkedRowIterator<Integer, RoleEntity> iterator = new SqlChunkedRowIterator<>(lastKey -> {
+            lastKeys.add(lastKey);
+            return roles(1, 2, 3);
+        }, RoleEntity.RoleId, 5)) {
+            while (iterator.hasNext()) {
+                roleIds.add(iterator.next().getValue(RoleEntity.RoleId));
+            }
+            Assert.assertFalse(iterator.hasNext());
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), roleIds);
+        Assert.assertEquals(Arrays.asList((Integer)null), lastKeys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CloseableIterator<FieldValueLookup<RoleEntity>> roles(int... roleIds) {
+        FieldValueLookup<RoleEntity>[] rows = new FieldValueLookup[roleIds.length];
+        for (int i = 0; i < roleIds.length; ++i) {
+            rows[i] = new EntityFieldValueMap<>(RoleEntity.EntityMetaType, RoleEntity.create().setRoleId(roleIds[i]));
+        }
+        return iteratorMock(rows);
+    }
+}
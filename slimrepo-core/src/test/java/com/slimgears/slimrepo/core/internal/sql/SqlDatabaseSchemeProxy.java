@@ -4,7 +4,10 @@ import com.slimgears.slimrepo.core.interfaces.entities.EntityType;
 import com.slimgears.slimrepo.core.interfaces.fields.Field;
 import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlDatabaseScheme;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -21,6 +24,7 @@ class SqlDatabaseSchemeProxy implements SqlDatabaseScheme {
 
     private final Set<String> hiddenTables = new HashSet<>();
     private final Set<String> hiddenFields = new HashSet<>();
+    private final List<SqlDatabaseScheme.TableScheme> addedTables = new ArrayList<>();
 
     SqlDatabaseSchemeProxy(SqlDatabaseScheme databaseScheme) {
         this.databaseScheme = databaseScheme;
@@ -30,6 +34,10 @@ class SqlDatabaseSchemeProxy implements SqlDatabaseScheme {
         hiddenTables.addAll(Stream.of(entityTypes).map(EntityType::getName).collect(Collectors.toList()));
     }
 
+    public void addTables(SqlDatabaseScheme.TableScheme... tables) {
+        addedTables.addAll(Arrays.asList(tables));
+    }
+
     @SafeVarargs
     public final <TKey, TEntity> void hideFields(final EntityType<TKey, TEntity> entityType, Field<TEntity, ?>... fields) {
         hiddenFields.addAll(Stream.of(fields)
@@ -50,7 +58,7 @@ class SqlDatabaseSchemeProxy implements SqlDatabaseScheme {
     public Map<String, SqlDatabaseScheme.TableScheme> getTables() {
         if (tableSchemeMap == null) {
             tableSchemeMap = new LinkedHashMap<>();
-            Stream.of(databaseScheme.getTables().values())
+            Stream.concat(Stream.of(databaseScheme.getTables().values()), Stream.of(addedTables))
                     .filter(table -> !hiddenTables.contains(table.getName()))
                     .forEach(table -> tableSchemeMap.put(table.getName(), new TableScheme(table)));
         }
@@ -0,0 +1,59 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@RunWith(JUnit4.class)
+public class SqlPredicateBuilderTest extends AbstractSqlMockTest {
+    private SqlStatementBuilder.PredicateBuilder predicateBuilder;
+
+    @Before
+    public void setupPredicateBuilder() {
+        predicateBuilder = new SqlPredicateBuilder(ormServiceProviderMock.getSyntaxProvider());
+    }
+
+    @Test
+    public void nullArgumentsInlinedInsteadOfBound() {
+        SqlCommandParameters params = new SqlCommandParameters();
+        String predicate = predicateBuilder.build(UserEntity.UserLastName.eq(null).or(UserEntity.UserFirstName.in("John", null)), params);
+
+        Assert.assertEquals("(`UserEntity`.`userLastName` = NULL) OR (`UserEntity`.`userFirstName` IN (?, NULL))", predicate);
+        Assert.assertArrayEquals(new String[] {"John"}, params.getValues());
+    }
+
+    @Test
+    public void unconditionedSubqueriesSelectWholeTable() {
+        SqlCommandParameters params = new SqlCommandParameters();
+        String predicate = predicateBuilder.build(RoleEntity.RoleId.in(UserEntity.Age, null).and(RoleEntity.RoleId.exists(UserEntity.Age, null)), params);
+
+        Assert.assertEquals("(`RoleEntity`.`roleId` IN (SELECT `UserEntity`.`age` FROM `UserEntity`)) AND " +
+                "(EXISTS (SELECT 1 FROM `UserEntity` WHERE `UserEntity`.`age` = `RoleEntity`.`roleId`))", predicate);
+        Assert.assertEquals(0, params.getCount());
+    }
+
+    @Test
+    public void subqueryConditionsTranslatedToSql() throws IOException {
+        testQuery(repository -> repository.roles().query()
+                .where(Conditions.and(
+                        RoleEntity.RoleId.in(UserEntity.Age, UserEntity.Role.is(RoleEntity.RoleDescription.eq("Admin"))),
+                        RoleEntity.RoleId.notExists(UserEntity.Age, UserEntity.UserFirstName.startsWith("J"))))
+                .prepare()
+                .count());
+        Mockito.verify(executorMock).count(any(String.class), any());
+        assertSqlEquals("query-count-subquery.sql");
+    }
+}
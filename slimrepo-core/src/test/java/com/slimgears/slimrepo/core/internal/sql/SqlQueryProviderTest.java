@@ -0,0 +1,118 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.RepositoryService;
+import com.slimgears.slimrepo.core.interfaces.conditions.Conditions;
+import com.slimgears.slimrepo.core.interfaces.entities.EntityChanges;
+import com.slimgears.slimrepo.core.internal.ChangeTrackingQueryProvider;
+import com.slimgears.slimrepo.core.internal.RepositoryChangeNotifier;
+import com.slimgears.slimrepo.core.internal.SessionChangeTracker;
+import com.slimgears.slimrepo.core.internal.query.QueryProvider;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlSessionServiceProvider;
+import com.slimgears.slimrepo.core.prototype.generated.RoleEntity;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class SqlQueryProviderTest extends AbstractSqlMockTest {
+    @Test
+    public void generatedKeysAssignedBeforeInsertNotified() throws IOException {
+        when(executorMock.count(eq("SELECT last_insert_rowid()"), any()))
+                .thenAnswer(answer(7L))
+                .thenAnswer(answer(8L));
+
+        RepositoryChangeNotifier notifier = new RepositoryChangeNotifier();
+        final List<EntityChanges<Integer, RoleEntity>> notifications = new ArrayList<>();
+        notifier.addListener(RoleEntity.EntityMetaType, (RepositoryService.ChangeListener<Integer, RoleEntity>)notifications::add);
+
+        QueryProvider<Integer, RoleEntity> queryProvider = new ChangeTrackingQueryProvider<>(
+                new SqlQueryProvider<>((SqlSessionServiceProvider)sessionServiceProviderMock, RoleEntity.EntityMetaType),
+                RoleEntity.EntityMetaType,
+                new SessionChangeTracker(notifier));
+
+        RoleEntity admin = RoleEntity.create().setRoleDescription("Admin");
+        RoleEntity user = RoleEntity.create().setRoleDescription("User");
+        queryProvider.prepareInsert(Arrays.asList(admin, user)).execute();
+
+        Mockito.verify(executorMock, times(2)).execute(any(String.class), any());
+        Assert.assertEquals(7, admin.getRoleId());
+        Assert.assertEquals(8, user.getRoleId());
+        Assert.assertEquals(1, notifications.size());
+        Assert.assertEquals(Arrays.asList(7, 8), new ArrayList<>(notifications.get(0).getInsertedKeys()));
+    }
+
+    @Test
+    public void largeSelectsPagedByKeyInChunks() throws IOException {
+        ormServiceProviderMock.setSelectChunkSize(2);
+        when(executorMock.select(any(String.class), any()))
+                .thenAnswer(answer(roleRowsMock(1, 2)))
+                .thenAnswer(answer(roleRowsMock(3)));
+
+        RoleEntity[] roles = testQuery(repository -> repository.roles().query()
+                .where(RoleEntity.RoleDescription.contains("adm"))
+                .prepare()
+                .toArray());
+        Assert.assertEquals(3, roles.length);
+        Assert.assertEquals(3, roles[2].getRoleId());
+        Mockito.verify(executorMock, times(2)).select(any(String.class), any());
+        assertSqlEquals("query-roles-chunked.sql");
+    }
+
+    @Test
+    public void queryConditionOptimizedBeforeTranslation() throws IOException {
+        testQuery(repository -> repository.users().query()
+                .where(Conditions.and(
+                        Conditions.or(
+                                UserEntity.UserFirstName.eq("John"),
+                                Conditions.or(UserEntity.UserFirstName.eq("Jake"), UserEntity.UserFirstName.in("John", "Adam"))),
+                        Conditions.and(
+                                UserEntity.Role.is(RoleEntity.RoleId.greaterThan(1)),
+                                UserEntity.Role.is(RoleEntity.RoleId.lessThan(5)))))
+                .prepare()
+                .count());
+        Mockito.verify(executorMock).count(any(String.class), any());
+        assertSqlEquals("query-count-optimized.sql");
+    }
+
+    @Test
+    public void rawQueriesMappedByFieldAlias() throws IOException {
+        final String statement = "WITH ranked AS (SELECT *, ROW_NUMBER() OVER (PARTITION BY `userLastName` ORDER BY `age` DESC) AS `rank` FROM `UserEntity`) " +
+                "SELECT `userId` AS `UserEntity_userId`, `userFirstName` AS `UserEntity_userFirstName` FROM ranked WHERE `rank` = ?";
+        when(executorMock.select(any(String.class), any()))
+                .thenAnswer(answer(rowsMock(3)))
+                .thenAnswer(answer(rowsMock(3)))
+                .thenAnswer(answer(rowsMock(3)));
+        when(executorMock.selectValues(any(String.class), any()))
+                .thenAnswer(answer(iteratorMock(new String[][] {{"Doe", "3"}})));
+
+        testQuery(repository -> {
+            UserEntity[] users = repository.users().rawQuery(statement, "1").toArray();
+            Assert.assertEquals(3, users.length);
+            Assert.assertEquals("id-2", users[2].getUserId());
+            Assert.assertSame(users[0], repository.users().rawQuery(statement, "1").firstOrDefault());
+            Assert.assertEquals(Arrays.asList("John", "John", "John"), repository.users().rawQuery(UserEntity.UserFirstName, statement, "1").toList());
+
+            String[] values = repository.users().rawQueryValues("SELECT `userLastName`, COUNT(*) FROM `UserEntity` GROUP BY `userLastName`").firstOrDefault();
+            Assert.assertArrayEquals(new String[] {"Doe", "3"}, values);
+            return repository;
+        });
+
+        Mockito.verify(executorMock, times(3)).select(any(String.class), any());
+        Assert.assertEquals(statement + "\n{Params: [1]}", sqlStatements.get(0));
+    }
+}
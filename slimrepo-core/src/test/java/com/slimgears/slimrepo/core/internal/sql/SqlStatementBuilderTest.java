@@ -0,0 +1,91 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.internal.sql;
+
+import com.slimgears.slimrepo.core.interfaces.queries.UpdateExpressions;
+import com.slimgears.slimrepo.core.internal.UpdateFieldInfo;
+import com.slimgears.slimrepo.core.internal.query.SelectQueryParams;
+import com.slimgears.slimrepo.core.internal.query.UpdateQueryParams;
+import com.slimgears.slimrepo.core.internal.sql.interfaces.SqlStatementBuilder;
+import com.slimgears.slimrepo.core.prototype.generated.UserEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.Collections;
+
+@RunWith(JUnit4.class)
+public class SqlStatementBuilderTest extends AbstractSqlMockTest {
+    @Test
+    public void keyStatementTemplatesMatchedByShape() {
+        SqlStatementBuilder sqlBuilder = ormServiceProviderMock.getStatementBuilder();
+
+        SqlCommandParameters firstParams = new SqlCommandParameters();
+        SqlCommandParameters secondParams = new SqlCommandParameters();
+        String first = sqlBuilder.selectStatement(new SelectQueryParams<>(UserEntity.EntityMetaType, UserEntity.UserId.eq("id-1"), null, null, null), firstParams);
+        String second = sqlBuilder.selectStatement(new SelectQueryParams<>(UserEntity.EntityMetaType, UserEntity.UserId.eq("id-2"), null, null, null), secondParams);
+        Assert.assertEquals(first, second);
+        Assert.assertArrayEquals(new Object[] {"id-1"}, firstParams.getValues());
+        Assert.assertArrayEquals(new Object[] {"id-2"}, secondParams.getValues());
+
+        String firstNameUpdate = sqlBuilder.updateStatement(new UpdateQueryParams<>(UserEntity.EntityMetaType, UserEntity.UserId.eq("id-1"),
+                Collections.singletonList(new UpdateFieldInfo(UserEntity.UserFirstName, "John")), null), new SqlCommandParameters());
+        String lastNameUpdate = sqlBuilder.updateStatement(new UpdateQueryParams<>(UserEntity.EntityMetaType, UserEntity.UserId.eq("id-1"),
+                Collections.singletonList(new UpdateFieldInfo(UserEntity.UserLastName, "Doe")), null), new SqlCommandParameters());
+        Assert.assertTrue(firstNameUpdate.contains("`userFirstName`"));
+        Assert.assertTrue(lastNameUpdate.contains("`userLastName`"));
+    }
+
+    @Test
+    public void keyStatementsReusedWithNewParameters() throws IOException {
+        testQuery(repository -> {
+            repository.users().findFirst(UserEntity.UserId, "id-1");
+            repository.users().findFirst(UserEntity.UserId, "id-2");
+            return repository;
+        });
+        testUpdate(repository -> {
+            repository.users().deleteQuery().where(UserEntity.UserId.eq("id-1")).prepare().execute();
+            repository.users().deleteQuery().where(UserEntity.UserId.eq("id-2")).prepare().execute();
+        });
+
+        Assert.assertEquals(4, sqlStatements.size());
+        for (int i = 0; i < sqlStatements.size(); i += 2) {
+            String first = sqlStatements.get(i);
+            String second = sqlStatements.get(i + 1);
+            Assert.assertTrue(first.endsWith("{Params: [id-1]}"));
+            Assert.assertTrue(second.endsWith("{Params: [id-2]}"));
+            Assert.assertEquals(first.replace("id-1", "id-2"), second);
+        }
+    }
+
+    @Test
+    public void fullTextSearchTranslatedToFtsQueries() throws IOException {
+        testQuery(repository -> {
+            repository.users().query()
+                    .where(UserEntity.UserLastName.matches("smi*"))
+                    .prepare()
+                    .toList();
+            return repository.users().query()
+                    .where(UserEntity.Age.greaterThan(18).and(UserEntity.UserFirstName.matches("john")))
+                    .orderByRank()
+                    .orderAsc(UserEntity.UserLastName)
+                    .limit(5)
+                    .prepare()
+                    .toList();
+        });
+        assertSqlEquals("query-full-text-search.sql");
+    }
+
+    @Test
+    public void updateExpressionsTranslatedToSql() throws IOException {
+        testUpdate(repository -> repository.users().updateQuery()
+                .where(UserEntity.UserFirstName.eq("John"))
+                .setExpression(UserEntity.Age, UpdateExpressions.increment(UserEntity.Age, 1))
+                .setExpression(UserEntity.UserLastName, UpdateExpressions.coalesce(UserEntity.UserLastName, "Doe"))
+                .prepare()
+                .execute());
+        assertSqlEquals("update-expressions.sql");
+    }
+}
@@ -2,6 +2,7 @@
 // Refer to LICENSE.txt for license details
 package com.slimgears.slimrepo.core.prototype;
 
+import com.slimgears.slimrepo.core.annotations.FullTextSearch;
 import com.slimgears.slimrepo.core.prototype.generated.AccountStatus;
 
 import java.util.ArrayList;
@@ -13,8 +14,8 @@ import java.util.Date;
  */
 public class AbstractUserEntity {
     protected String userId;
-    protected String userFirstName;
-    protected String userLastName;
+    @FullTextSearch protected String userFirstName;
+    @FullTextSearch protected String userLastName;
     protected Date lastVisitDate;
     protected AbstractRoleEntity role;
     protected AccountStatus accountStatus;
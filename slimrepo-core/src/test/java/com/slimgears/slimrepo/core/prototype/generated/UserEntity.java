@@ -40,11 +40,13 @@ public class UserEntity extends AbstractUserEntity {
             "userFirstName",
             UserEntity::getUserFirstName,
             UserEntity::setUserFirstName,
+            true,
             true);
     public static final StringField<UserEntity> UserLastName = Fields.stringField(
             "userLastName",
             UserEntity::getUserLastName,
             UserEntity::setUserLastName,
+            true,
             true);
     public static final ComparableField<UserEntity, Date> LastVisitDate = Fields.comparableField(
             "lastVisitDate",
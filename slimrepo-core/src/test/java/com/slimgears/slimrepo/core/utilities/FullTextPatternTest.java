@@ -0,0 +1,28 @@
+// Copyright 2015 Denis Itskovich
+// Refer to LICENSE.txt for license details
+package com.slimgears.slimrepo.core.utilities;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class FullTextPatternTest {
+    @Test
+    public void allTermsMatchedAsWholeTokens() {
+        FullTextPattern pattern = FullTextPattern.compile("john SMITH");
+        Assert.assertTrue(pattern.matches("Smith, John Paul"));
+        Assert.assertFalse(pattern.matches("John Smithson"));
+        Assert.assertFalse(pattern.matches("John"));
+    }
+
+    @Test
+    public void prefixTermsAndOperatorsHandled() {
+        Assert.assertTrue(FullTextPattern.compile("smi*").matches("John Smithson"));
+        Assert.assertFalse(FullTextPattern.compile("smi*").matches("Osmith"));
+        Assert.assertTrue(FullTextPattern.compile("john AND smith").matches("John Smith"));
+        Assert.assertFalse(FullTextPattern.compile("AND").matches("and"));
+        Assert.assertFalse(FullTextPattern.compile("").matches("John"));
+    }
+}
@@ -0,0 +1,8 @@
+VACUUM INTO '/backups/users.db'
+{Params: []}
+ATTACH DATABASE '/backups/users.db' AS `backup`
+{Params: []}
+VACUUM `backup` INTO '/replicas/user''s.db'
+{Params: []}
+DETACH DATABASE `backup`
+{Params: []}
\ No newline at end of file
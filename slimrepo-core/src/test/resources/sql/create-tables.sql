@@ -12,3 +12,18 @@ CREATE TABLE IF NOT EXISTS `UserEntity` (
     `comments` BLOB,
     `age` INTEGER NOT NULL)
 {Params: []}
+CREATE VIRTUAL TABLE IF NOT EXISTS `UserEntity_fts` USING fts5(`userFirstName`, `userLastName`, content='UserEntity')
+{Params: []}
+CREATE TRIGGER IF NOT EXISTS `UserEntity_fts_insert` AFTER INSERT ON `UserEntity` BEGIN
+    INSERT INTO `UserEntity_fts` (rowid, `userFirstName`, `userLastName`) VALUES (new.rowid, new.`userFirstName`, new.`userLastName`);
+END
+{Params: []}
+CREATE TRIGGER IF NOT EXISTS `UserEntity_fts_delete` AFTER DELETE ON `UserEntity` BEGIN
+    INSERT INTO `UserEntity_fts` (`UserEntity_fts`, rowid, `userFirstName`, `userLastName`) VALUES ('delete', old.rowid, old.`userFirstName`, old.`userLastName`);
+END
+{Params: []}
+CREATE TRIGGER IF NOT EXISTS `UserEntity_fts_update` AFTER UPDATE OF `userFirstName`, `userLastName` ON `UserEntity` BEGIN
+    INSERT INTO `UserEntity_fts` (`UserEntity_fts`, rowid, `userFirstName`, `userLastName`) VALUES ('delete', old.rowid, old.`userFirstName`, old.`userLastName`);
+    INSERT INTO `UserEntity_fts` (rowid, `userFirstName`, `userLastName`) VALUES (new.rowid, new.`userFirstName`, new.`userLastName`);
+END
+{Params: []}
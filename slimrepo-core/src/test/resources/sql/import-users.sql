@@ -0,0 +1,15 @@
+PRAGMA synchronous
+{Params: []}
+PRAGMA synchronous = OFF
+{Params: []}
+INSERT INTO `UserEntity` (`userId`, `userFirstName`, `userLastName`, `lastVisitDate`, `role`, `accountStatus`, `comments`, `age`)
+VALUES (?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?)
+{Params: [id-0, John, Doe, null, null, null, null, 0, id-1, John, Doe, null, null, null, null, 0]}
+INSERT INTO `UserEntity` (`userId`, `userFirstName`, `userLastName`, `lastVisitDate`, `role`, `accountStatus`, `comments`, `age`)
+VALUES (?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?)
+{Params: [id-2, John, Doe, null, null, null, null, 0, id-3, John, Doe, null, null, null, null, 0]}
+INSERT INTO `UserEntity` (`userId`, `userFirstName`, `userLastName`, `lastVisitDate`, `role`, `accountStatus`, `comments`, `age`)
+VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+{Params: [id-4, John, Doe, null, null, null, null, 0]}
+PRAGMA synchronous = 0
+{Params: []}
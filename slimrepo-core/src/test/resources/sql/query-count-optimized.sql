@@ -0,0 +1,5 @@
+SELECT COUNT(*)
+FROM `UserEntity`
+WHERE (`UserEntity`.`userFirstName` IN (?, ?, ?)) AND ((`UserEntity`.`role` > ?) AND (`UserEntity`.`role` < ?))
+
+{Params: [Adam, Jake, John, 1, 5]}
\ No newline at end of file
@@ -0,0 +1,5 @@
+SELECT COUNT(*)
+FROM `RoleEntity`
+WHERE (`RoleEntity`.`roleId` IN (SELECT `UserEntity`.`age` FROM `UserEntity` WHERE `UserEntity`.`role` IN (SELECT `RoleEntity`.`roleId` FROM `RoleEntity` WHERE `RoleEntity`.`roleDescription` = ?))) AND (NOT EXISTS (SELECT 1 FROM `UserEntity` WHERE `UserEntity`.`age` = `RoleEntity`.`roleId` AND (`UserEntity`.`userFirstName` LIKE ?)))
+
+{Params: [Admin, J%]}
\ No newline at end of file
@@ -0,0 +1,35 @@
+SELECT
+    `UserEntity`.`userId` AS `UserEntity_userId`,
+    `UserEntity`.`userFirstName` AS `UserEntity_userFirstName`,
+    `UserEntity`.`userLastName` AS `UserEntity_userLastName`,
+    `UserEntity`.`lastVisitDate` AS `UserEntity_lastVisitDate`,
+    `UserEntity`.`role` AS `UserEntity_role`,
+    `RoleEntity`.`roleId` AS `RoleEntity_roleId`,
+    `RoleEntity`.`roleDescription` AS `RoleEntity_roleDescription`,
+    `UserEntity`.`accountStatus` AS `UserEntity_accountStatus`,
+    `UserEntity`.`comments` AS `UserEntity_comments`,
+    `UserEntity`.`age` AS `UserEntity_age`
+FROM `UserEntity`
+LEFT JOIN `RoleEntity` ON `UserEntity`.`role` = `RoleEntity`.`roleId`
+WHERE `UserEntity`.rowid IN (SELECT rowid FROM `UserEntity_fts` WHERE `userLastName` MATCH ?)
+
+{Params: [smi*]}
+SELECT
+    `UserEntity`.`userId` AS `UserEntity_userId`,
+    `UserEntity`.`userFirstName` AS `UserEntity_userFirstName`,
+    `UserEntity`.`userLastName` AS `UserEntity_userLastName`,
+    `UserEntity`.`lastVisitDate` AS `UserEntity_lastVisitDate`,
+    `UserEntity`.`role` AS `UserEntity_role`,
+    `RoleEntity`.`roleId` AS `RoleEntity_roleId`,
+    `RoleEntity`.`roleDescription` AS `RoleEntity_roleDescription`,
+    `UserEntity`.`accountStatus` AS `UserEntity_accountStatus`,
+    `UserEntity`.`comments` AS `UserEntity_comments`,
+    `UserEntity`.`age` AS `UserEntity_age`
+FROM `UserEntity`
+INNER JOIN `UserEntity_fts` ON `UserEntity_fts`.rowid = `UserEntity`.rowid
+LEFT JOIN `RoleEntity` ON `UserEntity`.`role` = `RoleEntity`.`roleId`
+WHERE `UserEntity_fts`.`userFirstName` MATCH ? AND (`UserEntity`.`age` > ?)
+ORDER BY `UserEntity_fts`.rank, `UserEntity`.`userLastName` ASC
+LIMIT 5
+
+{Params: [john, 18]}
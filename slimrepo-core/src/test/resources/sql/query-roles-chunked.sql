@@ -0,0 +1,18 @@
+SELECT
+    `RoleEntity`.`roleId` AS `RoleEntity_roleId`,
+    `RoleEntity`.`roleDescription` AS `RoleEntity_roleDescription`
+FROM `RoleEntity`
+WHERE `RoleEntity`.`roleDescription` LIKE ?
+ORDER BY `RoleEntity`.`roleId` ASC
+LIMIT 2
+
+{Params: [%adm%]}
+SELECT
+    `RoleEntity`.`roleId` AS `RoleEntity_roleId`,
+    `RoleEntity`.`roleDescription` AS `RoleEntity_roleDescription`
+FROM `RoleEntity`
+WHERE (`RoleEntity`.`roleDescription` LIKE ?) AND (`RoleEntity`.`roleId` > ?)
+ORDER BY `RoleEntity`.`roleId` ASC
+LIMIT 2
+
+{Params: [%adm%, 2]}
\ No newline at end of file
@@ -4,4 +4,4 @@ SELECT
 FROM `UserEntity`
 WHERE `UserEntity`.`userFirstName` IN (?, ?)
 
-{Params: [John, Jake]}
+{Params: [Jake, John]}
\ No newline at end of file
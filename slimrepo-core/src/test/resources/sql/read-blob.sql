@@ -0,0 +1,5 @@
+SELECT hex(substr(`UserEntity`.`comments`, ?, ?))
+FROM `UserEntity`
+WHERE `UserEntity`.`userId` = ?
+
+{Params: [1, 262144, id-1]}
\ No newline at end of file
@@ -0,0 +1,5 @@
+UPDATE `UserEntity`
+SET `age` = (`age` + ?), `userLastName` = COALESCE(`userLastName`, ?)
+WHERE `UserEntity`.`userFirstName` = ?
+
+{Params: [1, Doe, John]}
\ No newline at end of file
@@ -1,2 +1,10 @@
 DROP TABLE IF EXISTS `UserEntity`
 {Params: []}
+DROP TRIGGER IF EXISTS `UserEntity_fts_insert`
+{Params: []}
+DROP TRIGGER IF EXISTS `UserEntity_fts_delete`
+{Params: []}
+DROP TRIGGER IF EXISTS `UserEntity_fts_update`
+{Params: []}
+DROP TABLE IF EXISTS `UserEntity_fts`
+{Params: []}
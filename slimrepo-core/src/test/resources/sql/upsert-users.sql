@@ -0,0 +1,4 @@
+INSERT INTO `UserEntity` (`userId`, `userFirstName`, `userLastName`, `lastVisitDate`, `role`, `accountStatus`, `comments`, `age`)
+VALUES (?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?)
+ON CONFLICT (`userId`) DO UPDATE SET `userFirstName` = excluded.`userFirstName`, `userLastName` = excluded.`userLastName`, `lastVisitDate` = excluded.`lastVisitDate`, `role` = excluded.`role`, `accountStatus` = excluded.`accountStatus`, `comments` = excluded.`comments`, `age` = excluded.`age`
+{Params: [id-1, John, Doe, null, null, null, null, 0, id-2, Jake, Smith, null, null, null, null, 0]}
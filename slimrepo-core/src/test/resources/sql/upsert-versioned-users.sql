@@ -0,0 +1,11 @@
+SELECT
+    `UserEntity`.`userId` AS `UserEntity_userId`,
+    `UserEntity`.`age` AS `UserEntity_age`
+FROM `UserEntity`
+WHERE `UserEntity`.`userId` IN (?, ?)
+
+{Params: [id-1, id-2]}
+INSERT INTO `UserEntity` (`userId`, `age`)
+VALUES (?, ?), (?, ?)
+ON CONFLICT (`userId`) DO UPDATE SET `age` = excluded.`age` WHERE `UserEntity`.`age` < excluded.`age`
+{Params: [id-1, 4, id-2, 3]}
\ No newline at end of file